@@ -0,0 +1,70 @@
+package com.example.usersapi.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files, typically from two builds, and prints the relative change of every score.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <current.json> [max-regression-percent]}.
+ * When a maximum regression is given, the process exits with status 1 if any benchmark got slower by more than it.
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <current.json> [max-regression-percent]");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : Double.POSITIVE_INFINITY;
+
+        boolean regressed = false;
+        System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            double oldScore = before.path("primaryMetric").path("score").asDouble();
+            double newScore = entry.getValue().path("primaryMetric").path("score").asDouble();
+            double change = (newScore - oldScore) / oldScore * 100;
+            // throughput modes are better when higher, time modes when lower
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double regression = higherIsBetter ? -change : change;
+            String unit = entry.getValue().path("primaryMetric").path("scoreUnit").asText();
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%% %s%n", entry.getKey(), oldScore, newScore, change, unit);
+            if (regression > maxRegression) {
+                regressed = true;
+            }
+        }
+        if (regressed) {
+            System.err.printf("At least one benchmark regressed by more than %.1f%%%n", maxRegression);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
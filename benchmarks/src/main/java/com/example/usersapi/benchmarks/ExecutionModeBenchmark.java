@@ -0,0 +1,95 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.UsersapiApplication;
+import com.example.usersapi.model.User;
+import com.example.usersapi.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of {@code GET /api/users/{userId}} under high concurrency in each request execution mode.
+ * Every JDBC statement is delayed by {@code benchmark.db-latency-ms} (see {@link SimulatedDatabaseLatency}) and the
+ * cache is disabled, so requests spend their time blocked on the database. With a small Tomcat pool the platform
+ * mode is capped by its threads, while the virtual and async modes are only capped by the connection pool and the
+ * 256 request executor threads. The virtual mode needs a Java 21 or later runtime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 6, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(value = 1, jvmArgsAppend = "-Dbenchmark.db-latency-ms=5")
+public class ExecutionModeBenchmark {
+
+    private static final int SEEDED_USERS = 1_000;
+
+    @Param({"platform", "virtual", "async"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(UsersapiApplication.class, SimulatedDatabaseLatency.class)
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=32",
+                        "usersapi.execution.async.threads=256",
+                        "spring.datasource.hikari.maximum-pool-size=256",
+                        "spring.datasource.url=jdbc:h2:mem:execution-" + mode,
+                        "logging.level.root=WARN")
+                // Default properties do not override application.properties, which sets both of these.
+                .run("--usersapi.execution.mode=" + mode, "--spring.cache.type=none",
+                        "--usersapi.rate-limit.enabled=false", "--usersapi.load-shedding.enabled=false");
+        UserService userService = context.getBean(UserService.class);
+        ids = new long[SEEDED_USERS];
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            ids[i] = userService.registerUser(new User("mode-" + i, LocalDate.of(1990, 1, 1), "France", null, null)).getId();
+        }
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/users/";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getUserById() throws IOException, InterruptedException {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + id)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
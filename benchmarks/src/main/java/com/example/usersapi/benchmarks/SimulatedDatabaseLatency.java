@@ -0,0 +1,100 @@
+package com.example.usersapi.benchmarks;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark configuration adding a fixed delay to every JDBC and R2DBC statement execution, to model the network
+ * round trip to a remote database that the in-memory H2 database does not have. JDBC statements sleep, blocking
+ * their thread like a real driver, while R2DBC statements delay their results without blocking.
+ * The delay in milliseconds is read from the {@code benchmark.db-latency-ms} system property.
+ */
+@Configuration
+public class SimulatedDatabaseLatency {
+
+    @Bean
+    public static BeanPostProcessor simulatedLatencyPostProcessor() {
+        long latencyNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("benchmark.db-latency-ms", 5));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource) {
+                    return wrap(bean, DataSource.class, latencyNanos);
+                }
+                if (bean instanceof ConnectionFactory) {
+                    return wrapReactive(bean, ConnectionFactory.class, Duration.ofNanos(latencyNanos));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Object target, Class<T> type, long latencyNanos) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute")) {
+                sleep(latencyNanos);
+            }
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection && method.getReturnType() == Connection.class) {
+                return wrap(result, Connection.class, latencyNanos);
+            }
+            if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return wrap(result, method.getReturnType(), latencyNanos);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(SimulatedDatabaseLatency.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrapReactive(Object target, Class<T> type, Duration latency) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (type == ConnectionFactory.class && method.getName().equals("create")) {
+                return Mono.from((Publisher<?>) result)
+                        .map(connection -> wrapReactive(connection, io.r2dbc.spi.Connection.class, latency));
+            }
+            if (type == io.r2dbc.spi.Connection.class && method.getName().equals("createStatement")) {
+                return wrapReactive(result, io.r2dbc.spi.Statement.class, latency);
+            }
+            if (type == io.r2dbc.spi.Statement.class) {
+                if (method.getName().equals("execute")) {
+                    return Flux.from((Publisher<?>) result).delaySubscription(latency);
+                }
+                if (result == target) {
+                    return proxy;
+                }
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(SimulatedDatabaseLatency.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+}
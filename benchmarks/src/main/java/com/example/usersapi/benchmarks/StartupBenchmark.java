@@ -0,0 +1,111 @@
+package com.example.usersapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request of the application: from the launch of its JVM to the first response of
+ * {@code GET /api/users/{userId}}, in three configurations:
+ * <ul>
+ *     <li>{@code baseline}: default profile, classpath scanning and Springfox;</li>
+ *     <li>{@code fast-start}: lazy initialization, component index, trimmed auto-configuration, no Springfox;</li>
+ *     <li>{@code fast-start-appcds}: the same, sharing the classes of the AppCDS archive.</li>
+ * </ul>
+ * The application is run from the jar built with {@code mvn -Pfast-start package} in {@code benchmark.app-dir}
+ * (default {@code ../target}), on port {@code benchmark.port} (default 18181).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final String JAR = "usersapi-0.0.1-SNAPSHOT.jar";
+
+    private static final String ARCHIVE = "usersapi.jsa";
+
+    @Param({"baseline", "fast-start", "fast-start-appcds"})
+    public String mode;
+
+    private final Path appDirectory = Paths.get(System.getProperty("benchmark.app-dir", "../target"));
+
+    private final int port = Integer.getInteger("benchmark.port", 18181);
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private Process application;
+
+    @Benchmark
+    public int firstRequest() throws IOException, InterruptedException {
+        application = new ProcessBuilder(command())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/1"))
+                .GET().build();
+        while (true) {
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (ConnectException ex) {
+                if (!application.isAlive()) {
+                    throw new IllegalStateException("The application exited with " + application.exitValue());
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopApplication() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            application.waitFor();
+        }
+    }
+
+    private List<String> command() {
+        Path jar = appDirectory.resolve(JAR);
+        if (!Files.exists(appDirectory.resolve("lib"))) {
+            throw new IllegalStateException("Build the application with mvn -Pfast-start package first");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (mode.equals("baseline")) {
+            command.add("-Dspring.index.ignore=true");
+        } else if (mode.equals("fast-start-appcds")) {
+            command.add("-XX:SharedArchiveFile=" + appDirectory.resolve(ARCHIVE));
+        }
+        command.add("-jar");
+        command.add(jar.toString());
+        if (!mode.equals("baseline")) {
+            command.add("--spring.profiles.active=fast-start");
+        }
+        command.add("--server.port=" + port);
+        return command;
+    }
+}
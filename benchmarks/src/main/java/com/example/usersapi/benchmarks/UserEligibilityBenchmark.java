@@ -0,0 +1,64 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.config.EligibilityProperties;
+import com.example.usersapi.model.User;
+import com.example.usersapi.service.EligibilityPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the registration criteria evaluated on every registration: {@link EligibilityPolicy#isEligible(User)}.
+ * With {@code -prof gc}, {@code gc.alloc.rate.norm} must stay at 0 B/op: checking a user does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserEligibilityBenchmark {
+
+    private final EligibilityPolicy policy = new EligibilityPolicy(Clock.systemDefaultZone(), new EligibilityProperties());
+
+    private final User adult = new User("adult", LocalDate.of(1990, 1, 1), "France", null, null);
+
+    private final User minor = new User("minor", LocalDate.now().minusYears(10), "france", null, null);
+
+    private final User foreigner = new User("foreigner", LocalDate.of(1990, 1, 1), "United Kingdom", null, null);
+
+    @Benchmark
+    public boolean isEligible() {
+        return policy.isEligible(adult);
+    }
+
+    @Benchmark
+    public boolean isEligibleMinor() {
+        return policy.isEligible(minor);
+    }
+
+    @Benchmark
+    public boolean isEligibleForeigner() {
+        return policy.isEligible(foreigner);
+    }
+
+    @Benchmark
+    public boolean isOldEnough() {
+        return policy.isOldEnough(adult.getBirthdate());
+    }
+
+    @Benchmark
+    public boolean isAllowedCountry() {
+        return policy.isAllowedCountry(foreigner.getCountryOfResidence());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.UsersapiApplication;
+import com.example.usersapi.model.User;
+import com.example.usersapi.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of retrieving a set of users: one {@code POST /api/users/lookup} against the fan-out of one
+ * concurrent {@code GET /api/users/{userId}} per ID that downstream services do today.
+ * The cache is disabled, so that every request reaches the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    private static final int SEEDED_USERS = 5_000;
+
+    @Param({"50", "500"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(UsersapiApplication.class)
+                .properties("server.port=0",
+                        "spring.cache.type=none",
+                        "spring.datasource.url=jdbc:h2:mem:lookup",
+                        "logging.level.root=WARN")
+                .run("--usersapi.rate-limit.enabled=false", "--usersapi.load-shedding.enabled=false");
+        UserService userService = context.getBean(UserService.class);
+        ids = new long[SEEDED_USERS];
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            ids[i] = userService.registerUser(new User("lookup-" + i, LocalDate.of(1990, 1, 1), "France", null, null)).getId();
+        }
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/users/";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int fanOut() {
+        int offset = ThreadLocalRandom.current().nextInt(ids.length - size);
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[size];
+        for (int i = 0; i < size; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ids[offset + i])).GET().build();
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+
+    @Benchmark
+    public int lookup() throws IOException, InterruptedException {
+        int offset = ThreadLocalRandom.current().nextInt(ids.length - size);
+        StringBuilder body = new StringBuilder(size * 8).append('[');
+        for (int i = 0; i < size; i++) {
+            body.append(i == 0 ? "" : ",").append(ids[offset + i]);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "lookup"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString()))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of writing a user response: the {@link User} entity through bean introspection, as the API did
+ * before, against the {@link UserResponse} copy and its dedicated serializer, as JSON and as CBOR.
+ * The response sizes in bytes are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserResponseBenchmark {
+
+    private ObjectWriter entityJsonWriter;
+
+    private ObjectWriter jsonWriter;
+
+    private ObjectWriter cborWriter;
+
+    private User user;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper jsonMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory())
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        entityJsonWriter = jsonMapper.writerFor(User.class);
+        jsonWriter = jsonMapper.writerFor(UserResponse.class);
+        cborWriter = cborMapper.writerFor(UserResponse.class);
+        user = new User("benchmark", LocalDate.of(1990, 1, 1), "France", "+33612345678", "female");
+        user.setId(42L);
+
+        System.out.printf("%nResponse bytes: entity JSON %d, DTO JSON %d, DTO CBOR %d%n",
+                entityJsonWriter.writeValueAsBytes(user).length,
+                jsonWriter.writeValueAsBytes(UserResponse.from(user)).length,
+                cborWriter.writeValueAsBytes(UserResponse.from(user)).length);
+    }
+
+    @Benchmark
+    public byte[] entityJson() throws IOException {
+        return entityJsonWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] dtoJson() throws IOException {
+        return jsonWriter.writeValueAsBytes(UserResponse.from(user));
+    }
+
+    @Benchmark
+    public byte[] dtoCbor() throws IOException {
+        return cborWriter.writeValueAsBytes(UserResponse.from(user));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.UsersapiApplication;
+import com.example.usersapi.model.User;
+import com.example.usersapi.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks of the full {@link UserService} registration and lookup paths on the embedded H2 database,
+ * with and without the user cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int SEEDED_USERS = 10_000;
+
+    @Param({"caffeine", "none"})
+    public String cache;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(UsersapiApplication.class)
+                .properties("server.port=0",
+                        "spring.cache.type=" + cache,
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + cache,
+                        "logging.level.root=WARN")
+                .run();
+        userService = context.getBean(UserService.class);
+        ids = new long[SEEDED_USERS];
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            ids[i] = userService.registerUser(newUser()).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User registerUser() {
+        return userService.registerUser(newUser());
+    }
+
+    @Benchmark
+    public User getUserById() {
+        return userService.getUserById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    private User newUser() {
+        return new User("bench-" + sequence.incrementAndGet(), LocalDate.of(1990, 1, 1), "France", null, null);
+    }
+}
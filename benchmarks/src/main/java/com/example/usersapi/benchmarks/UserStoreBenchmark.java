@@ -0,0 +1,99 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.UsersapiApplication;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.BasicUserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@code UserRepository.findById} and {@code existsByUsername} with the JPA repository on H2 and
+ * with the off-heap store of the {@code edge} profile. The setup prints the heap used by the application once
+ * the users are loaded, after a full garbage collection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserStoreBenchmark {
+
+    private static final int SEEDED_USERS = 200_000;
+
+    @Param({"default", "edge"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+
+    private BasicUserRepository userRepository;
+
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path storeDirectory = Files.createTempDirectory("user-store");
+        context = new SpringApplicationBuilder(UsersapiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .properties("spring.datasource.url=jdbc:h2:mem:store-" + profile,
+                        "logging.level.root=WARN")
+                .run("--spring.cache.type=none", "--usersapi.username-filter.enabled=false",
+                        "--usersapi.segment-counters.enabled=false", "--usersapi.user-store.directory=" + storeDirectory);
+        userRepository = context.getBean(BasicUserRepository.class);
+        List<User> chunk = new ArrayList<>(1000);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            chunk.add(new User("store-" + i, LocalDate.of(1990, 1, 1).plusDays(i % 10_000), "France",
+                    "+3361234" + i, i % 2 == 0 ? "female" : "male"));
+            if (chunk.size() == 1000) {
+                List<User> saved = userRepository.saveAll(chunk);
+                if (i < 1000) {
+                    firstId = saved.get(0).getId();
+                }
+                chunk.clear();
+            }
+        }
+        System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%n%s: %d MB of heap used with %d users%n", profile, heap >> 20, SEEDED_USERS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User findById() {
+        return userRepository.findById(firstId + ThreadLocalRandom.current().nextInt(SEEDED_USERS)).orElse(null);
+    }
+
+    @Benchmark
+    public boolean existsByUsername() {
+        return userRepository.existsByUsername("store-" + ThreadLocalRandom.current().nextInt(SEEDED_USERS));
+    }
+}
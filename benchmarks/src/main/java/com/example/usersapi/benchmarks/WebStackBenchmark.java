@@ -0,0 +1,105 @@
+package com.example.usersapi.benchmarks;
+
+import com.example.usersapi.UsersapiApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Side-by-side load test of the servlet/JPA stack and of the reactive WebFlux/R2DBC stack under high concurrency.
+ * Every database statement is delayed by {@code benchmark.db-latency-ms} (see {@link SimulatedDatabaseLatency})
+ * and the cache is disabled, so each request makes a database round trip. Both modes are reported: throughput,
+ * and the latency distribution with its percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(value = 1, jvmArgsAppend = "-Dbenchmark.db-latency-ms=5")
+public class WebStackBenchmark {
+
+    private static final int SEEDED_USERS = 1_000;
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    private final AtomicInteger registrations = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(UsersapiApplication.class, SimulatedDatabaseLatency.class)
+                .profiles(stack.equals("reactive") ? "reactive" : "default")
+                .properties("server.port=0",
+                        "spring.cache.type=none",
+                        "spring.datasource.url=jdbc:h2:mem:stack-" + stack,
+                        "spring.r2dbc.url=r2dbc:h2:mem:///stack-" + stack,
+                        "spring.datasource.hikari.maximum-pool-size=64",
+                        "spring.r2dbc.pool.max-size=64",
+                        "logging.level.root=WARN")
+                .run("--usersapi.rate-limit.enabled=false", "--usersapi.load-shedding.enabled=false");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/users";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            register();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getUserById() throws IOException, InterruptedException {
+        long id = 1 + ThreadLocalRandom.current().nextInt(SEEDED_USERS);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int registerUser() throws IOException, InterruptedException {
+        return register();
+    }
+
+    private int register() throws IOException, InterruptedException {
+        String body = "{\"username\":\"" + stack + "-" + registrations.incrementAndGet()
+                + "\",\"birthdate\":\"1990-01-01\",\"countryOfResidence\":\"France\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.usersapi.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a mix of user lookups and registrations at a fixed rate, whatever the response times.
+ * Each connection is driven by its own thread, which sends its share of the rate on a fixed schedule. When a
+ * response comes late, the following requests are sent as soon as possible to catch up, and every latency is
+ * measured from the time the request was scheduled, not from the time it was sent: the time requests spend
+ * waiting behind a slow one is recorded instead of being hidden (coordinated omission).
+ * Latencies are recorded in microseconds into one HdrHistogram {@link Recorder} per operation.
+ */
+public class FixedRateLoadGenerator {
+
+    /**
+     * Highest latency recorded exactly, in microseconds; higher ones are recorded as this value.
+     */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+
+    private final long firstUserId;
+
+    private final long userCount;
+
+    private final double readRatio;
+
+    private final AtomicLong registrations = new AtomicLong();
+
+    private final Operation lookups = new Operation("lookup");
+
+    private final Operation registrationsOperation = new Operation("registration");
+
+    /**
+     * Constructor for the FixedRateLoadGenerator class.
+     *
+     * @param baseUrl     the URL of the users resource
+     * @param firstUserId the ID of the first seeded user
+     * @param userCount   the number of seeded users, looked up uniformly
+     * @param readRatio   the share of the requests that are lookups
+     */
+    public FixedRateLoadGenerator(String baseUrl, long firstUserId, long userCount, double readRatio) {
+        this.baseUrl = baseUrl;
+        this.firstUserId = firstUserId;
+        this.userCount = userCount;
+        this.readRatio = readRatio;
+    }
+
+    /**
+     * Sends requests at the given rate for the given time, and waits for the last responses.
+     *
+     * @param rate        the number of requests per second, over all connections
+     * @param connections the number of connections, each with its own thread
+     * @param duration    how long requests are sent
+     * @throws InterruptedException if interrupted while waiting for the connections
+     */
+    public void run(double rate, int connections, Duration duration) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * connections / rate);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        List<Thread> threads = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            // Spread the schedules of the connections over one interval, so that they do not send in bursts.
+            long firstSend = start + intervalNanos * i / connections;
+            SplittableRandom random = new SplittableRandom(i);
+            Thread thread = new Thread(() -> drive(firstSend, intervalNanos, end, random), "load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private void drive(long firstSend, long intervalNanos, long end, SplittableRandom random) {
+        for (long scheduled = firstSend; scheduled < end; scheduled += intervalNanos) {
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            if (random.nextDouble() < readRatio) {
+                lookups.send(lookup(random), 200, scheduled);
+            } else {
+                registrationsOperation.send(registration(), 201, scheduled);
+            }
+        }
+    }
+
+    private HttpRequest lookup(SplittableRandom random) {
+        long userId = firstUserId + random.nextLong(userCount);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/" + userId)).GET().build();
+    }
+
+    private HttpRequest registration() {
+        String body = "{\"username\":\"load-" + registrations.incrementAndGet()
+                + "\",\"birthdate\":\"1990-01-01\",\"countryOfResidence\":\"France\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Discards what was recorded so far, e.g. at the end of the warm-up.
+     */
+    public void reset() {
+        lookups.interval();
+        registrationsOperation.interval();
+    }
+
+    /**
+     * Returns what was recorded since the last call or reset, for each operation.
+     *
+     * @return the results of the lookups and of the registrations
+     */
+    public List<OperationResult> results() {
+        return List.of(lookups.interval(), registrationsOperation.interval());
+    }
+
+    private class Operation {
+
+        private final String name;
+
+        private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+
+        private final LongAdder errors = new LongAdder();
+
+        private Operation(String name) {
+            this.name = name;
+        }
+
+        private void send(HttpRequest request, int expectedStatus, long scheduled) {
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != expectedStatus) {
+                    errors.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errors.increment();
+            } catch (Exception e) {
+                errors.increment();
+            }
+            long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+            recorder.recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+        }
+
+        private OperationResult interval() {
+            Histogram histogram = recorder.getIntervalHistogram();
+            return new OperationResult(name, histogram, errors.sumThenReset());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.usersapi.loadtest;
+
+import com.example.usersapi.UsersapiApplication;
+import com.example.usersapi.service.UsernameFilter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Load test of the Users API, run by {@code mvn verify} in this module.
+ * It starts the application on a random port with an in-memory H2 database, seeds {@code loadtest.users} users,
+ * then sends lookups and registrations at {@code loadtest.rate} requests per second with
+ * {@link FixedRateLoadGenerator}: first for a warm-up whose results are discarded, then for the measurement.
+ * The throughput and latency percentiles of each operation are printed, and their full latency distributions
+ * are written to {@code loadtest.output-dir} as {@code .hgrm} files, which the HdrHistogram plotter reads.
+ * The process exits with status 1, failing the build, when an operation exceeds one of the budgets:
+ * {@code loadtest.budget.p99-ms}, {@code loadtest.budget.p999-ms}, the lowest ratio of the achieved to the
+ * scheduled throughput {@code loadtest.budget.min-throughput-ratio}, and the highest ratio of failed requests
+ * {@code loadtest.budget.max-error-ratio}.
+ * Rate limits and load shedding are disabled, since all requests come from the same client and the load test
+ * measures the application itself.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        long users = Long.getLong("loadtest.users", 1_000_000);
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "2000"));
+        double readRatio = Double.parseDouble(System.getProperty("loadtest.read-ratio", "0.9"));
+        int connections = Integer.getInteger("loadtest.connections", 64);
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+        double p99Budget = Double.parseDouble(System.getProperty("loadtest.budget.p99-ms", "50"));
+        double p999Budget = Double.parseDouble(System.getProperty("loadtest.budget.p999-ms", "200"));
+        double minThroughputRatio = Double.parseDouble(System.getProperty("loadtest.budget.min-throughput-ratio", "0.95"));
+        double maxErrorRatio = Double.parseDouble(System.getProperty("loadtest.budget.max-error-ratio", "0.001"));
+        Path outputDir = Paths.get(System.getProperty("loadtest.output-dir", "target"));
+
+        // Command line arguments, unlike default properties, take precedence over application.properties.
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(UsersapiApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest",
+                        "--usersapi.rate-limit.enabled=false",
+                        "--usersapi.load-shedding.enabled=false",
+                        "--usersapi.logging.access-log=false",
+                        "--logging.level.root=WARN");
+        List<String> violations = new ArrayList<>();
+        try {
+            long seedStart = System.nanoTime();
+            long firstUserId = new UserSeeder(context.getBean(JdbcTemplate.class)).seed(users);
+            context.getBeanProvider(UsernameFilter.class).ifAvailable(UsernameFilter::rebuild);
+            System.out.printf(Locale.ROOT, "Seeded %d users in %.1f s%n", users, (System.nanoTime() - seedStart) / 1e9);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            FixedRateLoadGenerator generator = new FixedRateLoadGenerator("http://localhost:" + port + "/api/users",
+                    firstUserId, users, readRatio);
+            System.out.printf(Locale.ROOT, "Warming up for %d s at %.0f requests/s%n", warmup.toSeconds(), rate);
+            generator.run(rate, connections, warmup);
+            generator.reset();
+
+            System.out.printf(Locale.ROOT, "Measuring for %d s at %.0f requests/s over %d connections, %.0f%% lookups%n",
+                    duration.toSeconds(), rate, connections, readRatio * 100);
+            long start = System.nanoTime();
+            generator.run(rate, connections, duration);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            List<OperationResult> results = generator.results();
+
+            System.out.printf(Locale.ROOT, "%-14s %10s %8s %12s %10s %10s %10s %10s%n",
+                    "operation", "requests", "errors", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            long requests = 0;
+            for (OperationResult result : results) {
+                requests += result.getRequests();
+                System.out.printf(Locale.ROOT, "%-14s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f%n",
+                        result.getName(), result.getRequests(), result.getErrors(), result.getThroughput(elapsed),
+                        result.getLatencyMillis(50), result.getLatencyMillis(99),
+                        result.getLatencyMillis(99.9), result.getHistogram().getMaxValue() / 1000.0);
+                writeDistribution(outputDir.resolve("loadtest-" + result.getName() + ".hgrm"), result);
+
+                if (result.getLatencyMillis(99) > p99Budget) {
+                    violations.add(String.format(Locale.ROOT, "%s p99 %.2f ms exceeds %.2f ms",
+                            result.getName(), result.getLatencyMillis(99), p99Budget));
+                }
+                if (result.getLatencyMillis(99.9) > p999Budget) {
+                    violations.add(String.format(Locale.ROOT, "%s p99.9 %.2f ms exceeds %.2f ms",
+                            result.getName(), result.getLatencyMillis(99.9), p999Budget));
+                }
+                if (result.getErrorRatio() > maxErrorRatio) {
+                    violations.add(String.format(Locale.ROOT, "%s error ratio %.4f exceeds %.4f",
+                            result.getName(), result.getErrorRatio(), maxErrorRatio));
+                }
+            }
+            double throughput = requests * 1000.0 / elapsed.toMillis();
+            System.out.printf(Locale.ROOT, "Total: %.1f requests/s in %.1f s%n", throughput, elapsed.toMillis() / 1000.0);
+            if (throughput < rate * minThroughputRatio) {
+                violations.add(String.format(Locale.ROOT, "throughput %.1f requests/s is below %.0f%% of %.0f",
+                        throughput, minThroughputRatio * 100, rate));
+            }
+        } finally {
+            context.close();
+        }
+
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> System.out.println("BUDGET EXCEEDED: " + violation));
+            System.exit(1);
+        }
+        System.out.println("All budgets met");
+        System.exit(0);
+    }
+
+    private static void writeDistribution(Path file, OperationResult result) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            result.getHistogram().outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.usersapi.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+
+/**
+ * The latencies, in microseconds, and the number of failed requests of one operation over a measurement.
+ */
+public class OperationResult {
+
+    private final String name;
+
+    private final Histogram histogram;
+
+    private final long errors;
+
+    public OperationResult(String name, Histogram histogram, long errors) {
+        this.name = name;
+        this.histogram = histogram;
+        this.errors = errors;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    public long getRequests() {
+        return histogram.getTotalCount();
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getErrorRatio() {
+        return getRequests() == 0 ? 0 : (double) errors / getRequests();
+    }
+
+    /**
+     * Returns the number of requests completed per second.
+     *
+     * @param duration the length of the measurement
+     * @return the throughput of the operation
+     */
+    public double getThroughput(Duration duration) {
+        return getRequests() * 1000.0 / duration.toMillis();
+    }
+
+    /**
+     * Returns a latency percentile.
+     *
+     * @param percentile the percentile, e.g. 99.9
+     * @return the latency in milliseconds
+     */
+    public double getLatencyMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
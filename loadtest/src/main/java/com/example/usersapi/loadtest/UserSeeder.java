@@ -0,0 +1,43 @@
+package com.example.usersapi.loadtest;
+
+import com.example.usersapi.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Inserts users straight into the user table, a chunk of rows per statement generated by the database itself,
+ * which loads millions of users in seconds instead of going through the API or the entity manager.
+ * IDs are reserved from the {@value User#ID_SEQUENCE} sequence above any block the application already holds,
+ * and the sequence is moved past them, so that registrations during the load test do not collide with them.
+ */
+public class UserSeeder {
+
+    private static final int CHUNK_SIZE = 100_000;
+
+    private static final String INSERT_USERS = "insert into _user "
+            + "(id, username, birthdate, country_of_residence, phone_number, gender, version) "
+            + "select x, 'seed-' || x, dateadd(day, -mod(x, 20000), date '2000-01-01'), 'FR', null, "
+            + "case mod(x, 3) when 0 then 'F' when 1 then 'M' end, 0 "
+            + "from system_range(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts users with consecutive IDs.
+     *
+     * @param count the number of users to insert
+     * @return the ID of the first inserted user
+     */
+    public long seed(long count) {
+        Long firstId = jdbcTemplate.queryForObject("select next value for " + User.ID_SEQUENCE, Long.class);
+        long lastId = firstId + count - 1;
+        for (long from = firstId; from <= lastId; from += CHUNK_SIZE) {
+            jdbcTemplate.update(INSERT_USERS, from, Math.min(lastId, from + CHUNK_SIZE - 1));
+        }
+        jdbcTemplate.execute("alter sequence " + User.ID_SEQUENCE + " restart with " + (lastId + 1));
+        return firstId;
+    }
+}
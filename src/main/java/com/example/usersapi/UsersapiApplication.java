@@ -2,13 +2,15 @@ package com.example.usersapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import springfox.documentation.swagger2.annotations.EnableSwagger2;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.cache.annotation.EnableCaching;
 
 /**
  * The main class for the Users API application.
  */
 @SpringBootApplication
-@EnableSwagger2
+@ConfigurationPropertiesScan
+@EnableCaching
 public class UsersapiApplication {
 
 	/**
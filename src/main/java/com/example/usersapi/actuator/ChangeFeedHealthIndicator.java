@@ -0,0 +1,37 @@
+package com.example.usersapi.actuator;
+
+import com.example.usersapi.service.ChangeFeedService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the change feed, shown as {@code changeFeed} at {@code /actuator/health}.
+ * The feed is down once its writer stopped after failing to append changes, and reports whether changes were
+ * dropped and not read back from the user table yet.
+ */
+@Component
+@ConditionalOnProperty(name = "usersapi.change-feed.enabled", havingValue = "true")
+public class ChangeFeedHealthIndicator implements HealthIndicator {
+
+    private final ChangeFeedService changeFeedService;
+
+    /**
+     * Constructor for ChangeFeedHealthIndicator class.
+     *
+     * @param changeFeedService The ChangeFeedService instance to be injected.
+     */
+    public ChangeFeedHealthIndicator(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = changeFeedService.isFailed() ? Health.down() : Health.up();
+        return health.withDetail("lagging", changeFeedService.isLagging())
+                .withDetail("pending", changeFeedService.getPendingChanges())
+                .withDetail("endOffset", changeFeedService.getEndOffset())
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.usersapi.actuator;
+
+import com.example.usersapi.service.UserNormalizationService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the progress of the re-normalization of the stored users at
+ * {@code /actuator/normalization}. A POST to the endpoint starts a re-normalization, unless one is running.
+ */
+@Component
+@Endpoint(id = "normalization")
+@ConditionalOnProperty(name = "usersapi.normalization.enabled", havingValue = "true", matchIfMissing = true)
+public class NormalizationEndpoint {
+
+    private final UserNormalizationService normalizationService;
+
+    /**
+     * Constructor for NormalizationEndpoint class.
+     *
+     * @param normalizationService The UserNormalizationService instance to be injected.
+     */
+    public NormalizationEndpoint(UserNormalizationService normalizationService) {
+        this.normalizationService = normalizationService;
+    }
+
+    /**
+     * Describes the current or last re-normalization.
+     *
+     * @return The job state and progress counters.
+     */
+    @ReadOperation
+    public Map<String, Object> progress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("state", normalizationService.getState());
+        progress.put("progress", normalizationService.getProgress());
+        progress.put("totalUsers", normalizationService.getTotalUsers());
+        progress.put("scannedUsers", normalizationService.getScannedUsers());
+        progress.put("updatedUsers", normalizationService.getUpdatedUsers());
+        progress.put("invalidUsers", normalizationService.getInvalidUsers());
+        progress.put("startedAt", normalizationService.getStartedAt());
+        progress.put("finishedAt", normalizationService.getFinishedAt());
+        return progress;
+    }
+
+    /**
+     * Starts re-normalizing the stored users.
+     *
+     * @return Whether the job was started, and its progress.
+     */
+    @WriteOperation
+    public Map<String, Object> start() {
+        boolean started = normalizationService.start();
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("started", started);
+        progress.putAll(progress());
+        return progress;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.usersapi.actuator;
+
+import com.example.usersapi.service.UsernameFilter;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the state of the username Bloom filter at {@code /actuator/usernamefilter}.
+ * A POST to the endpoint rebuilds the filter from the user table, unless it is disabled.
+ */
+@Component
+@Endpoint(id = "usernamefilter")
+public class UsernameFilterEndpoint {
+
+    private final UsernameFilter usernameFilter;
+
+    /**
+     * Constructor for UsernameFilterEndpoint class.
+     *
+     * @param usernameFilter The UsernameFilter instance to be injected.
+     */
+    public UsernameFilterEndpoint(UsernameFilter usernameFilter) {
+        this.usernameFilter = usernameFilter;
+    }
+
+    /**
+     * Describes the current filter.
+     *
+     * @return The filter state and probe counters.
+     */
+    @ReadOperation
+    public Map<String, Object> state() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("active", usernameFilter.isActive());
+        state.put("bits", usernameFilter.bitCount());
+        state.put("skippedProbes", usernameFilter.skippedProbes());
+        state.put("checkedProbes", usernameFilter.checkedProbes());
+        return state;
+    }
+
+    /**
+     * Rebuilds the filter from the user table.
+     *
+     * @return Whether the filter was rebuilt, and its state.
+     */
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        boolean rebuilt = usernameFilter.rebuild();
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("rebuilt", rebuilt);
+        state.putAll(state());
+        return state;
+    }
+}
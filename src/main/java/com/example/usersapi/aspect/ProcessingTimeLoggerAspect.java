@@ -1,22 +1,73 @@
 package com.example.usersapi.aspect;
 
+import com.example.usersapi.config.ProcessingTimeProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.usersapi.logging.LogField.kv;
 
 /**
- * The ProcessingTimeLoggerAspect class is an aspect that logs the processing time of methods
+ * The ProcessingTimeLoggerAspect class is an aspect that records the processing time of methods
  * annotated with @LogProcessingTime annotation.
  * It uses AOP (Aspect-Oriented Programming) to intercept method invocations and measure the
- * time taken for their execution.
+ * time taken for their execution with nanosecond resolution.
+ * Durations are recorded in a per-method Micrometer timer named {@value #METRIC_NAME}, which publishes the
+ * configured percentiles on the metrics endpoint. Calls slower than the configured threshold are also
+ * logged to the {@value #SLOW_CALL_LOGGER} logger, which is written asynchronously as JSON lines.
  */
 @Aspect
 @Component
 public class ProcessingTimeLoggerAspect {
 
     /**
-     * Logs the processing time of methods annotated with @LogProcessingTime.
+     * Name of the timers recording the processing time of annotated methods.
+     */
+    public static final String METRIC_NAME = "usersapi.method.duration";
+
+    /**
+     * Name of the logger slow calls are reported to.
+     */
+    public static final String SLOW_CALL_LOGGER = "usersapi.slow-calls";
+
+    private static final Logger slowCallLogger = LoggerFactory.getLogger(SLOW_CALL_LOGGER);
+
+    private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final double[] percentiles;
+
+    private final long slowCallThresholdNanos;
+
+    /**
+     * Constructor for ProcessingTimeLoggerAspect class.
+     *
+     * @param meterRegistry The registry the timers are registered in.
+     * @param properties    The processing time configuration.
+     */
+    public ProcessingTimeLoggerAspect(MeterRegistry meterRegistry, ProcessingTimeProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.percentiles = properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        this.slowCallThresholdNanos = properties.getSlowCallThreshold().toNanos();
+    }
+
+    /**
+     * Records the processing time of methods annotated with @LogProcessingTime.
+     * Once the timer of a method exists, recording a call does not allocate.
      *
      * @param joinPoint The ProceedingJoinPoint representing the intercepted method invocation.
      * @return The result of the intercepted method invocation.
@@ -25,15 +76,46 @@ public class ProcessingTimeLoggerAspect {
      */
     @Around("@annotation(com.example.usersapi.aspect.LogProcessingTime)")
     public Object logProcessingTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        long startTime = System.currentTimeMillis();
-
-        Object result = joinPoint.proceed();
+        long startTime = System.nanoTime();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            record(method, startTime);
+            throw ex;
+        }
+        // Reactive methods return before doing their work, so they are timed until their result completes.
+        if (result instanceof Mono) {
+            return ((Mono<?>) result).doFinally(signal -> record(method, startTime));
+        }
+        if (result instanceof Flux) {
+            return ((Flux<?>) result).doFinally(signal -> record(method, startTime));
+        }
+        record(method, startTime);
+        return result;
+    }
 
-        long endTime = System.currentTimeMillis();
-        long processingTime = endTime - startTime;
+    private void record(Method method, long startTime) {
+        long processingTime = System.nanoTime() - startTime;
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, this::createTimer);
+        }
+        timer.record(processingTime, TimeUnit.NANOSECONDS);
 
-        System.out.println("Method " + joinPoint.getSignature().getName() + " took " + processingTime + " ms");
+        if (slowCallThresholdNanos > 0 && processingTime >= slowCallThresholdNanos) {
+            slowCallLogger.warn("Slow call {} {}", kv("method", method.getName()),
+                    kv("durationMillis", TimeUnit.NANOSECONDS.toMillis(processingTime)));
+        }
+    }
 
-        return result;
+    private Timer createTimer(Method method) {
+        return Timer.builder(METRIC_NAME)
+                .description("Processing time of methods annotated with @LogProcessingTime")
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .publishPercentiles(percentiles)
+                .register(meterRegistry);
     }
 }
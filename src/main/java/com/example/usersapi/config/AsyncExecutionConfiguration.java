@@ -0,0 +1,37 @@
+package com.example.usersapi.config;
+
+import com.example.usersapi.util.BoundedRequestExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the {@link ExecutionProperties.Mode#ASYNC async} execution mode, in which user registrations
+ * and lookups by ID return a future completed on a {@link BoundedRequestExecutor}, and the Tomcat thread is
+ * released while the database is queried.
+ * The number of calls running or queued is published as {@code usersapi.execution.pending}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "usersapi.execution.mode", havingValue = "async")
+public class AsyncExecutionConfiguration {
+
+    /**
+     * The executor running the registrations and lookups, closed with the application context.
+     *
+     * @param properties    The execution mode configuration.
+     * @param meterRegistry The registry the executor metrics are published to.
+     * @return The bounded request executor.
+     */
+    @Bean(destroyMethod = "close")
+    public BoundedRequestExecutor boundedRequestExecutor(ExecutionProperties properties, MeterRegistry meterRegistry) {
+        ExecutionProperties.Async async = properties.getAsync();
+        BoundedRequestExecutor executor = new BoundedRequestExecutor(async.getThreads(), async.getQueueCapacity(),
+                "request-");
+        Gauge.builder("usersapi.execution.pending", executor, BoundedRequestExecutor::getPending)
+                .description("Registrations and lookups running or waiting for a request thread")
+                .register(meterRegistry);
+        return executor;
+    }
+}
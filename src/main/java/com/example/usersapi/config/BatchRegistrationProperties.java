@@ -0,0 +1,23 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for bulk user registration, bound from the {@code usersapi.batch} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.batch")
+public class BatchRegistrationProperties {
+
+    /**
+     * Number of users checked for duplicates and inserted per transaction.
+     */
+    private int chunkSize = 500;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.usersapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the binary {@code application/cbor} representation of the API, for internal callers that
+ * prefer a more compact encoding than JSON. Clients choose it with the Accept header, and may send request
+ * bodies as CBOR with the Content-Type header.
+ * The CBOR ObjectMapper is built from the same {@link Jackson2ObjectMapperBuilder} as the JSON one, so both
+ * representations share the modules, features and serializers of the application. The CBOR converter is
+ * registered after the JSON one, so that JSON remains the default for clients accepting any media type.
+ */
+@Configuration
+public class CborConfiguration {
+
+    /**
+     * Registers the CBOR message converter of Spring MVC.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletCborConfiguration implements WebMvcConfigurer {
+
+        private final ObjectMapper cborMapper;
+
+        ServletCborConfiguration(Jackson2ObjectMapperBuilder builder) {
+            this.cborMapper = builder.factory(new CBORFactory()).build();
+        }
+
+        @Override
+        public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+            converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper));
+        }
+    }
+
+    /**
+     * Registers the CBOR encoder and decoder of WebFlux.
+     * Custom codecs come before the default ones, so the JSON encoder is registered again ahead of the CBOR one
+     * to remain the default representation.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveCborConfiguration implements WebFluxConfigurer {
+
+        private final ObjectMapper jsonMapper;
+
+        private final ObjectMapper cborMapper;
+
+        ReactiveCborConfiguration(ObjectMapper jsonMapper, Jackson2ObjectMapperBuilder builder) {
+            this.jsonMapper = jsonMapper;
+            this.cborMapper = builder.factory(new CBORFactory()).build();
+        }
+
+        @Override
+        public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+            configurer.customCodecs().register(new Jackson2JsonEncoder(jsonMapper));
+            configurer.customCodecs().register(new CborEncoder(cborMapper));
+            configurer.customCodecs().register(new CborDecoder(cborMapper));
+        }
+    }
+
+    /**
+     * A CBOR encoder that also encodes streams, which {@link Jackson2CborEncoder} does not: a single value is
+     * encoded as is, and a stream of values as one CBOR array.
+     */
+    static class CborEncoder extends Jackson2CborEncoder {
+
+        CborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                       @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+            if (inputStream instanceof Mono) {
+                return Mono.from(inputStream)
+                        .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                        .flux();
+            }
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return Flux.from(inputStream)
+                    .collectList()
+                    .map(values -> encodeValue(values, bufferFactory, listType, mimeType, hints))
+                    .flux();
+        }
+    }
+
+    /**
+     * A CBOR decoder that also decodes streams, which {@link Jackson2CborDecoder} does not: a stream is read from
+     * a CBOR array.
+     */
+    static class CborDecoder extends Jackson2CborDecoder {
+
+        CborDecoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType,
+                                   @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return decodeToMono(input, listType, mimeType, hints).flatMapIterable(values -> (List<?>) values);
+        }
+    }
+}
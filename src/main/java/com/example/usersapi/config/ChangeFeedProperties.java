@@ -0,0 +1,133 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Configuration properties for the change feed of user registrations, bound from the
+ * {@code usersapi.change-feed} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.change-feed")
+public class ChangeFeedProperties {
+
+    /**
+     * Whether registrations are appended to the change log and served under {@code /api/users/changes}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory of the change log segments.
+     */
+    private Path directory = Paths.get("data/changes");
+
+    /**
+     * Size beyond which a new segment is started, at most 1GB.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Number of segments kept; older changes are deleted.
+     */
+    private int retainedSegments = 16;
+
+    /**
+     * Whether each group of changes is forced to disk before consumers see it.
+     */
+    private boolean fsync = false;
+
+    /**
+     * Maximum number of registered users waiting to be appended; further changes are dropped and counted.
+     */
+    private int queueCapacity = 8192;
+
+    /**
+     * Maximum number of changes appended with one write.
+     */
+    private int maxBatchSize = 1000;
+
+    /**
+     * Number of threads sending changes to event stream consumers.
+     */
+    private int dispatchThreads = 2;
+
+    /**
+     * How long an event stream stays open; consumers then reconnect with the ID of the last event received.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getRetainedSegments() {
+        return retainedSegments;
+    }
+
+    public void setRetainedSegments(int retainedSegments) {
+        this.retainedSegments = retainedSegments;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public void setFsync(boolean fsync) {
+        this.fsync = fsync;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getDispatchThreads() {
+        return dispatchThreads;
+    }
+
+    public void setDispatchThreads(int dispatchThreads) {
+        this.dispatchThreads = dispatchThreads;
+    }
+
+    public Duration getStreamTimeout() {
+        return streamTimeout;
+    }
+
+    public void setStreamTimeout(Duration streamTimeout) {
+        this.streamTimeout = streamTimeout;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.usersapi.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Configuration of the clock used for date-dependent business rules, so that tests can replace it.
+ */
+@Configuration
+public class ClockConfiguration {
+
+    /**
+     * The clock of the application, in the default time zone of the system.
+     *
+     * @return The system clock.
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
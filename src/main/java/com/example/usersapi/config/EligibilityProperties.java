@@ -0,0 +1,53 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configuration properties for the registration eligibility rule, bound from the {@code usersapi.eligibility} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.eligibility")
+public class EligibilityProperties {
+
+    /**
+     * Minimum age, in years, of the users allowed to register.
+     */
+    private int minAge = 18;
+
+    /**
+     * Countries of residence allowed to register, as ISO codes or country names.
+     */
+    private List<String> allowedCountries = new ArrayList<>(Collections.singletonList("FR"));
+
+    /**
+     * Message of the error returned to users who are not eligible.
+     */
+    private String rejectionMessage = "Only French adults are allowed to register!";
+
+    public int getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(int minAge) {
+        this.minAge = minAge;
+    }
+
+    public List<String> getAllowedCountries() {
+        return allowedCountries;
+    }
+
+    public void setAllowedCountries(List<String> allowedCountries) {
+        this.allowedCountries = allowedCountries;
+    }
+
+    public String getRejectionMessage() {
+        return rejectionMessage;
+    }
+
+    public void setRejectionMessage(String rejectionMessage) {
+        this.rejectionMessage = rejectionMessage;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the request execution mode, bound from the {@code usersapi.execution} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.execution")
+public class ExecutionProperties {
+
+    /**
+     * The threads requests are executed on.
+     */
+    public enum Mode {
+        /**
+         * Requests run on Tomcat's bounded pool of platform threads ({@code server.tomcat.threads.max}).
+         */
+        PLATFORM,
+        /**
+         * Requests run on a new virtual thread each, so a request blocked on JDBC does not hold a platform thread.
+         * Requires a Java 21 or later runtime.
+         */
+        VIRTUAL,
+        /**
+         * Registrations and lookups by ID are handed over to a bounded pool of {@code usersapi.execution.async}
+         * threads, and the Tomcat thread is released until they complete.
+         */
+        ASYNC
+    }
+
+    private Mode mode = Mode.PLATFORM;
+
+    private final Async async = new Async();
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    /**
+     * Configuration of the pool of the async mode, bound from the {@code usersapi.execution.async} prefix.
+     */
+    public static class Async {
+
+        /**
+         * Number of threads running registrations and lookups, at most one database connection each.
+         */
+        private int threads = 200;
+
+        /**
+         * Number of registrations and lookups waiting for a thread beyond which requests are rejected with 503.
+         */
+        private int queueCapacity = 1000;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the user export, bound from the {@code usersapi.export} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.export")
+public class ExportProperties {
+
+    /**
+     * Number of rows fetched from the database per round trip while exporting.
+     */
+    private int fetchSize = 1000;
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+}
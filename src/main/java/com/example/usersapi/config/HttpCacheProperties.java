@@ -0,0 +1,70 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration properties for the HTTP caching of user reads, bound from the {@code usersapi.http-cache} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.http-cache")
+public class HttpCacheProperties {
+
+    /**
+     * How long clients may reuse a user without revalidating it; zero makes them revalidate every time.
+     */
+    private Duration maxAge = Duration.ZERO;
+
+    /**
+     * How long shared caches such as a CDN may reuse a user (s-maxage), when different from the max age.
+     */
+    private Duration sharedMaxAge;
+
+    /**
+     * Whether shared caches may store users at all; otherwise only the client's own cache may.
+     */
+    private boolean shared = false;
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Duration getSharedMaxAge() {
+        return sharedMaxAge;
+    }
+
+    public void setSharedMaxAge(Duration sharedMaxAge) {
+        this.sharedMaxAge = sharedMaxAge;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * Builds the Cache-Control header of user reads from these properties.
+     *
+     * @return {@code no-cache} when the max age is zero, {@code max-age} otherwise, with {@code public} or
+     * {@code private} and the optional {@code s-maxage}
+     */
+    public CacheControl toCacheControl() {
+        CacheControl cacheControl = maxAge.isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(maxAge.getSeconds(), TimeUnit.SECONDS);
+        cacheControl = shared ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+        if (sharedMaxAge != null) {
+            cacheControl = cacheControl.sMaxAge(sharedMaxAge.getSeconds(), TimeUnit.SECONDS);
+        }
+        return cacheControl;
+    }
+}
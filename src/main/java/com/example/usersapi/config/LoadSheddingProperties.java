@@ -0,0 +1,102 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the adaptive concurrency limit of the API, bound from the
+ * {@code usersapi.load-shedding} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.load-shedding")
+public class LoadSheddingProperties {
+
+    /**
+     * Whether API requests beyond the concurrency limit are rejected with 503 (SERVICE UNAVAILABLE).
+     */
+    private boolean enabled = false;
+
+    /**
+     * Concurrency limit at startup.
+     */
+    private int initialLimit = 100;
+
+    /**
+     * Lowest concurrency limit.
+     */
+    private int minLimit = 10;
+
+    /**
+     * Highest concurrency limit.
+     */
+    private int maxLimit = 1000;
+
+    /**
+     * How many times its long-term average the latency may reach before the limit shrinks.
+     */
+    private double tolerance = 2.0;
+
+    /**
+     * Weight of each new limit against the previous one, between 0 and 1.
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Number of completed requests between two limit updates.
+     */
+    private int windowSize = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for request logging, bound from the {@code usersapi.logging} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.logging")
+public class LoggingProperties {
+
+    /**
+     * Whether every request is logged to the asynchronous "usersapi.access" logger.
+     */
+    private boolean accessLog = true;
+
+    /**
+     * Header carrying the correlation ID of a request. An ID sent by the client is reused, otherwise one is
+     * generated; either way it is returned in the same response header.
+     */
+    private String correlationHeader = "X-Request-Id";
+
+    public boolean isAccessLog() {
+        return accessLog;
+    }
+
+    public void setAccessLog(boolean accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    public String getCorrelationHeader() {
+        return correlationHeader;
+    }
+
+    public void setCorrelationHeader(String correlationHeader) {
+        this.correlationHeader = correlationHeader;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the re-normalization of the stored users, bound from the
+ * {@code usersapi.normalization} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.normalization")
+public class NormalizationProperties {
+
+    /**
+     * Whether the re-normalization job and its actuator endpoint are available.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of chunks of users normalized in parallel, each with its own database connection.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Width of the ID range of a chunk, normalized and updated in one transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Whether the stored users are re-normalized once the application has started.
+     */
+    private boolean runOnStart = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isRunOnStart() {
+        return runOnStart;
+    }
+
+    public void setRunOnStart(boolean runOnStart) {
+        this.runOnStart = runOnStart;
+    }
+}
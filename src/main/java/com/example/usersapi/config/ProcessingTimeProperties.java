@@ -0,0 +1,41 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configuration properties for the processing time recorder, bound from the {@code usersapi.timing} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.timing")
+public class ProcessingTimeProperties {
+
+    /**
+     * Percentiles published for every timed method.
+     */
+    private List<Double> percentiles = Arrays.asList(0.5, 0.99, 0.999);
+
+    /**
+     * Calls taking at least this long are logged to the asynchronous "usersapi.slow-calls" logger.
+     * Zero disables slow call logging.
+     */
+    private Duration slowCallThreshold = Duration.ofMillis(500);
+
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public Duration getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    public void setSlowCallThreshold(Duration slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.usersapi.config;
+
+import com.example.usersapi.ratelimit.LoadSheddingInterceptor;
+import com.example.usersapi.ratelimit.RateLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration of the in-process protections of the API against overload: per-client rate limits
+ * ({@code usersapi.rate-limit.*}) and adaptive load shedding ({@code usersapi.load-shedding.*}).
+ * Both run as Spring MVC interceptors on {@code /api/**}, before the controllers, so that rejections are mapped
+ * to error responses by the ApiExceptionHandler. Rate limits are checked first, so that an abusive client is
+ * rejected before it takes a share of the concurrency limit.
+ * Load shedding leaves out the endpoints that stream a table, a batch or the change log: their latency grows with
+ * the data they move, not with the load, and would shrink the limit of the short requests.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateLimitConfiguration implements WebMvcConfigurer {
+
+    private static final String[] LONG_RUNNING_PATHS = {
+            "/api/users/export", "/api/users/batch", "/api/users/changes", "/api/users/changes/**"};
+
+    private final ObjectProvider<RateLimitInterceptor> rateLimitInterceptor;
+
+    private final ObjectProvider<LoadSheddingInterceptor> loadSheddingInterceptor;
+
+    /**
+     * Constructor for the RateLimitConfiguration class.
+     *
+     * @param rateLimitInterceptor    The RateLimitInterceptor, available when rate limits are enabled.
+     * @param loadSheddingInterceptor The LoadSheddingInterceptor, available when load shedding is enabled.
+     */
+    public RateLimitConfiguration(ObjectProvider<RateLimitInterceptor> rateLimitInterceptor,
+                                  ObjectProvider<LoadSheddingInterceptor> loadSheddingInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.loadSheddingInterceptor = loadSheddingInterceptor;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "usersapi.rate-limit.enabled", havingValue = "true")
+    public RateLimitInterceptor rateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new RateLimitInterceptor(properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "usersapi.load-shedding.enabled", havingValue = "true")
+    public LoadSheddingInterceptor loadSheddingInterceptor(LoadSheddingProperties properties, MeterRegistry meterRegistry) {
+        return new LoadSheddingInterceptor(properties, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        rateLimitInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns("/api/**"));
+        loadSheddingInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns("/api/**")
+                .excludePathPatterns(LONG_RUNNING_PATHS));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the per-client rate limits of the API, bound from the {@code usersapi.rate-limit}
+ * prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether requests to endpoints annotated with @RateLimited are limited per client.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Header identifying the client, such as an API key set by a gateway. When absent or unset, clients are
+     * identified by their remote address.
+     */
+    private String clientHeader;
+
+    /**
+     * How long the bucket of an idle client is kept.
+     */
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of clients tracked per endpoint; the least recently active ones are forgotten first.
+     */
+    private long maxClients = 100_000;
+
+    /**
+     * Limits by endpoint name, as given in @RateLimited.
+     */
+    private final Map<String, Limit> endpoints = new LinkedHashMap<>();
+
+    public RateLimitProperties() {
+        endpoints.put("registration", new Limit(10, 20));
+        endpoints.put("lookup", new Limit(100, 200));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public Duration getIdleExpiry() {
+        return idleExpiry;
+    }
+
+    public void setIdleExpiry(Duration idleExpiry) {
+        this.idleExpiry = idleExpiry;
+    }
+
+    public long getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(long maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public Map<String, Limit> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * The rate limit of one endpoint for each client.
+     */
+    public static class Limit {
+
+        /**
+         * Sustained number of requests per second.
+         */
+        private double permitsPerSecond;
+
+        /**
+         * Number of requests that may be sent at once after being idle.
+         */
+        private int burst;
+
+        public Limit() {
+        }
+
+        public Limit(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public void setPermitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
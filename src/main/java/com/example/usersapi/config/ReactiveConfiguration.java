@@ -0,0 +1,46 @@
+package com.example.usersapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration of the reactive profile, which serves the API with WebFlux and R2DBC.
+ * Spring MVC stays on the classpath for the default profile, so the reactive web application type and the
+ * R2DBC auto-configuration are enabled in {@code application-reactive.properties}.
+ * JPA is kept alongside R2DBC to create the schema and build the username filter at startup, which are the
+ * only blocking database accesses of the profile.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfiguration {
+
+    /**
+     * Runs the reactive application on Reactor Netty rather than on the Tomcat server of the default profile.
+     *
+     * @return The Netty web server factory.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Creates the JDBC DataSource used by JPA, which Spring Boot does not auto-configure once an R2DBC
+     * ConnectionFactory exists.
+     *
+     * @param properties The {@code spring.datasource.*} properties.
+     * @return The DataSource, configured by the {@code spring.datasource.hikari.*} properties.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the in-memory user counts per segment, bound from the
+ * {@code usersapi.segment-counters} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.segment-counters")
+public class SegmentCountersProperties {
+
+    /**
+     * Whether segment counts without age bounds are answered from in-memory counters instead of the database.
+     */
+    private boolean enabled = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
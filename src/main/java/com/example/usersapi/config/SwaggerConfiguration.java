@@ -0,0 +1,53 @@
+package com.example.usersapi.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
+import springfox.documentation.swagger2.annotations.EnableSwagger2;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Configuration of the Swagger API documentation.
+ * Springfox 2.x only documents Spring MVC controllers, so it is disabled in the reactive profile.
+ * Springfox scans every handler method when the application starts, which can be skipped with
+ * {@code usersapi.swagger.enabled=false}, as in the fast-start profile.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "usersapi.swagger.enabled", havingValue = "true", matchIfMissing = true)
+@EnableSwagger2
+public class SwaggerConfiguration {
+
+    /**
+     * Hides the actuator handler mappings from Springfox.
+     * Actuator endpoints are mapped with path patterns, which Springfox 2.x cannot document and fails on at startup.
+     *
+     * @return The BeanPostProcessor removing path pattern based handler mappings from Springfox.
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerMappingsPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    handlerMappings(bean).removeIf(mapping -> mapping.getPatternParser() != null);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<RequestMappingInfoHandlerMapping> handlerMappings(Object provider) {
+        Field field = ReflectionUtils.findField(provider.getClass(), "handlerMappings");
+        ReflectionUtils.makeAccessible(field);
+        return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, provider);
+    }
+}
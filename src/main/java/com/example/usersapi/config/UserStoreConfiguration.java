@@ -0,0 +1,31 @@
+package com.example.usersapi.config;
+
+import com.example.usersapi.repository.OffHeapUserStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+
+/**
+ * Configuration of the edge profile, which serves users from an {@link OffHeapUserStore} rather than from the
+ * database, see {@code application-edge.properties}.
+ */
+@Configuration
+@Profile("edge")
+public class UserStoreConfiguration {
+
+    /**
+     * Opens the off-heap user store, mapping the files left by the previous run if any.
+     * The store is snapshotted and closed with the application context.
+     *
+     * @param properties The user store configuration.
+     * @return The user store.
+     * @throws IOException If the store files cannot be opened.
+     */
+    @Bean(destroyMethod = "close")
+    public OffHeapUserStore offHeapUserStore(UserStoreProperties properties) throws IOException {
+        return new OffHeapUserStore(properties.getDirectory(), properties.getInitialCapacity(),
+                properties.getInitialArenaSize().toBytes());
+    }
+}
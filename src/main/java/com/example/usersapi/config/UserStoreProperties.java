@@ -0,0 +1,67 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration properties for the off-heap user store of the {@code edge} profile, bound from the
+ * {@code usersapi.user-store} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.user-store")
+public class UserStoreProperties {
+
+    /**
+     * Directory of the memory-mapped store files, reopened on restart; without directory the store only lives
+     * in memory.
+     */
+    private Path directory;
+
+    /**
+     * Number of users the store holds before its records grow.
+     */
+    private int initialCapacity = 1_000_000;
+
+    /**
+     * Size of the usernames and phone numbers the store holds before its arena grows.
+     */
+    private DataSize initialArenaSize = DataSize.ofMegabytes(32);
+
+    /**
+     * Whether an empty store is filled from the database at startup.
+     */
+    private boolean importOnStart = true;
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+
+    public void setInitialCapacity(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    public DataSize getInitialArenaSize() {
+        return initialArenaSize;
+    }
+
+    public void setInitialArenaSize(DataSize initialArenaSize) {
+        this.initialArenaSize = initialArenaSize;
+    }
+
+    public boolean isImportOnStart() {
+        return importOnStart;
+    }
+
+    public void setImportOnStart(boolean importOnStart) {
+        this.importOnStart = importOnStart;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the in-memory username Bloom filter, bound from the
+ * {@code usersapi.username-filter} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.username-filter")
+public class UsernameFilterProperties {
+
+    /**
+     * Whether duplicate username checks are short-circuited by the filter.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Minimum number of usernames the filter is sized for. The filter is sized for twice the current
+     * number of users when that is larger.
+     */
+    private long expectedInsertions = 1_000_000;
+
+    /**
+     * Acceptable false positive rate of the filter.
+     */
+    private double falsePositiveRate = 0.01;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+}
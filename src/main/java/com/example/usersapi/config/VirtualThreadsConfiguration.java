@@ -0,0 +1,41 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration of the {@link ExecutionProperties.Mode#VIRTUAL virtual} execution mode, in which Tomcat runs
+ * every request on its own virtual thread.
+ * The application still targets Java 11, so the virtual thread executor is looked up when the mode is enabled,
+ * and startup fails with a clear message on a runtime without virtual threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "usersapi.execution.mode", havingValue = "virtual")
+public class VirtualThreadsConfiguration {
+
+    /**
+     * Replaces the request thread pool of Tomcat with a virtual-thread-per-task executor.
+     *
+     * @return The customizer installing the executor on the Tomcat protocol handler.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException("usersapi.execution.mode=virtual requires a Java 21 or later runtime, "
+                    + "running on Java " + System.getProperty("java.version"), ex);
+        }
+    }
+}
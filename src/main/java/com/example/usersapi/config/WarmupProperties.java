@@ -0,0 +1,36 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the startup warm-up, bound from the {@code usersapi.warmup} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.warmup")
+public class WarmupProperties {
+
+    /**
+     * Whether the warm-up runs before the application reports itself ready.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of registrations and lookups run to let the JIT compiler optimize the request paths.
+     */
+    private int iterations = 2000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+}
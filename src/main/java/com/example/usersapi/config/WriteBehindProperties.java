@@ -0,0 +1,118 @@
+package com.example.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for write-behind registration, bound from the {@code usersapi.write-behind} prefix.
+ */
+@ConfigurationProperties(prefix = "usersapi.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * Whether single registrations are queued and committed in groups instead of one transaction per user.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of queued registrations; further registrations are refused until the queue drains.
+     */
+    private int queueCapacity = 8192;
+
+    /**
+     * Maximum number of queued registrations committed together.
+     */
+    private int maxBatchSize = 500;
+
+    /**
+     * How long the status of a registration can be looked up after it was submitted.
+     */
+    private Duration statusRetention = Duration.ofMinutes(10);
+
+    /**
+     * The journal that queued registrations are appended to before they are acknowledged.
+     */
+    private final Journal journal = new Journal();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getStatusRetention() {
+        return statusRetention;
+    }
+
+    public void setStatusRetention(Duration statusRetention) {
+        this.statusRetention = statusRetention;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Configuration of the registration journal, bound from the {@code usersapi.write-behind.journal} prefix.
+     */
+    public static class Journal {
+
+        /**
+         * Whether queued registrations are journaled, so that they survive a crash and are replayed on startup.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Path of the journal file.
+         */
+        private String path = "data/registrations.journal";
+
+        /**
+         * Whether the journal is forced to disk before a registration is acknowledged.
+         */
+        private boolean fsync = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public boolean isFsync() {
+            return fsync;
+        }
+
+        public void setFsync(boolean fsync) {
+            this.fsync = fsync;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.usersapi.controller;
+
+import com.example.usersapi.exception.InvalidChangeOffsetException;
+import com.example.usersapi.service.ChangeFeedService;
+import com.example.usersapi.service.ChangeLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * The ChangeFeedController class serves the change feed of user registrations to downstream consumers, which
+ * no longer need to poll users by ID. It is enabled with {@code usersapi.change-feed.enabled=true}.
+ * Consumers keep the offset following the last change they processed and resume from it, either by fetching
+ * the changes segment by segment as newline-delimited JSON, or by following an event stream.
+ *
+ * @see ChangeFeedService
+ */
+@RestController
+@RequestMapping("/api/users/changes")
+@Profile("!reactive")
+@ConditionalOnProperty(name = "usersapi.change-feed.enabled", havingValue = "true")
+public class ChangeFeedController {
+
+    /**
+     * Header of the offset following the last change of a response, from which the next fetch starts.
+     */
+    public static final String NEXT_OFFSET_HEADER = "X-Next-Offset";
+
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    private final ChangeFeedService changeFeedService;
+
+    /**
+     * Constructor for ChangeFeedController class.
+     *
+     * @param changeFeedService The ChangeFeedService instance to be injected.
+     */
+    @Autowired
+    public ChangeFeedController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    /**
+     * GET endpoint for fetching the changes from an offset, up to the end of the segment holding it.
+     * The changes are sent from the segment file without being read by the application: with Tomcat sendfile
+     * when the connector supports it, otherwise with {@link java.nio.channels.FileChannel#transferTo}.
+     * The response is empty when there is no change after the offset.
+     *
+     * @param offset   The offset of the first change, 0 for the oldest retained change.
+     * @param request  The request, checked for sendfile support.
+     * @param response The response the changes are written to, with the next offset in the
+     *                 {@value #NEXT_OFFSET_HEADER} header.
+     * @throws InvalidChangeOffsetException If the offset is beyond the last change or not the offset of a change.
+     * @throws IOException If writing the response fails.
+     * @see ChangeFeedService#getChanges(long)
+     */
+    @GetMapping(produces = UserController.APPLICATION_NDJSON_VALUE)
+    public void getChanges(@RequestParam(defaultValue = "0") long offset, HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        ChangeLog.Slice changes = changeFeedService.getChanges(offset);
+        response.setContentType(UserController.APPLICATION_NDJSON_VALUE);
+        response.setHeader(NEXT_OFFSET_HEADER, Long.toString(changes.getEndOffset()));
+        response.setContentLengthLong(changes.getLength());
+        if (changes.getLength() == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, changes.getFile().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, changes.getFilePosition());
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, changes.getFilePosition() + changes.getLength());
+        } else {
+            changes.transferTo(Channels.newChannel(response.getOutputStream()));
+            response.flushBuffer();
+        }
+    }
+
+    /**
+     * GET endpoint for following the changes as Server-Sent Events. Each event is named
+     * {@value ChangeFeedService#EVENT_NAME}, has a change as data and the offset following it as ID, so a
+     * reconnecting EventSource resumes where it stopped.
+     *
+     * @param offset      The offset of the first change to send, 0 for the oldest retained change.
+     * @param lastEventId The ID of the last event received, which takes precedence over the offset.
+     * @return The event stream.
+     * @throws InvalidChangeOffsetException If the offset is beyond the last change or not the offset of a change.
+     * @see ChangeFeedService#subscribe(long)
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(defaultValue = "0") long offset,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeFeedService.subscribe(lastEventId != null ? lastEventId : offset);
+    }
+}
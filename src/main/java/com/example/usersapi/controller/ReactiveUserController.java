@@ -0,0 +1,203 @@
+package com.example.usersapi.controller;
+
+import com.example.usersapi.aspect.LogProcessingTime;
+import com.example.usersapi.config.HttpCacheProperties;
+import com.example.usersapi.exception.DuplicateUsernameException;
+import com.example.usersapi.exception.InvalidLookupException;
+import com.example.usersapi.exception.InvalidUserException;
+import com.example.usersapi.exception.ResourceNotFoundException;
+import com.example.usersapi.model.BatchRegistrationResult;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserLookupResult;
+import com.example.usersapi.model.UserPage;
+import com.example.usersapi.model.UserRequest;
+import com.example.usersapi.model.UserResponse;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserSegments;
+import com.example.usersapi.service.ReactiveUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The ReactiveUserController class handles HTTP requests related to User resources in the reactive profile.
+ * It exposes the same endpoints as {@link UserController} on WebFlux, and invokes the
+ * {@link ReactiveUserService} without blocking the event loop.
+ *
+ * @see ReactiveUserService
+ */
+@RestController
+@RequestMapping("/api/users")
+@Profile("reactive")
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    private final CacheControl cacheControl;
+
+    /**
+     * Constructor for ReactiveUserController class.
+     *
+     * @param userService The ReactiveUserService instance to be injected.
+     * @param httpCache   The HttpCacheProperties defining the Cache-Control header of user reads.
+     */
+    @Autowired
+    public ReactiveUserController(ReactiveUserService userService, HttpCacheProperties httpCache) {
+        this.userService = userService;
+        this.cacheControl = httpCache.toCacheControl();
+    }
+
+    /**
+     * POST endpoint for registering a new user.
+     *
+     * @param user The user to be registered.
+     * @return ResponseEntity with the registered user and HTTP status code 201 (CREATED).
+     * @throws DuplicateUsernameException If the username already exists.
+     * @throws InvalidUserException If the user is not a French adult.
+     * @see ReactiveUserService#registerUser(User)
+     */
+    @PostMapping
+    @LogProcessingTime
+    public Mono<ResponseEntity<UserResponse>> registerUser(@Valid @RequestBody UserRequest user) {
+        return userService.registerUser(user.toUser())
+                .map(registeredUser -> new ResponseEntity<>(UserResponse.from(registeredUser), HttpStatus.CREATED));
+    }
+
+    /**
+     * POST endpoint for registering users in bulk from a JSON or CBOR array or a newline-delimited JSON stream.
+     * Users are registered as they are read from the request body.
+     *
+     * @param users The users to be registered.
+     * @return One result per submitted user.
+     * @see ReactiveUserService#registerUsers(Flux)
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, UserController.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE})
+    @LogProcessingTime
+    public Flux<BatchRegistrationResult> registerUsers(@RequestBody Flux<UserRequest> users) {
+        return userService.registerUsers(users.map(UserRequest::toUser));
+    }
+
+    /**
+     * POST endpoint for retrieving several users by ID at once, instead of one request per user.
+     *
+     * @param userIds The IDs of the users to retrieve, at most
+     *                {@value com.example.usersapi.service.UserService#MAX_LOOKUP_SIZE}.
+     * @return ResponseEntity with the users found and the IDs not found, and HTTP status code 200 (OK).
+     * @throws InvalidLookupException If there are too many IDs or an ID is null.
+     * @see ReactiveUserService#getUsersByIds(java.util.Collection)
+     */
+    @PostMapping(value = "/lookup", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @LogProcessingTime
+    public Mono<ResponseEntity<UserLookupResult>> lookupUsers(@RequestBody List<Long> userIds) {
+        return userService.getUsersByIds(userIds).map(result -> new ResponseEntity<>(result, HttpStatus.OK));
+    }
+
+    /**
+     * GET endpoint for listing users page by page, optionally filtered.
+     *
+     * @param country  Only list users with this exact country of residence.
+     * @param gender   Only list users with this exact gender.
+     * @param bornFrom Only list users born on or after this date.
+     * @param bornTo   Only list users born on or before this date.
+     * @param cursor   The nextCursor of the previous page, or absent for the first page.
+     * @param limit    The maximum number of users of the page, at most {@value UserController#MAX_PAGE_SIZE}.
+     * @return ResponseEntity with the page of users and HTTP status code 200 (OK).
+     * @see ReactiveUserService#findUsers(UserSearchCriteria, String, int)
+     */
+    @GetMapping
+    @LogProcessingTime
+    public Mono<ResponseEntity<UserPage>> getUsers(@RequestParam(required = false) String country,
+                                                   @RequestParam(required = false) String gender,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int limit) {
+        UserSearchCriteria criteria = new UserSearchCriteria(country, gender, bornFrom, bornTo);
+        return userService.findUsers(criteria, cursor, Math.max(1, Math.min(limit, UserController.MAX_PAGE_SIZE)))
+                .map(page -> new ResponseEntity<>(page, HttpStatus.OK));
+    }
+
+    /**
+     * GET endpoint for counting users per country of residence and gender, optionally filtered.
+     *
+     * @param country Only count users with this country of residence.
+     * @param gender  Only count users with this exact gender.
+     * @param minAge  Only count users of at least this age.
+     * @param maxAge  Only count users of at most this age.
+     * @return ResponseEntity with the count of every segment and HTTP status code 200 (OK).
+     * @see ReactiveUserService#getSegments(String, String, Integer, Integer)
+     */
+    @GetMapping("/segments")
+    @LogProcessingTime
+    public Mono<ResponseEntity<UserSegments>> getSegments(@RequestParam(required = false) String country,
+                                                          @RequestParam(required = false) String gender,
+                                                          @RequestParam(required = false) Integer minAge,
+                                                          @RequestParam(required = false) Integer maxAge) {
+        return userService.getSegments(country, gender, minAge, maxAge)
+                .map(segments -> new ResponseEntity<>(segments, HttpStatus.OK));
+    }
+
+    /**
+     * GET endpoint for exporting all users as newline-delimited JSON, ordered by ID.
+     * Rows are written as they are fetched; compression is left to the server ({@code server.compression.*}).
+     *
+     * @return All users.
+     * @see ReactiveUserService#exportUsers()
+     */
+    @GetMapping(value = "/export", produces = UserController.APPLICATION_NDJSON_VALUE)
+    @LogProcessingTime
+    public Flux<UserResponse> exportUsers() {
+        return userService.exportUsers().map(UserResponse::from);
+    }
+
+    /**
+     * GET endpoint for retrieving user details by ID.
+     * As with {@link UserController#getUserById(Long, org.springframework.web.context.request.WebRequest)}, a
+     * request with a matching If-None-Match header is answered with HTTP status code 304 (NOT MODIFIED) after
+     * reading the version of the user only.
+     *
+     * @param userId   The ID of the user to retrieve.
+     * @param exchange The current exchange, checked for an If-None-Match header.
+     * @return ResponseEntity with the retrieved user and HTTP status code 200 (OK), or without body and
+     * HTTP status code 304 (NOT MODIFIED) if the user did not change.
+     * @throws ResourceNotFoundException If the user is not found.
+     * @see ReactiveUserService#getUserVersion(Long)
+     * @see ReactiveUserService#getUserById(Long)
+     */
+    @GetMapping("/{userId}")
+    @LogProcessingTime
+    public Mono<ResponseEntity<UserResponse>> getUserById(@PathVariable Long userId, ServerWebExchange exchange) {
+        List<MediaType> acceptedTypes = exchange.getRequest().getHeaders().getAccept();
+        Mono<ResponseEntity<UserResponse>> notModified = Mono.empty();
+        if (!exchange.getRequest().getHeaders().getIfNoneMatch().isEmpty()) {
+            notModified = userService.getUserVersion(userId)
+                    .map(version -> UserResponse.eTag(version, acceptedTypes))
+                    .filter(exchange::checkNotModified)
+                    .map(eTag -> ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(eTag)
+                            .cacheControl(cacheControl)
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .build());
+        }
+        return notModified.switchIfEmpty(Mono.defer(() -> userService.getUserById(userId)
+                .map(user -> ResponseEntity.ok()
+                        .eTag(UserResponse.eTag(user.getVersion(), acceptedTypes))
+                        .cacheControl(cacheControl)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .body(UserResponse.from(user)))));
+    }
+}
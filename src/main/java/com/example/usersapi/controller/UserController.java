@@ -1,72 +1,416 @@
 package com.example.usersapi.controller;
 
 import com.example.usersapi.aspect.LogProcessingTime;
+import com.example.usersapi.config.HttpCacheProperties;
 import com.example.usersapi.exception.DuplicateUsernameException;
+import com.example.usersapi.exception.InvalidLookupException;
+import com.example.usersapi.exception.InvalidSegmentException;
 import com.example.usersapi.exception.InvalidUserException;
 import com.example.usersapi.exception.ResourceNotFoundException;
+import com.example.usersapi.exception.RegistrationQueueFullException;
+import com.example.usersapi.exception.ServiceOverloadedException;
+import com.example.usersapi.model.BatchRegistrationResult;
+import com.example.usersapi.model.QueuedRegistration;
 import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserLookupResult;
+import com.example.usersapi.model.UserPage;
+import com.example.usersapi.model.UserRequest;
+import com.example.usersapi.model.UserResponse;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserSegments;
+import com.example.usersapi.ratelimit.RateLimited;
+import com.example.usersapi.service.UserBatchService;
+import com.example.usersapi.service.UserExportService;
+import com.example.usersapi.service.UserSegmentService;
 import com.example.usersapi.service.UserService;
+import com.example.usersapi.service.WriteBehindRegistrationService;
+import com.example.usersapi.util.BoundedRequestExecutor;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Spliterators;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * The UserController class handles HTTP requests related to User resources.
- * It provides endpoints for registering a new user and retrieving user details by ID.
+ * It provides endpoints for registering a new user, registering users in bulk, listing users and retrieving
+ * user details by ID.
  * This class is responsible for processing incoming requests and invoking the appropriate methods
  * in the UserService to perform the requested actions.
+ * It is replaced by the {@link ReactiveUserController} in the reactive profile.
  *
  * @see UserService
  */
 @RestController
 @RequestMapping("/api/users")
+@Profile("!reactive")
 public class UserController {
 
+    /**
+     * Media type of newline-delimited JSON bulk registration requests.
+     */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    /**
+     * Maximum number of users returned in one page of the user listing.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final UserService userService;
 
+    private final UserBatchService userBatchService;
+
+    private final UserExportService userExportService;
+
+    private final UserSegmentService userSegmentService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<WriteBehindRegistrationService> writeBehindService;
+
+    private final CacheControl cacheControl;
+
+    private final BoundedRequestExecutor requestExecutor;
+
     /**
      * Constructor for UserController class.
      *
-     * @param userService The UserService instance to be injected.
+     * @param userService        The UserService instance to be injected.
+     * @param userBatchService   The UserBatchService instance to be injected.
+     * @param userExportService  The UserExportService instance to be injected.
+     * @param userSegmentService The UserSegmentService instance to be injected.
+     * @param objectMapper       The ObjectMapper used to read streamed bulk registration requests.
+     * @param writeBehindService The WriteBehindRegistrationService, available when write-behind mode is enabled.
+     * @param httpCache          The HttpCacheProperties defining the Cache-Control header of user reads.
+     * @param requestExecutor    The BoundedRequestExecutor, available in async execution mode.
      */
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserBatchService userBatchService,
+                          UserExportService userExportService, UserSegmentService userSegmentService,
+                          ObjectMapper objectMapper,
+                          ObjectProvider<WriteBehindRegistrationService> writeBehindService,
+                          HttpCacheProperties httpCache, ObjectProvider<BoundedRequestExecutor> requestExecutor) {
         this.userService = userService;
+        this.userBatchService = userBatchService;
+        this.userExportService = userExportService;
+        this.userSegmentService = userSegmentService;
+        this.objectMapper = objectMapper;
+        this.writeBehindService = writeBehindService;
+        this.cacheControl = httpCache.toCacheControl();
+        this.requestExecutor = requestExecutor.getIfAvailable();
     }
 
     /**
      * POST endpoint for registering a new user.
+     * In write-behind mode, the user is queued and the response is sent before the user is committed: it has
+     * HTTP status code 202 (ACCEPTED), the queued registration as body and its status URL as Location header.
+     * In async execution mode, the registration runs on the request executor and a future of the response is
+     * returned.
      *
-     * @param user The User object to be registered.
-     * @return ResponseEntity with the registered User object and HTTP status code 201 (CREATED).
+     * @param user The user to be registered.
+     * @return ResponseEntity with the registered user and HTTP status code 201 (CREATED), or with the
+     * queued registration and HTTP status code 202 (ACCEPTED) in write-behind mode; a CompletableFuture of it in
+     * async execution mode.
      * @throws DuplicateUsernameException If the username already exists.
      * @throws InvalidUserException If the user is not a French adult.
-     * @see User
+     * @throws RegistrationQueueFullException If too many registrations are pending in write-behind mode.
+     * @throws ServiceOverloadedException If the request executor is saturated in async execution mode.
+     * @see UserRequest
      * @see UserService#registerUser(User)
+     * @see WriteBehindRegistrationService#submit(User)
      */
     @PostMapping
     @LogProcessingTime
-    public ResponseEntity<User> registerUser(@Valid @RequestBody User user) {
-        User registeredUser = userService.registerUser(user);
-        return new ResponseEntity<>(registeredUser, HttpStatus.CREATED);
+    @RateLimited("registration")
+    public Object registerUser(@Valid @RequestBody UserRequest user) {
+        return execute(() -> register(user));
+    }
+
+    private ResponseEntity<?> register(UserRequest user) {
+        WriteBehindRegistrationService writeBehind = writeBehindService.getIfAvailable();
+        if (writeBehind != null) {
+            QueuedRegistration registration = writeBehind.submit(user.toUser());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/users/registrations/" + registration.getTicket()))
+                    .body(registration);
+        }
+        User registeredUser = userService.registerUser(user.toUser());
+        return new ResponseEntity<>(UserResponse.from(registeredUser), HttpStatus.CREATED);
+    }
+
+    /**
+     * GET endpoint for retrieving the status of a registration queued in write-behind mode.
+     *
+     * @param ticket The ticket of the registration.
+     * @return ResponseEntity with the queued registration and HTTP status code 200 (OK).
+     * @throws ResourceNotFoundException If write-behind mode is disabled or the registration is not found.
+     * @see WriteBehindRegistrationService#getRegistration(String)
+     */
+    @GetMapping("/registrations/{ticket}")
+    @LogProcessingTime
+    public ResponseEntity<QueuedRegistration> getRegistration(@PathVariable String ticket) {
+        WriteBehindRegistrationService writeBehind = writeBehindService.getIfAvailable();
+        if (writeBehind == null) {
+            throw new ResourceNotFoundException("Registration not found!");
+        }
+        return new ResponseEntity<>(writeBehind.getRegistration(ticket), HttpStatus.OK);
+    }
+
+    /**
+     * POST endpoint for registering users in bulk from a JSON or CBOR array.
+     *
+     * @param users The users to be registered.
+     * @return ResponseEntity with one result per submitted user and HTTP status code 200 (OK).
+     * @see UserBatchService#registerUsers(java.util.Iterator)
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @LogProcessingTime
+    @RateLimited("registration")
+    public ResponseEntity<List<BatchRegistrationResult>> registerUsers(@RequestBody List<UserRequest> users) {
+        return new ResponseEntity<>(userBatchService.registerUsers(users.stream().map(UserRequest::toUser).iterator()),
+                HttpStatus.OK);
+    }
+
+    /**
+     * POST endpoint for registering users in bulk from a newline-delimited JSON stream.
+     * Users are read from the request body one at a time, so the whole import is never held in memory.
+     *
+     * @param body The request body containing one JSON user per line.
+     * @return ResponseEntity with one result per submitted user and HTTP status code 200 (OK).
+     * @throws IOException If the request body cannot be read.
+     * @see UserBatchService#registerUsers(java.util.Iterator)
+     */
+    @PostMapping(value = "/batch", consumes = APPLICATION_NDJSON_VALUE)
+    @LogProcessingTime
+    @RateLimited("registration")
+    public ResponseEntity<List<BatchRegistrationResult>> registerUsersFromStream(InputStream body) throws IOException {
+        try (MappingIterator<UserRequest> users = objectMapper.readerFor(UserRequest.class).readValues(body)) {
+            Iterator<User> toRegister = StreamSupport.stream(Spliterators.spliteratorUnknownSize(users, 0), false)
+                    .map(UserRequest::toUser)
+                    .iterator();
+            return new ResponseEntity<>(userBatchService.registerUsers(toRegister), HttpStatus.OK);
+        }
+    }
+
+    /**
+     * POST endpoint for retrieving several users by ID at once, instead of one request per user.
+     *
+     * @param userIds The IDs of the users to retrieve, at most {@value UserService#MAX_LOOKUP_SIZE}.
+     * @return ResponseEntity with the users found and the IDs not found, and HTTP status code 200 (OK).
+     * @throws InvalidLookupException If there are too many IDs or an ID is null.
+     * @see UserService#getUsersByIds(java.util.Collection)
+     */
+    @PostMapping(value = "/lookup", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @LogProcessingTime
+    @RateLimited("lookup")
+    public ResponseEntity<UserLookupResult> lookupUsers(@RequestBody List<Long> userIds) {
+        return new ResponseEntity<>(userService.getUsersByIds(userIds), HttpStatus.OK);
+    }
+
+    /**
+     * GET endpoint for listing users page by page, optionally filtered.
+     *
+     * @param country  Only list users with this exact country of residence.
+     * @param gender   Only list users with this exact gender.
+     * @param bornFrom Only list users born on or after this date.
+     * @param bornTo   Only list users born on or before this date.
+     * @param cursor   The nextCursor of the previous page, or absent for the first page.
+     * @param limit    The maximum number of users of the page, at most {@value #MAX_PAGE_SIZE}.
+     * @return ResponseEntity with the page of users and HTTP status code 200 (OK).
+     * @see UserService#findUsers(UserSearchCriteria, String, int)
+     */
+    @GetMapping
+    @LogProcessingTime
+    public ResponseEntity<UserPage> getUsers(@RequestParam(required = false) String country,
+                                             @RequestParam(required = false) String gender,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "50") int limit) {
+        UserSearchCriteria criteria = new UserSearchCriteria(country, gender, bornFrom, bornTo);
+        UserPage page = userService.findUsers(criteria, cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    /**
+     * GET endpoint for counting users per country of residence and gender, optionally filtered.
+     *
+     * @param country Only count users with this country of residence.
+     * @param gender  Only count users with this exact gender.
+     * @param minAge  Only count users of at least this age.
+     * @param maxAge  Only count users of at most this age.
+     * @return ResponseEntity with the count of every segment and HTTP status code 200 (OK).
+     * @throws InvalidSegmentException If an age is negative or the age range is empty.
+     * @see UserSegmentService#getSegments(String, String, Integer, Integer)
+     */
+    @GetMapping("/segments")
+    @LogProcessingTime
+    public ResponseEntity<UserSegments> getSegments(@RequestParam(required = false) String country,
+                                                    @RequestParam(required = false) String gender,
+                                                    @RequestParam(required = false) Integer minAge,
+                                                    @RequestParam(required = false) Integer maxAge) {
+        return new ResponseEntity<>(userSegmentService.getSegments(country, gender, minAge, maxAge), HttpStatus.OK);
+    }
+
+    /**
+     * GET endpoint for exporting all users as newline-delimited JSON, ordered by ID.
+     * Users are streamed from the database straight to the response, so memory use does not depend on the
+     * number of users. The response is gzip-compressed when the Accept-Encoding header accepts gzip with a non-zero
+     * quality value, and varies by Accept-Encoding either way.
+     *
+     * @param acceptEncoding The Accept-Encoding header of the request.
+     * @param response       The response the users are written to.
+     * @throws IOException If writing the response fails.
+     * @see UserExportService#exportTo(OutputStream)
+     */
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    @LogProcessingTime
+    public void exportUsers(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                            HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+            userExportService.exportTo(out);
+            out.finish();
+        } else {
+            userExportService.exportTo(response.getOutputStream());
+        }
+        response.flushBuffer();
     }
 
     /**
      * GET endpoint for retrieving user details by ID.
+     * The response carries the version of the user as a strong ETag, specific to its JSON or CBOR representation.
+     * When the request has an If-None-Match header, the version alone is checked first, and a matching request is
+     * answered with HTTP status code 304 (NOT MODIFIED) without loading nor serializing the user.
+     * In async execution mode, the lookup runs on the request executor and a future of the response is returned.
      *
-     * @param userId The ID of the user to retrieve.
-     * @return ResponseEntity with the retrieved User object and HTTP status code 200 (OK).
+     * @param userId  The ID of the user to retrieve.
+     * @param request The request, checked for an If-None-Match header.
+     * @return ResponseEntity with the retrieved user and HTTP status code 200 (OK), or without body and
+     * HTTP status code 304 (NOT MODIFIED) if the user did not change; a CompletableFuture of it in async execution
+     * mode.
      * @throws ResourceNotFoundException If the user is not found.
-     * @see User
+     * @throws ServiceOverloadedException If the request executor is saturated in async execution mode.
+     * @see UserResponse
+     * @see UserService#getUserVersion(Long)
      * @see UserService#getUserById(Long)
      */
     @GetMapping("/{userId}")
     @LogProcessingTime
-    public ResponseEntity<User> getUserById(@Valid @PathVariable Long userId) {
+    @RateLimited("lookup")
+    public Object getUserById(@Valid @PathVariable Long userId, WebRequest request) {
+        return execute(() -> lookup(userId, request));
+    }
+
+    private ResponseEntity<UserResponse> lookup(Long userId, WebRequest request) {
+        List<MediaType> acceptedTypes = acceptedTypes(request);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String eTag = UserResponse.eTag(userService.getUserVersion(userId), acceptedTypes);
+            if (request.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag)
+                        .cacheControl(cacheControl)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+        }
         User user = userService.getUserById(userId);
-        return new ResponseEntity<>(user, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(UserResponse.eTag(user.getVersion(), acceptedTypes))
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(UserResponse.from(user));
+    }
+
+    private static List<MediaType> acceptedTypes(WebRequest request) {
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return MediaType.parseMediaTypes(Arrays.asList(accept));
+        } catch (InvalidMediaTypeException ex) {
+            // Rejected by content negotiation once the handler returns.
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Runs a handler on the calling thread, or on the request executor in async execution mode. Spring MVC picks
+     * the return value handler from the runtime type of the result, so the platform mode never starts async
+     * processing.
+     */
+    private <T> Object execute(Supplier<T> handler) {
+        if (requestExecutor == null) {
+            return handler.get();
+        }
+        try {
+            return requestExecutor.submit(handler);
+        } catch (RejectedExecutionException ex) {
+            throw new ServiceOverloadedException("Service overloaded, please retry later!");
+        }
+    }
+
+    /**
+     * Checks if an Accept-Encoding header accepts gzip, listed as gzip or x-gzip, or else covered by "*", with
+     * a quality value above 0. A malformed quality value counts as 0.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = quality;
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
     }
 }
@@ -0,0 +1,28 @@
+package com.example.usersapi.event;
+
+import com.example.usersapi.model.User;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Application event published once newly registered users have been committed to the database.
+ * A single registration publishes one event with one user; a bulk registration publishes one event per chunk.
+ */
+public class UsersRegisteredEvent {
+
+    private final List<User> users;
+
+    /**
+     * Constructor for the UsersRegisteredEvent class.
+     *
+     * @param users the committed users
+     */
+    public UsersRegisteredEvent(List<User> users) {
+        this.users = Collections.unmodifiableList(users);
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+}
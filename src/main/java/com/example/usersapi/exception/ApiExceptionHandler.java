@@ -1,18 +1,28 @@
 package com.example.usersapi.exception;
 
+import com.example.usersapi.model.ApiError;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The ApiExceptionHandler class is a global exception handler for handling different types of exceptions
  * that may occur in the API. It uses the @ControllerAdvice annotation to handle exceptions globally
- * across all controllers in the application.
+ * across all controllers in the application, on Spring MVC as well as on WebFlux in the reactive profile.
+ * Errors are returned as {@link ApiError} bodies, in the representation negotiated for the request.
+ * The exceptions of expected outcomes, such as an unknown user or a taken username, do not capture a stack trace.
  */
 @ControllerAdvice
 public class ApiExceptionHandler {
@@ -25,8 +35,8 @@ public class ApiExceptionHandler {
      * @see InvalidUserException
      */
     @ExceptionHandler(InvalidUserException.class)
-    public ResponseEntity<String> invalidUserException(InvalidUserException ex){
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    public ResponseEntity<ApiError> invalidUserException(InvalidUserException ex){
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
     /**
@@ -37,8 +47,24 @@ public class ApiExceptionHandler {
      * @see DuplicateUsernameException
      */
     @ExceptionHandler(DuplicateUsernameException.class)
-    public ResponseEntity<String> duplicateUsernameException(DuplicateUsernameException ex){
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    public ResponseEntity<ApiError> duplicateUsernameException(DuplicateUsernameException ex){
+        return error(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    /**
+     * Handles DataIntegrityViolationException and returns a ResponseEntity with a CONFLICT status.
+     * Violations of the unique username constraint are reported like a DuplicateUsernameException.
+     *
+     * @param ex The DataIntegrityViolationException that occurred.
+     * @return A ResponseEntity with an error message and a CONFLICT status.
+     * @see ConstraintViolations#isDuplicateUsername(DataIntegrityViolationException)
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiError> dataIntegrityViolationException(DataIntegrityViolationException ex) {
+        if (ConstraintViolations.isDuplicateUsername(ex)) {
+            return duplicateUsernameException(new DuplicateUsernameException("Username already exists!"));
+        }
+        return error(HttpStatus.CONFLICT, "data integrity violation!");
     }
 
     /**
@@ -49,26 +75,127 @@ public class ApiExceptionHandler {
      * @see ResourceNotFoundException
      */
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<String> resourceNotFoundException(ResourceNotFoundException ex){
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    public ResponseEntity<ApiError> resourceNotFoundException(ResourceNotFoundException ex){
+        return error(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    /**
+     * Handles RegistrationQueueFullException and returns a ResponseEntity with a TOO_MANY_REQUESTS status, a
+     * Retry-After header and the exception message.
+     *
+     * @param ex The RegistrationQueueFullException that occurred.
+     * @return A ResponseEntity with the exception message and a TOO_MANY_REQUESTS status.
+     * @see RegistrationQueueFullException
+     */
+    @ExceptionHandler(RegistrationQueueFullException.class)
+    public ResponseEntity<ApiError> registrationQueueFullException(RegistrationQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiError(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage()));
+    }
+
+    /**
+     * Handles RateLimitExceededException and returns a ResponseEntity with a TOO_MANY_REQUESTS status, a
+     * Retry-After header giving the seconds until the client may be served again, and the exception message.
+     *
+     * @param ex The RateLimitExceededException that occurred.
+     * @return A ResponseEntity with the exception message and a TOO_MANY_REQUESTS status.
+     * @see RateLimitExceededException
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiError> rateLimitExceededException(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiError(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage()));
+    }
+
+    /**
+     * Handles ServiceOverloadedException and returns a ResponseEntity with a SERVICE_UNAVAILABLE status, a
+     * Retry-After header and the exception message.
+     *
+     * @param ex The ServiceOverloadedException that occurred.
+     * @return A ResponseEntity with the exception message and a SERVICE_UNAVAILABLE status.
+     * @see ServiceOverloadedException
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> serviceOverloadedException(ServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    /**
+     * Handles InvalidCursorException and returns a ResponseEntity with a BAD_REQUEST status and the exception message.
+     *
+     * @param ex The InvalidCursorException that occurred.
+     * @return A ResponseEntity with the exception message and a BAD_REQUEST status.
+     * @see InvalidCursorException
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiError> invalidCursorException(InvalidCursorException ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    /**
+     * Handles InvalidLookupException and returns a ResponseEntity with a BAD_REQUEST status and the exception message.
+     *
+     * @param ex The InvalidLookupException that occurred.
+     * @return A ResponseEntity with the exception message and a BAD_REQUEST status.
+     * @see InvalidLookupException
+     */
+    @ExceptionHandler(InvalidLookupException.class)
+    public ResponseEntity<ApiError> invalidLookupException(InvalidLookupException ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    /**
+     * Handles InvalidSegmentException and returns a ResponseEntity with a BAD_REQUEST status and the exception message.
+     *
+     * @param ex The InvalidSegmentException that occurred.
+     * @return A ResponseEntity with the exception message and a BAD_REQUEST status.
+     * @see InvalidSegmentException
+     */
+    @ExceptionHandler(InvalidSegmentException.class)
+    public ResponseEntity<ApiError> invalidSegmentException(InvalidSegmentException ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    /**
+     * Handles InvalidChangeOffsetException and returns a ResponseEntity with a BAD_REQUEST status and the exception message.
+     *
+     * @param ex The InvalidChangeOffsetException that occurred.
+     * @return A ResponseEntity with the exception message and a BAD_REQUEST status.
+     * @see InvalidChangeOffsetException
+     */
+    @ExceptionHandler(InvalidChangeOffsetException.class)
+    public ResponseEntity<ApiError> invalidChangeOffsetException(InvalidChangeOffsetException ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
     /**
      * Handles MethodArgumentNotValidException and returns a ResponseEntity with a BAD_REQUEST status and
-     * the validation error messages concatenated into a single string.
+     * the message of every validation error.
      *
      * @param ex The MethodArgumentNotValidException that occurred.
      * @return A ResponseEntity with the validation error messages and a BAD_REQUEST status.
      * @see MethodArgumentNotValidException
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<String> handleConstraintViolationException(MethodArgumentNotValidException ex) {
-        StringBuilder errorsBuilder = new StringBuilder();
-        for (ObjectError error : ex.getBindingResult().getAllErrors()){
-            errorsBuilder.append(error.getDefaultMessage());
-            errorsBuilder.append("\n");
-        }
-        return new ResponseEntity<>(errorsBuilder.toString(), HttpStatus.BAD_REQUEST);
+    public ResponseEntity<ApiError> handleConstraintViolationException(MethodArgumentNotValidException ex) {
+        return validationError(ex.getBindingResult());
+    }
+
+    /**
+     * Handles WebExchangeBindException, the WebFlux counterpart of MethodArgumentNotValidException, and returns
+     * a ResponseEntity with a BAD_REQUEST status and the message of every validation error.
+     *
+     * @param ex The WebExchangeBindException that occurred.
+     * @return A ResponseEntity with the validation error messages and a BAD_REQUEST status.
+     * @see WebExchangeBindException
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiError> webExchangeBindException(WebExchangeBindException ex) {
+        return validationError(ex.getBindingResult());
     }
 
     /**
@@ -79,7 +206,34 @@ public class ApiExceptionHandler {
      * @see DateTimeParseException
      */
     @ExceptionHandler(DateTimeParseException.class)
-    public ResponseEntity<String> dateTimeParseException(DateTimeParseException ex) {
-        return new ResponseEntity<>("invalid date format!", HttpStatus.BAD_REQUEST);
+    public ResponseEntity<ApiError> dateTimeParseException(DateTimeParseException ex) {
+        return error(HttpStatus.BAD_REQUEST, "invalid date format!");
+    }
+
+    /**
+     * Handles RuntimeJsonMappingException raised while reading a streamed bulk registration request and returns
+     * a ResponseEntity with a BAD_REQUEST status and a generic error message.
+     *
+     * @param ex The RuntimeJsonMappingException that occurred.
+     * @return A ResponseEntity with a generic error message and a BAD_REQUEST status.
+     * @see RuntimeJsonMappingException
+     */
+    @ExceptionHandler(RuntimeJsonMappingException.class)
+    public ResponseEntity<ApiError> runtimeJsonMappingException(RuntimeJsonMappingException ex) {
+        return error(HttpStatus.BAD_REQUEST, "invalid user record!");
+    }
+
+    private static ResponseEntity<ApiError> error(HttpStatus status, String message) {
+        return new ResponseEntity<>(new ApiError(status, message), status);
+    }
+
+    private static ResponseEntity<ApiError> validationError(BindingResult bindingResult) {
+        List<ObjectError> errors = bindingResult.getAllErrors();
+        List<String> violations = new ArrayList<>(errors.size());
+        for (ObjectError error : errors) {
+            violations.add(error.getDefaultMessage());
+        }
+        return new ResponseEntity<>(new ApiError(HttpStatus.BAD_REQUEST, "invalid request!", violations),
+                HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+}
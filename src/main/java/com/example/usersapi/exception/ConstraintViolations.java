@@ -0,0 +1,40 @@
+package com.example.usersapi.exception;
+
+import com.example.usersapi.model.User;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Helper methods for recognizing database constraint violations raised by the persistence layer.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Checks if the given exception was caused by the unique constraint on the username column.
+     * R2DBC drivers do not report the constraint name separately, so it is looked up in the driver message.
+     *
+     * @param ex The DataIntegrityViolationException raised by the persistence layer.
+     * @return true if a user with the same username already exists, false otherwise.
+     * @see User#USERNAME_CONSTRAINT
+     */
+    public static boolean isDuplicateUsername(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                return constraintName != null
+                        && constraintName.toLowerCase(Locale.ROOT).contains(User.USERNAME_CONSTRAINT);
+            }
+            if (cause instanceof R2dbcDataIntegrityViolationException) {
+                String message = cause.getMessage();
+                return message != null && message.toLowerCase(Locale.ROOT).contains(User.USERNAME_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+}
@@ -3,6 +3,6 @@ package com.example.usersapi.exception;
 public class DuplicateUsernameException extends RuntimeException {
 
     public DuplicateUsernameException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
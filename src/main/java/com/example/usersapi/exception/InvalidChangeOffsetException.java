@@ -0,0 +1,8 @@
+package com.example.usersapi.exception;
+
+public class InvalidChangeOffsetException extends RuntimeException {
+
+    public InvalidChangeOffsetException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.usersapi.exception;
+
+public class InvalidLookupException extends RuntimeException {
+
+    public InvalidLookupException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.usersapi.exception;
+
+public class InvalidSegmentException extends RuntimeException {
+
+    public InvalidSegmentException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -3,6 +3,6 @@ package com.example.usersapi.exception;
 public class InvalidUserException extends RuntimeException {
 
     public InvalidUserException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
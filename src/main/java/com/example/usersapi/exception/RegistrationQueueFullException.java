@@ -0,0 +1,8 @@
+package com.example.usersapi.exception;
+
+public class RegistrationQueueFullException extends RuntimeException {
+
+    public RegistrationQueueFullException(String message) {
+        super(message, null, false, false);
+    }
+}
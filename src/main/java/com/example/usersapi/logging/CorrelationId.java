@@ -0,0 +1,57 @@
+package com.example.usersapi.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The correlation ID tying together the log lines of one request, and the response returned for it.
+ * The ID is stored in the MDC under {@value #MDC_KEY}, so every log line of the request carries it.
+ */
+public final class CorrelationId {
+
+    /**
+     * Key of the correlation ID in the MDC, and name of the field holding it in JSON log lines.
+     */
+    public static final String MDC_KEY = "correlationId";
+
+    /**
+     * Maximum length of a correlation ID sent by a client.
+     */
+    static final int MAX_LENGTH = 64;
+
+    private CorrelationId() {
+    }
+
+    /**
+     * Returns the correlation ID sent by a client if it is safe to log, or a new random ID otherwise.
+     * A client ID is accepted when it is at most {@value #MAX_LENGTH} letters, digits, dashes, underscores or dots.
+     *
+     * @param requested the correlation ID sent by the client, or null
+     * @return the correlation ID of the request
+     */
+    public static String resolve(String requested) {
+        if (requested != null && !requested.isEmpty() && requested.length() <= MAX_LENGTH) {
+            boolean valid = true;
+            for (int i = 0; i < requested.length() && valid; i++) {
+                char c = requested.charAt(i);
+                valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                        || c == '-' || c == '_' || c == '.';
+            }
+            if (valid) {
+                return requested;
+            }
+        }
+        return generate();
+    }
+
+    /**
+     * Generates a random correlation ID of 16 hexadecimal digits.
+     * It is drawn from {@link ThreadLocalRandom}, which unlike {@link java.util.UUID#randomUUID()} does not
+     * contend on a shared secure random generator.
+     *
+     * @return the new correlation ID
+     */
+    public static String generate() {
+        String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.usersapi.logging;
+
+import com.example.usersapi.config.LoggingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.usersapi.logging.LogField.kv;
+
+/**
+ * Servlet filter assigning a correlation ID to every request and writing one access log line per request.
+ * The ID is put in the MDC for the duration of the request and returned in the correlation header. The access
+ * line is logged to the {@value #ACCESS_LOGGER} logger, which is written asynchronously as JSON lines.
+ * A request processed asynchronously is filtered again when it is dispatched back, with the same ID, and its access
+ * line is logged once, at the end of that last dispatch, with its final status and whole duration.
+ * It is replaced by the {@link ReactiveCorrelationIdFilter} in the reactive profile.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the logger requests are logged to.
+     */
+    public static final String ACCESS_LOGGER = "usersapi.access";
+
+    private static final Logger accessLogger = LoggerFactory.getLogger(ACCESS_LOGGER);
+
+    private static final String START_TIME_ATTRIBUTE = CorrelationIdFilter.class.getName() + ".startTime";
+
+    private static final String CORRELATION_ID_ATTRIBUTE = CorrelationIdFilter.class.getName() + ".correlationId";
+
+    private final String correlationHeader;
+
+    private final boolean accessLog;
+
+    /**
+     * Constructor for CorrelationIdFilter class.
+     *
+     * @param properties The request logging configuration.
+     */
+    @Autowired
+    public CorrelationIdFilter(LoggingProperties properties) {
+        this.correlationHeader = properties.getCorrelationHeader();
+        this.accessLog = properties.isAccessLog();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long asyncStartTime = (Long) request.getAttribute(START_TIME_ATTRIBUTE);
+        long startTime;
+        String correlationId;
+        if (asyncStartTime != null && isAsyncDispatch(request)) {
+            startTime = asyncStartTime;
+            correlationId = (String) request.getAttribute(CORRELATION_ID_ATTRIBUTE);
+        } else {
+            startTime = System.nanoTime();
+            correlationId = CorrelationId.resolve(request.getHeader(correlationHeader));
+            response.setHeader(correlationHeader, correlationId);
+        }
+        MDC.put(CorrelationId.MDC_KEY, correlationId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (isAsyncStarted(request)) {
+                request.setAttribute(START_TIME_ATTRIBUTE, startTime);
+                request.setAttribute(CORRELATION_ID_ATTRIBUTE, correlationId);
+            } else if (accessLog && accessLogger.isInfoEnabled()) {
+                accessLogger.info("{} {} {} {}", kv("method", request.getMethod()), kv("path", request.getRequestURI()),
+                        kv("status", response.getStatus()),
+                        kv("durationMicros", TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime)));
+            }
+            MDC.remove(CorrelationId.MDC_KEY);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.usersapi.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Logback encoder writing every event as one line of JSON.
+ * Each line holds the timestamp, level, logger, thread and formatted message of the event, its MDC entries (such
+ * as the correlation ID of the request) and its {@link LogField} arguments as top-level fields, and the stack
+ * trace of its exception if any.
+ */
+public class JsonLineEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final SerializedString TIMESTAMP = new SerializedString("@timestamp");
+    private static final SerializedString LEVEL = new SerializedString("level");
+    private static final SerializedString LOGGER = new SerializedString("logger");
+    private static final SerializedString THREAD = new SerializedString("thread");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString EXCEPTION = new SerializedString("exception");
+    private static final SerializedString STACK_TRACE = new SerializedString("stackTrace");
+
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeFieldName(TIMESTAMP);
+            generator.writeString(Instant.ofEpochMilli(event.getTimeStamp()).toString());
+            generator.writeFieldName(LEVEL);
+            generator.writeString(event.getLevel().toString());
+            generator.writeFieldName(LOGGER);
+            generator.writeString(event.getLoggerName());
+            generator.writeFieldName(THREAD);
+            generator.writeString(event.getThreadName());
+            generator.writeFieldName(MESSAGE);
+            generator.writeString(event.getFormattedMessage());
+            for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+                generator.writeStringField(entry.getKey(), entry.getValue());
+            }
+            Object[] arguments = event.getArgumentArray();
+            if (arguments != null) {
+                for (Object argument : arguments) {
+                    if (argument instanceof LogField) {
+                        writeField(generator, (LogField) argument);
+                    }
+                }
+            }
+            IThrowableProxy throwable = event.getThrowableProxy();
+            if (throwable != null) {
+                generator.writeFieldName(EXCEPTION);
+                generator.writeString(throwable.getClassName() + ": " + throwable.getMessage());
+                generator.writeFieldName(STACK_TRACE);
+                generator.writeString(ThrowableProxyUtil.asString(throwable));
+            }
+            generator.writeEndObject();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        out.write(LINE_SEPARATOR, 0, 1);
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private static void writeField(JsonGenerator generator, LogField field) throws IOException {
+        Object value = field.getValue();
+        generator.writeFieldName(field.getName());
+        if (value instanceof Long || value instanceof Integer) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.usersapi.logging;
+
+/**
+ * A named value passed as a log argument.
+ * It is formatted as {@code name=value} in text logs, and written as a field of its own by the
+ * {@link JsonLineEncoder}, so that log lines can be queried by field.
+ */
+public final class LogField {
+
+    private final String name;
+
+    private final Object value;
+
+    private LogField(String name, Object value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    /**
+     * Creates a log field.
+     *
+     * @param name  the name of the field
+     * @param value the value of the field, written as a JSON number or boolean when it is one
+     * @return the field
+     */
+    public static LogField kv(String name, Object value) {
+        return new LogField(name, value);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + value;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.usersapi.logging;
+
+import com.example.usersapi.config.LoggingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.example.usersapi.logging.LogField.kv;
+
+/**
+ * WebFlux counterpart of the {@link CorrelationIdFilter}, used in the reactive profile.
+ * A request runs on several threads, so the correlation ID is kept as an exchange attribute named
+ * {@value CorrelationId#MDC_KEY} and only put in the MDC while the access line is logged.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveCorrelationIdFilter implements WebFilter {
+
+    private static final Logger accessLogger = LoggerFactory.getLogger(CorrelationIdFilter.ACCESS_LOGGER);
+
+    private final String correlationHeader;
+
+    private final boolean accessLog;
+
+    /**
+     * Constructor for ReactiveCorrelationIdFilter class.
+     *
+     * @param properties The request logging configuration.
+     */
+    @Autowired
+    public ReactiveCorrelationIdFilter(LoggingProperties properties) {
+        this.correlationHeader = properties.getCorrelationHeader();
+        this.accessLog = properties.isAccessLog();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long startTime = System.nanoTime();
+        ServerHttpRequest request = exchange.getRequest();
+        String correlationId = CorrelationId.resolve(request.getHeaders().getFirst(correlationHeader));
+        exchange.getAttributes().put(CorrelationId.MDC_KEY, correlationId);
+        exchange.getResponse().getHeaders().set(correlationHeader, correlationId);
+        if (!accessLog) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).doFinally(signal -> {
+            if (accessLogger.isInfoEnabled()) {
+                MDC.put(CorrelationId.MDC_KEY, correlationId);
+                try {
+                    accessLogger.info("{} {} {} {}", kv("method", request.getMethodValue()),
+                            kv("path", request.getPath().value()), kv("status", exchange.getResponse().getRawStatusCode()),
+                            kv("durationMicros", TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime)));
+                } finally {
+                    MDC.remove(CorrelationId.MDC_KEY);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.usersapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import com.example.usersapi.util.MpscRingQueue;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logback appender handing events over to a background thread through a lock-free {@link MpscRingQueue}, which
+ * writes them to the attached appenders.
+ * Logging threads only prepare the event and offer it to the ring buffer: they never block, take a lock nor wake
+ * the writer, which polls the buffer and drains it in batches. When the buffer is full, events up to the discarding
+ * level (INFO by default) are dropped and counted, and the count is reported in the Logback status once the buffer
+ * has room again; more severe events are never dropped but written by the logging thread itself, possibly ahead of
+ * the events still queued.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private int capacity = 8192;
+
+    private int maxBatchSize = 256;
+
+    private Level discardingLevel = Level.INFO;
+
+    private MpscRingQueue<ILoggingEvent> queue;
+
+    private volatile Thread writer;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        queue = new MpscRingQueue<>(capacity);
+        super.start();
+        Thread thread = new Thread(this::drainQueue, "logging-" + getName());
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the appender once the events already queued are written, then stops the attached appenders.
+     */
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        Thread current = writer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (!queue.offer(event)) {
+            if (event.getLevel().toInt() > discardingLevel.toInt()) {
+                appenders.appendLoopOnAppenders(event);
+            } else {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The loop of the writer thread: drain the queue in batches until the appender is stopped and the queue is
+     * empty, parking while it is empty.
+     */
+    private void drainQueue() {
+        while (true) {
+            int drained = queue.drain(appenders::appendLoopOnAppenders, maxBatchSize);
+            if (drained == 0) {
+                if (!isStarted() && queue.size() == 0) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            long lost = dropped.get();
+            if (lost > 0) {
+                addWarn("The ring buffer was full, " + dropped.getAndAdd(-lost) + " events were dropped");
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the number of events the ring buffer holds, rounded up to a power of two.
+     *
+     * @param capacity the capacity of the ring buffer
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Level getDiscardingLevel() {
+        return discardingLevel;
+    }
+
+    /**
+     * Sets the most severe level of the events dropped when the ring buffer is full; more severe events are written
+     * synchronously instead.
+     *
+     * @param discardingLevel the most severe level dropped
+     */
+    public void setDiscardingLevel(Level discardingLevel) {
+        this.discardingLevel = discardingLevel;
+    }
+
+    /**
+     * Returns the number of events dropped since the last report.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.usersapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The body of an error response of the API.
+ * It holds the HTTP status code and reason phrase, a message for the client and, for requests failing
+ * validation, the message of every violated constraint.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ApiError {
+
+    private final int status;
+
+    private final String error;
+
+    private final String message;
+
+    private final List<String> violations;
+
+    /**
+     * Constructor for the ApiError class.
+     *
+     * @param status     the HTTP status of the response
+     * @param message    the message for the client
+     * @param violations the messages of the violated constraints, empty unless the request failed validation
+     */
+    public ApiError(HttpStatus status, String message, List<String> violations) {
+        this.status = status.value();
+        this.error = status.getReasonPhrase();
+        this.message = message;
+        this.violations = violations;
+    }
+
+    /**
+     * Constructor for the ApiError class, for errors other than validation failures.
+     *
+     * @param status  the HTTP status of the response
+     * @param message the message for the client
+     */
+    public ApiError(HttpStatus status, String message) {
+        this(status, message, Collections.emptyList());
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public List<String> getViolations() {
+        return violations;
+    }
+}
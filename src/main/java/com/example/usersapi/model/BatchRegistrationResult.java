@@ -0,0 +1,90 @@
+package com.example.usersapi.model;
+
+/**
+ * The outcome of registering a single user as part of a bulk registration request.
+ * Results are reported in the same order as the submitted users, and {@link #getIndex()}
+ * refers to the position of the user in the request.
+ */
+public class BatchRegistrationResult {
+
+    /**
+     * The possible outcomes of a bulk registration item.
+     */
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        REJECTED
+    }
+
+    private final int index;
+
+    private final String username;
+
+    private final Status status;
+
+    private final Long id;
+
+    private final String message;
+
+    private BatchRegistrationResult(int index, String username, Status status, Long id, String message) {
+        this.index = index;
+        this.username = username;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    /**
+     * Creates a result for a user that was inserted.
+     *
+     * @param index the position of the user in the request
+     * @param user  the persisted user
+     * @return the CREATED result
+     */
+    public static BatchRegistrationResult created(int index, User user) {
+        return new BatchRegistrationResult(index, user.getUsername(), Status.CREATED, user.getId(), null);
+    }
+
+    /**
+     * Creates a result for a user whose username already exists, either in the database or earlier in the request.
+     *
+     * @param index    the position of the user in the request
+     * @param username the duplicate username
+     * @return the DUPLICATE result
+     */
+    public static BatchRegistrationResult duplicate(int index, String username) {
+        return new BatchRegistrationResult(index, username, Status.DUPLICATE, null, "Username already exists!");
+    }
+
+    /**
+     * Creates a result for a user that failed validation or the registration criteria.
+     *
+     * @param index    the position of the user in the request
+     * @param username the username of the rejected user
+     * @param message  the reason for the rejection
+     * @return the REJECTED result
+     */
+    public static BatchRegistrationResult rejected(int index, String username, String message) {
+        return new BatchRegistrationResult(index, username, Status.REJECTED, null, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.usersapi.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The genders a user may declare, stored and returned as their one-letter code.
+ * A gender may be given as its code, or as an English or French word, in any case; see {@link #normalize(String)}.
+ */
+public enum Gender {
+
+    FEMALE("F", "FEMALE", "WOMAN", "W", "FEMME", "FEMININ", "FÉMININ"),
+    MALE("M", "MALE", "MAN", "HOMME", "H", "MASCULIN"),
+    OTHER("X", "OTHER", "NON-BINARY", "NONBINARY", "NON BINARY", "AUTRE", "NON-BINAIRE", "NON BINAIRE");
+
+    private static final Map<String, Gender> GENDERS_BY_NAME = new HashMap<>();
+
+    static {
+        for (Gender gender : values()) {
+            GENDERS_BY_NAME.put(gender.code, gender);
+            for (String name : gender.names) {
+                GENDERS_BY_NAME.put(name, gender);
+            }
+        }
+    }
+
+    private final String code;
+
+    private final String[] names;
+
+    Gender(String code, String... names) {
+        this.code = code;
+        this.names = names;
+    }
+
+    /**
+     * Returns the code the gender is stored and returned as.
+     *
+     * @return the one-letter code of the gender
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Finds the gender given as a code or a word.
+     *
+     * @param gender the gender as entered, e.g. "F", "female" or "femme"
+     * @return the gender, or null if the input is null or not a known gender
+     */
+    public static Gender of(String gender) {
+        return gender == null ? null : GENDERS_BY_NAME.get(gender.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Normalizes a gender to its code.
+     *
+     * @param gender the gender as entered, e.g. "F", "female" or "femme"
+     * @return the code of the gender, the trimmed input if it is not a known gender, or null if the input is null
+     */
+    public static String normalize(String gender) {
+        if (gender == null) {
+            return null;
+        }
+        Gender known = of(gender);
+        return known != null ? known.code : gender.trim();
+    }
+
+    /**
+     * Checks if a gender is the code of a known gender.
+     *
+     * @param gender the gender to check
+     * @return true if the gender is a normalized gender
+     */
+    public static boolean isCode(String gender) {
+        Gender known = of(gender);
+        return known != null && known.code.equals(gender);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.usersapi.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The state of a registration submitted in write-behind mode.
+ * A queued registration starts PENDING and is resolved once the group it was committed with is done.
+ * Callers in the application wait on {@link #getCompletion()}; HTTP clients poll the status by ticket.
+ */
+public class QueuedRegistration {
+
+    /**
+     * The possible states of a queued registration.
+     */
+    public enum Status {
+        PENDING,
+        CREATED,
+        DUPLICATE,
+        REJECTED,
+        FAILED
+    }
+
+    private final String ticket;
+
+    private final String username;
+
+    private final CompletableFuture<User> completion = new CompletableFuture<>();
+
+    private volatile Status status = Status.PENDING;
+
+    private volatile Long id;
+
+    private volatile String message;
+
+    /**
+     * Constructor for the QueuedRegistration class.
+     *
+     * @param ticket   the identifier the status of the registration is looked up with
+     * @param username the username of the registered user
+     */
+    public QueuedRegistration(String ticket, String username) {
+        this.ticket = ticket;
+        this.username = username;
+    }
+
+    /**
+     * Records the outcome of the registration.
+     * The completion future is completed separately, after the outcome is visible to status lookups.
+     *
+     * @param status  the final status
+     * @param id      the ID of the created user, or null
+     * @param message the reason the user was not created, or null
+     */
+    public void resolve(Status status, Long id, String message) {
+        this.id = id;
+        this.message = message;
+        this.status = status;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @JsonIgnore
+    public CompletableFuture<User> getCompletion() {
+        return completion;
+    }
+}
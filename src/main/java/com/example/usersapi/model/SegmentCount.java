@@ -0,0 +1,47 @@
+package com.example.usersapi.model;
+
+import java.util.Comparator;
+
+/**
+ * The number of users of one segment, the users sharing a country of residence and a gender.
+ */
+public class SegmentCount {
+
+    /**
+     * Order of segments in responses: by country, then by gender, users without a gender first.
+     */
+    public static final Comparator<SegmentCount> ORDER = Comparator
+            .comparing(SegmentCount::getCountry, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(SegmentCount::getGender, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    private final String country;
+
+    private final String gender;
+
+    private final long count;
+
+    /**
+     * Constructor for the SegmentCount class, also used by the segment count queries.
+     *
+     * @param country the country of residence of the segment
+     * @param gender  the gender of the segment, null for users without a gender
+     * @param count   the number of users of the segment
+     */
+    public SegmentCount(String country, String gender, long count) {
+        this.country = country;
+        this.gender = gender;
+        this.count = count;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.usersapi.model;
+
+import java.util.List;
+
+/**
+ * The number of users of every segment, read from a single snapshot of the users.
+ */
+public class SegmentCountSnapshot {
+
+    private final List<SegmentCount> segments;
+
+    /**
+     * Constructor for the SegmentCountSnapshot class.
+     *
+     * @param segments the counts of the segments with users
+     */
+    public SegmentCountSnapshot(List<SegmentCount> segments) {
+        this.segments = segments;
+    }
+
+    public List<SegmentCount> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Returns the number of users counted in all segments.
+     *
+     * @return the total of the segment counts
+     */
+    public long getUserCount() {
+        long users = 0;
+        for (SegmentCount segment : segments) {
+            users += segment.getCount();
+        }
+        return users;
+    }
+}
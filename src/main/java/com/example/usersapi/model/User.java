@@ -1,20 +1,63 @@
 package com.example.usersapi.model;
 
+import com.example.usersapi.util.CountryCodes;
+import com.example.usersapi.util.PhoneNumbers;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Past;
 import java.time.LocalDate;
-import java.time.Period;
 
 @Entity
-@Table(name="_user")
+@Table(name="_user",
+        uniqueConstraints = @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        indexes = {
+                @Index(name = "idx_user_country_id", columnList = "countryOfResidence, id"),
+                @Index(name = "idx_user_gender_id", columnList = "gender, id"),
+                @Index(name = "idx_user_birthdate_id", columnList = "birthdate, id"),
+                @Index(name = "idx_user_segment", columnList = "countryOfResidence, gender, birthdate")
+        })
 public class User {
 
+    /**
+     * Name of the unique constraint (and index) on the username column.
+     */
+    public static final String USERNAME_CONSTRAINT = "uk_user_username";
+
+    /**
+     * Name of the sequence IDs are allocated from.
+     */
+    public static final String ID_SEQUENCE = "user_seq";
+
+    /**
+     * Number of IDs reserved by each call to the {@value #ID_SEQUENCE} sequence.
+     * Each sequence value is the first ID of its block (pooled-lo), so that other writers sharing the sequence,
+     * such as the reactive repository, can allocate IDs the same way.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Message of the violation reported for a phone number that is not a valid phone number.
+     */
+    public static final String PHONE_NUMBER_MESSAGE = "phoneNumber should be a valid phone number";
+
+    /**
+     * Message of the violation reported for a gender that is not a known gender.
+     */
+    public static final String GENDER_MESSAGE = "gender should be female, male or other";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @GenericGenerator(name = ID_SEQUENCE, strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = ID_SEQUENCE),
+            @Parameter(name = "increment_size", value = "" + ID_ALLOCATION_SIZE),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
     @NotBlank(message = "username should not be blank")
@@ -31,6 +74,15 @@ public class User {
 
     private String gender;
 
+    /**
+     * Version of the user, incremented by Hibernate on every update and exposed to clients only as an ETag.
+     * The column default lets the schema update add it to tables that already hold users.
+     */
+    @Version
+    @JsonIgnore
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+
     public User() {
     }
 
@@ -39,38 +91,16 @@ public class User {
      *
      * @param username           the username of the user
      * @param birthdate          the birthdate of the user
-     * @param countryOfResidence the country of residence of the user
-     * @param phoneNumber       the phone number of the user
-     * @param gender             the gender of the user
+     * @param countryOfResidence the country of residence of the user, normalized to its ISO code
+     * @param phoneNumber        the phone number of the user, normalized to the E.164 format
+     * @param gender             the gender of the user, normalized to the code of its {@link Gender}
      */
     public User(String username, LocalDate birthdate, String countryOfResidence, String phoneNumber, String gender) {
         this.username = username;
         this.birthdate = birthdate;
-        this.countryOfResidence = countryOfResidence;
-        this.phoneNumber = phoneNumber;
-        this.gender = gender;
-    }
-
-    /**
-     * Checks if the user is an adult based on their birthdate.
-     *
-     * @return true if the user is an adult, false otherwise
-     */
-    @JsonIgnore
-    public boolean isAdult() {
-        LocalDate currentDate = LocalDate.now();
-        int age = Period.between(this.birthdate, currentDate).getYears();
-        return age >= 18;
-    }
-
-    /**
-     * Checks if the user's country of residence is France.
-     *
-     * @return true if the user's country of residence is France, false otherwise
-     */
-    @JsonIgnore
-    public boolean isFrench() {
-        return this.countryOfResidence != null && this.countryOfResidence.equalsIgnoreCase("France");
+        this.countryOfResidence = CountryCodes.normalize(countryOfResidence);
+        this.phoneNumber = PhoneNumbers.normalize(phoneNumber, this.countryOfResidence);
+        this.gender = Gender.normalize(gender);
     }
 
     public Long getId() {
@@ -101,23 +131,72 @@ public class User {
         return countryOfResidence;
     }
 
+    /**
+     * Sets the country of residence, normalized to its ISO 3166-1 alpha-2 code when it is a known country.
+     *
+     * @param countryOfResidence the country of residence of the user, as entered
+     * @see CountryCodes#normalize(String)
+     */
     public void setCountryOfResidence(String countryOfResidence) {
-        this.countryOfResidence = countryOfResidence;
+        this.countryOfResidence = CountryCodes.normalize(countryOfResidence);
+        // A national phone number set before the country can now be read.
+        this.phoneNumber = PhoneNumbers.normalize(phoneNumber, this.countryOfResidence);
     }
 
     public String getPhoneNumber() {
         return phoneNumber;
     }
 
+    /**
+     * Sets the phone number, normalized to the E.164 format when it is a valid international number or national
+     * number of the country of residence.
+     *
+     * @param phoneNumber the phone number of the user, as entered
+     * @see PhoneNumbers#normalize(String, String)
+     */
     public void setPhoneNumber(String phoneNumber) {
-        this.phoneNumber = phoneNumber;
+        this.phoneNumber = PhoneNumbers.normalize(phoneNumber, countryOfResidence);
     }
 
     public String getGender() {
         return gender;
     }
 
+    /**
+     * Sets the gender, normalized to the code of its {@link Gender} when it is a known gender.
+     *
+     * @param gender the gender of the user, as entered
+     * @see Gender#normalize(String)
+     */
     public void setGender(String gender) {
-        this.gender = gender;
+        this.gender = Gender.normalize(gender);
+    }
+
+    /**
+     * Checks that the phone number, if any, could be normalized to the E.164 format.
+     *
+     * @return true if the user has no phone number or a normalized one
+     */
+    @AssertTrue(message = PHONE_NUMBER_MESSAGE)
+    private boolean isPhoneNumberValid() {
+        return phoneNumber == null || PhoneNumbers.isE164(phoneNumber);
+    }
+
+    /**
+     * Checks that the gender, if any, is a known gender.
+     *
+     * @return true if the user has no gender or a normalized one
+     */
+    @AssertTrue(message = GENDER_MESSAGE)
+    private boolean isGenderValid() {
+        return gender == null || Gender.isCode(gender);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
     }
 }
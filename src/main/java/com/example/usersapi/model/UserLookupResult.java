@@ -0,0 +1,57 @@
+package com.example.usersapi.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of looking up several users by ID, as returned by the user lookup endpoint.
+ * Found users and missing IDs are listed separately, each in the order the IDs were requested.
+ */
+public class UserLookupResult {
+
+    private final List<UserResponse> users;
+
+    private final List<Long> missingIds;
+
+    /**
+     * Constructor for the UserLookupResult class.
+     *
+     * @param users      the users found
+     * @param missingIds the requested IDs that no user has
+     */
+    public UserLookupResult(List<UserResponse> users, List<Long> missingIds) {
+        this.users = users;
+        this.missingIds = missingIds;
+    }
+
+    /**
+     * Builds the result of a lookup from the users found for it.
+     *
+     * @param userIds the requested IDs, without duplicates
+     * @param found   the users found, by ID
+     * @return the result listing the found users and the missing IDs in request order
+     */
+    public static UserLookupResult of(Collection<Long> userIds, Map<Long, User> found) {
+        List<UserResponse> users = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>(userIds.size() - found.size());
+        for (Long userId : userIds) {
+            User user = found.get(userId);
+            if (user != null) {
+                users.add(UserResponse.from(user));
+            } else {
+                missingIds.add(userId);
+            }
+        }
+        return new UserLookupResult(users, missingIds);
+    }
+
+    public List<UserResponse> getUsers() {
+        return users;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.usersapi.model;
+
+import java.util.List;
+
+/**
+ * A page of users ordered by ID, as returned by the user listing endpoint.
+ * When more users match, {@link #getNextCursor()} holds the opaque token to pass back to fetch the next page.
+ */
+public class UserPage {
+
+    private final List<UserResponse> users;
+
+    private final String nextCursor;
+
+    /**
+     * Constructor for the UserPage class.
+     *
+     * @param users      the users of the page, ordered by ID
+     * @param nextCursor the cursor of the next page, or null if this is the last page
+     */
+    public UserPage(List<UserResponse> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserResponse> getUsers() {
+        return users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
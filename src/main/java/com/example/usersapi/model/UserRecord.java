@@ -0,0 +1,117 @@
+package com.example.usersapi.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+/**
+ * Row of the {@code _user} table as mapped by Spring Data R2DBC for the reactive profile.
+ * It mirrors the columns of the {@link User} entity, which remains the type used by the services.
+ */
+@Table("_user")
+public class UserRecord {
+
+    @Id
+    private Long id;
+
+    private String username;
+
+    private LocalDate birthdate;
+
+    private String countryOfResidence;
+
+    private String phoneNumber;
+
+    private String gender;
+
+    @Version
+    private Long version;
+
+    /**
+     * Creates the record of a user.
+     *
+     * @param user the user to copy
+     * @return the record with the same column values
+     */
+    public static UserRecord from(User user) {
+        UserRecord userRecord = new UserRecord();
+        userRecord.setId(user.getId());
+        userRecord.setUsername(user.getUsername());
+        userRecord.setBirthdate(user.getBirthdate());
+        userRecord.setCountryOfResidence(user.getCountryOfResidence());
+        userRecord.setPhoneNumber(user.getPhoneNumber());
+        userRecord.setGender(user.getGender());
+        userRecord.setVersion(user.getVersion());
+        return userRecord;
+    }
+
+    /**
+     * Converts the record back to the user exposed by the API.
+     *
+     * @return the user with the same values
+     */
+    public User toUser() {
+        User user = new User(username, birthdate, countryOfResidence, phoneNumber, gender);
+        user.setId(id);
+        user.setVersion(version == null ? 0 : version);
+        return user;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public LocalDate getBirthdate() {
+        return birthdate;
+    }
+
+    public void setBirthdate(LocalDate birthdate) {
+        this.birthdate = birthdate;
+    }
+
+    public String getCountryOfResidence() {
+        return countryOfResidence;
+    }
+
+    public void setCountryOfResidence(String countryOfResidence) {
+        this.countryOfResidence = countryOfResidence;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(String gender) {
+        this.gender = gender;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
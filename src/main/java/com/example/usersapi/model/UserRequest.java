@@ -0,0 +1,98 @@
+package com.example.usersapi.model;
+
+import com.example.usersapi.util.CountryCodes;
+import com.example.usersapi.util.PhoneNumbers;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Past;
+import java.time.LocalDate;
+
+/**
+ * The body of a user registration request.
+ * It holds only the fields a client may set, with the same validation constraints as the {@link User} entity,
+ * and is turned into a new entity once validated. An ID sent by the client is ignored.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class UserRequest {
+
+    @NotBlank(message = "username should not be blank")
+    private final String username;
+
+    @Past
+    @NotNull(message = "birthdate should not be null")
+    private final LocalDate birthdate;
+
+    @NotBlank(message = "countryOfResidence should not be blank")
+    private final String countryOfResidence;
+
+    private final String phoneNumber;
+
+    private final String gender;
+
+    /**
+     * Constructor for the UserRequest class.
+     *
+     * @param username           the username of the user
+     * @param birthdate          the birthdate of the user
+     * @param countryOfResidence the country of residence of the user, as entered
+     * @param phoneNumber        the phone number of the user
+     * @param gender             the gender of the user
+     */
+    @JsonCreator
+    public UserRequest(@JsonProperty("username") String username,
+                       @JsonProperty("birthdate") LocalDate birthdate,
+                       @JsonProperty("countryOfResidence") String countryOfResidence,
+                       @JsonProperty("phoneNumber") String phoneNumber,
+                       @JsonProperty("gender") String gender) {
+        this.username = username;
+        this.birthdate = birthdate;
+        this.countryOfResidence = countryOfResidence;
+        this.phoneNumber = phoneNumber;
+        this.gender = gender;
+    }
+
+    /**
+     * Creates the entity of the user to register.
+     *
+     * @return a new, unsaved user
+     */
+    public User toUser() {
+        return new User(username, birthdate, countryOfResidence, phoneNumber, gender);
+    }
+
+    @AssertTrue(message = User.PHONE_NUMBER_MESSAGE)
+    private boolean isPhoneNumberValid() {
+        return phoneNumber == null
+                || PhoneNumbers.isE164(PhoneNumbers.normalize(phoneNumber, CountryCodes.normalize(countryOfResidence)));
+    }
+
+    @AssertTrue(message = User.GENDER_MESSAGE)
+    private boolean isGenderValid() {
+        return gender == null || Gender.of(gender) != null;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDate getBirthdate() {
+        return birthdate;
+    }
+
+    public String getCountryOfResidence() {
+        return countryOfResidence;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+}
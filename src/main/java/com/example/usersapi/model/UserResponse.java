@@ -0,0 +1,184 @@
+package com.example.usersapi.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The representation of a user returned by the API.
+ * It is an immutable copy of the {@link User} entity, so responses never touch Hibernate-managed objects, and
+ * it is written by a dedicated {@link Serializer} with pre-encoded field names instead of through bean
+ * introspection. The same serializer writes JSON and CBOR.
+ */
+@JsonSerialize(using = UserResponse.Serializer.class)
+public final class UserResponse {
+
+    /**
+     * The media types users are written in, in the order of their message converters.
+     */
+    private static final List<MediaType> REPRESENTATIONS =
+            Arrays.asList(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
+    private final Long id;
+
+    private final String username;
+
+    private final LocalDate birthdate;
+
+    private final String countryOfResidence;
+
+    private final String phoneNumber;
+
+    private final String gender;
+
+    /**
+     * Constructor for the UserResponse class.
+     *
+     * @param id                 the ID of the user
+     * @param username           the username of the user
+     * @param birthdate          the birthdate of the user
+     * @param countryOfResidence the country of residence of the user
+     * @param phoneNumber        the phone number of the user
+     * @param gender             the gender of the user
+     */
+    public UserResponse(Long id, String username, LocalDate birthdate, String countryOfResidence,
+                        String phoneNumber, String gender) {
+        this.id = id;
+        this.username = username;
+        this.birthdate = birthdate;
+        this.countryOfResidence = countryOfResidence;
+        this.phoneNumber = phoneNumber;
+        this.gender = gender;
+    }
+
+    /**
+     * Creates the representation of a user.
+     *
+     * @param user the user to copy
+     * @return the representation of the user
+     */
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getUsername(), user.getBirthdate(), user.getCountryOfResidence(),
+                user.getPhoneNumber(), user.getGender());
+    }
+
+    /**
+     * Returns the strong entity tag of the JSON representation of a user at the given version.
+     * The version is only incremented when the user changes, so the tag changes exactly when the user does.
+     *
+     * @param version the version of the user
+     * @return the quoted entity tag
+     */
+    public static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Returns the strong entity tag of the representation of a user negotiated from the accepted media types.
+     * JSON and CBOR responses have different bytes, so the CBOR tag carries a {@code -cbor} suffix. The
+     * representation is chosen like the message converters do: each accepted type is matched with JSON then CBOR,
+     * and the matches are ordered by specificity and quality, so that a client accepting any media type gets the
+     * JSON tag along with the JSON body.
+     *
+     * @param version       the version of the user
+     * @param acceptedTypes the media types of the Accept header, empty if there is none
+     * @return the quoted entity tag
+     */
+    public static String eTag(long version, List<MediaType> acceptedTypes) {
+        List<MediaType> matches = new ArrayList<>();
+        for (MediaType accepted : acceptedTypes) {
+            for (MediaType representation : REPRESENTATIONS) {
+                if (accepted.isCompatibleWith(representation)) {
+                    matches.add(representation.copyQualityValue(accepted));
+                }
+            }
+        }
+        MediaType.sortBySpecificityAndQuality(matches);
+        if (!matches.isEmpty() && matches.get(0).isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+            return "\"" + version + "-cbor\"";
+        }
+        return eTag(version);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDate getBirthdate() {
+        return birthdate;
+    }
+
+    public String getCountryOfResidence() {
+        return countryOfResidence;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    /**
+     * Writes a UserResponse field by field, in the same shape as the {@link User} entity (ISO birthdate,
+     * null fields included).
+     */
+    public static final class Serializer extends StdSerializer<UserResponse> {
+
+        private static final SerializedString ID = new SerializedString("id");
+
+        private static final SerializedString USERNAME = new SerializedString("username");
+
+        private static final SerializedString BIRTHDATE = new SerializedString("birthdate");
+
+        private static final SerializedString COUNTRY_OF_RESIDENCE = new SerializedString("countryOfResidence");
+
+        private static final SerializedString PHONE_NUMBER = new SerializedString("phoneNumber");
+
+        private static final SerializedString GENDER = new SerializedString("gender");
+
+        public Serializer() {
+            super(UserResponse.class);
+        }
+
+        @Override
+        public void serialize(UserResponse user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject(user, 6);
+            generator.writeFieldName(ID);
+            if (user.id == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(user.id);
+            }
+            writeString(generator, USERNAME, user.username);
+            writeString(generator, BIRTHDATE, user.birthdate == null ? null : user.birthdate.toString());
+            writeString(generator, COUNTRY_OF_RESIDENCE, user.countryOfResidence);
+            writeString(generator, PHONE_NUMBER, user.phoneNumber);
+            writeString(generator, GENDER, user.gender);
+            generator.writeEndObject();
+        }
+
+        private static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+            generator.writeFieldName(name);
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value);
+            }
+        }
+    }
+}
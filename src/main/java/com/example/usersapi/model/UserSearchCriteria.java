@@ -0,0 +1,50 @@
+package com.example.usersapi.model;
+
+import com.example.usersapi.util.CountryCodes;
+
+import java.time.LocalDate;
+
+/**
+ * Filters applied when listing users. Every filter is optional; null filters match all users.
+ */
+public class UserSearchCriteria {
+
+    private final String countryOfResidence;
+
+    private final String gender;
+
+    private final LocalDate bornFrom;
+
+    private final LocalDate bornTo;
+
+    /**
+     * Constructor for the UserSearchCriteria class.
+     *
+     * @param countryOfResidence the country of residence to match, normalized like the one of users
+     * @param gender             the gender to match, normalized like the one of users
+     * @param bornFrom           the earliest birthdate to match, inclusive
+     * @param bornTo             the latest birthdate to match, inclusive
+     */
+    public UserSearchCriteria(String countryOfResidence, String gender, LocalDate bornFrom, LocalDate bornTo) {
+        this.countryOfResidence = CountryCodes.normalize(countryOfResidence);
+        this.gender = Gender.normalize(gender);
+        this.bornFrom = bornFrom;
+        this.bornTo = bornTo;
+    }
+
+    public String getCountryOfResidence() {
+        return countryOfResidence;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public LocalDate getBornFrom() {
+        return bornFrom;
+    }
+
+    public LocalDate getBornTo() {
+        return bornTo;
+    }
+}
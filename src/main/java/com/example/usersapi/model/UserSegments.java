@@ -0,0 +1,32 @@
+package com.example.usersapi.model;
+
+import java.util.List;
+
+/**
+ * The number of users per country of residence and gender, as returned by the segment endpoint.
+ * Segments without users are not listed.
+ */
+public class UserSegments {
+
+    private final List<SegmentCount> segments;
+
+    private final long total;
+
+    /**
+     * Constructor for the UserSegments class.
+     *
+     * @param segments the counts of the segments, ordered by country and gender
+     */
+    public UserSegments(List<SegmentCount> segments) {
+        this.segments = segments;
+        this.total = segments.stream().mapToLong(SegmentCount::getCount).sum();
+    }
+
+    public List<SegmentCount> getSegments() {
+        return segments;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
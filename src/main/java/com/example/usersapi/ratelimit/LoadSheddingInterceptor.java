@@ -0,0 +1,102 @@
+package com.example.usersapi.ratelimit;
+
+import com.example.usersapi.config.LoadSheddingProperties;
+import com.example.usersapi.exception.ServiceOverloadedException;
+import com.example.usersapi.util.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Spring MVC interceptor shedding load once the API is saturated.
+ * Requests are admitted by an {@link AdaptiveConcurrencyLimiter}, whose limit shrinks when the latency of the
+ * admitted requests rises, and requests beyond the limit are rejected with a {@link ServiceOverloadedException}
+ * before the controller is invoked.
+ * The limit, the requests in flight and the rejected requests are published as {@value #LIMIT_METRIC},
+ * {@value #IN_FLIGHT_METRIC} and {@value #REJECTED_METRIC}.
+ * An asynchronous request, such as an event stream, is in flight until its handler returns: the connection it
+ * keeps open afterwards does not count against the limit.
+ */
+public class LoadSheddingInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * Name of the gauge of the concurrency limit.
+     */
+    public static final String LIMIT_METRIC = "usersapi.concurrency.limit";
+
+    /**
+     * Name of the gauge of the requests in flight.
+     */
+    public static final String IN_FLIGHT_METRIC = "usersapi.concurrency.in-flight";
+
+    /**
+     * Name of the counter of rejected requests.
+     */
+    public static final String REJECTED_METRIC = "usersapi.concurrency.rejected";
+
+    private static final String START_TIME_ATTRIBUTE = LoadSheddingInterceptor.class.getName() + ".startTime";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final Counter rejected;
+
+    /**
+     * Constructor for the LoadSheddingInterceptor class.
+     *
+     * @param properties    The load shedding configuration.
+     * @param meterRegistry The registry the limiter metrics are registered in.
+     */
+    public LoadSheddingInterceptor(LoadSheddingProperties properties, MeterRegistry meterRegistry) {
+        this.limiter = new AdaptiveConcurrencyLimiter(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getTolerance(), properties.getSmoothing(), properties.getWindowSize());
+        Gauge.builder(LIMIT_METRIC, limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Maximum number of API requests in flight")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("API requests in flight")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("API requests rejected by the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Service overloaded, please retry later!");
+        }
+        request.setAttribute(START_TIME_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        Long startTime = (Long) request.getAttribute(START_TIME_ATTRIBUTE);
+        if (startTime != null) {
+            request.removeAttribute(START_TIME_ATTRIBUTE);
+            limiter.release(System.nanoTime() - startTime);
+        }
+    }
+
+    AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
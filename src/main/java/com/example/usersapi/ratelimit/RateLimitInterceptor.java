@@ -0,0 +1,116 @@
+package com.example.usersapi.ratelimit;
+
+import com.example.usersapi.config.RateLimitProperties;
+import com.example.usersapi.exception.RateLimitExceededException;
+import com.example.usersapi.util.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Spring MVC interceptor limiting the requests of each client to the endpoints annotated with {@link RateLimited}.
+ * Every endpoint has a {@link TokenBucketRateLimiter} configured by {@code usersapi.rate-limit.endpoints}, and
+ * requests beyond the limit of their client are rejected with a {@link RateLimitExceededException} before the
+ * controller is invoked.
+ * Clients are identified by the configured client header, or by their remote address.
+ * The number of rejected requests and of tracked clients are published per endpoint as
+ * {@value #REJECTED_METRIC} and {@value #CLIENTS_METRIC}.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    /**
+     * Name of the counters of rejected requests.
+     */
+    public static final String REJECTED_METRIC = "usersapi.rate-limit.rejected";
+
+    /**
+     * Name of the gauges of tracked clients.
+     */
+    public static final String CLIENTS_METRIC = "usersapi.rate-limit.clients";
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Map<String, TokenBucketRateLimiter> limiters = new HashMap<>();
+
+    private final Map<String, Counter> rejected = new HashMap<>();
+
+    private final ConcurrentMap<Method, Optional<String>> endpoints = new ConcurrentHashMap<>();
+
+    private final String clientHeader;
+
+    /**
+     * Constructor for the RateLimitInterceptor class.
+     *
+     * @param properties    The rate limit configuration.
+     * @param meterRegistry The registry the limiter metrics are registered in.
+     */
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        String header = properties.getClientHeader();
+        this.clientHeader = header == null || header.isEmpty() ? null : header;
+        properties.getEndpoints().forEach((endpoint, limit) -> {
+            TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(limit.getPermitsPerSecond(), limit.getBurst(),
+                    properties.getIdleExpiry(), properties.getMaxClients(), System::nanoTime);
+            limiters.put(endpoint, limiter);
+            rejected.put(endpoint, Counter.builder(REJECTED_METRIC)
+                    .description("Requests rejected by the per-client rate limit")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry));
+            Gauge.builder(CLIENTS_METRIC, limiter, TokenBucketRateLimiter::getTrackedClients)
+                    .description("Clients tracked by the per-client rate limit")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+        });
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        Method method = ((HandlerMethod) handler).getMethod();
+        Optional<String> endpoint = endpoints.get(method);
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(method, this::findEndpoint);
+        }
+        if (!endpoint.isPresent()) {
+            return true;
+        }
+        long waitNanos = limiters.get(endpoint.get()).tryAcquire(clientOf(request));
+        if (waitNanos > 0) {
+            rejected.get(endpoint.get()).increment();
+            // Rounded up, so that a client retrying after Retry-After finds a token.
+            long retryAfterSeconds = waitNanos / NANOS_PER_SECOND + (waitNanos % NANOS_PER_SECOND == 0 ? 0 : 1);
+            throw new RateLimitExceededException("Too many requests, please retry later!", retryAfterSeconds);
+        }
+        return true;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (clientHeader != null) {
+            String client = request.getHeader(clientHeader);
+            if (client != null) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private Optional<String> findEndpoint(Method method) {
+        RateLimited rateLimited = method.getAnnotation(RateLimited.class);
+        if (rateLimited == null || !limiters.containsKey(rateLimited.value())) {
+            return Optional.empty();
+        }
+        return Optional.of(rateLimited.value());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.usersapi.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method whose requests are limited per client by the {@link RateLimitInterceptor}.
+ * Methods sharing an endpoint name share the same limit and the same bucket per client.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RateLimited {
+
+    /**
+     * The name of the endpoint, under which its limit is configured in {@code usersapi.rate-limit.endpoints}.
+     *
+     * @return the endpoint name
+     */
+    String value();
+}
@@ -0,0 +1,117 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The operations on users the registration, lookup, search and segment services rely on.
+ * They are implemented by the JPA {@link UserRepository}, and by the {@link OffHeapUserRepository} of the edge
+ * profile, so the services depending on this interface can only call what both backends support.
+ */
+public interface BasicUserRepository extends UserRepositoryCustom {
+
+    /**
+     * Saves a new or updated user.
+     *
+     * @param user the user to save
+     * @param <S>  the type of the user
+     * @return the saved user, with its ID set
+     */
+    <S extends User> S save(S user);
+
+    /**
+     * Saves a user and writes it to the database at once, so that a duplicate username fails the call.
+     *
+     * @param user the user to save
+     * @param <S>  the type of the user
+     * @return the saved user, with its ID set
+     */
+    <S extends User> S saveAndFlush(S user);
+
+    /**
+     * Saves several new or updated users.
+     *
+     * @param users the users to save
+     * @param <S>   the type of the users
+     * @return the saved users, with their IDs set
+     */
+    <S extends User> List<S> saveAll(Iterable<S> users);
+
+    /**
+     * Saves several new users and writes them at once, so that a duplicate username fails the call.
+     * Users saved before the duplicate may stay saved if the repository is not transactional; their ID is set.
+     *
+     * @param users the users to save
+     * @param <S>   the type of the users
+     * @return the saved users, with their IDs set
+     */
+    <S extends User> List<S> saveAllAndFlush(Iterable<S> users);
+
+    /**
+     * Checks if the repository takes part in transactions, so that a failed write rolls back the users saved in
+     * the same transaction.
+     *
+     * @return true by default, false if saved users stay saved whatever happens to the transaction
+     */
+    default boolean isTransactional() {
+        return true;
+    }
+
+    /**
+     * Finds a user by ID.
+     *
+     * @param id the ID of the user
+     * @return the user, or empty if no user has this ID
+     */
+    Optional<User> findById(Long id);
+
+    /**
+     * Finds the users with the given IDs. IDs of missing users are ignored.
+     *
+     * @param ids the IDs of the users
+     * @return the users found, in no particular order
+     */
+    List<User> findAllById(Iterable<Long> ids);
+
+    /**
+     * Counts all users.
+     *
+     * @return the number of users
+     */
+    long count();
+
+    /**
+     * Checks if a user with the given username exists.
+     *
+     * @param username the username to check
+     * @return true if a user with the given username exists, false otherwise
+     */
+    boolean existsByUsername(String username);
+
+    /**
+     * Returns which of the given usernames are already taken.
+     *
+     * @param usernames the usernames to check
+     * @return the subset of the given usernames that are already taken
+     */
+    List<String> findExistingUsernames(Collection<String> usernames);
+
+    /**
+     * Returns the version of a user without loading the user.
+     *
+     * @param id the ID of the user
+     * @return the version of the user, or empty if no user has this ID
+     */
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Streams the usernames of all users. The stream must be consumed and closed within a transaction.
+     *
+     * @return a stream of all usernames
+     */
+    Stream<String> streamAllUsernames();
+}
@@ -0,0 +1,273 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.SegmentCount;
+import com.example.usersapi.model.SegmentCountSnapshot;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserSearchCriteria;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * The BasicUserRepository of the edge profile, serving users from the {@link OffHeapUserStore} instead of
+ * the database. It replaces the JPA repository wherever a BasicUserRepository is injected, so registrations, lookups,
+ * searches and segment counts use the store, and duplicate usernames are reported like a violation of the unique
+ * constraint of the user table.
+ * Searches and counts scan the records without decoding the users that do not match.
+ * Batch registration also goes through it, so the store is the only authority on IDs and usernames. Services
+ * reading the database directly, such as export, still use the database.
+ */
+@Repository
+@Primary
+@Profile("edge")
+public class OffHeapUserRepository implements BasicUserRepository {
+
+    private final OffHeapUserStore store;
+
+    /**
+     * Constructor for OffHeapUserRepository class.
+     *
+     * @param store The OffHeapUserStore holding the users.
+     */
+    @Autowired
+    public OffHeapUserRepository(OffHeapUserStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public <S extends User> S save(S user) {
+        if (!store.put(user)) {
+            String message = "Username already exists: " + user.getUsername();
+            throw new DataIntegrityViolationException(message,
+                    new org.hibernate.exception.ConstraintViolationException(message, null, User.USERNAME_CONSTRAINT));
+        }
+        return user;
+    }
+
+    @Override
+    public <S extends User> S saveAndFlush(S user) {
+        return save(user);
+    }
+
+    @Override
+    public <S extends User> List<S> saveAll(Iterable<S> users) {
+        List<S> saved = new ArrayList<>();
+        for (S user : users) {
+            saved.add(save(user));
+        }
+        return saved;
+    }
+
+    @Override
+    public <S extends User> List<S> saveAllAndFlush(Iterable<S> users) {
+        return saveAll(users);
+    }
+
+    /**
+     * The store has no transactions: users are saved as soon as they are put.
+     */
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return Optional.ofNullable(store.getVersion(id));
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<Long> ids) {
+        List<User> users = new ArrayList<>();
+        for (Long id : ids) {
+            User user = store.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        return store.containsUsername(username);
+    }
+
+    @Override
+    public List<String> findExistingUsernames(Collection<String> usernames) {
+        List<String> existing = new ArrayList<>();
+        for (String username : new HashSet<>(usernames)) {
+            if (store.containsUsername(username)) {
+                existing.add(username);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Streams the usernames of all users, read at once under the read lock of the store.
+     */
+    @Override
+    public Stream<String> streamAllUsernames() {
+        List<String> usernames = new ArrayList<>(store.size());
+        store.forEach(record -> usernames.add(record.username()));
+        return usernames.stream();
+    }
+
+    /**
+     * Finds a page of users by scanning the records, keeping the IDs of the first matching users in a heap:
+     * only the users of the page are decoded.
+     */
+    @Override
+    public List<User> findPage(UserSearchCriteria criteria, Long afterId, int limit) {
+        RecordFilter filter = new RecordFilter(criteria);
+        if (filter.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        long after = afterId == null ? Long.MIN_VALUE : afterId;
+        PriorityQueue<Long> lowestIds = new PriorityQueue<>(limit + 1, Collections.reverseOrder());
+        store.forEach(record -> {
+            long id = record.id();
+            if (id > after && filter.test(record) && (lowestIds.size() < limit || id < lowestIds.peek())) {
+                lowestIds.add(id);
+                if (lowestIds.size() > limit) {
+                    lowestIds.poll();
+                }
+            }
+        });
+        List<Long> ids = new ArrayList<>(lowestIds);
+        Collections.sort(ids);
+        return findAllById(ids);
+    }
+
+    /**
+     * Counts the users per segment by scanning the records, grouping them by the dictionary codes of their
+     * country and gender.
+     */
+    @Override
+    public List<SegmentCount> countSegments(UserSearchCriteria criteria) {
+        RecordFilter filter = new RecordFilter(criteria);
+        if (filter.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return countSegments(filter);
+    }
+
+    /**
+     * Counts the users per segment in one scan of the records, under the read lock of the store.
+     */
+    @Override
+    public SegmentCountSnapshot countAllSegments() {
+        RecordFilter all = new RecordFilter(new UserSearchCriteria(null, null, null, null));
+        return new SegmentCountSnapshot(countSegments(all));
+    }
+
+    /**
+     * Finds the users stored before the scan of the snapshot: the store has no transactions, but users are kept in
+     * insertion order and the scan visited as many of them as it counted.
+     */
+    @Override
+    public List<Long> findCountedIds(SegmentCountSnapshot snapshot, Collection<Long> ids) {
+        long counted = snapshot.getUserCount();
+        List<Long> found = new ArrayList<>();
+        for (Long id : ids) {
+            int position = store.position(id);
+            if (position >= 0 && position < counted) {
+                found.add(id);
+            }
+        }
+        return found;
+    }
+
+    private List<SegmentCount> countSegments(RecordFilter filter) {
+        Map<Integer, long[]> counts = new HashMap<>();
+        Map<Integer, SegmentCount> names = new HashMap<>();
+        store.forEach(record -> {
+            if (filter.test(record)) {
+                int segment = record.countryCode() << 8 | record.genderCode();
+                long[] count = counts.get(segment);
+                if (count == null) {
+                    count = new long[1];
+                    counts.put(segment, count);
+                    names.put(segment, new SegmentCount(record.country(), record.gender(), 0));
+                }
+                count[0]++;
+            }
+        });
+        List<SegmentCount> segments = new ArrayList<>(counts.size());
+        for (Map.Entry<Integer, long[]> count : counts.entrySet()) {
+            SegmentCount name = names.get(count.getKey());
+            segments.add(new SegmentCount(name.getCountry(), name.getGender(), count.getValue()[0]));
+        }
+        segments.sort(SegmentCount.ORDER);
+        return segments;
+    }
+
+    /**
+     * The criteria of a search, resolved to the dictionary codes and epoch days of the records.
+     */
+    private final class RecordFilter {
+
+        private final int countryCode;
+
+        private final int genderCode;
+
+        private final int bornFrom;
+
+        private final int bornTo;
+
+        private RecordFilter(UserSearchCriteria criteria) {
+            this.countryCode = criteria.getCountryOfResidence() == null ? 0
+                    : store.countryCode(criteria.getCountryOfResidence());
+            this.genderCode = criteria.getGender() == null ? 0 : store.genderCode(criteria.getGender());
+            this.bornFrom = criteria.getBornFrom() == null ? Integer.MIN_VALUE
+                    : (int) criteria.getBornFrom().toEpochDay();
+            this.bornTo = criteria.getBornTo() == null ? Integer.MAX_VALUE : (int) criteria.getBornTo().toEpochDay();
+        }
+
+        /**
+         * Returns whether no record can match, because no stored user has the country or gender searched.
+         */
+        private boolean isEmpty() {
+            return countryCode < 0 || genderCode < 0;
+        }
+
+        private boolean test(OffHeapUserStore.RecordView record) {
+            if (countryCode != 0 && record.countryCode() != countryCode) {
+                return false;
+            }
+            if (genderCode != 0 && record.genderCode() != genderCode) {
+                return false;
+            }
+            int birthdate = record.birthdateEpochDay();
+            if (bornFrom == Integer.MIN_VALUE && bornTo == Integer.MAX_VALUE) {
+                return true;
+            }
+            // Users without birthdate never match a birthdate bound, as in SQL.
+            return birthdate != Integer.MIN_VALUE && birthdate >= bornFrom && birthdate <= bornTo;
+        }
+    }
+}
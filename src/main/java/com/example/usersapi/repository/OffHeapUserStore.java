@@ -0,0 +1,754 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.User;
+import com.example.usersapi.util.LongIntHashMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * A store of users outside the Java heap, for replicas that serve lookups without a database.
+ * <p>
+ * Every user is a fixed-width record of {@value #RECORD_SIZE} bytes in a records buffer: its ID, version,
+ * birthdate as an epoch day, country and gender as indexes into small dictionaries, and the offsets of its
+ * username and phone number in an arena buffer holding their UTF-8 bytes back to back. The only heap structures
+ * are two primitive hash tables, from ID to record and from username hash to record, about 20 bytes per user;
+ * {@link User} objects are only created for the users being read, so the garbage collector has almost nothing
+ * to trace however many users are stored.
+ * <p>
+ * When a directory is given, both buffers are memory-mapped files in it, {@value #RECORDS_FILE} (which starts with
+ * a header holding the counts and dictionaries) and {@value #ARENA_FILE}. Reopening the store maps them again and
+ * only rebuilds the two hash tables, without parsing or copying users. The files are consistent once
+ * {@link #snapshot()} or {@link #close()} has returned; writes in between reach the disk whenever the operating
+ * system flushes them. Without a directory, the buffers are direct buffers and the store is lost on exit.
+ * <p>
+ * Writes are serialized; reads are lock-free while no write is in progress: they read optimistically and are
+ * retried under a read lock if a write happened meanwhile. Each buffer holds at most 2 GB, about 50 million
+ * users and 2 GB of usernames and phone numbers.
+ */
+public class OffHeapUserStore implements Closeable {
+
+    /**
+     * Name of the file holding the header and the records.
+     */
+    public static final String RECORDS_FILE = "users.records";
+
+    /**
+     * Name of the file holding the usernames and phone numbers.
+     */
+    public static final String ARENA_FILE = "users.arena";
+
+    static final int RECORD_SIZE = 40;
+
+    private static final int MAGIC = 0x55535231;
+
+    private static final int FORMAT = 1;
+
+    private static final int MAX_COUNTRIES = 1024;
+
+    private static final int MAX_GENDERS = 255;
+
+    private static final int HEADER_SIZE = 16384;
+
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+
+    private static final int MAX_REGION_SIZE = Integer.MAX_VALUE - 8;
+
+    // Header layout
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_FORMAT = 4;
+    private static final int HEADER_SIZE_FIELD = 8;
+    private static final int HEADER_ARENA_USED = 16;
+    private static final int HEADER_NEXT_ID = 24;
+    private static final int HEADER_COUNTRY_COUNT = 32;
+    private static final int HEADER_GENDER_COUNT = 36;
+    private static final int HEADER_COUNTRIES = 64;
+    private static final int HEADER_GENDERS = HEADER_COUNTRIES + MAX_COUNTRIES * 8;
+
+    // Record layout
+    private static final int ID = 0;
+    private static final int VERSION = 8;
+    private static final int BIRTHDATE = 16;
+    private static final int COUNTRY = 20;
+    private static final int GENDER = 22;
+    private static final int USERNAME_OFFSET = 24;
+    private static final int USERNAME_LENGTH = 28;
+    private static final int PHONE_LENGTH = 30;
+    private static final int PHONE_OFFSET = 32;
+    private static final int USERNAME_HASH = 36;
+
+    private static final int NO_BIRTHDATE = Integer.MIN_VALUE;
+
+    private final StampedLock lock = new StampedLock();
+
+    private final Region records;
+
+    private final Region arena;
+
+    private final LongIntHashMap slotsById;
+
+    private final Dictionary countries = new Dictionary(MAX_COUNTRIES, HEADER_COUNTRIES);
+
+    private final Dictionary genders = new Dictionary(MAX_GENDERS, HEADER_GENDERS);
+
+    private final Function<Long, User> readUser = this::readUser;
+
+    private final Function<Long, Long> readVersion = this::readVersion;
+
+    private final Function<Long, Integer> readPosition = this::readPosition;
+
+    private final Function<String, Boolean> readUsernameExists = username -> findUsername(username) >= 0;
+
+    private int[] slotsByUsername;
+
+    private int size;
+
+    private long arenaUsed;
+
+    private long nextId;
+
+    /**
+     * Opens a store, mapping its files in the given directory if it has any, or creates an empty store.
+     *
+     * @param directory       the directory of the store files, created if needed, or null to keep the store in
+     *                        direct buffers only
+     * @param initialCapacity the number of users the store holds before its records buffer grows
+     * @param initialArenaSize the size of the arena before it grows, in bytes
+     * @throws IOException if the files cannot be opened, or do not hold a store
+     */
+    public OffHeapUserStore(Path directory, int initialCapacity, long initialArenaSize) throws IOException {
+        long recordsSize = HEADER_SIZE + (long) Math.max(initialCapacity, 16) * RECORD_SIZE;
+        if (directory == null) {
+            this.records = new Region(null, recordsSize);
+            this.arena = new Region(null, Math.max(initialArenaSize, 1024));
+        } else {
+            Files.createDirectories(directory);
+            this.records = new Region(open(directory.resolve(RECORDS_FILE)), recordsSize);
+            this.arena = new Region(open(directory.resolve(ARENA_FILE)), Math.max(initialArenaSize, 1024));
+        }
+        ByteBuffer header = records.buffer;
+        if (header.getInt(HEADER_MAGIC) == 0) {
+            header.putInt(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_FORMAT, FORMAT);
+            this.nextId = 1;
+            header.putLong(HEADER_NEXT_ID, nextId);
+        } else if (header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_FORMAT) != FORMAT) {
+            close();
+            throw new IOException("Not a user store: " + directory);
+        } else {
+            this.size = header.getInt(HEADER_SIZE_FIELD);
+            this.arenaUsed = header.getLong(HEADER_ARENA_USED);
+            this.nextId = header.getLong(HEADER_NEXT_ID);
+            countries.load(header, header.getInt(HEADER_COUNTRY_COUNT));
+            genders.load(header, header.getInt(HEADER_GENDER_COUNT));
+        }
+        this.slotsById = new LongIntHashMap(Math.max(initialCapacity, size));
+        this.slotsByUsername = new int[usernameTableSize(Math.max(initialCapacity, size))];
+        for (int slot = 0; slot < size; slot++) {
+            slotsById.put(records.buffer.getLong(recordOffset(slot) + ID), slot);
+            indexUsername(slotsByUsername, slot);
+        }
+    }
+
+    /**
+     * Returns a user.
+     *
+     * @param id the ID of the user
+     * @return a new User holding the stored user, or null if no user has this ID
+     */
+    public User get(long id) {
+        return readOptimistically(id, readUser);
+    }
+
+    /**
+     * Returns the version of a user without decoding the user.
+     *
+     * @param id the ID of the user
+     * @return the version of the user, or null if no user has this ID
+     */
+    public Long getVersion(long id) {
+        return readOptimistically(id, readVersion);
+    }
+
+    /**
+     * Returns the position of a user in insertion order, the order in which {@link #forEach} visits users.
+     *
+     * @param id the ID of the user
+     * @return the position of the user, or -1 if no user has this ID
+     */
+    public int position(long id) {
+        return readOptimistically(id, readPosition);
+    }
+
+    /**
+     * Checks if a user has the given username, with one probe of the username hash table.
+     *
+     * @param username the username to check
+     * @return true if a stored user has this username
+     */
+    public boolean containsUsername(String username) {
+        return readOptimistically(username, readUsernameExists);
+    }
+
+    /**
+     * Stores a user: a user without ID is added with the next free ID, a user with an ID replaces the user with
+     * that ID, if any, with its version incremented, and is added as is otherwise. The ID and version are set on
+     * the given user.
+     *
+     * @param user the user to store
+     * @return false, and nothing is stored, if another user already has the username
+     * @throws IllegalArgumentException if the username changes, or a username or phone number is too long
+     * @throws IllegalStateException    if the store is full or has too many distinct countries or genders
+     */
+    public boolean put(User user) {
+        byte[] username = encode(user.getUsername());
+        byte[] phoneNumber = encode(user.getPhoneNumber());
+        long stamp = lock.writeLock();
+        try {
+            int slot = user.getId() == null ? LongIntHashMap.MISSING : slotsById.get(user.getId());
+            int existing = findUsername(user.getUsername());
+            if (existing >= 0 && existing != slot) {
+                return false;
+            }
+            long version = user.getVersion();
+            if (slot >= 0) {
+                if (existing != slot) {
+                    throw new IllegalArgumentException("Usernames of stored users cannot change");
+                }
+                version = records.buffer.getLong(recordOffset(slot) + VERSION) + 1;
+            } else {
+                if (user.getId() == null) {
+                    user.setId(nextId);
+                }
+                slot = size;
+                records.ensureCapacity(recordOffset(slot) + RECORD_SIZE);
+            }
+            user.setVersion(version);
+            writeRecord(slot, user, username, phoneNumber);
+            if (slot == size) {
+                slotsById.put(user.getId(), slot);
+                if ((size + 1) * 10L > slotsByUsername.length * 7L) {
+                    slotsByUsername = rehashUsernames(slotsByUsername.length * 2);
+                }
+                indexUsername(slotsByUsername, slot);
+                size++;
+                nextId = Math.max(nextId, user.getId() + 1);
+            }
+            writeHeader();
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of stored users.
+     *
+     * @return the number of users
+     */
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int current = size;
+        return lock.validate(stamp) ? current : readLocked(() -> size);
+    }
+
+    /**
+     * Visits every stored user in insertion order, without decoding it, under a read lock: writes wait until
+     * the visit is over.
+     *
+     * @param visitor the visitor of the records
+     */
+    public void forEach(RecordVisitor visitor) {
+        long stamp = lock.readLock();
+        try {
+            RecordView view = new RecordView();
+            for (int slot = 0; slot < size; slot++) {
+                view.offset = recordOffset(slot);
+                visitor.visit(view);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the dictionary code of a country, as returned by {@link RecordView#countryCode()}.
+     *
+     * @param country the country, normalized like the one of users
+     * @return the code of the country, or -1 if no stored user has it
+     */
+    public int countryCode(String country) {
+        return readLocked(() -> countries.find(country));
+    }
+
+    /**
+     * Returns the dictionary code of a gender, as returned by {@link RecordView#genderCode()}.
+     *
+     * @param gender the gender
+     * @return the code of the gender, or -1 if no stored user has it
+     */
+    public int genderCode(String gender) {
+        return readLocked(() -> genders.find(gender));
+    }
+
+    /**
+     * Returns the size of the data held outside the heap.
+     *
+     * @return the number of bytes of records and strings in use
+     */
+    public long offHeapBytes() {
+        return readLocked(() -> HEADER_SIZE + (long) size * RECORD_SIZE + arenaUsed);
+    }
+
+    /**
+     * Writes the mapped files to disk, so that reopening the store finds every user stored so far.
+     * Does nothing for a store without directory.
+     */
+    public void snapshot() {
+        long stamp = lock.readLock();
+        try {
+            records.force();
+            arena.force();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Snapshots the store and closes its files. The store must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        snapshot();
+        records.close();
+        arena.close();
+    }
+
+    /**
+     * Runs a read without locking, and again under the read lock if a write overlapped it.
+     */
+    private <A, T> T readOptimistically(A argument, Function<A, T> read) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = read.apply(argument);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException ex) {
+                // Torn read of buffers being grown by a concurrent write: retried under the read lock.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return read.apply(argument);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <T> T readLocked(java.util.function.Supplier<T> read) {
+        long stamp = lock.readLock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private User readUser(long id) {
+        int slot = slotsById.get(id);
+        return slot < 0 ? null : decode(records.buffer, arena.buffer, recordOffset(slot));
+    }
+
+    private int readPosition(long id) {
+        return slotsById.get(id);
+    }
+
+    private Long readVersion(long id) {
+        int slot = slotsById.get(id);
+        return slot < 0 ? null : records.buffer.getLong(recordOffset(slot) + VERSION);
+    }
+
+    private User decode(ByteBuffer records, ByteBuffer arena, int offset) {
+        int birthdate = records.getInt(offset + BIRTHDATE);
+        User user = new User(readString(arena, records.getInt(offset + USERNAME_OFFSET),
+                        records.getShort(offset + USERNAME_LENGTH)),
+                birthdate == NO_BIRTHDATE ? null : LocalDate.ofEpochDay(birthdate),
+                countries.get(records.getShort(offset + COUNTRY)),
+                readString(arena, records.getInt(offset + PHONE_OFFSET), records.getShort(offset + PHONE_LENGTH)),
+                genders.get(records.get(offset + GENDER) & 0xFF));
+        user.setId(records.getLong(offset + ID));
+        user.setVersion(records.getLong(offset + VERSION));
+        return user;
+    }
+
+    private void writeRecord(int slot, User user, byte[] username, byte[] phoneNumber) {
+        int countryCode = countries.code(user.getCountryOfResidence());
+        int genderCode = genders.code(user.getGender());
+        int usernameOffset = append(username);
+        int phoneOffset = append(phoneNumber);
+        ByteBuffer buffer = records.buffer;
+        int offset = recordOffset(slot);
+        buffer.putLong(offset + ID, user.getId());
+        buffer.putLong(offset + VERSION, user.getVersion());
+        buffer.putInt(offset + BIRTHDATE, user.getBirthdate() == null ? NO_BIRTHDATE
+                : (int) user.getBirthdate().toEpochDay());
+        buffer.putShort(offset + COUNTRY, (short) countryCode);
+        buffer.put(offset + GENDER, (byte) genderCode);
+        buffer.putInt(offset + USERNAME_OFFSET, usernameOffset);
+        buffer.putShort(offset + USERNAME_LENGTH, (short) (username == null ? -1 : username.length));
+        buffer.putShort(offset + PHONE_LENGTH, (short) (phoneNumber == null ? -1 : phoneNumber.length));
+        buffer.putInt(offset + PHONE_OFFSET, phoneOffset);
+        buffer.putInt(offset + USERNAME_HASH, hash(user.getUsername()));
+    }
+
+    private int append(byte[] bytes) {
+        if (bytes == null) {
+            return 0;
+        }
+        arena.ensureCapacity(arenaUsed + bytes.length);
+        int offset = (int) arenaUsed;
+        ByteBuffer target = arena.buffer.duplicate();
+        target.position(offset);
+        target.put(bytes);
+        arenaUsed += bytes.length;
+        return offset;
+    }
+
+    private void writeHeader() {
+        ByteBuffer header = records.buffer;
+        header.putInt(HEADER_SIZE_FIELD, size);
+        header.putLong(HEADER_ARENA_USED, arenaUsed);
+        header.putLong(HEADER_NEXT_ID, nextId);
+        header.putInt(HEADER_COUNTRY_COUNT, countries.size());
+        header.putInt(HEADER_GENDER_COUNT, genders.size());
+    }
+
+    private int findUsername(String username) {
+        if (username == null) {
+            return -1;
+        }
+        int[] table = slotsByUsername;
+        ByteBuffer buffer = records.buffer;
+        int hash = hash(username);
+        byte[] bytes = null;
+        int mask = table.length - 1;
+        for (int index = mix(hash) & mask; table[index] != 0; index = (index + 1) & mask) {
+            int slot = table[index] - 1;
+            int offset = recordOffset(slot);
+            if (buffer.getInt(offset + USERNAME_HASH) == hash) {
+                if (bytes == null) {
+                    bytes = username.getBytes(StandardCharsets.UTF_8);
+                }
+                if (equalBytes(arena.buffer, buffer.getInt(offset + USERNAME_OFFSET),
+                        buffer.getShort(offset + USERNAME_LENGTH), bytes)) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void indexUsername(int[] table, int slot) {
+        int mask = table.length - 1;
+        int index = mix(records.buffer.getInt(recordOffset(slot) + USERNAME_HASH)) & mask;
+        while (table[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        table[index] = slot + 1;
+    }
+
+    private int[] rehashUsernames(int tableSize) {
+        int[] table = new int[tableSize];
+        for (int slot = 0; slot < size; slot++) {
+            indexUsername(table, slot);
+        }
+        return table;
+    }
+
+    private static int usernameTableSize(int users) {
+        int required = (int) Math.min(1 << 30, Math.max(16, users * 10L / 7 + 1));
+        return Integer.highestOneBit(required - 1) << 1;
+    }
+
+    private static boolean equalBytes(ByteBuffer arena, int offset, int length, byte[] bytes) {
+        if (length != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (arena.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readString(ByteBuffer arena, int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        arena.duplicate().position(offset).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Value longer than " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    private static int hash(String username) {
+        return username == null ? 0 : username.hashCode();
+    }
+
+    private static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    private static int recordOffset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Visitor of the records of the store, see {@link #forEach(RecordVisitor)}.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+
+        /**
+         * Visits a record. The view is only valid during the call.
+         *
+         * @param record the view of the record
+         */
+        void visit(RecordView record);
+    }
+
+    /**
+     * A view of one record, reading its fields from the buffers without decoding the whole user.
+     */
+    public final class RecordView {
+
+        private int offset;
+
+        private RecordView() {
+        }
+
+        public long id() {
+            return records.buffer.getLong(offset + ID);
+        }
+
+        /**
+         * Returns the birthdate of the user.
+         *
+         * @return the epoch day of the birthdate, or {@link Integer#MIN_VALUE} if the user has none
+         */
+        public int birthdateEpochDay() {
+            return records.buffer.getInt(offset + BIRTHDATE);
+        }
+
+        /**
+         * Returns the country of the user, as a code of the country dictionary.
+         *
+         * @return the code of the country, 0 if the user has none
+         * @see #countryCode(String)
+         */
+        public int countryCode() {
+            return records.buffer.getShort(offset + COUNTRY);
+        }
+
+        /**
+         * Returns the gender of the user, as a code of the gender dictionary.
+         *
+         * @return the code of the gender, 0 if the user has none
+         * @see #genderCode(String)
+         */
+        public int genderCode() {
+            return records.buffer.get(offset + GENDER) & 0xFF;
+        }
+
+        public String country() {
+            return countries.get(countryCode());
+        }
+
+        public String gender() {
+            return genders.get(genderCode());
+        }
+
+        public String username() {
+            return readString(arena.buffer, records.buffer.getInt(offset + USERNAME_OFFSET),
+                    records.buffer.getShort(offset + USERNAME_LENGTH));
+        }
+
+        /**
+         * Decodes the whole user.
+         *
+         * @return a new User holding the record
+         */
+        public User toUser() {
+            return decode(records.buffer, arena.buffer, offset);
+        }
+    }
+
+    /**
+     * The distinct values of a field, stored once in the arena and referenced by their code, from 1; code 0
+     * stands for null. Entries are listed in the header of the records file.
+     */
+    private final class Dictionary {
+
+        private final int maxSize;
+
+        private final int headerPosition;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        private String[] values = new String[16];
+
+        private int size;
+
+        private Dictionary(int maxSize, int headerPosition) {
+            this.maxSize = maxSize;
+            this.headerPosition = headerPosition;
+        }
+
+        private String get(int code) {
+            return code == 0 ? null : values[code - 1];
+        }
+
+        private int find(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        private int code(String value) {
+            int code = find(value);
+            if (code >= 0) {
+                return code;
+            }
+            if (size == maxSize) {
+                throw new IllegalStateException("More than " + maxSize + " distinct values");
+            }
+            byte[] bytes = encode(value);
+            int offset = append(bytes);
+            int entry = headerPosition + size * 8;
+            records.buffer.putInt(entry, offset);
+            records.buffer.putInt(entry + 4, bytes.length);
+            add(value);
+            return size;
+        }
+
+        private void load(ByteBuffer header, int count) {
+            for (int i = 0; i < count; i++) {
+                int entry = headerPosition + i * 8;
+                add(readString(arena.buffer, header.getInt(entry), header.getInt(entry + 4)));
+            }
+        }
+
+        private void add(String value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            codes.put(value, size);
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+
+    /**
+     * A buffer that grows by doubling, backed by a memory-mapped file or by direct memory.
+     */
+    private static final class Region {
+
+        private final FileChannel channel;
+
+        private ByteBuffer buffer;
+
+        private Region(FileChannel channel, long initialSize) throws IOException {
+            this.channel = channel;
+            long size = initialSize;
+            if (channel != null) {
+                size = Math.max(size, channel.size());
+            }
+            this.buffer = allocate(checkedSize(size), null);
+        }
+
+        private void ensureCapacity(long required) {
+            if (required <= buffer.capacity()) {
+                return;
+            }
+            long size = buffer.capacity();
+            while (size < required) {
+                size *= 2;
+            }
+            try {
+                buffer = allocate(checkedSize(Math.min(size, MAX_REGION_SIZE)), buffer);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Cannot grow the user store", ex);
+            }
+        }
+
+        private ByteBuffer allocate(int size, ByteBuffer previous) throws IOException {
+            if (channel != null) {
+                // Mapping a larger region extends the file; the previous mapping stays valid for pending readers.
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+            ByteBuffer allocated = ByteBuffer.allocateDirect(size);
+            if (previous != null) {
+                allocated.put(previous.duplicate().clear());
+                allocated.clear();
+            }
+            return allocated;
+        }
+
+        private static int checkedSize(long size) {
+            if (size > MAX_REGION_SIZE) {
+                throw new IllegalStateException("User store full: buffers are limited to 2 GB");
+            }
+            return (int) size;
+        }
+
+        private void force() {
+            if (buffer instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) buffer).force();
+            }
+        }
+
+        private void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.UserRecord;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive repository interface for managing users through R2DBC, used by the reactive profile.
+ */
+@Repository
+public interface ReactiveUserRepository extends ReactiveCrudRepository<UserRecord, Long>, ReactiveUserRepositoryCustom {
+    /**
+     * Checks if a user with the given username exists in the database.
+     *
+     * @param username the username to check
+     * @return true if a user with the given username exists, false otherwise
+     */
+    Mono<Boolean> existsByUsername(String username);
+
+    /**
+     * Returns the version of a user without loading the user.
+     *
+     * @param id the ID of the user
+     * @return the version of the user, or empty if no user has this ID
+     */
+    @Query("select version from _user where id = :id")
+    Mono<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Streams all users ordered by ID. Rows are fetched as the subscriber requests them.
+     *
+     * @return all users, ordered by ID
+     */
+    Flux<UserRecord> findAllByOrderByIdAsc();
+}
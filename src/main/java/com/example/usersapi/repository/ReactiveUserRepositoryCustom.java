@@ -0,0 +1,41 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.SegmentCount;
+import com.example.usersapi.model.UserRecord;
+import com.example.usersapi.model.UserSearchCriteria;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom methods of the {@link ReactiveUserRepository} that cannot be expressed as derived queries.
+ */
+public interface ReactiveUserRepositoryCustom {
+
+    /**
+     * Inserts a new user with an ID allocated from the user sequence.
+     *
+     * @param userRecord the user to insert, without ID
+     * @return the inserted user, with its ID
+     */
+    Mono<UserRecord> insert(UserRecord userRecord);
+
+    /**
+     * Finds a page of users matching the given criteria with keyset pagination.
+     *
+     * @param criteria the filters to apply
+     * @param afterId  the ID of the last user of the previous page, or null for the first page
+     * @param limit    the maximum number of users to return
+     * @return the matching users with an ID greater than afterId, ordered by ID
+     * @see UserRepositoryCustom#findPage(UserSearchCriteria, Long, int)
+     */
+    Flux<UserRecord> findPage(UserSearchCriteria criteria, Long afterId, int limit);
+
+    /**
+     * Counts the users matching the given criteria per country of residence and gender.
+     *
+     * @param criteria the filters to apply
+     * @return the count of every segment with matching users, ordered by country and gender
+     * @see UserRepositoryCustom#countSegments(UserSearchCriteria)
+     */
+    Flux<SegmentCount> countSegments(UserSearchCriteria criteria);
+}
@@ -0,0 +1,103 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.SegmentCount;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserRecord;
+import com.example.usersapi.model.UserSearchCriteria;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * R2DBC implementation of the {@link ReactiveUserRepositoryCustom} methods.
+ * IDs are taken from the same sequence and in the same blocks as the JPA entity, so both stacks can write
+ * to the same table.
+ */
+public class ReactiveUserRepositoryCustomImpl implements ReactiveUserRepositoryCustom {
+
+    private final R2dbcEntityTemplate template;
+
+    private final SequenceIdAllocator idAllocator;
+
+    /**
+     * Constructor for ReactiveUserRepositoryCustomImpl class.
+     *
+     * @param template The R2dbcEntityTemplate instance to be injected.
+     */
+    @Autowired
+    public ReactiveUserRepositoryCustomImpl(R2dbcEntityTemplate template) {
+        this.template = template;
+        this.idAllocator = new SequenceIdAllocator(template.getDatabaseClient(), User.ID_SEQUENCE, User.ID_ALLOCATION_SIZE);
+    }
+
+    @Override
+    public Mono<UserRecord> insert(UserRecord userRecord) {
+        return idAllocator.nextId().flatMap(id -> {
+            userRecord.setId(id);
+            return template.insert(userRecord);
+        });
+    }
+
+    @Override
+    public Flux<UserRecord> findPage(UserSearchCriteria criteria, Long afterId, int limit) {
+        Criteria where = Criteria.empty();
+        if (afterId != null) {
+            where = where.and("id").greaterThan(afterId);
+        }
+        if (criteria.getCountryOfResidence() != null) {
+            where = where.and("countryOfResidence").is(criteria.getCountryOfResidence());
+        }
+        if (criteria.getGender() != null) {
+            where = where.and("gender").is(criteria.getGender());
+        }
+        if (criteria.getBornFrom() != null) {
+            where = where.and("birthdate").greaterThanOrEquals(criteria.getBornFrom());
+        }
+        if (criteria.getBornTo() != null) {
+            where = where.and("birthdate").lessThanOrEquals(criteria.getBornTo());
+        }
+        return template.select(UserRecord.class)
+                .matching(Query.query(where).sort(Sort.by("id")).limit(limit))
+                .all();
+    }
+
+    @Override
+    public Flux<SegmentCount> countSegments(UserSearchCriteria criteria) {
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        StringBuilder where = new StringBuilder();
+        if (criteria.getCountryOfResidence() != null) {
+            where.append(" and country_of_residence = :country");
+            bindings.put("country", criteria.getCountryOfResidence());
+        }
+        if (criteria.getGender() != null) {
+            where.append(" and gender = :gender");
+            bindings.put("gender", criteria.getGender());
+        }
+        if (criteria.getBornFrom() != null) {
+            where.append(" and birthdate >= :bornFrom");
+            bindings.put("bornFrom", criteria.getBornFrom());
+        }
+        if (criteria.getBornTo() != null) {
+            where.append(" and birthdate <= :bornTo");
+            bindings.put("bornTo", criteria.getBornTo());
+        }
+        String sql = "select country_of_residence, gender, count(*) from _user"
+                + (where.length() == 0 ? "" : " where" + where.substring(4))
+                + " group by country_of_residence, gender order by country_of_residence, gender";
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(sql);
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map(row -> new SegmentCount(row.get(0, String.class), row.get(1, String.class),
+                        row.get(2, Long.class)))
+                .all();
+    }
+}
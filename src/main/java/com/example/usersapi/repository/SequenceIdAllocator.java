@@ -0,0 +1,68 @@
+package com.example.usersapi.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking allocator of IDs from a database sequence, reserving a block of IDs per sequence call.
+ * Each sequence value is the first ID of a block of allocationSize IDs, which matches the pooled-lo optimizer
+ * of Hibernate, so IDs never collide with those generated by JPA from the same sequence.
+ */
+class SequenceIdAllocator {
+
+    private final DatabaseClient databaseClient;
+
+    private final String nextValueSql;
+
+    private final int allocationSize;
+
+    private long next;
+
+    private long limit;
+
+    /**
+     * Constructor for SequenceIdAllocator class.
+     *
+     * @param databaseClient The DatabaseClient the sequence is called with.
+     * @param sequenceName   The name of the sequence.
+     * @param allocationSize The number of IDs reserved by each sequence value, which must match the sequence increment.
+     */
+    SequenceIdAllocator(DatabaseClient databaseClient, String sequenceName, int allocationSize) {
+        this.databaseClient = databaseClient;
+        this.nextValueSql = "select next value for " + sequenceName;
+        this.allocationSize = allocationSize;
+    }
+
+    /**
+     * Allocates the next ID. The database is only called when the current block is used up.
+     *
+     * @return the allocated ID
+     */
+    Mono<Long> nextId() {
+        Long id = takeFromBlock();
+        if (id != null) {
+            return Mono.just(id);
+        }
+        return databaseClient.sql(nextValueSql)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(this::startBlock);
+    }
+
+    private synchronized Long takeFromBlock() {
+        return next < limit ? next++ : null;
+    }
+
+    /**
+     * Returns the first ID of a newly reserved block and keeps the rest of it for the next allocations.
+     * When concurrent callers reserved blocks at the same time, only the first one is kept and the remaining
+     * IDs of the others are skipped, leaving a gap in the sequence.
+     */
+    private synchronized long startBlock(long first) {
+        if (next >= limit) {
+            next = first + 1;
+            limit = first + allocationSize;
+        }
+        return first;
+    }
+}
@@ -2,18 +2,83 @@ package com.example.usersapi.repository;
 
 import com.example.usersapi.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for managing User entities.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom, BasicUserRepository {
+
+    // Redeclared so that calls through a UserRepository are not ambiguous between JpaRepository and
+    // BasicUserRepository.
+
+    @Override
+    <S extends User> S save(S user);
+
+    @Override
+    <S extends User> S saveAndFlush(S user);
+
+    @Override
+    <S extends User> List<S> saveAll(Iterable<S> users);
+
+    @Override
+    <S extends User> List<S> saveAllAndFlush(Iterable<S> users);
+
+    @Override
+    Optional<User> findById(Long id);
+
+    @Override
+    List<User> findAllById(Iterable<Long> ids);
+
+    @Override
+    long count();
+
     /**
      * Checks if a user with the given username exists in the database.
      *
      * @param username the username to check
      * @return true if a user with the given username exists, false otherwise
      */
+    @Override
     boolean existsByUsername(String username);
-}
\ No newline at end of file
+
+    /**
+     * Returns the version of a user without loading the user.
+     *
+     * @param id the ID of the user
+     * @return the version of the user, or empty if no user has this ID
+     */
+    @Override
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Returns which of the given usernames already exist in the database, using a single IN query.
+     *
+     * @param usernames the usernames to check
+     * @return the subset of the given usernames that are already taken
+     */
+    @Override
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Streams the usernames of all users. The stream must be consumed and closed within a transaction.
+     *
+     * @return a stream of all usernames, fetched from the database in batches
+     */
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.username from User u")
+    Stream<String> streamAllUsernames();
+}
@@ -0,0 +1,53 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.SegmentCount;
+import com.example.usersapi.model.SegmentCountSnapshot;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserSearchCriteria;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom query methods of the {@link UserRepository} that cannot be expressed as derived or annotated queries.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Finds a page of users matching the given criteria with keyset pagination: users are ordered by ID
+     * and the page starts right after the given ID, so the cost of a page does not grow with its position.
+     *
+     * @param criteria the filters to apply
+     * @param afterId  the ID of the last user of the previous page, or null for the first page
+     * @param limit    the maximum number of users to return
+     * @return the matching users with an ID greater than afterId, ordered by ID
+     */
+    List<User> findPage(UserSearchCriteria criteria, Long afterId, int limit);
+
+    /**
+     * Counts the users matching the given criteria per country of residence and gender, with a single
+     * GROUP BY query that reads the segment index rather than loading users.
+     *
+     * @param criteria the filters to apply
+     * @return the count of every segment with matching users, ordered by country and gender
+     */
+    List<SegmentCount> countSegments(UserSearchCriteria criteria);
+
+    /**
+     * Counts all users per country of residence and gender with a single GROUP BY query. Run in a repeatable read
+     * transaction, so that {@link #findCountedIds} can tell afterwards which users were counted.
+     *
+     * @return the count of every segment with users
+     */
+    SegmentCountSnapshot countAllSegments();
+
+    /**
+     * Returns which of the given users a snapshot of the segment counts has counted. It is called in the
+     * transaction that read the snapshot, whose reads see the users as they were then.
+     *
+     * @param snapshot the segment counts, read by {@link #countAllSegments()}
+     * @param ids      the IDs of the users to check
+     * @return the subset of the given IDs that the snapshot counted
+     */
+    List<Long> findCountedIds(SegmentCountSnapshot snapshot, Collection<Long> ids);
+}
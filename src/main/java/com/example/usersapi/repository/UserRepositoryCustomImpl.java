@@ -0,0 +1,107 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.SegmentCount;
+import com.example.usersapi.model.SegmentCountSnapshot;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserSearchCriteria;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Criteria API implementation of the {@link UserRepositoryCustom} query methods.
+ * Only the filters that are set end up in the generated SQL, so each combination can use its own index.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<User> findPage(UserSearchCriteria criteria, Long afterId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = builder.createQuery(User.class);
+        Root<User> user = query.from(User.class);
+
+        List<Predicate> predicates = predicates(builder, user, criteria);
+        if (afterId != null) {
+            predicates.add(builder.greaterThan(user.get("id"), afterId));
+        }
+
+        query.select(user)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.asc(user.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultList();
+    }
+
+    @Override
+    public List<SegmentCount> countSegments(UserSearchCriteria criteria) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SegmentCount> query = builder.createQuery(SegmentCount.class);
+        Root<User> user = query.from(User.class);
+        Path<String> country = user.get("countryOfResidence");
+        Path<String> gender = user.get("gender");
+
+        query.select(builder.construct(SegmentCount.class, country, gender, builder.count(user)))
+                .where(predicates(builder, user, criteria).toArray(new Predicate[0]))
+                .groupBy(country, gender)
+                .orderBy(builder.asc(country), builder.asc(gender));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public SegmentCountSnapshot countAllSegments() {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SegmentCount> query = builder.createQuery(SegmentCount.class);
+        Root<User> user = query.from(User.class);
+        Path<String> country = user.get("countryOfResidence");
+        Path<String> gender = user.get("gender");
+
+        query.select(builder.construct(SegmentCount.class, country, gender, builder.count(user)))
+                .groupBy(country, gender);
+        return new SegmentCountSnapshot(entityManager.createQuery(query).getResultList());
+    }
+
+    /**
+     * Finds which of the users exist with a single IN query, which sees the snapshot of the counts when both
+     * run in the same repeatable read transaction.
+     */
+    @Override
+    public List<Long> findCountedIds(SegmentCountSnapshot snapshot, Collection<Long> ids) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<User> user = query.from(User.class);
+
+        query.select(user.get("id")).where(user.get("id").in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static List<Predicate> predicates(CriteriaBuilder builder, Root<User> user, UserSearchCriteria criteria) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getCountryOfResidence() != null) {
+            predicates.add(builder.equal(user.get("countryOfResidence"), criteria.getCountryOfResidence()));
+        }
+        if (criteria.getGender() != null) {
+            predicates.add(builder.equal(user.get("gender"), criteria.getGender()));
+        }
+        if (criteria.getBornFrom() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(user.get("birthdate"), criteria.getBornFrom()));
+        }
+        if (criteria.getBornTo() != null) {
+            predicates.add(builder.lessThanOrEqualTo(user.get("birthdate"), criteria.getBornTo()));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.usersapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * The CdsTrainingRun class ends the training run of the application that records its class data sharing (AppCDS)
+ * archive, enabled with {@code usersapi.cds.training-run=true}.
+ * Once the application is ready, it sends itself a user lookup, so that the classes of the request path are loaded
+ * too, then closes the context and exits. The JVM writes the classes loaded so far to the archive given by
+ * {@code -XX:ArchiveClassesAtExit}, which later starts share instead of loading and verifying them again.
+ */
+@Component
+@ConditionalOnProperty(name = "usersapi.cds.training-run", havingValue = "true")
+public class CdsTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CdsTrainingRun.class);
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        if (context instanceof WebServerApplicationContext) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port
+                        + "/api/users/0").openConnection();
+                try (InputStream body = connection.getResponseCode() < 400 ? connection.getInputStream()
+                        : connection.getErrorStream()) {
+                    if (body != null) {
+                        body.readAllBytes();
+                    }
+                }
+            } catch (IOException ex) {
+                logger.warn("Could not send the training request", ex);
+            }
+        }
+        logger.info("Training run completed, exiting");
+        System.exit(SpringApplication.exit(context));
+    }
+}
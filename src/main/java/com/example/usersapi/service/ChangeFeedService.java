@@ -0,0 +1,544 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.ChangeFeedProperties;
+import com.example.usersapi.event.UsersRegisteredEvent;
+import com.example.usersapi.exception.InvalidChangeOffsetException;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserResponse;
+import com.example.usersapi.util.MpscRingQueue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The ChangeFeedService class records user registrations in a {@link ChangeLog} and serves them to downstream
+ * consumers, enabled with {@code usersapi.change-feed.enabled=true}.
+ * Each committed user is serialized on the registering thread and put into a bounded lock-free queue; a single
+ * writer thread drains the queue and appends every change waiting with one write. A change is the line
+ * {@code {"offset":<offset>,"type":"registered","user":<user>}}, whose offset is the position to resume from
+ * to read it again.
+ * Consumers either fetch the changes of a segment from an offset, which the controller sends straight from the
+ * segment file, or subscribe to an event stream, which sends every change as a Server-Sent Event whose ID is the
+ * offset following it. Event streams are fed by a few dispatch threads after every append, so the database is
+ * never read to serve the feed.
+ * The user table is read to find the registrations missing from the log: on start, for those lost by a crash or
+ * a failed append, and whenever changes were dropped from a full queue. A failed append is retried a few times;
+ * if it keeps failing, the writer stops and the feed is reported down until the next start.
+ */
+@Service
+@ConditionalOnProperty(name = "usersapi.change-feed.enabled", havingValue = "true")
+public class ChangeFeedService implements SmartLifecycle {
+
+    /**
+     * Name of the events of the event stream.
+     */
+    public static final String EVENT_NAME = "registered";
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final int DISPATCH_READ_SIZE = 256 * 1024;
+
+    private static final int APPEND_ATTEMPTS = 5;
+
+    private static final long APPEND_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long RECONCILE_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final String MAX_ID_QUERY = "select coalesce(max(id), 0) from _user";
+
+    private static final String USERS_FROM_QUERY = "select id, username, birthdate, country_of_residence, "
+            + "phone_number, gender from _user where id >= ? order by id";
+
+    private static final byte[] RECORD_TYPE = ",\"type\":\"registered\",\"user\":".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] RECORD_SUFFIX = "}\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ChangeLog changeLog;
+
+    private final ObjectMapper objectMapper;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final MpscRingQueue<Change> queue;
+
+    private final int maxBatchSize;
+
+    private final long streamTimeoutMillis;
+
+    private final ExecutorService dispatchers;
+
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final DistributionSummary batchSizes;
+
+    private final Counter dropped;
+
+    private volatile boolean running;
+
+    private volatile boolean lagging;
+
+    private volatile boolean failed;
+
+    /**
+     * IDs of the users appended by the last reconciliation, whose queued changes are skipped. Writer thread only.
+     */
+    private final Set<Long> reconciledIds = new HashSet<>();
+
+    /**
+     * ID from which the user table is read when the log is empty, above the users registered before the feed.
+     */
+    private long emptyLogFromId;
+
+    private volatile Thread writer;
+
+    /**
+     * Constructor for ChangeFeedService class.
+     *
+     * @param objectMapper  The ObjectMapper used to write the users of the changes.
+     * @param jdbcTemplate  The JdbcTemplate used to read the registrations missing from the log.
+     * @param properties    The change feed configuration.
+     * @param meterRegistry The registry the change feed metrics are published to.
+     * @throws IOException If the change log cannot be opened.
+     */
+    @Autowired
+    public ChangeFeedService(ObjectMapper objectMapper, JdbcTemplate jdbcTemplate, ChangeFeedProperties properties,
+                             MeterRegistry meterRegistry) throws IOException {
+        this.changeLog = new ChangeLog(properties.getDirectory(), properties.getSegmentSize().toBytes(),
+                properties.getRetainedSegments(), properties.isFsync());
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new MpscRingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.streamTimeoutMillis = properties.getStreamTimeout().toMillis();
+        AtomicInteger threads = new AtomicInteger();
+        this.dispatchers = Executors.newFixedThreadPool(Math.max(1, properties.getDispatchThreads()), task -> {
+            Thread thread = new Thread(task, "change-feed-dispatcher-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSizes = DistributionSummary.builder("usersapi.change-feed.batch.size")
+                .description("Number of changes appended with one write")
+                .register(meterRegistry);
+        Gauge.builder("usersapi.change-feed.end-offset", changeLog, ChangeLog::getEndOffset)
+                .description("Offset following the last change appended")
+                .register(meterRegistry);
+        Gauge.builder("usersapi.change-feed.subscribers", subscribers, Set::size)
+                .description("Open event streams of the change feed")
+                .register(meterRegistry);
+        Gauge.builder("usersapi.change-feed.pending", pending, AtomicInteger::get)
+                .description("Changes waiting to be appended")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("usersapi.change-feed.dropped")
+                .description("Changes dropped because the queue was full or the writer was stopped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a change for every registered user, once the registration is committed. Registrations rolled back,
+     * such as those of the startup warm-up, are never recorded.
+     * The registering thread never waits, as it may be an event loop of the reactive stack: when the queue is full
+     * or the writer is stopped, the change is dropped, counted by {@code usersapi.change-feed.dropped}, and the
+     * feed is marked as lagging until the writer has read the missing registrations from the user table.
+     *
+     * @param event The event listing the registered users.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersRegistered(UsersRegisteredEvent event) {
+        for (User user : event.getUsers()) {
+            if (!running || failed) {
+                drop();
+                continue;
+            }
+            pending.incrementAndGet();
+            if (!queue.offer(toChange(user))) {
+                pending.decrementAndGet();
+                drop();
+            }
+        }
+    }
+
+    private void drop() {
+        dropped.increment();
+        if (!lagging) {
+            lagging = true;
+            logger.warn("Dropping changes from the change feed: the queue is full or the writer is stopped");
+        }
+    }
+
+    /**
+     * Return whether changes were dropped and not read back from the user table yet.
+     *
+     * @return true if some registrations are missing from the feed.
+     */
+    public boolean isLagging() {
+        return lagging;
+    }
+
+    /**
+     * Return whether the writer stopped after failing to append changes.
+     *
+     * @return true if no change is appended until the next start.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public int getPendingChanges() {
+        return pending.get();
+    }
+
+    private Change toChange(User user) {
+        try {
+            return new Change(user.getId(), objectMapper.writeValueAsBytes(UserResponse.from(user)));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Return the changes of the segment holding the given offset, from that offset.
+     *
+     * @param offset The offset of the first change, 0 for the oldest change.
+     * @return The range of the changes in their segment file.
+     * @throws InvalidChangeOffsetException If the offset is beyond the last change or not the offset of a change.
+     */
+    public ChangeLog.Slice getChanges(long offset) {
+        try {
+            return changeLog.slice(offset);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidChangeOffsetException(ex.getMessage() + "!");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Open an event stream sending every change from the given offset, then every new change as it is appended.
+     *
+     * @param offset The offset of the first change to send.
+     * @return The event stream, which completes after {@code usersapi.change-feed.stream-timeout}.
+     * @throws InvalidChangeOffsetException If the offset is beyond the last change or not the offset of a change.
+     */
+    public SseEmitter subscribe(long offset) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(streamTimeoutMillis), getChanges(offset).getStartOffset());
+        try {
+            // Sent as soon as the stream is open, so the client gets the response headers before the first change.
+            subscriber.emitter.send(SseEmitter.event().comment("offset " + subscriber.offset));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    public long getEndOffset() {
+        return changeLog.getEndOffset();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            dispatchers.execute(() -> dispatch(subscriber));
+        }
+    }
+
+    /**
+     * Send a subscriber the changes it has not received yet, in reads of at most {@value #DISPATCH_READ_SIZE}
+     * bytes, then check for changes appended meanwhile.
+     */
+    private void dispatch(Subscriber subscriber) {
+        try {
+            while (subscriber.offset < changeLog.getEndOffset() && subscribers.contains(subscriber)) {
+                ChangeLog.Slice slice = changeLog.slice(subscriber.offset, DISPATCH_READ_SIZE);
+                ByteBuffer changes = slice.readAll();
+                long offset = slice.getStartOffset();
+                int lineStart = 0;
+                for (int i = 0; i < changes.limit(); i++) {
+                    if (changes.get(i) == '\n') {
+                        String change = new String(changes.array(), lineStart, i - lineStart, StandardCharsets.UTF_8);
+                        offset += i + 1 - lineStart;
+                        subscriber.emitter.send(SseEmitter.event().id(Long.toString(offset)).name(EVENT_NAME).data(change));
+                        lineStart = i + 1;
+                    }
+                }
+                subscriber.offset = slice.getEndOffset();
+            }
+        } catch (IOException | RuntimeException ex) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(ex);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.offset < changeLog.getEndOffset() && subscribers.contains(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Open the change log, which is done in the constructor, append the registrations missing from it and start
+     * the writer thread.
+     *
+     * @throws UncheckedIOException If the missing registrations cannot be appended.
+     */
+    @Override
+    public void start() {
+        emptyLogFromId = jdbcTemplate.queryForObject(MAX_ID_QUERY, Long.class) + 1;
+        try {
+            reconcile();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        running = true;
+        writer = new Thread(this::drainQueue, "change-feed-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the writer thread once the queued changes are appended, close the event streams and the log.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = writer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        dispatchers.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        try {
+            changeLog.close();
+        } catch (IOException ex) {
+            logger.warn("Could not close the change log", ex);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before the web server and stop after it.
+     *
+     * @return The lifecycle phase of the service.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+
+    /**
+     * The loop of the writer thread: drain the queue in groups of at most {@code max-batch-size} changes,
+     * append each group with one write and notify the event streams, until the service is stopped and the queue
+     * is empty. Changes dropped meanwhile are read back from the user table first.
+     */
+    private void drainQueue() {
+        List<Change> group = new ArrayList<>(maxBatchSize);
+        long reconcileAfter = 0;
+        while (true) {
+            if (lagging && System.nanoTime() - reconcileAfter >= 0) {
+                lagging = false;
+                try {
+                    reconcile();
+                } catch (IOException ex) {
+                    fail(ex, 0);
+                    return;
+                } catch (RuntimeException ex) {
+                    logger.warn("Could not read the registrations dropped from the change feed, retrying", ex);
+                    lagging = true;
+                    reconcileAfter = System.nanoTime() + RECONCILE_RETRY_NANOS;
+                }
+            }
+            queue.drain(change -> {
+                if (reconciledIds.remove(change.id)) {
+                    pending.decrementAndGet();
+                } else {
+                    group.add(change);
+                }
+            }, maxBatchSize);
+            if (group.isEmpty()) {
+                if (queue.size() == 0) {
+                    reconciledIds.clear();
+                    if (!running) {
+                        return;
+                    }
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                append(group);
+            } catch (IOException ex) {
+                fail(ex, group.size());
+                return;
+            }
+            pending.addAndGet(-group.size());
+            group.clear();
+        }
+    }
+
+    /**
+     * Append the registrations missing from the log, read from the user table: the users from the lowest ID of
+     * the last {@value #DISPATCH_READ_SIZE} bytes of the log that it does not hold, or the users registered since
+     * the start when the log is empty.
+     * This recovers the changes lost by a crash or a failed append, and those dropped from a full queue.
+     */
+    private void reconcile() throws IOException {
+        ByteBuffer records = changeLog.sliceBefore(changeLog.getEndOffset(), DISPATCH_READ_SIZE).readAll();
+        Set<Long> logged = new HashSet<>();
+        long fromId = Long.MAX_VALUE;
+        int lineStart = 0;
+        for (int i = 0; i < records.limit(); i++) {
+            if (records.get(i) == '\n') {
+                long id = objectMapper.readTree(records.array(), lineStart, i - lineStart).path("user").path("id").asLong();
+                logged.add(id);
+                fromId = Math.min(fromId, id);
+                lineStart = i + 1;
+            }
+        }
+        List<Change> missing = new ArrayList<>();
+        jdbcTemplate.query(USERS_FROM_QUERY, rs -> {
+            long id = rs.getLong("id");
+            if (!logged.contains(id)) {
+                User user = new User(rs.getString("username"), rs.getObject("birthdate", LocalDate.class),
+                        rs.getString("country_of_residence"), rs.getString("phone_number"), rs.getString("gender"));
+                user.setId(id);
+                missing.add(toChange(user));
+            }
+        }, logged.isEmpty() ? emptyLogFromId : fromId);
+        for (int from = 0; from < missing.size(); from += maxBatchSize) {
+            List<Change> group = missing.subList(from, Math.min(from + maxBatchSize, missing.size()));
+            append(group);
+            for (Change change : group) {
+                reconciledIds.add(change.id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            logger.info("Appended {} registrations missing from the change log", missing.size());
+        }
+    }
+
+    /**
+     * Append a group of changes with one write, retrying a failed write a few times, and notify the event streams.
+     */
+    private void append(List<Change> group) throws IOException {
+        List<ByteBuffer> records = new ArrayList<>(group.size() * 4);
+        long offset = changeLog.getEndOffset();
+        for (Change change : group) {
+            byte[] prefix = ("{\"offset\":" + offset).getBytes(StandardCharsets.US_ASCII);
+            records.add(ByteBuffer.wrap(prefix));
+            records.add(ByteBuffer.wrap(RECORD_TYPE));
+            records.add(ByteBuffer.wrap(change.json));
+            records.add(ByteBuffer.wrap(RECORD_SUFFIX));
+            offset += prefix.length + RECORD_TYPE.length + change.json.length + RECORD_SUFFIX.length;
+        }
+        long retryNanos = APPEND_RETRY_NANOS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                changeLog.append(records);
+                break;
+            } catch (IOException ex) {
+                if (attempt == APPEND_ATTEMPTS) {
+                    throw ex;
+                }
+                logger.warn("Could not append {} changes to the change log, retrying", group.size(), ex);
+                LockSupport.parkNanos(this, retryNanos);
+                retryNanos *= 2;
+            }
+        }
+        batchSizes.record(group.size());
+        subscribers.forEach(this::schedule);
+    }
+
+    /**
+     * Stop the writer after an append failed for good. The changes of the failed group and those still queued are
+     * dropped, and read back from the user table on the next start.
+     */
+    private void fail(IOException ex, int groupSize) {
+        failed = true;
+        int[] discarded = {groupSize};
+        queue.drain(change -> discarded[0]++, Integer.MAX_VALUE);
+        pending.addAndGet(-discarded[0]);
+        dropped.increment(discarded[0]);
+        logger.error("Could not append changes to the change log, stopping the change feed writer with {} changes "
+                + "dropped; they are read back from the user table on the next start", discarded[0], ex);
+    }
+
+    /**
+     * A registered user waiting to be appended, with its ID to recognize users already appended.
+     */
+    private static final class Change {
+
+        private final long id;
+
+        private final byte[] json;
+
+        Change(long id, byte[] json) {
+            this.id = id;
+            this.json = json;
+        }
+    }
+
+    /**
+     * An open event stream and the offset of the next change to send it.
+     */
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile long offset;
+
+        Subscriber(SseEmitter emitter, long offset) {
+            this.emitter = emitter;
+            this.offset = offset;
+        }
+    }
+}
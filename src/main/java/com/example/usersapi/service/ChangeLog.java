@@ -0,0 +1,439 @@
+package com.example.usersapi.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ChangeLog class is an append-only log of newline-terminated records, split into segment files.
+ * Records are addressed by their offset, the number of bytes appended to the log before them, so a consumer
+ * resumes from the offset following the last record it read. Each segment file is named after the offset of its
+ * first record, and a new segment is started once the current one exceeds the segment size; the oldest segments
+ * are deleted beyond the retained count.
+ * Records are written as they will be sent, so readers hand file ranges to the network without decoding them:
+ * {@link #slice(long)} returns the file range to send with sendfile, or to copy with
+ * {@link FileChannel#transferTo}. On opening, a record torn by a crash at the end of the last segment is cut off.
+ * Appends must come from a single thread; reads are safe from any thread and only see complete appends.
+ */
+public class ChangeLog implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * The largest segment size, which keeps a segment below 2GB even with the append that goes past its size.
+     */
+    static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final Path directory;
+
+    private final long segmentSize;
+
+    private final int retainedSegments;
+
+    private final boolean fsync;
+
+    private volatile List<Segment> segments;
+
+    private volatile long endOffset;
+
+    private boolean broken;
+
+    /**
+     * Constructor for ChangeLog class.
+     * The directory is created if it does not exist, and the segments found in it are reopened.
+     *
+     * @param directory        The directory of the segment files.
+     * @param segmentSize      The size in bytes beyond which a new segment is started, at most 1GB.
+     * @param retainedSegments The number of segments kept, the oldest being deleted.
+     * @param fsync            Whether each append is forced to disk before it becomes readable.
+     * @throws IOException If the segments cannot be opened.
+     */
+    public ChangeLog(Path directory, long segmentSize, int retainedSegments, boolean fsync) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        if (segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Change log segment size " + segmentSize + " exceeds "
+                    + MAX_SEGMENT_SIZE + " bytes");
+        }
+        this.segmentSize = Math.max(1, segmentSize);
+        this.retainedSegments = Math.max(1, retainedSegments);
+        this.fsync = fsync;
+        List<Segment> opened = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                opened.add(new Segment(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file));
+            }
+        } catch (NumberFormatException ex) {
+            throw new IOException("Unexpected file in change log " + directory, ex);
+        }
+        opened.sort((a, b) -> Long.compare(a.baseOffset, b.baseOffset));
+        if (opened.isEmpty()) {
+            opened.add(new Segment(0, segmentPath(0)));
+        }
+        opened.get(opened.size() - 1).truncateTornRecord();
+        this.segments = opened;
+        Segment last = opened.get(opened.size() - 1);
+        this.endOffset = last.baseOffset + last.size;
+    }
+
+    /**
+     * Append records with a single write, starting a new segment first if the current one is full.
+     * If the write fails, the bytes already written are cut off, so the log ends with the last complete append
+     * and the records can be appended again with the same offsets.
+     *
+     * @param records The records to append, each ending with a newline.
+     * @return The end offset of the log after the append.
+     * @throws IOException If the records cannot be written, or a failed write could not be cut off before.
+     */
+    public long append(List<ByteBuffer> records) throws IOException {
+        if (broken) {
+            throw new IOException("Change log " + directory + " holds a partial write and must be reopened");
+        }
+        Segment segment = segments.get(segments.size() - 1);
+        if (segment.size >= segmentSize) {
+            segment = roll();
+        }
+        ByteBuffer[] buffers = records.toArray(new ByteBuffer[0]);
+        int[] positions = new int[buffers.length];
+        long written = 0;
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            positions[i] = buffers[i].position();
+            remaining += buffers[i].remaining();
+        }
+        try {
+            while (written < remaining) {
+                written += segment.channel.write(buffers);
+            }
+            if (fsync) {
+                segment.channel.force(false);
+            }
+        } catch (IOException ex) {
+            try {
+                segment.channel.truncate(segment.size);
+                segment.channel.position(segment.size);
+            } catch (IOException truncateFailure) {
+                broken = true;
+                ex.addSuppressed(truncateFailure);
+            }
+            // Rewind the records, so that the caller can append them again
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i].position(positions[i]);
+            }
+            throw ex;
+        }
+        segment.size += written;
+        endOffset += written;
+        return endOffset;
+    }
+
+    private Segment roll() throws IOException {
+        List<Segment> rolled = new ArrayList<>(segments);
+        Segment segment = new Segment(endOffset, segmentPath(endOffset));
+        rolled.add(segment);
+        List<Segment> deleted = new ArrayList<>();
+        while (rolled.size() > retainedSegments) {
+            deleted.add(rolled.remove(0));
+        }
+        segments = rolled;
+        for (Segment old : deleted) {
+            old.delete();
+        }
+        return segment;
+    }
+
+    /**
+     * Return the readable range of the segment holding the given offset, from that offset to the end of the
+     * segment. An offset older than the oldest retained segment starts at the beginning of the log.
+     *
+     * @param offset The offset of the first record to read.
+     * @return The range of complete records from the offset, empty if the offset is the end of the log.
+     * @throws IllegalArgumentException If the offset is beyond the end of the log or inside a record.
+     * @throws IOException              If the segment cannot be read.
+     */
+    public Slice slice(long offset) throws IOException {
+        List<Segment> current = segments;
+        long end = endOffset;
+        if (offset > end || offset < 0) {
+            throw new IllegalArgumentException("offset beyond the end of the change log");
+        }
+        Segment segment = current.get(0);
+        if (offset < segment.baseOffset) {
+            offset = segment.baseOffset;
+        }
+        for (int i = current.size() - 1; i >= 0; i--) {
+            if (current.get(i).baseOffset <= offset) {
+                segment = current.get(i);
+                break;
+            }
+        }
+        long position = offset - segment.baseOffset;
+        if (position > 0 && !segment.endsRecord(position)) {
+            throw new IllegalArgumentException("offset inside a change log record");
+        }
+        return new Slice(segment, offset, Math.min(end, segment.baseOffset + segment.size));
+    }
+
+    /**
+     * Return the readable range of the segment holding the given offset, shortened to the complete records
+     * within a maximum size.
+     *
+     * @param offset   The offset of the first record to read.
+     * @param maxBytes The maximum length of the range; the first record is kept even if it is longer.
+     * @return The range of complete records from the offset, empty if the offset is the end of the log.
+     * @throws IllegalArgumentException If the offset is beyond the end of the log or inside a record.
+     * @throws IOException              If the segment cannot be read.
+     */
+    public Slice slice(long offset, int maxBytes) throws IOException {
+        return slice(offset).limit(maxBytes);
+    }
+
+    /**
+     * Return the latest complete records before an offset, within a maximum size, from the segment holding the
+     * record before that offset. Reading back from the end of the log only reads its tail, whatever the segment
+     * size.
+     *
+     * @param offset   The offset following the last record to read.
+     * @param maxBytes The maximum length of the range.
+     * @return The range of complete records ending at the offset, empty if it is the start of the log or the
+     * record before it is longer than the maximum size.
+     * @throws IllegalArgumentException If the offset is beyond the end of the log or before its start.
+     * @throws IOException              If the segment cannot be read.
+     */
+    public Slice sliceBefore(long offset, int maxBytes) throws IOException {
+        List<Segment> current = segments;
+        if (offset > endOffset || offset < current.get(0).baseOffset) {
+            throw new IllegalArgumentException("offset outside the change log");
+        }
+        Segment segment = current.get(0);
+        for (int i = current.size() - 1; i >= 0; i--) {
+            if (current.get(i).baseOffset < offset) {
+                segment = current.get(i);
+                break;
+            }
+        }
+        long start = Math.max(segment.baseOffset, offset - maxBytes);
+        if (start > segment.baseOffset) {
+            // Read from the byte before the range, so that a record starting right at it is kept
+            ByteBuffer buffer = ByteBuffer.allocate((int) (offset - start + 1));
+            segment.readFully(buffer, start - 1 - segment.baseOffset);
+            int i = 0;
+            while (i < buffer.limit() - 1 && buffer.get(i) != '\n') {
+                i++;
+            }
+            start += i;
+        }
+        return new Slice(segment, start, offset);
+    }
+
+    /**
+     * Return the offset of the oldest retained record.
+     *
+     * @return The start offset of the log.
+     */
+    public long getStartOffset() {
+        return segments.get(0).baseOffset;
+    }
+
+    /**
+     * Return the offset following the last record appended.
+     *
+     * @return The end offset of the log.
+     */
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    private Path segmentPath(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+    }
+
+    /**
+     * A range of complete records within one segment.
+     */
+    public static class Slice {
+
+        private final Segment segment;
+
+        private final long startOffset;
+
+        private final long endOffset;
+
+        Slice(Segment segment, long startOffset, long endOffset) {
+            this.segment = segment;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+        }
+
+        /**
+         * Return the offset of the first record of the slice, which is later than the requested offset if
+         * the requested records were deleted.
+         *
+         * @return The start offset of the slice.
+         */
+        public long getStartOffset() {
+            return startOffset;
+        }
+
+        /**
+         * Return the offset following the last record of the slice, from which the next read starts.
+         *
+         * @return The end offset of the slice.
+         */
+        public long getEndOffset() {
+            return endOffset;
+        }
+
+        public long getLength() {
+            return endOffset - startOffset;
+        }
+
+        /**
+         * Return the segment file, for a sendfile of the range {@link #getFilePosition()} to
+         * {@link #getFilePosition()} + {@link #getLength()}.
+         *
+         * @return The path of the segment file.
+         */
+        public Path getFile() {
+            return segment.path;
+        }
+
+        public long getFilePosition() {
+            return startOffset - segment.baseOffset;
+        }
+
+        /**
+         * Copy the records of the slice to a channel with {@link FileChannel#transferTo}, which lets the
+         * operating system copy file pages straight to a socket or file.
+         *
+         * @param target The channel to write to.
+         * @throws IOException If the segment cannot be read or the channel cannot be written.
+         */
+        public void transferTo(WritableByteChannel target) throws IOException {
+            long position = getFilePosition();
+            long remaining = getLength();
+            while (remaining > 0) {
+                long transferred = segment.channel.transferTo(position, remaining, target);
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+
+        /**
+         * Read the records of the slice into memory; callers shorten the slice first, as a segment may exceed
+         * the size of a buffer.
+         *
+         * @return A buffer holding the records.
+         * @throws IOException If the segment cannot be read.
+         */
+        public ByteBuffer readAll() throws IOException {
+            if (getLength() > Integer.MAX_VALUE) {
+                throw new IOException("Change log range of " + getLength() + " bytes too large to read at once");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) getLength());
+            segment.readFully(buffer, getFilePosition());
+            buffer.flip();
+            return buffer;
+        }
+
+        /**
+         * Shorten the slice to the complete records within a maximum size.
+         *
+         * @param maxBytes The maximum length of the slice; the first record is kept even if it is longer.
+         * @return The shortened slice.
+         * @throws IOException If the segment cannot be read.
+         */
+        Slice limit(int maxBytes) throws IOException {
+            if (getLength() <= maxBytes) {
+                return this;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(maxBytes);
+            segment.readFully(buffer, getFilePosition());
+            for (int i = maxBytes - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return new Slice(segment, startOffset, startOffset + i + 1);
+                }
+            }
+            return limit(maxBytes * 2);
+        }
+    }
+
+    /**
+     * One segment file, holding the records from its base offset.
+     */
+    private static class Segment {
+
+        private final long baseOffset;
+
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private volatile long size;
+
+        Segment(long baseOffset, Path path) throws IOException {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.size = channel.size();
+            this.channel.position(size);
+        }
+
+        /**
+         * Cut off the bytes following the last newline, left by a crash during an append.
+         */
+        void truncateTornRecord() throws IOException {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            long end = size;
+            while (end > 0) {
+                last.clear();
+                readFully(last, end - 1);
+                if (last.get(0) == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < size) {
+                channel.truncate(end);
+                channel.position(end);
+                size = end;
+            }
+        }
+
+        boolean endsRecord(long position) throws IOException {
+            ByteBuffer previous = ByteBuffer.allocate(1);
+            readFully(previous, position - 1);
+            return previous.get(0) == '\n';
+        }
+
+        void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of change log segment " + path);
+                }
+            }
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
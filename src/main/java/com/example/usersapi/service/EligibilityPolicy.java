@@ -0,0 +1,130 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.EligibilityProperties;
+import com.example.usersapi.model.User;
+import com.example.usersapi.util.CountryCodes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * The EligibilityPolicy class decides which users are allowed to register: users of at least the configured
+ * minimum age who live in one of the configured countries.
+ * The latest birthdate allowed is computed once per day from the injected clock, so that checking a user is
+ * a single epoch-day comparison plus a lookup among the few allowed country codes, without allocating.
+ * Countries are compared as ISO codes, which users carry since their country is normalized when it is set.
+ */
+@Component
+public class EligibilityPolicy {
+
+    private final Clock clock;
+
+    private final int minAge;
+
+    private final String[] allowedCountries;
+
+    private final String rejectionMessage;
+
+    private volatile Cutoff cutoff;
+
+    /**
+     * Constructor for EligibilityPolicy class.
+     *
+     * @param clock      The clock giving the current date.
+     * @param properties The eligibility rule configuration.
+     */
+    @Autowired
+    public EligibilityPolicy(Clock clock, EligibilityProperties properties) {
+        this.clock = clock;
+        this.minAge = properties.getMinAge();
+        this.allowedCountries = properties.getAllowedCountries().stream()
+                .map(CountryCodes::normalize)
+                .distinct()
+                .toArray(String[]::new);
+        this.rejectionMessage = properties.getRejectionMessage();
+        this.cutoff = computeCutoff(clock.millis());
+    }
+
+    /**
+     * Checks if the user may register.
+     *
+     * @param user The user to check.
+     * @return true if the user is old enough and lives in an allowed country, false otherwise.
+     */
+    public boolean isEligible(User user) {
+        return isOldEnough(user.getBirthdate()) && isAllowedCountry(user.getCountryOfResidence());
+    }
+
+    /**
+     * Checks if a person born on the given date has reached the minimum age today.
+     *
+     * @param birthdate The birthdate to check.
+     * @return true if the birthdate is known and on or before the latest birthdate allowed, false otherwise.
+     */
+    public boolean isOldEnough(LocalDate birthdate) {
+        if (birthdate == null) {
+            return false;
+        }
+        long now = clock.millis();
+        Cutoff current = cutoff;
+        if (now >= current.validUntilMillis) {
+            current = refreshCutoff(now);
+        }
+        return birthdate.toEpochDay() <= current.latestBirthEpochDay;
+    }
+
+    /**
+     * Checks if the given country is one of the allowed countries.
+     *
+     * @param countryCode The ISO code of the country, as normalized by {@link CountryCodes#normalize(String)}.
+     * @return true if the country is allowed, false otherwise.
+     */
+    public boolean isAllowedCountry(String countryCode) {
+        for (String allowedCountry : allowedCountries) {
+            if (allowedCountry.equals(countryCode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the message of the error reported to users who are not eligible.
+     *
+     * @return The rejection message.
+     */
+    public String getRejectionMessage() {
+        return rejectionMessage;
+    }
+
+    private synchronized Cutoff refreshCutoff(long now) {
+        if (now >= cutoff.validUntilMillis) {
+            cutoff = computeCutoff(now);
+        }
+        return cutoff;
+    }
+
+    private Cutoff computeCutoff(long now) {
+        LocalDate today = Instant.ofEpochMilli(now).atZone(clock.getZone()).toLocalDate();
+        long validUntilMillis = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        return new Cutoff(today.minusYears(minAge).toEpochDay(), validUntilMillis);
+    }
+
+    /**
+     * The latest birthdate allowed on a given day, and the instant that day ends.
+     */
+    private static final class Cutoff {
+
+        private final long latestBirthEpochDay;
+
+        private final long validUntilMillis;
+
+        private Cutoff(long latestBirthEpochDay, long validUntilMillis) {
+            this.latestBirthEpochDay = latestBirthEpochDay;
+            this.validUntilMillis = validUntilMillis;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.event.UsersRegisteredEvent;
+import com.example.usersapi.exception.ConstraintViolations;
+import com.example.usersapi.exception.DuplicateUsernameException;
+import com.example.usersapi.exception.InvalidCursorException;
+import com.example.usersapi.exception.InvalidLookupException;
+import com.example.usersapi.exception.InvalidSegmentException;
+import com.example.usersapi.exception.InvalidUserException;
+import com.example.usersapi.exception.ResourceNotFoundException;
+import com.example.usersapi.model.BatchRegistrationResult;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserLookupResult;
+import com.example.usersapi.model.UserPage;
+import com.example.usersapi.model.UserRecord;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserSegments;
+import com.example.usersapi.repository.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The ReactiveUserService class is the non-blocking counterpart of {@link UserService} and
+ * {@link UserBatchService}, used by the reactive profile.
+ * It applies the same registration rules and reports the same exceptions, but reads and writes users
+ * through the {@link ReactiveUserRepository} without blocking the calling thread.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+
+    private final UsernameFilter usernameFilter;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Validator validator;
+
+    private final EligibilityPolicy eligibilityPolicy;
+
+    private final SegmentCounters segmentCounters;
+
+    private final Clock clock;
+
+    /**
+     * Constructor for ReactiveUserService class.
+     *
+     * @param userRepository    The ReactiveUserRepository instance to be injected.
+     * @param usernameFilter    The UsernameFilter used to skip duplicate checks for new usernames.
+     * @param eventPublisher    The publisher of {@link UsersRegisteredEvent}s.
+     * @param validator         The bean validator used to validate each user of a bulk registration.
+     * @param eligibilityPolicy The EligibilityPolicy deciding which users may register.
+     * @param segmentCounters   The SegmentCounters answering segment counts without age bounds.
+     * @param clock             The clock giving the current date, against which ages are computed.
+     */
+    @Autowired
+    public ReactiveUserService(ReactiveUserRepository userRepository, UsernameFilter usernameFilter,
+                               ApplicationEventPublisher eventPublisher, Validator validator,
+                               EligibilityPolicy eligibilityPolicy, SegmentCounters segmentCounters, Clock clock) {
+        this.userRepository = userRepository;
+        this.usernameFilter = usernameFilter;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.eligibilityPolicy = eligibilityPolicy;
+        this.segmentCounters = segmentCounters;
+        this.clock = clock;
+    }
+
+    /**
+     * Register a new user.
+     *
+     * @param user The User object to be registered.
+     * @return The registered User object, or an error with {@link DuplicateUsernameException} if the username
+     * already exists or {@link InvalidUserException} if the user does not meet the registration criteria.
+     * @see UserService#registerUser(User)
+     */
+    public Mono<User> registerUser(User user) {
+        if (!eligibilityPolicy.isEligible(user)) {
+            return Mono.error(new InvalidUserException(eligibilityPolicy.getRejectionMessage()));
+        }
+
+        Mono<Boolean> taken = usernameFilter.needsProbe(user.getUsername())
+                ? userRepository.existsByUsername(user.getUsername())
+                : Mono.just(false);
+        return taken
+                .flatMap(exists -> exists
+                        ? Mono.<UserRecord>error(new DuplicateUsernameException("Username already exists!"))
+                        : userRepository.insert(UserRecord.from(user)))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        ex -> ConstraintViolations.isDuplicateUsername((DataIntegrityViolationException) ex)
+                                ? new DuplicateUsernameException("Username already exists!")
+                                : ex)
+                .map(UserRecord::toUser)
+                .doOnNext(registeredUser ->
+                        eventPublisher.publishEvent(new UsersRegisteredEvent(Collections.singletonList(registeredUser))));
+    }
+
+    /**
+     * Register the given users one after the other, as they arrive.
+     *
+     * @param users The users to be registered.
+     * @return One result per submitted user, in submission order.
+     * @see UserBatchService#registerUsers(java.util.Iterator)
+     */
+    public Flux<BatchRegistrationResult> registerUsers(Flux<User> users) {
+        return Flux.defer(() -> {
+            Set<String> usernames = new HashSet<>();
+            return users.index().concatMap(indexed -> {
+                int index = indexed.getT1().intValue();
+                User user = indexed.getT2();
+                String rejection = UserBatchService.validate(validator, eligibilityPolicy, user);
+                if (rejection != null) {
+                    return Mono.just(BatchRegistrationResult.rejected(index, user.getUsername(), rejection));
+                }
+                if (!usernames.add(user.getUsername())) {
+                    return Mono.just(BatchRegistrationResult.duplicate(index, user.getUsername()));
+                }
+                return registerUser(user)
+                        .map(registeredUser -> BatchRegistrationResult.created(index, registeredUser))
+                        .onErrorResume(DuplicateUsernameException.class,
+                                ex -> Mono.just(BatchRegistrationResult.duplicate(index, user.getUsername())));
+            });
+        });
+    }
+
+    /**
+     * Retrieve user details by ID.
+     *
+     * @param userId The ID of the user to retrieve.
+     * @return The retrieved User object, or an error with {@link ResourceNotFoundException} if the user is not found.
+     */
+    public Mono<User> getUserById(Long userId) {
+        return userRepository.findById(userId)
+                .map(UserRecord::toUser)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User not found!")));
+    }
+
+    /**
+     * Retrieve several users by ID at once, with one IN query per {@value UserService#LOOKUP_CHUNK_SIZE} IDs.
+     *
+     * @param userIds The IDs of the users to retrieve, at most {@value UserService#MAX_LOOKUP_SIZE}.
+     * @return The users found and the IDs not found, in request order and without duplicates, or an error with
+     * {@link InvalidLookupException} if there are too many IDs or an ID is null.
+     * @see UserService#getUsersByIds(Collection)
+     */
+    public Mono<UserLookupResult> getUsersByIds(Collection<Long> userIds) {
+        return Mono.fromCallable(() -> UserService.toLookupIds(userIds)).flatMap(requested -> {
+            List<Long> ids = new ArrayList<>(requested);
+            return Flux.range(0, (ids.size() + UserService.LOOKUP_CHUNK_SIZE - 1) / UserService.LOOKUP_CHUNK_SIZE)
+                    .concatMap(chunk -> userRepository.findAllById(ids.subList(chunk * UserService.LOOKUP_CHUNK_SIZE,
+                            Math.min((chunk + 1) * UserService.LOOKUP_CHUNK_SIZE, ids.size()))))
+                    .collectMap(UserRecord::getId, UserRecord::toUser)
+                    .map(found -> UserLookupResult.of(requested, found));
+        });
+    }
+
+    /**
+     * Retrieve the version of a user, to validate a conditional request without loading the user.
+     *
+     * @param userId The ID of the user.
+     * @return The version of the user, or an error with {@link ResourceNotFoundException} if the user is not found.
+     * @see UserService#getUserVersion(Long)
+     */
+    public Mono<Long> getUserVersion(Long userId) {
+        return userRepository.findVersionById(userId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User not found!")));
+    }
+
+    /**
+     * List users matching the given criteria, one page at a time.
+     *
+     * @param criteria The filters to apply.
+     * @param cursor   The cursor returned with the previous page, or null for the first page.
+     * @param limit    The maximum number of users of the page.
+     * @return The page of users, or an error with {@link InvalidCursorException} if the cursor is malformed.
+     * @see UserService#findUsers(UserSearchCriteria, String, int)
+     */
+    public Mono<UserPage> findUsers(UserSearchCriteria criteria, String cursor, int limit) {
+        Long afterId;
+        try {
+            afterId = UserService.decodeCursor(cursor);
+        } catch (InvalidCursorException ex) {
+            return Mono.error(ex);
+        }
+        return userRepository.findPage(criteria, afterId, limit + 1)
+                .map(UserRecord::toUser)
+                .collectList()
+                .map(users -> UserService.toPage(users, limit));
+    }
+
+    /**
+     * Count users per segment.
+     *
+     * @param country Only count users with this country of residence, as a name or an ISO code.
+     * @param gender  Only count users with this exact gender.
+     * @param minAge  Only count users of at least this age, in years.
+     * @param maxAge  Only count users of at most this age, in years.
+     * @return The count of every segment with matching users, or an error with {@link InvalidSegmentException}
+     * if an age is negative or the age range is empty.
+     * @see UserSegmentService#getSegments(String, String, Integer, Integer)
+     */
+    public Mono<UserSegments> getSegments(String country, String gender, Integer minAge, Integer maxAge) {
+        UserSearchCriteria criteria;
+        try {
+            criteria = UserSegmentService.toCriteria(country, gender, minAge, maxAge, LocalDate.now(clock));
+        } catch (InvalidSegmentException ex) {
+            return Mono.error(ex);
+        }
+        if (minAge == null && maxAge == null && segmentCounters.isActive()) {
+            return Mono.just(new UserSegments(
+                    segmentCounters.getSegments(criteria.getCountryOfResidence(), criteria.getGender())));
+        }
+        return userRepository.countSegments(criteria).collectList().map(UserSegments::new);
+    }
+
+    /**
+     * Stream all users ordered by ID.
+     *
+     * @return All users, fetched from the database as they are consumed.
+     */
+    public Flux<User> exportUsers() {
+        return userRepository.findAllByOrderByIdAsc().map(UserRecord::toUser);
+    }
+}
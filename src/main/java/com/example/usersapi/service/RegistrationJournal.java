@@ -0,0 +1,215 @@
+package com.example.usersapi.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * The RegistrationJournal class is the append-only file that write-behind registrations are recorded in
+ * before they are acknowledged, so that registrations still queued when the process dies are replayed on
+ * the next startup.
+ * Each record holds the ticket and the JSON of one user, prefixed by its length and a CRC32 checksum, so
+ * that a record torn by a crash is detected and ignored on replay.
+ * When forcing is enabled, concurrent appends share fsyncs: an append returns once a force that started
+ * after its write has completed, and a single force covers every record written before it.
+ */
+public class RegistrationJournal implements Closeable {
+
+    private static final int HEADER_SIZE = 8;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final boolean fsync;
+
+    private final Object forceLock = new Object();
+
+    private volatile long appended;
+
+    private volatile long forced;
+
+    /**
+     * Constructor for RegistrationJournal class.
+     * The journal file and its parent directories are created if they do not exist.
+     *
+     * @param path  The path of the journal file.
+     * @param fsync Whether appends return only once the record was forced to disk.
+     * @throws IOException If the journal file cannot be opened.
+     */
+    public RegistrationJournal(Path path, boolean fsync) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.fsync = fsync;
+    }
+
+    /**
+     * Append a registration to the journal.
+     *
+     * @param ticket The ticket of the registration.
+     * @param user   The JSON of the user to register.
+     * @throws IOException If the record cannot be written or forced to disk.
+     */
+    public void append(String ticket, byte[] user) throws IOException {
+        byte[] ticketBytes = ticket.getBytes(StandardCharsets.UTF_8);
+        int length = 2 + ticketBytes.length + user.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + length);
+        record.putInt(length).putInt(0).putShort((short) ticketBytes.length).put(ticketBytes).put(user);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_SIZE, length);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+
+        long end;
+        synchronized (this) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            end = appended + record.limit();
+            appended = end;
+        }
+        if (fsync) {
+            force(end);
+        }
+    }
+
+    /**
+     * Force the journal to disk up to the given logical position, unless a concurrent force already did.
+     *
+     * @param position The number of bytes appended since the journal was opened that must be durable.
+     * @throws IOException If the journal cannot be forced.
+     */
+    private void force(long position) throws IOException {
+        if (forced >= position) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (forced >= position) {
+                return;
+            }
+            long target = appended;
+            channel.force(false);
+            forced = target;
+        }
+    }
+
+    /**
+     * Read all the complete records of the journal, in the order they were appended.
+     * Reading stops at the first torn or corrupted record.
+     *
+     * @return The records of the journal.
+     * @throws IOException If the journal cannot be read.
+     */
+    public synchronized List<Record> read() throws IOException {
+        List<Record> records = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long position = 0;
+        long size = channel.size();
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            if (length < 2 || position + HEADER_SIZE + length > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            readFully(body, position + HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(body.array(), 0, length);
+            if ((int) crc.getValue() != header.getInt(4)) {
+                break;
+            }
+            int ticketLength = body.getShort(0);
+            if (ticketLength < 0 || 2 + ticketLength > length) {
+                break;
+            }
+            String ticket = new String(body.array(), 2, ticketLength, StandardCharsets.UTF_8);
+            byte[] user = new byte[length - 2 - ticketLength];
+            System.arraycopy(body.array(), 2 + ticketLength, user, 0, user.length);
+            records.add(new Record(ticket, user));
+            position += HEADER_SIZE + length;
+        }
+        return records;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal " + path);
+            }
+        }
+    }
+
+    /**
+     * Empty the journal if the given condition holds.
+     * The condition is evaluated while appends are held off, so a record appended concurrently is either
+     * covered by the condition or written after the truncation.
+     *
+     * @param condition The condition under which every record of the journal is known to be committed.
+     * @return true if the journal was emptied.
+     * @throws IOException If the journal cannot be truncated.
+     */
+    public synchronized boolean truncateIf(BooleanSupplier condition) throws IOException {
+        if (channel.size() == 0 || !condition.getAsBoolean()) {
+            return false;
+        }
+        channel.truncate(0);
+        channel.position(0);
+        if (fsync) {
+            channel.force(false);
+        }
+        return true;
+    }
+
+    /**
+     * Get the current size of the journal file.
+     *
+     * @return The size of the journal in bytes.
+     * @throws IOException If the size cannot be read.
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A registration read back from the journal.
+     */
+    public static class Record {
+
+        private final String ticket;
+
+        private final byte[] user;
+
+        Record(String ticket, byte[] user) {
+            this.ticket = ticket;
+            this.user = user;
+        }
+
+        public String getTicket() {
+            return ticket;
+        }
+
+        public byte[] getUser() {
+            return user;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.SegmentCountersProperties;
+import com.example.usersapi.event.UsersRegisteredEvent;
+import com.example.usersapi.model.SegmentCount;
+import com.example.usersapi.model.SegmentCountSnapshot;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.BasicUserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The SegmentCounters class keeps the number of users per country of residence and gender in memory, so that
+ * dashboards can read segment counts without querying the database.
+ * The counters are loaded at startup with a single GROUP BY query and kept current from
+ * {@link UsersRegisteredEvent}s; reading a segment costs a map lookup, and listing them all is proportional to the
+ * number of segments rather than of users. Counts by age cannot be kept this way, since ages change every day
+ * without any registration; they are left to the database.
+ * Registrations are counted once committed. Those committed while the counters are being reloaded are counted on
+ * top of the reloaded counts only if the reload did not count them, which is checked user by user in the snapshot
+ * the reload read: IDs are allocated in blocks, so users do not commit in ID order.
+ */
+@Service
+public class SegmentCounters {
+
+    private final BasicUserRepository userRepository;
+
+    private final SegmentCountersProperties properties;
+
+    private final TransactionTemplate snapshotTransaction;
+
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile Map<Segment, LongAdder> counters;
+
+    private volatile Queue<User> rebuilding;
+
+    /**
+     * Constructor for SegmentCounters class.
+     *
+     * @param userRepository     The BasicUserRepository instance used to count the users of each segment.
+     * @param transactionManager The transaction manager used to reload the counters in a repeatable read
+     *                           transaction.
+     * @param properties         The segment counters configuration.
+     * @param meterRegistry      The registry the counter metrics are published to.
+     */
+    @Autowired
+    public SegmentCounters(BasicUserRepository userRepository, PlatformTransactionManager transactionManager,
+                           SegmentCountersProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        Gauge.builder("usersapi.segment.counters", this, segmentCounters -> segmentCounters.segmentCount())
+                .description("Number of user segments counted in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts newly registered users in their segment, once their transaction has committed.
+     *
+     * @param event The event carrying the committed users.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersRegistered(UsersRegisteredEvent event) {
+        // Shared with other registrations, only excluded while the reloaded counters replace the current ones.
+        swapLock.readLock().lock();
+        try {
+            Queue<User> registered = rebuilding;
+            for (User user : event.getUsers()) {
+                increment(counters, new Segment(user.getCountryOfResidence(), user.getGender()), 1);
+                if (registered != null) {
+                    registered.add(user);
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the counters once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reload the counters from the user table, e.g. after users were inserted or deleted outside the application.
+     * The current counters keep answering until the new ones are loaded.
+     */
+    public synchronized void rebuild() {
+        Queue<User> registered = new ConcurrentLinkedQueue<>();
+        rebuilding = registered;
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                Map<Segment, LongAdder> next = new ConcurrentHashMap<>();
+                SegmentCountSnapshot snapshot = userRepository.countAllSegments();
+                for (SegmentCount count : snapshot.getSegments()) {
+                    LongAdder counter = new LongAdder();
+                    counter.add(count.getCount());
+                    next.put(new Segment(count.getCountry(), count.getGender()), counter);
+                }
+                // The users registered during the reload were only counted in the previous counters.
+                countUnseen(next, snapshot, registered);
+                swapLock.writeLock().lock();
+                try {
+                    countUnseen(next, snapshot, registered);
+                    counters = next;
+                    rebuilding = null;
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            });
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * Counts the registered users that the snapshot did not count, removing them from the queue.
+     */
+    private void countUnseen(Map<Segment, LongAdder> next, SegmentCountSnapshot snapshot, Queue<User> registered) {
+        Map<Long, User> users = new HashMap<>();
+        for (User user = registered.poll(); user != null; user = registered.poll()) {
+            users.put(user.getId(), user);
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+        for (Long id : userRepository.findCountedIds(snapshot, users.keySet())) {
+            users.remove(id);
+        }
+        for (User user : users.values()) {
+            increment(next, new Segment(user.getCountryOfResidence(), user.getGender()), 1);
+        }
+    }
+
+    /**
+     * Checks if the counters have been loaded and are answering segment counts.
+     *
+     * @return true if the counters are active, false otherwise.
+     */
+    public boolean isActive() {
+        return counters != null;
+    }
+
+    /**
+     * Returns the counts of the segments matching a country and a gender.
+     *
+     * @param country The country of residence of the segments, normalized like the one of users, or null for all.
+     * @param gender  The gender of the segments, or null for all.
+     * @return The count of every matching segment with users, ordered by country and gender.
+     * @throws IllegalStateException If the counters have not been loaded.
+     */
+    public List<SegmentCount> getSegments(String country, String gender) {
+        Map<Segment, LongAdder> current = counters;
+        if (current == null) {
+            throw new IllegalStateException("Segment counters are not loaded");
+        }
+        if (country != null && gender != null) {
+            LongAdder counter = current.get(new Segment(country, gender));
+            long count = counter == null ? 0 : counter.sum();
+            return count == 0 ? List.of() : List.of(new SegmentCount(country, gender, count));
+        }
+        List<SegmentCount> segments = new ArrayList<>();
+        current.forEach((segment, counter) -> {
+            long count = counter.sum();
+            if (count > 0 && (country == null || country.equals(segment.country))
+                    && (gender == null || gender.equals(segment.gender))) {
+                segments.add(new SegmentCount(segment.country, segment.gender, count));
+            }
+        });
+        segments.sort(SegmentCount.ORDER);
+        return segments;
+    }
+
+    /**
+     * Returns the number of segments counted.
+     *
+     * @return The number of segments, or 0 if the counters have not been loaded.
+     */
+    public int segmentCount() {
+        Map<Segment, LongAdder> current = counters;
+        return current == null ? 0 : current.size();
+    }
+
+    private static void increment(Map<Segment, LongAdder> counters, Segment segment, long users) {
+        if (counters != null) {
+            LongAdder counter = counters.get(segment);
+            if (counter == null) {
+                counter = counters.computeIfAbsent(segment, key -> new LongAdder());
+            }
+            counter.add(users);
+        }
+    }
+
+    private static final class Segment {
+
+        private final String country;
+
+        private final String gender;
+
+        private Segment(String country, String gender) {
+            this.country = country;
+            this.gender = gender;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Segment)) {
+                return false;
+            }
+            Segment other = (Segment) o;
+            return Objects.equals(country, other.country) && Objects.equals(gender, other.gender);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(country, gender);
+        }
+    }
+}
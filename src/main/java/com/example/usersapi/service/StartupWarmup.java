@@ -0,0 +1,164 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.WarmupProperties;
+import com.example.usersapi.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The StartupWarmup class prepares the application for traffic before it reports itself ready.
+ * Application runners complete before the readiness state changes to ACCEPTING_TRAFFIC, so the first requests
+ * do not pay for cold database pages or interpreted code:
+ * <ul>
+ *     <li>the user table and its indexes are read in index order, loading their pages into the database cache;</li>
+ *     <li>the registration and lookup paths are run repeatedly, so that the JIT compiler optimizes them.</li>
+ * </ul>
+ * Warm-up registrations are rolled back and evicted from the cache, so they leave no user behind. They do
+ * consume IDs from the sequence.
+ */
+@Component
+@ConditionalOnProperty(name = "usersapi.warmup.enabled", havingValue = "true")
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    /**
+     * Queries reading the user table through each of its indexes.
+     */
+    private static final String[] INDEX_SCANS = {
+            "select id from _user order by id",
+            "select username from _user order by username",
+            "select country_of_residence, id from _user order by country_of_residence, id",
+            "select gender, id from _user order by gender, id",
+            "select birthdate, id from _user order by birthdate, id"
+    };
+
+    private final UserService userService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final int iterations;
+
+    /**
+     * Constructor for StartupWarmup class.
+     *
+     * @param userService        The UserService instance to be warmed up.
+     * @param jdbcTemplate       The JdbcTemplate used to read the indexes.
+     * @param transactionManager The transaction manager used to roll back warm-up registrations.
+     * @param entityManager      The shared EntityManager, cleared so that lookups read from the database.
+     * @param objectMapper       The ObjectMapper used to (de)serialize users in requests and responses.
+     * @param properties         The warm-up configuration.
+     */
+    @Autowired
+    public StartupWarmup(UserService userService, JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager, EntityManager entityManager,
+                         ObjectMapper objectMapper, WarmupProperties properties) {
+        this.userService = userService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.iterations = properties.getIterations();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long rows = loadIndexes();
+        long indexesLoaded = System.nanoTime();
+        warmUpRequestPaths();
+        long end = System.nanoTime();
+        logger.info("Warm-up done in {} ms: read {} index entries in {} ms, ran {} registrations and lookups in {} ms",
+                TimeUnit.NANOSECONDS.toMillis(end - start), rows,
+                TimeUnit.NANOSECONDS.toMillis(indexesLoaded - start), iterations,
+                TimeUnit.NANOSECONDS.toMillis(end - indexesLoaded));
+    }
+
+    /**
+     * Read every index of the user table from start to end.
+     *
+     * @return The number of index entries read.
+     */
+    long loadIndexes() {
+        long[] rows = new long[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String scan : INDEX_SCANS) {
+                jdbcTemplate.query(scan, resultSet -> {
+                    rows[0]++;
+                });
+            }
+        });
+        return rows[0];
+    }
+
+    /**
+     * Register, serialize and look up users, in transactions that are rolled back.
+     */
+    void warmUpRequestPaths() {
+        String usernamePrefix = "warmup-" + UUID.randomUUID() + "-";
+        int batchSize = 100;
+        for (int done = 0; done < iterations; done += batchSize) {
+            int count = Math.min(batchSize, iterations - done);
+            int offset = done;
+            List<Long> ids = new ArrayList<>(count);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    for (int i = 0; i < count; i++) {
+                        ids.add(userService.registerUser(readUser(usernamePrefix + (offset + i))).getId());
+                    }
+                    entityManager.clear();
+                    for (Long id : ids) {
+                        userService.evictUser(id);
+                        writeUser(userService.getUserById(id));
+                    }
+                });
+            } finally {
+                for (Long id : ids) {
+                    userService.evictUser(id);
+                }
+            }
+        }
+    }
+
+    private User readUser(String username) {
+        try {
+            return objectMapper.readValue(objectMapper.writeValueAsBytes(
+                    new User(username, LocalDate.of(1990, 1, 1), "France", null, null)), User.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeUser(User user) {
+        try {
+            objectMapper.writeValueAsBytes(user);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
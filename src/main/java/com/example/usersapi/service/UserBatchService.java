@@ -0,0 +1,234 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.BatchRegistrationProperties;
+import com.example.usersapi.event.UsersRegisteredEvent;
+import com.example.usersapi.exception.ConstraintViolations;
+import com.example.usersapi.model.BatchRegistrationResult;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.BasicUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The UserBatchService class handles bulk registration of users.
+ * Users are processed in chunks: each chunk is validated in memory, checked for existing usernames
+ * with a single IN query and inserted in one transaction through JDBC batching. Usernames that the
+ * {@link UsernameFilter} reports as definitely new are left out of the IN query.
+ * Users are saved through the {@link BasicUserRepository}, so in the edge profile they go to the off-heap store
+ * like single registrations.
+ * The persistence context is flushed and cleared after every chunk so that memory stays bounded
+ * regardless of the number of submitted users.
+ */
+@Service
+public class UserBatchService {
+
+    private final BasicUserRepository userRepository;
+
+    private final UsernameFilter usernameFilter;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Validator validator;
+
+    private final EligibilityPolicy eligibilityPolicy;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager entityManager;
+
+    private final int chunkSize;
+
+    /**
+     * Constructor for UserBatchService class.
+     *
+     * @param userRepository      The BasicUserRepository instance to be injected.
+     * @param usernameFilter      The UsernameFilter used to narrow down duplicate checks.
+     * @param eventPublisher      The publisher of {@link UsersRegisteredEvent}s.
+     * @param validator           The bean validator used to validate each submitted user.
+     * @param eligibilityPolicy   The EligibilityPolicy deciding which users may register.
+     * @param transactionTemplate The TransactionTemplate used to run one transaction per chunk.
+     * @param entityManager       The shared EntityManager, cleared after each chunk.
+     * @param properties          The bulk registration configuration.
+     */
+    @Autowired
+    public UserBatchService(BasicUserRepository userRepository, UsernameFilter usernameFilter,
+                            ApplicationEventPublisher eventPublisher, Validator validator,
+                            EligibilityPolicy eligibilityPolicy, TransactionTemplate transactionTemplate,
+                            EntityManager entityManager, BatchRegistrationProperties properties) {
+        this.userRepository = userRepository;
+        this.usernameFilter = usernameFilter;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.eligibilityPolicy = eligibilityPolicy;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.chunkSize = Math.max(1, properties.getChunkSize());
+    }
+
+    /**
+     * Register the given users in chunks.
+     * The iterator is consumed lazily, so streamed input is never fully materialized.
+     *
+     * @param users The users to be registered.
+     * @return One result per submitted user, in submission order.
+     */
+    public List<BatchRegistrationResult> registerUsers(Iterator<User> users) {
+        List<BatchRegistrationResult> results = new ArrayList<>();
+        List<User> chunk = new ArrayList<>(chunkSize);
+        while (users.hasNext()) {
+            chunk.add(users.next());
+            if (chunk.size() == chunkSize) {
+                results.addAll(registerChunk(chunk, results.size()));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(registerChunk(chunk, results.size()));
+        }
+        return results;
+    }
+
+    /**
+     * Register a single chunk of users.
+     *
+     * @param chunk  The users of the chunk.
+     * @param offset The position of the first user of the chunk in the whole request.
+     * @return One result per user of the chunk, in order.
+     */
+    private List<BatchRegistrationResult> registerChunk(List<User> chunk, int offset) {
+        BatchRegistrationResult[] results = new BatchRegistrationResult[chunk.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            User user = chunk.get(i);
+            String rejection = validate(validator, eligibilityPolicy, user);
+            if (rejection != null) {
+                results[i] = BatchRegistrationResult.rejected(offset + i, user.getUsername(), rejection);
+            } else if (candidates.putIfAbsent(user.getUsername(), i) != null) {
+                results[i] = BatchRegistrationResult.duplicate(offset + i, user.getUsername());
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<String> maybeExisting = new ArrayList<>();
+        for (String username : candidates.keySet()) {
+            if (usernameFilter.mightExist(username)) {
+                maybeExisting.add(username);
+            }
+        }
+
+        List<User> created = new ArrayList<>(candidates.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> existing = maybeExisting.isEmpty()
+                        ? Collections.emptySet()
+                        : new HashSet<>(userRepository.findExistingUsernames(maybeExisting));
+                List<Integer> inserted = new ArrayList<>(candidates.size());
+                List<User> insertedUsers = new ArrayList<>(candidates.size());
+                for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+                    int i = candidate.getValue();
+                    if (existing.contains(candidate.getKey())) {
+                        results[i] = BatchRegistrationResult.duplicate(offset + i, candidate.getKey());
+                    } else {
+                        inserted.add(i);
+                        insertedUsers.add(chunk.get(i));
+                    }
+                }
+                userRepository.saveAllAndFlush(insertedUsers);
+                entityManager.clear();
+                for (int i : inserted) {
+                    results[i] = BatchRegistrationResult.created(offset + i, chunk.get(i));
+                    created.add(chunk.get(i));
+                }
+            });
+        } catch (DataIntegrityViolationException ex) {
+            if (!ConstraintViolations.isDuplicateUsername(ex)) {
+                throw ex;
+            }
+            // A concurrent registration took one of the usernames after the IN query: the chunk was rolled
+            // back, or partly saved by the off-heap store, so insert its remaining users one at a time to find out
+            // which one clashed.
+            boolean rolledBack = userRepository.isTransactional();
+            for (int i : candidates.values()) {
+                if (results[i] == null) {
+                    results[i] = registerOne(chunk.get(i), offset + i, !rolledBack);
+                    if (results[i].getStatus() == BatchRegistrationResult.Status.CREATED) {
+                        created.add(chunk.get(i));
+                    }
+                }
+            }
+        }
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new UsersRegisteredEvent(created));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Register a single user of a chunk in its own transaction, unless the failed chunk already saved it.
+     *
+     * @param user       The user to be registered.
+     * @param index      The position of the user in the whole request.
+     * @param maybeSaved Whether the failed chunk may have kept the user, which is only checked for a repository
+     *                   without transactions; otherwise the ID assigned by the rolled-back flush is discarded.
+     * @return The CREATED or DUPLICATE result of the user.
+     */
+    private BatchRegistrationResult registerOne(User user, int index, boolean maybeSaved) {
+        if (maybeSaved && user.getId() != null && userRepository.findById(user.getId())
+                .filter(saved -> saved.getUsername().equals(user.getUsername())).isPresent()) {
+            return BatchRegistrationResult.created(index, user);
+        }
+        user.setId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAndFlush(user);
+                entityManager.clear();
+            });
+            return BatchRegistrationResult.created(index, user);
+        } catch (DataIntegrityViolationException ex) {
+            if (!ConstraintViolations.isDuplicateUsername(ex)) {
+                throw ex;
+            }
+            return BatchRegistrationResult.duplicate(index, user.getUsername());
+        }
+    }
+
+    /**
+     * Validate a user against the bean validation constraints and the registration criteria.
+     *
+     * @param validator         The bean validator.
+     * @param eligibilityPolicy The registration criteria.
+     * @param user              The user to validate.
+     * @return The rejection message, or null if the user may be registered.
+     */
+    static String validate(Validator validator, EligibilityPolicy eligibilityPolicy, User user) {
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("\n"));
+        }
+        if (!eligibilityPolicy.isEligible(user)) {
+            return eligibilityPolicy.getRejectionMessage();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.ExportProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * The UserExportService class writes the whole user table as newline-delimited JSON.
+ * Rows are read with a forward-only JDBC cursor and written one by one with Jackson's streaming generator,
+ * without creating entities or a persistence context, so memory use does not depend on the number of users.
+ */
+@Service
+public class UserExportService {
+
+    private static final String EXPORT_QUERY = "select id, username, birthdate, country_of_residence, phone_number, gender "
+            + "from _user order by id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ObjectMapper objectMapper;
+
+    private final int fetchSize;
+
+    /**
+     * Constructor for UserExportService class.
+     *
+     * @param jdbcTemplate       The JdbcTemplate used to read the user table.
+     * @param transactionManager The transaction manager used to read the table in one read-only transaction.
+     * @param objectMapper       The ObjectMapper whose factory creates the JSON generator.
+     * @param properties         The export configuration.
+     */
+    @Autowired
+    public UserExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper, ExportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = properties.getFetchSize();
+    }
+
+    /**
+     * Write every user, ordered by ID, as one JSON object per line.
+     * The output stream is flushed but not closed.
+     *
+     * @param out The stream to write to.
+     * @return The number of exported users.
+     * @throws IOException If writing to the stream fails.
+     */
+    public long exportTo(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            UserRowWriter writer = new UserRowWriter(generator);
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                }, writer));
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            generator.flush();
+            return writer.count;
+        }
+    }
+
+    /**
+     * Writes each row of the export query as a JSON line.
+     */
+    private static class UserRowWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+
+        private long count;
+
+        UserRowWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                LocalDate birthdate = rs.getObject("birthdate", LocalDate.class);
+                generator.writeStartObject();
+                generator.writeNumberField("id", rs.getLong("id"));
+                generator.writeStringField("username", rs.getString("username"));
+                generator.writeStringField("birthdate", birthdate == null ? null : birthdate.toString());
+                generator.writeStringField("countryOfResidence", rs.getString("country_of_residence"));
+                generator.writeStringField("phoneNumber", rs.getString("phone_number"));
+                generator.writeStringField("gender", rs.getString("gender"));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                count++;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
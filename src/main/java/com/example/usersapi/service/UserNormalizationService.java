@@ -0,0 +1,330 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.NormalizationProperties;
+import com.example.usersapi.model.Gender;
+import com.example.usersapi.util.CountryCodes;
+import com.example.usersapi.util.PhoneNumbers;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The UserNormalizationService class re-normalizes the users stored before their country, phone number and gender
+ * were normalized at registration, or with older lookup tables.
+ * The ID range of the user table is split in halves by a fork-join pool until each part spans at most
+ * {@code usersapi.normalization.chunk-size} IDs. Each chunk is read, normalized in memory and updated in its own
+ * transaction, so {@code usersapi.normalization.parallelism} chunks are processed at once and a failure only
+ * rolls back one chunk. Only the rows that change are updated, with their version incremented so that their
+ * ETags change, and unless they were updated meanwhile. Rows whose phone number or gender cannot be
+ * normalized are kept as they are and counted as invalid.
+ * Progress is logged every 10% and published at {@code /actuator/normalization}.
+ * The job updates the user table only, so it is disabled where users are served from another store.
+ */
+@Service
+@ConditionalOnProperty(name = "usersapi.normalization.enabled", havingValue = "true", matchIfMissing = true)
+public class UserNormalizationService {
+
+    /**
+     * The states of the re-normalization job.
+     */
+    public enum State {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(UserNormalizationService.class);
+
+    private static final String RANGE_QUERY = "select min(id), max(id), count(*) from _user";
+
+    private static final String CHUNK_QUERY = "select id, country_of_residence, phone_number, gender, version "
+            + "from _user where id between ? and ?";
+
+    private static final String UPDATE_USER = "update _user set country_of_residence = ?, phone_number = ?, "
+            + "gender = ?, version = version + 1 where id = ? and version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache usersCache;
+
+    private final SegmentCounters segmentCounters;
+
+    private final NormalizationProperties properties;
+
+    private final AtomicLong scannedUsers = new AtomicLong();
+
+    private final AtomicLong updatedUsers = new AtomicLong();
+
+    private final AtomicLong invalidUsers = new AtomicLong();
+
+    private final AtomicInteger reportedTenth = new AtomicInteger();
+
+    private volatile State state = State.IDLE;
+
+    private volatile long totalUsers;
+
+    private volatile Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    /**
+     * Constructor for UserNormalizationService class.
+     *
+     * @param jdbcTemplate       The JdbcTemplate used to read and update the user table.
+     * @param transactionManager The transaction manager used to update each chunk in one transaction.
+     * @param cacheManager       The cache manager holding the users cache, evicted of the updated users.
+     * @param segmentCounters    The SegmentCounters reloaded once genders and countries were updated.
+     * @param properties         The re-normalization configuration.
+     * @param meterRegistry      The registry the progress of the job is published to.
+     */
+    @Autowired
+    public UserNormalizationService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    CacheManager cacheManager, SegmentCounters segmentCounters,
+                                    NormalizationProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.usersCache = cacheManager.getCache(UserService.USERS_CACHE);
+        this.segmentCounters = segmentCounters;
+        this.properties = properties;
+        Gauge.builder("usersapi.normalization.progress", this, UserNormalizationService::getProgress)
+                .description("Share of the users scanned by the current or last re-normalization")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the re-normalization once the application has started, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isRunOnStart()) {
+            start();
+        }
+    }
+
+    /**
+     * Start re-normalizing the stored users in the background, unless it is already running.
+     *
+     * @return true if the job was started, false if it was already running.
+     */
+    public synchronized boolean start() {
+        if (state == State.RUNNING) {
+            return false;
+        }
+        scannedUsers.set(0);
+        updatedUsers.set(0);
+        invalidUsers.set(0);
+        reportedTenth.set(0);
+        startedAt = Instant.now();
+        finishedAt = null;
+        long[] range = jdbcTemplate.queryForObject(RANGE_QUERY,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+        totalUsers = range[2];
+        if (totalUsers == 0) {
+            finish(State.COMPLETED);
+            return true;
+        }
+        state = State.RUNNING;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, properties.getParallelism()), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("user-normalization-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        pool.execute(new Job(pool, range[0], range[1]));
+        logger.info("Normalizing {} users", totalUsers);
+        return true;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getTotalUsers() {
+        return totalUsers;
+    }
+
+    public long getScannedUsers() {
+        return scannedUsers.get();
+    }
+
+    public long getUpdatedUsers() {
+        return updatedUsers.get();
+    }
+
+    public long getInvalidUsers() {
+        return invalidUsers.get();
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Returns the share of the users scanned so far. Users registered during the job may be scanned on top of
+     * those counted at its start, so the share is capped at 1.
+     *
+     * @return The progress of the job, from 0 to 1.
+     */
+    public double getProgress() {
+        if (state == State.IDLE) {
+            return 0;
+        }
+        long total = totalUsers;
+        return total == 0 ? 1 : Math.min(1, (double) scannedUsers.get() / total);
+    }
+
+    private void finish(State finalState) {
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    /**
+     * Normalize the users of an ID range in one transaction, and evict the updated ones from the cache.
+     */
+    private void normalizeChunk(long fromId, long toId) {
+        List<Object[]> updates = new ArrayList<>();
+        long[] scanned = new long[1];
+        long[] invalid = new long[1];
+        int updated = transactionTemplate.execute(status -> {
+            jdbcTemplate.query(CHUNK_QUERY, rs -> {
+                scanned[0]++;
+                String country = rs.getString("country_of_residence");
+                String phoneNumber = rs.getString("phone_number");
+                String gender = rs.getString("gender");
+                String normalizedCountry = CountryCodes.normalize(country);
+                String normalizedPhoneNumber = PhoneNumbers.normalize(phoneNumber, normalizedCountry);
+                String normalizedGender = Gender.normalize(gender);
+                if ((normalizedPhoneNumber != null && !PhoneNumbers.isE164(normalizedPhoneNumber))
+                        || (normalizedGender != null && !Gender.isCode(normalizedGender))) {
+                    invalid[0]++;
+                }
+                if (!Objects.equals(country, normalizedCountry) || !Objects.equals(phoneNumber, normalizedPhoneNumber)
+                        || !Objects.equals(gender, normalizedGender)) {
+                    updates.add(new Object[]{normalizedCountry, normalizedPhoneNumber, normalizedGender,
+                            rs.getLong("id"), rs.getLong("version")});
+                }
+            }, fromId, toId);
+            if (updates.isEmpty()) {
+                return 0;
+            }
+            int count = 0;
+            int[] rows = jdbcTemplate.batchUpdate(UPDATE_USER, updates);
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] != 0) {
+                    count++;
+                } else {
+                    // Updated by a registration or another job meanwhile.
+                    updates.set(i, null);
+                }
+            }
+            return count;
+        });
+        if (usersCache != null) {
+            for (Object[] update : updates) {
+                if (update != null) {
+                    usersCache.evict(update[3]);
+                }
+            }
+        }
+        updatedUsers.addAndGet(updated);
+        invalidUsers.addAndGet(invalid[0]);
+        reportProgress(scannedUsers.addAndGet(scanned[0]));
+    }
+
+    private void reportProgress(long scanned) {
+        int tenth = (int) Math.min(10, scanned * 10 / Math.max(1, totalUsers));
+        int reported = reportedTenth.get();
+        if (tenth > reported && reportedTenth.compareAndSet(reported, tenth)) {
+            logger.info("Normalized {} of {} users ({}%): {} updated, {} invalid", scanned, totalUsers, tenth * 10,
+                    updatedUsers.get(), invalidUsers.get());
+        }
+    }
+
+    /**
+     * The whole job, run by the fork-join pool, which is shut down once it is done.
+     */
+    private final class Job extends RecursiveAction {
+
+        private final ForkJoinPool pool;
+
+        private final long fromId;
+
+        private final long toId;
+
+        private Job(ForkJoinPool pool, long fromId, long toId) {
+            this.pool = pool;
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                new Chunk(fromId, toId).invoke();
+                if (updatedUsers.get() > 0 && segmentCounters.isActive()) {
+                    segmentCounters.rebuild();
+                }
+                finish(State.COMPLETED);
+                logger.info("Normalized {} users in {} ms: {} updated, {} invalid", scannedUsers.get(),
+                        finishedAt.toEpochMilli() - startedAt.toEpochMilli(), updatedUsers.get(), invalidUsers.get());
+            } catch (RuntimeException ex) {
+                finish(State.FAILED);
+                logger.error("Could not normalize the users after {} of {} users", scannedUsers.get(), totalUsers, ex);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * An ID range, normalized at once if it spans at most one chunk, otherwise split in halves.
+     */
+    private final class Chunk extends RecursiveAction {
+
+        private final long fromId;
+
+        private final long toId;
+
+        private Chunk(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected void compute() {
+            if (toId - fromId < Math.max(1, properties.getChunkSize())) {
+                normalizeChunk(fromId, toId);
+                return;
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            invokeAll(new Chunk(fromId, middle), new Chunk(middle + 1, toId));
+        }
+    }
+}
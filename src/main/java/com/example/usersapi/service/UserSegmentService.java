@@ -0,0 +1,78 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.exception.InvalidSegmentException;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserSegments;
+import com.example.usersapi.repository.BasicUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * The UserSegmentService class counts users per country of residence and gender, optionally restricted to a
+ * country, a gender and an age range.
+ * Counts without age bounds are read from the {@link SegmentCounters} when they are enabled; other counts are
+ * computed by a GROUP BY query on the segment index of the user table, with ages turned into birthdate bounds
+ * from the injected clock.
+ */
+@Service
+public class UserSegmentService {
+
+    private final BasicUserRepository userRepository;
+
+    private final SegmentCounters segmentCounters;
+
+    private final Clock clock;
+
+    /**
+     * Constructor for UserSegmentService class.
+     *
+     * @param userRepository  The BasicUserRepository instance to be injected.
+     * @param segmentCounters The SegmentCounters answering counts without age bounds.
+     * @param clock           The clock giving the current date, against which ages are computed.
+     */
+    @Autowired
+    public UserSegmentService(BasicUserRepository userRepository, SegmentCounters segmentCounters, Clock clock) {
+        this.userRepository = userRepository;
+        this.segmentCounters = segmentCounters;
+        this.clock = clock;
+    }
+
+    /**
+     * Count users per segment.
+     *
+     * @param country Only count users with this country of residence, as a name or an ISO code.
+     * @param gender  Only count users with this exact gender.
+     * @param minAge  Only count users of at least this age, in years.
+     * @param maxAge  Only count users of at most this age, in years.
+     * @return The count of every segment with matching users, ordered by country and gender.
+     * @throws InvalidSegmentException If an age is negative or the age range is empty.
+     */
+    public UserSegments getSegments(String country, String gender, Integer minAge, Integer maxAge) {
+        UserSearchCriteria criteria = toCriteria(country, gender, minAge, maxAge, LocalDate.now(clock));
+        if (minAge == null && maxAge == null && segmentCounters.isActive()) {
+            return new UserSegments(segmentCounters.getSegments(criteria.getCountryOfResidence(), criteria.getGender()));
+        }
+        return new UserSegments(userRepository.countSegments(criteria));
+    }
+
+    /**
+     * Turns segment filters into search criteria: users are at least minAge on the given day if they were born
+     * on or before that day minAge years earlier, and at most maxAge if they were born after that day
+     * maxAge + 1 years earlier.
+     */
+    static UserSearchCriteria toCriteria(String country, String gender, Integer minAge, Integer maxAge,
+                                         LocalDate today) {
+        if ((minAge != null && minAge < 0) || (maxAge != null && maxAge < 0)) {
+            throw new InvalidSegmentException("Ages should not be negative!");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new InvalidSegmentException("minAge should not be greater than maxAge!");
+        }
+        LocalDate bornFrom = maxAge == null ? null : today.minusYears(maxAge + 1L).plusDays(1);
+        LocalDate bornTo = minAge == null ? null : today.minusYears(minAge);
+        return new UserSearchCriteria(country, gender, bornFrom, bornTo);
+    }
+}
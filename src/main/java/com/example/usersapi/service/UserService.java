@@ -1,63 +1,310 @@
 package com.example.usersapi.service;
 
+import com.example.usersapi.event.UsersRegisteredEvent;
+import com.example.usersapi.exception.ConstraintViolations;
 import com.example.usersapi.exception.DuplicateUsernameException;
+import com.example.usersapi.exception.InvalidCursorException;
+import com.example.usersapi.exception.InvalidLookupException;
 import com.example.usersapi.exception.InvalidUserException;
 import com.example.usersapi.exception.ResourceNotFoundException;
 import com.example.usersapi.model.User;
-import com.example.usersapi.repository.UserRepository;
+import com.example.usersapi.model.UserLookupResult;
+import com.example.usersapi.model.UserPage;
+import com.example.usersapi.model.UserResponse;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.repository.BasicUserRepository;
+import com.example.usersapi.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 
 /**
  * The UserService class handles business logic related to User entities.
  * It provides methods for registering a new user and retrieving user details by ID.
  * This class is responsible for processing business rules and interacting with the UserRepository
  * to perform the requested actions.
+ * Users are cached by ID in the {@value #USERS_CACHE} cache, which is filled on registration and read
+ * through on lookup. The cache provider and its size and expiry are configured through {@code spring.cache.*}.
+ * Concurrent database reads of the same user ID, and concurrent duplicate checks of the same username, are
+ * coalesced into one query with a {@link SingleFlight}, so that a burst of requests for a popular user does not
+ * become a burst of identical queries, cached or not. Executed and coalesced calls are counted by
+ * {@value #SINGLE_FLIGHT_METRIC}.
  */
 @Service
 public class UserService {
 
-    private final UserRepository userRepository;
+    /**
+     * Name of the cache holding users by ID.
+     */
+    public static final String USERS_CACHE = "users";
+
+    /**
+     * Maximum number of IDs of one user lookup.
+     */
+    public static final int MAX_LOOKUP_SIZE = 1000;
+
+    /**
+     * Number of IDs looked up per query, so that IN lists stay within the statement cache of the database.
+     */
+    public static final int LOOKUP_CHUNK_SIZE = 500;
+
+    /**
+     * Name of the counters of the calls run or shared through a {@link SingleFlight}.
+     */
+    public static final String SINGLE_FLIGHT_METRIC = "usersapi.singleflight.calls";
+
+    private final BasicUserRepository userRepository;
+
+    private final UsernameFilter usernameFilter;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EligibilityPolicy eligibilityPolicy;
+
+    private final Cache usersCache;
+
+    private final SingleFlight<Long, Optional<User>> userReads = new SingleFlight<>();
+
+    private final SingleFlight<String, Boolean> usernameChecks = new SingleFlight<>();
 
     /**
      * Constructor for UserService class.
      *
-     * @param userRepository The UserRepository instance to be injected.
+     * @param userRepository    The BasicUserRepository instance to be injected.
+     * @param usernameFilter    The UsernameFilter used to skip duplicate checks for new usernames.
+     * @param eventPublisher    The publisher of {@link UsersRegisteredEvent}s.
+     * @param eligibilityPolicy The EligibilityPolicy deciding which users may register.
+     * @param cacheManager      The CacheManager holding the {@value #USERS_CACHE} cache.
+     * @param meterRegistry     The registry the coalesced calls are counted in.
      */
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(BasicUserRepository userRepository, UsernameFilter usernameFilter,
+                       ApplicationEventPublisher eventPublisher, EligibilityPolicy eligibilityPolicy,
+                       CacheManager cacheManager, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.usernameFilter = usernameFilter;
+        this.eventPublisher = eventPublisher;
+        this.eligibilityPolicy = eligibilityPolicy;
+        this.usersCache = cacheManager.getCache(USERS_CACHE);
+        registerSingleFlightMetrics(userReads, "users.findById", meterRegistry);
+        registerSingleFlightMetrics(usernameChecks, "users.existsByUsername", meterRegistry);
     }
 
     /**
      * Register a new user.
+     * The user is inserted with a single statement; duplicate usernames are detected by the unique
+     * constraint on the username column. Usernames that the {@link UsernameFilter} reports as possibly
+     * taken are checked first, so that likely duplicates are rejected without a failed insert.
      *
      * @param user The User object to be registered.
      * @return The registered User object.
      * @throws DuplicateUsernameException If the username already exists.
      * @throws InvalidUserException If the user does not meet the registration criteria.
      */
+    @CachePut(cacheNames = USERS_CACHE, key = "#result.id")
     public User registerUser(User user) {
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new DuplicateUsernameException("Username already exists!");
+        if (!eligibilityPolicy.isEligible(user)) {
+            throw new InvalidUserException(eligibilityPolicy.getRejectionMessage());
         }
 
-        if (!user.isAdult() || !user.isFrench()) {
-            throw new InvalidUserException("Only French adults are allowed to register!");
+        if (usernameFilter.needsProbe(user.getUsername())
+                && usernameChecks.execute(user.getUsername(), () -> userRepository.existsByUsername(user.getUsername()))) {
+            throw new DuplicateUsernameException("Username already exists!");
         }
 
-        return userRepository.save(user);
+        User registeredUser;
+        try {
+            registeredUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            if (ConstraintViolations.isDuplicateUsername(ex)) {
+                throw new DuplicateUsernameException("Username already exists!");
+            }
+            throw ex;
+        }
+        eventPublisher.publishEvent(new UsersRegisteredEvent(Collections.singletonList(registeredUser)));
+        return registeredUser;
     }
 
     /**
      * Retrieve user details by ID.
+     * Callers missing the cache at the same time share one database read.
      *
      * @param userId The ID of the user to retrieve.
      * @return The retrieved User object.
      * @throws ResourceNotFoundException If the user is not found.
      */
+    @Cacheable(cacheNames = USERS_CACHE, key = "#userId")
     public User getUserById(Long userId) {
-        return userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User not found!"));
+        return userReads.execute(userId, () -> userRepository.findById(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("User not found!"));
+    }
+
+    /**
+     * Retrieve the version of a user, to validate a conditional request without loading the user.
+     * A cached user answers directly; otherwise only the version column is read from the database.
+     *
+     * @param userId The ID of the user.
+     * @return The version of the user.
+     * @throws ResourceNotFoundException If the user is not found.
+     */
+    public long getUserVersion(Long userId) {
+        User cached = getCachedUser(userId);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+        return userRepository.findVersionById(userId).orElseThrow(() -> new ResourceNotFoundException("User not found!"));
+    }
+
+    /**
+     * Retrieve several users by ID at once.
+     * Cached users are taken from the cache, and the others are read with one IN query per
+     * {@value #LOOKUP_CHUNK_SIZE} IDs and added to the cache.
+     *
+     * @param userIds The IDs of the users to retrieve, at most {@value #MAX_LOOKUP_SIZE}.
+     * @return The users found and the IDs not found, in request order and without duplicates.
+     * @throws InvalidLookupException If there are too many IDs or an ID is null.
+     */
+    public UserLookupResult getUsersByIds(Collection<Long> userIds) {
+        Set<Long> requested = toLookupIds(userIds);
+        Map<Long, User> found = new HashMap<>(requested.size() * 2);
+        List<Long> uncached = new ArrayList<>(requested.size());
+        for (Long userId : requested) {
+            User cached = getCachedUser(userId);
+            if (cached != null) {
+                found.put(userId, cached);
+            } else {
+                uncached.add(userId);
+            }
+        }
+        for (int from = 0; from < uncached.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = uncached.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, uncached.size()));
+            for (User user : userRepository.findAllById(chunk)) {
+                found.put(user.getId(), user);
+                if (usersCache != null) {
+                    usersCache.put(user.getId(), user);
+                }
+            }
+        }
+        return UserLookupResult.of(requested, found);
+    }
+
+    /**
+     * List users matching the given criteria, one page at a time.
+     * Pages are ordered by ID and located with a keyset (seek) condition on the ID rather than an offset,
+     * so fetching a page costs the same wherever it is in the result.
+     *
+     * @param criteria The filters to apply.
+     * @param cursor   The cursor returned with the previous page, or null for the first page.
+     * @param limit    The maximum number of users of the page.
+     * @return The page of users, with the cursor of the next page if more users match.
+     * @throws InvalidCursorException If the cursor is malformed.
+     */
+    public UserPage findUsers(UserSearchCriteria criteria, String cursor, int limit) {
+        return toPage(userRepository.findPage(criteria, decodeCursor(cursor), limit + 1), limit);
+    }
+
+    /**
+     * Remove a user from the cache, so that the next lookup reads it from the database again.
+     *
+     * @param userId The ID of the user to evict.
+     */
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#userId")
+    public void evictUser(Long userId) {
+    }
+
+    /**
+     * Count the calls run and shared through a {@link SingleFlight} in the {@value #SINGLE_FLIGHT_METRIC} counters.
+     *
+     * @param singleFlight  The coalesced calls.
+     * @param operation     The name of the coalesced operation.
+     * @param meterRegistry The registry the counters are published to.
+     */
+    static void registerSingleFlightMetrics(SingleFlight<?, ?> singleFlight, String operation,
+                                            MeterRegistry meterRegistry) {
+        FunctionCounter.builder(SINGLE_FLIGHT_METRIC, singleFlight, SingleFlight::executedCalls)
+                .description("Calls run or shared with a concurrent identical call")
+                .tags("operation", operation, "result", "executed")
+                .register(meterRegistry);
+        FunctionCounter.builder(SINGLE_FLIGHT_METRIC, singleFlight, SingleFlight::coalescedCalls)
+                .description("Calls run or shared with a concurrent identical call")
+                .tags("operation", operation, "result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    private User getCachedUser(Long userId) {
+        return usersCache == null ? null : usersCache.get(userId, User.class);
+    }
+
+    /**
+     * Check the IDs of a user lookup and remove duplicates.
+     *
+     * @param userIds The requested IDs.
+     * @return The distinct IDs, in request order.
+     * @throws InvalidLookupException If there are more than {@value #MAX_LOOKUP_SIZE} IDs or an ID is null.
+     */
+    static Set<Long> toLookupIds(Collection<Long> userIds) {
+        if (userIds.size() > MAX_LOOKUP_SIZE) {
+            throw new InvalidLookupException("at most " + MAX_LOOKUP_SIZE + " users can be looked up at once!");
+        }
+        Set<Long> requested = new LinkedHashSet<>(userIds);
+        if (requested.contains(null)) {
+            throw new InvalidLookupException("user IDs should not be null!");
+        }
+        return requested;
+    }
+
+    /**
+     * Build a page from the users found for it.
+     *
+     * @param users The users found, fetched with one more user than the limit to detect a next page.
+     * @param limit The maximum number of users of the page.
+     * @return The page of users, with the cursor of the next page if more users were found than the limit.
+     */
+    static UserPage toPage(List<User> users, int limit) {
+        int size = Math.min(users.size(), limit);
+        List<UserResponse> page = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            page.add(UserResponse.from(users.get(i)));
+        }
+        if (users.size() <= limit) {
+            return new UserPage(page, null);
+        }
+        return new UserPage(page, encodeCursor(users.get(limit - 1).getId()));
+    }
+
+    private static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("invalid cursor!");
+        }
     }
 }
@@ -0,0 +1,88 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.UserStoreProperties;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.OffHeapUserStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The UserStoreImporter class fills an empty off-heap user store from the user table when the edge profile
+ * starts, then snapshots it, so that the next starts map the snapshot instead of reading the database.
+ * Application runners complete before the readiness state changes to ACCEPTING_TRAFFIC, so no request sees a
+ * partially imported store.
+ */
+@Component
+@Profile("edge")
+public class UserStoreImporter implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStoreImporter.class);
+
+    private static final String IMPORT_QUERY = "select id, username, birthdate, country_of_residence, phone_number, "
+            + "gender, version from _user order by id";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final OffHeapUserStore store;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final boolean importOnStart;
+
+    /**
+     * Constructor for UserStoreImporter class.
+     *
+     * @param store              The OffHeapUserStore to fill.
+     * @param jdbcTemplate       The JdbcTemplate used to read the user table.
+     * @param transactionManager The transaction manager used to read the table in one read-only transaction.
+     * @param properties         The user store configuration.
+     */
+    @Autowired
+    public UserStoreImporter(OffHeapUserStore store, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager, UserStoreProperties properties) {
+        this.store = store;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.importOnStart = properties.isImportOnStart();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!importOnStart || store.size() > 0) {
+            logger.info("User store opened with {} users", store.size());
+            return;
+        }
+        long start = System.nanoTime();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(IMPORT_QUERY,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            User user = new User(rs.getString("username"), rs.getObject("birthdate", LocalDate.class),
+                    rs.getString("country_of_residence"), rs.getString("phone_number"), rs.getString("gender"));
+            user.setId(rs.getLong("id"));
+            user.setVersion(rs.getLong("version"));
+            store.put(user);
+        }));
+        store.snapshot();
+        logger.info("Imported {} users into the user store in {} ms ({} bytes off heap)", store.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), store.offHeapBytes());
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.UsernameFilterProperties;
+import com.example.usersapi.event.UsersRegisteredEvent;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.BasicUserRepository;
+import com.example.usersapi.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * The UsernameFilter class keeps a Bloom filter of all existing usernames, so that duplicate username checks
+ * for new usernames can be answered without querying the database.
+ * The filter is built at startup by streaming the usernames of the user table, kept current from
+ * {@link UsersRegisteredEvent}s, and can be rebuilt when the table is changed outside the application.
+ * Until the filter is built, or when it is disabled, every username is reported as possibly existing, but
+ * single registrations do not probe the database for it; see {@link #needsProbe(String)}.
+ */
+@Service
+public class UsernameFilter {
+
+    private final BasicUserRepository userRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final UsernameFilterProperties properties;
+
+    private final Counter skippedProbes;
+
+    private final Counter checkedProbes;
+
+    private volatile BloomFilter filter;
+
+    private volatile BloomFilter rebuilding;
+
+    /**
+     * Constructor for UsernameFilter class.
+     *
+     * @param userRepository     The BasicUserRepository instance used to stream existing usernames.
+     * @param transactionManager The transaction manager used to stream usernames in a read-only transaction.
+     * @param properties         The username filter configuration.
+     * @param meterRegistry      The registry the filter metrics are published to.
+     */
+    @Autowired
+    public UsernameFilter(BasicUserRepository userRepository, PlatformTransactionManager transactionManager,
+                          UsernameFilterProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.skippedProbes = Counter.builder("usersapi.username.filter.probes")
+                .description("Duplicate username checks answered by the Bloom filter")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+        this.checkedProbes = Counter.builder("usersapi.username.filter.probes")
+                .description("Duplicate username checks answered by the Bloom filter")
+                .tag("result", "checked")
+                .register(meterRegistry);
+        Gauge.builder("usersapi.username.filter.bits", this, usernameFilter -> usernameFilter.bitCount())
+                .description("Size of the username Bloom filter in bits")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks if a user with the given username may exist.
+     * A false answer is definite and saves the database probe; a true answer must be confirmed against the database.
+     *
+     * @param username The username to check.
+     * @return false if no user has this username, true if one possibly has.
+     */
+    public boolean mightExist(String username) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+        if (current.mightContain(username)) {
+            checkedProbes.increment();
+            return true;
+        }
+        skippedProbes.increment();
+        return false;
+    }
+
+    /**
+     * Checks if a registration should query the database for its username before inserting the user.
+     * Only usernames the filter reports as possibly taken are probed, so that likely duplicates are rejected
+     * without a failed insert. While the filter is disabled or not built yet, no username is probed and the unique
+     * constraint on the username column decides alone.
+     *
+     * @param username The username to register.
+     * @return true if the filter is active and the username possibly exists.
+     */
+    public boolean needsProbe(String username) {
+        return filter != null && mightExist(username);
+    }
+
+    /**
+     * Adds the usernames of newly registered users to the filter.
+     *
+     * @param event The event carrying the committed users.
+     */
+    @EventListener
+    public void onUsersRegistered(UsersRegisteredEvent event) {
+        for (User user : event.getUsers()) {
+            add(user.getUsername());
+        }
+    }
+
+    /**
+     * Builds the filter once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuild the filter from the user table, e.g. after usernames were inserted or deleted outside the application.
+     * The current filter keeps answering until the new one is complete; registrations that happen during
+     * the rebuild are added to both. Nothing is built while the filter is disabled.
+     *
+     * @return true if the filter was rebuilt, false if it is disabled.
+     */
+    public synchronized boolean rebuild() {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        long expectedInsertions = Math.max(properties.getExpectedInsertions(), userRepository.count() * 2);
+        BloomFilter next = BloomFilter.create(expectedInsertions, properties.getFalsePositiveRate());
+        rebuilding = next;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+                    usernames.forEach(next::add);
+                }
+            });
+            filter = next;
+        } finally {
+            rebuilding = null;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the filter has been built and is answering duplicate username checks.
+     *
+     * @return true if the filter is active, false otherwise.
+     */
+    public boolean isActive() {
+        return filter != null;
+    }
+
+    /**
+     * Returns the size of the current filter.
+     *
+     * @return The number of bits of the filter, or 0 if it has not been built.
+     */
+    public long bitCount() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.bitCount();
+    }
+
+    /**
+     * Returns the number of database probes saved so far.
+     *
+     * @return The number of duplicate username checks answered as definitely absent.
+     */
+    public long skippedProbes() {
+        return (long) skippedProbes.count();
+    }
+
+    /**
+     * Returns the number of duplicate username checks that had to be confirmed against the database.
+     *
+     * @return The number of duplicate username checks answered as possibly present.
+     */
+    public long checkedProbes() {
+        return (long) checkedProbes.count();
+    }
+
+    private void add(String username) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(username);
+        }
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(username);
+        }
+    }
+}
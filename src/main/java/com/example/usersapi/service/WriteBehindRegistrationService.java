@@ -0,0 +1,378 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.WriteBehindProperties;
+import com.example.usersapi.exception.DuplicateUsernameException;
+import com.example.usersapi.exception.InvalidUserException;
+import com.example.usersapi.exception.RegistrationQueueFullException;
+import com.example.usersapi.exception.ResourceNotFoundException;
+import com.example.usersapi.model.BatchRegistrationResult;
+import com.example.usersapi.model.QueuedRegistration;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.BasicUserRepository;
+import com.example.usersapi.util.MpscRingQueue;
+import com.example.usersapi.util.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The WriteBehindRegistrationService class registers single users in write-behind mode, enabled with
+ * {@code usersapi.write-behind.enabled=true}.
+ * Registrations are checked like in {@link UserService#registerUser(User)}, then put into a bounded lock-free
+ * queue and acknowledged without waiting for the database. A single writer thread drains the queue and commits
+ * the queued users in groups through {@link UserBatchService}, so that many registrations share one transaction
+ * and one JDBC batch. When the queue is full, registrations are refused with a
+ * {@link RegistrationQueueFullException} instead of waiting.
+ * When the journal is enabled, every registration is appended to the {@link RegistrationJournal} before it is
+ * acknowledged, and the registrations found in the journal on startup are committed before the writer starts.
+ * Concurrent duplicate checks of the same username share one query, so that a storm of retried registrations
+ * does not probe the database once per attempt.
+ */
+@Service
+@ConditionalOnProperty(name = "usersapi.write-behind.enabled", havingValue = "true")
+public class WriteBehindRegistrationService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindRegistrationService.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final UserBatchService userBatchService;
+
+    private final BasicUserRepository userRepository;
+
+    private final UsernameFilter usernameFilter;
+
+    private final EligibilityPolicy eligibilityPolicy;
+
+    private final ObjectMapper objectMapper;
+
+    private final MpscRingQueue<Entry> queue;
+
+    private final Cache<String, QueuedRegistration> registrations;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final SingleFlight<String, Boolean> usernameChecks = new SingleFlight<>();
+
+    private final int queueCapacity;
+
+    private final int maxBatchSize;
+
+    private final RegistrationJournal journal;
+
+    private final Counter refused;
+
+    private final DistributionSummary groupSizes;
+
+    private volatile boolean running;
+
+    private volatile boolean failedSinceReplay;
+
+    private volatile Thread writer;
+
+    /**
+     * Constructor for WriteBehindRegistrationService class.
+     *
+     * @param userBatchService  The UserBatchService committing each group of queued users.
+     * @param userRepository    The BasicUserRepository instance used to check usernames before queueing.
+     * @param usernameFilter    The UsernameFilter used to skip duplicate checks for new usernames.
+     * @param eligibilityPolicy The EligibilityPolicy deciding which users may register.
+     * @param objectMapper      The ObjectMapper used to write users to the journal and read them back.
+     * @param properties        The write-behind configuration.
+     * @param meterRegistry     The registry the queue metrics are published to.
+     * @throws IOException If the journal is enabled and cannot be opened.
+     */
+    @Autowired
+    public WriteBehindRegistrationService(UserBatchService userBatchService, BasicUserRepository userRepository,
+                                          UsernameFilter usernameFilter, EligibilityPolicy eligibilityPolicy,
+                                          ObjectMapper objectMapper, WriteBehindProperties properties,
+                                          MeterRegistry meterRegistry) throws IOException {
+        this.userBatchService = userBatchService;
+        this.userRepository = userRepository;
+        this.usernameFilter = usernameFilter;
+        this.eligibilityPolicy = eligibilityPolicy;
+        this.objectMapper = objectMapper;
+        this.queueCapacity = Math.max(1, properties.getQueueCapacity());
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.queue = new MpscRingQueue<>(queueCapacity);
+        this.registrations = Caffeine.newBuilder().expireAfterWrite(properties.getStatusRetention()).build();
+        WriteBehindProperties.Journal journalProperties = properties.getJournal();
+        this.journal = journalProperties.isEnabled()
+                ? new RegistrationJournal(Paths.get(journalProperties.getPath()), journalProperties.isFsync())
+                : null;
+        this.refused = Counter.builder("usersapi.write-behind.refused")
+                .description("Registrations refused because the write-behind queue was full")
+                .register(meterRegistry);
+        this.groupSizes = DistributionSummary.builder("usersapi.write-behind.group.size")
+                .description("Number of queued registrations committed together")
+                .register(meterRegistry);
+        Gauge.builder("usersapi.write-behind.pending", pending, AtomicInteger::get)
+                .description("Registrations acknowledged but not committed yet")
+                .register(meterRegistry);
+        UserService.registerSingleFlightMetrics(usernameChecks, "write-behind.existsByUsername", meterRegistry);
+    }
+
+    /**
+     * Queue a new user for registration.
+     * The returned registration is PENDING; its completion future completes with the registered user, or
+     * exceptionally with a {@link DuplicateUsernameException} or {@link InvalidUserException}.
+     *
+     * @param user The User object to be registered.
+     * @return The queued registration.
+     * @throws DuplicateUsernameException If the username already exists.
+     * @throws InvalidUserException If the user does not meet the registration criteria.
+     * @throws RegistrationQueueFullException If too many registrations are waiting to be committed.
+     * @throws UncheckedIOException If the registration cannot be written to the journal.
+     */
+    public QueuedRegistration submit(User user) {
+        if (!eligibilityPolicy.isEligible(user)) {
+            throw new InvalidUserException(eligibilityPolicy.getRejectionMessage());
+        }
+        if (usernameFilter.needsProbe(user.getUsername())
+                && usernameChecks.execute(user.getUsername(), () -> userRepository.existsByUsername(user.getUsername()))) {
+            throw new DuplicateUsernameException("Username already exists!");
+        }
+        // Reserve a slot before journaling, so that every journaled registration is also queued
+        if (pending.incrementAndGet() > queueCapacity) {
+            pending.decrementAndGet();
+            refused.increment();
+            throw new RegistrationQueueFullException("Too many pending registrations, retry later!");
+        }
+
+        user.setId(null);
+        QueuedRegistration registration = new QueuedRegistration(UUID.randomUUID().toString(), user.getUsername());
+        try {
+            if (journal != null) {
+                journal.append(registration.getTicket(), objectMapper.writeValueAsBytes(user));
+            }
+        } catch (IOException ex) {
+            pending.decrementAndGet();
+            throw new UncheckedIOException("Could not journal the registration", ex);
+        }
+        registrations.put(registration.getTicket(), registration);
+        queue.offer(new Entry(registration, user));
+        LockSupport.unpark(writer);
+        return registration;
+    }
+
+    /**
+     * Retrieve a queued registration by ticket.
+     *
+     * @param ticket The ticket returned when the registration was submitted.
+     * @return The queued registration.
+     * @throws ResourceNotFoundException If no registration with this ticket was submitted recently.
+     */
+    public QueuedRegistration getRegistration(String ticket) {
+        QueuedRegistration registration = registrations.getIfPresent(ticket);
+        if (registration == null) {
+            throw new ResourceNotFoundException("Registration not found!");
+        }
+        return registration;
+    }
+
+    /**
+     * Get the number of registrations acknowledged but not committed yet.
+     *
+     * @return The number of pending registrations.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Commit the registrations left in the journal by the previous run, then start the writer thread.
+     * This runs before the web server starts, so no registration is accepted before the replay is done.
+     */
+    @Override
+    public void start() {
+        if (journal != null) {
+            replayJournal();
+        }
+        running = true;
+        writer = new Thread(this::drainQueue, "registration-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void replayJournal() {
+        try {
+            List<RegistrationJournal.Record> records = journal.read();
+            if (!records.isEmpty()) {
+                List<Entry> entries = new ArrayList<>(records.size());
+                for (RegistrationJournal.Record record : records) {
+                    User user = objectMapper.readValue(record.getUser(), User.class);
+                    entries.add(new Entry(new QueuedRegistration(record.getTicket(), user.getUsername()), user));
+                }
+                for (int from = 0; from < entries.size(); from += maxBatchSize) {
+                    commit(entries.subList(from, Math.min(entries.size(), from + maxBatchSize)));
+                }
+                if (failedSinceReplay) {
+                    throw new IllegalStateException("Could not replay the registration journal");
+                }
+                entries.forEach(entry -> registrations.put(entry.registration.getTicket(), entry.registration));
+                logger.info("Replayed {} journaled registrations", entries.size());
+            }
+            journal.truncateIf(() -> true);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not replay the registration journal", ex);
+        }
+    }
+
+    /**
+     * Stop accepting work and wait for the writer thread to commit the registrations still queued.
+     * The web server is stopped first, so no registration is submitted while the queue drains.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = writer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+                logger.warn("Could not close the registration journal", ex);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before the web server and stop after it.
+     *
+     * @return The lifecycle phase of the service.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+
+    /**
+     * The loop of the writer thread: drain the queue in groups of at most {@code max-batch-size} registrations
+     * and commit each group, until the service is stopped and the queue is empty.
+     * Registrations arriving while a group is committed are committed together with the next group.
+     */
+    private void drainQueue() {
+        List<Entry> group = new ArrayList<>(maxBatchSize);
+        while (true) {
+            queue.drain(group::add, maxBatchSize);
+            if (group.isEmpty()) {
+                if (!running && queue.size() == 0) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            commit(group);
+            pending.addAndGet(-group.size());
+            group.clear();
+            truncateJournalIfIdle();
+        }
+    }
+
+    /**
+     * Commit a group of registrations and resolve each of them with its outcome.
+     *
+     * @param group The registrations to commit together, in queue order.
+     */
+    private void commit(List<Entry> group) {
+        groupSizes.record(group.size());
+        List<User> users = new ArrayList<>(group.size());
+        for (Entry entry : group) {
+            users.add(entry.user);
+        }
+        List<BatchRegistrationResult> results;
+        try {
+            results = userBatchService.registerUsers(users.iterator());
+        } catch (RuntimeException ex) {
+            logger.error("Could not commit {} queued registrations", group.size(), ex);
+            failedSinceReplay = true;
+            for (Entry entry : group) {
+                entry.registration.resolve(QueuedRegistration.Status.FAILED, null, "Registration failed!");
+                entry.registration.getCompletion().completeExceptionally(ex);
+            }
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            Entry entry = group.get(i);
+            BatchRegistrationResult result = results.get(i);
+            switch (result.getStatus()) {
+                case CREATED:
+                    entry.user.setId(result.getId());
+                    entry.registration.resolve(QueuedRegistration.Status.CREATED, result.getId(), null);
+                    entry.registration.getCompletion().complete(entry.user);
+                    break;
+                case DUPLICATE:
+                    entry.registration.resolve(QueuedRegistration.Status.DUPLICATE, null, result.getMessage());
+                    entry.registration.getCompletion().completeExceptionally(new DuplicateUsernameException(result.getMessage()));
+                    break;
+                default:
+                    entry.registration.resolve(QueuedRegistration.Status.REJECTED, null, result.getMessage());
+                    entry.registration.getCompletion().completeExceptionally(new InvalidUserException(result.getMessage()));
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Empty the journal once every journaled registration is committed.
+     * After a failed group, the journal is kept until the next startup so that the failed registrations are
+     * replayed.
+     */
+    private void truncateJournalIfIdle() {
+        if (journal == null || failedSinceReplay || pending.get() != 0) {
+            return;
+        }
+        try {
+            journal.truncateIf(() -> pending.get() == 0);
+        } catch (IOException ex) {
+            logger.warn("Could not truncate the registration journal", ex);
+        }
+    }
+
+    /**
+     * A queued registration together with the user to register.
+     */
+    private static class Entry {
+
+        private final QueuedRegistration registration;
+
+        private final User user;
+
+        private Entry(QueuedRegistration registration, User user) {
+            this.registration = registration;
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.usersapi.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrency limiter whose limit follows the latency of the requests it admits.
+ * Requests are admitted while fewer than the limit are in flight. Every {@code windowSize} completed requests,
+ * the average latency of the window is compared with a slowly moving long-term average: while it stays within
+ * {@code tolerance} times the long-term average the limit grows by about its square root, and beyond that it
+ * shrinks in proportion, down to half per window. The change is smoothed, and the limit stays between its
+ * minimum and maximum. When less than half of the limit is in use, latency is not caused by queueing and the
+ * limit is left as is.
+ * Admission costs one atomic increment; the limit is recomputed by a single thread at the end of each window.
+ * Latencies are summed without synchronization with the window counter, so a window may count a few samples of
+ * its neighbours.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Weight of a window in the long-term average latency, which then follows about the last 20 windows.
+     */
+    private static final double LONG_TERM_WEIGHT = 0.05;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final double smoothing;
+
+    private final int windowSize;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger samples = new AtomicInteger();
+
+    private final LongAdder latencySum = new LongAdder();
+
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private double longTermLatency;
+
+    /**
+     * Constructor for the AdaptiveConcurrencyLimiter class.
+     *
+     * @param initialLimit the limit before any request completed
+     * @param minLimit     the lowest limit
+     * @param maxLimit     the highest limit
+     * @param tolerance    how many times the long-term latency a window may take before the limit shrinks
+     * @param smoothing    the weight of a new limit against the previous one, between 0 and 1
+     * @param windowSize   the number of completed requests between two limit updates
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      double smoothing, int windowSize) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.windowSize = windowSize;
+        this.estimatedLimit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight.
+     * An admitted request must be completed with {@link #release(long)}.
+     *
+     * @return true if the request is admitted
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Completes an admitted request.
+     *
+     * @param latencyNanos the time the request took, in nanoseconds
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        latencySum.add(latencyNanos);
+        if (samples.incrementAndGet() >= windowSize && updating.compareAndSet(false, true)) {
+            try {
+                int count = samples.getAndSet(0);
+                updateLimit(latencySum.sumThenReset() / (double) count, inFlightBefore);
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void updateLimit(double windowLatency, int inFlightAtUpdate) {
+        if (longTermLatency == 0) {
+            longTermLatency = windowLatency;
+        } else {
+            longTermLatency += (windowLatency - longTermLatency) * LONG_TERM_WEIGHT;
+        }
+        // After a long overload the long-term average is inflated; let it come down when latency has recovered.
+        if (longTermLatency > 2 * windowLatency) {
+            longTermLatency *= 0.95;
+        }
+        if (inFlightAtUpdate < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longTermLatency / windowLatency));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(newLimit, maxLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the maximum number of requests in flight
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of admitted requests not completed yet.
+     *
+     * @return the number of requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.usersapi.util;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking part of requests on a fixed pool of threads with a bounded queue, so that the threads of the
+ * web server only hand requests over and stay free to accept more.
+ * A call is refused at once when the pool is busy and the queue is full, rather than waiting for room. The MDC of
+ * the submitting thread, such as the correlation ID, is copied to the thread running the call.
+ */
+public class BoundedRequestExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructor for the BoundedRequestExecutor class.
+     *
+     * @param threads       the number of threads running calls
+     * @param queueCapacity the number of calls waiting for a thread beyond which calls are refused
+     * @param namePrefix    the prefix of the thread names
+     */
+    public BoundedRequestExecutor(int threads, int queueCapacity, String namePrefix) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs a call on the pool.
+     *
+     * @param call the call to run
+     * @param <T>  the type of the result
+     * @return a future completed with the result of the call, or with the exception it threw
+     * @throws RejectedExecutionException if the pool is busy and the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return CompletableFuture.supplyAsync(() -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                return call.get();
+            } finally {
+                MDC.clear();
+            }
+        }, executor);
+    }
+
+    /**
+     * Returns the number of calls running or waiting for a thread.
+     *
+     * @return the number of pending calls
+     */
+    public int getPending() {
+        return executor.getActiveCount() + executor.getQueue().size();
+    }
+
+    /**
+     * Stops accepting calls; the calls already submitted still run.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.usersapi.util;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+
+/**
+ * Normalization of free-text countries to ISO 3166-1 alpha-2 codes.
+ * A country may be given as its alpha-2 code, its alpha-3 code, or its English or French name, in any case.
+ * Returned codes are interned, so the codes of two normalized countries can be compared by identity.
+ */
+public final class CountryCodes {
+
+    private static final Map<String, String> CODES_BY_NAME = new HashMap<>();
+
+    static {
+        for (String code : Locale.getISOCountries()) {
+            String interned = code.intern();
+            Locale country = new Locale("", code);
+            register(code, interned);
+            try {
+                register(country.getISO3Country(), interned);
+            } catch (MissingResourceException ex) {
+                // no alpha-3 code for this country
+            }
+            register(country.getDisplayCountry(Locale.ENGLISH), interned);
+            register(country.getDisplayCountry(Locale.FRENCH), interned);
+        }
+    }
+
+    private CountryCodes() {
+    }
+
+    private static void register(String name, String code) {
+        if (name != null && !name.isEmpty()) {
+            CODES_BY_NAME.putIfAbsent(name.toUpperCase(Locale.ROOT), code);
+        }
+    }
+
+    /**
+     * Normalizes a country to its ISO 3166-1 alpha-2 code.
+     *
+     * @param country the country as entered, e.g. "France", "fra" or "FR"
+     * @return the interned alpha-2 code of the country, the trimmed input if it is not a known country,
+     * or null if the input is null
+     */
+    public static String normalize(String country) {
+        if (country == null) {
+            return null;
+        }
+        String trimmed = country.trim();
+        String code = CODES_BY_NAME.get(trimmed.toUpperCase(Locale.ROOT));
+        return code != null ? code : trimmed;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.usersapi.util;
+
+/**
+ * An open-addressing hash map from long keys to int values, without boxing: its whole content is two arrays,
+ * about 12 bytes per slot, instead of a node, a Long and an Integer per entry in a HashMap.
+ * Collisions are resolved by linear probing over a power-of-two table, kept at most 70% full.
+ * Key 0 marks empty slots and cannot be stored. Entries cannot be removed.
+ * This class is not thread-safe.
+ */
+public class LongIntHashMap {
+
+    /**
+     * Value returned by {@link #get(long)} for absent keys.
+     */
+    public static final int MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    private int resizeThreshold;
+
+    /**
+     * Constructor for the LongIntHashMap class.
+     *
+     * @param expectedSize the number of entries the map should hold without resizing
+     */
+    public LongIntHashMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key, not 0
+     * @return the value of the key, or {@link #MISSING} if the key is absent
+     */
+    public int get(long key) {
+        long[] keys = this.keys;
+        int mask = keys.length - 1;
+        for (int index = index(key, mask); ; index = (index + 1) & mask) {
+            long candidate = keys[index];
+            if (candidate == key) {
+                return values[index];
+            }
+            if (candidate == 0) {
+                return MISSING;
+            }
+        }
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key   the key, not 0
+     * @param value the value
+     * @throws IllegalArgumentException if the key is 0
+     */
+    public void put(long key, int value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int mask = keys.length - 1;
+        int index = index(key, mask);
+        while (keys[index] != 0 && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == 0) {
+            if (size >= resizeThreshold) {
+                rehash(keys.length * 2);
+                put(key, value);
+                return;
+            }
+            size++;
+        }
+        values[index] = value;
+        keys[index] = key;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of keys with a value
+     */
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int index = index(oldKeys[i], mask);
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSize(int expectedSize) {
+        long required = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        return (int) Math.min(1L << 30, Long.highestOneBit(required - 1) << 1);
+    }
+
+    private static int index(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.usersapi.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free multi-producer single-consumer queue backed by a ring buffer.
+ * Producers claim a slot with a compare-and-set on the tail and publish their element through the sequence
+ * number of the slot, so offering never blocks and fails immediately when the queue is full.
+ * Only one thread at a time may poll or drain the queue.
+ *
+ * @param <E> the type of the queued elements
+ */
+public class MpscRingQueue<E> {
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile long head;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity the minimum number of elements the queue can hold, rounded up to a power of two
+     */
+    public MpscRingQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element at the tail of the queue, unless the queue is full.
+     * This method may be called by any number of threads concurrently.
+     *
+     * @param element the element to add
+     * @return true if the element was added, false if the queue is full
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element");
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                // The slot still holds the element offered one lap earlier
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the element at the head of the queue.
+     * This method must only be called by the consumer thread.
+     *
+     * @return the removed element, or null if the queue is empty
+     */
+    public E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Removes up to the given number of elements from the head of the queue and passes them to the consumer,
+     * in queue order.
+     * This method must only be called by the consumer thread.
+     *
+     * @param consumer the consumer of the removed elements
+     * @param limit    the maximum number of elements to remove
+     * @return the number of removed elements
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        int drained = 0;
+        E element;
+        while (drained < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the number of queued elements.
+     * The result is only an estimate while elements are being offered or removed concurrently.
+     *
+     * @return the number of queued elements
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head, mask + 1));
+    }
+
+    /**
+     * Returns the maximum number of elements the queue can hold.
+     *
+     * @return the capacity of the queue
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
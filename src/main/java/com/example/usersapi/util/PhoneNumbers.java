@@ -0,0 +1,224 @@
+package com.example.usersapi.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Normalization of free-text phone numbers to the E.164 format, e.g. "+33612345678".
+ * A number may be given in international format, with a leading "+" or "00", or in the national format of the
+ * country of residence of its owner, with or without its trunk prefix, and with spaces, dots, dashes, slashes
+ * and parentheses between digits.
+ * Numbers are read character by character against tables built once: the calling code of every country, a
+ * table of the calling codes indexed by the first three digits of a number, and the trunk prefix and length of
+ * the national numbers of the countries whose numbering plan is fixed.
+ */
+public final class PhoneNumbers {
+
+    /**
+     * Maximum number of digits of an E.164 number, calling code included.
+     */
+    private static final int MAX_DIGITS = 15;
+
+    /**
+     * Minimum number of digits of a national number.
+     */
+    private static final int MIN_NATIONAL_DIGITS = 4;
+
+    /**
+     * Calling codes of ISO 3166-1 countries, as "calling code:country codes".
+     */
+    private static final String[] CALLING_CODES = {
+            "1:US CA AG AI AS BB BM BS DM DO GD GU JM KN KY LC MP MS PR SX TC TT UM VC VG VI",
+            "7:RU KZ", "20:EG", "27:ZA", "30:GR", "31:NL", "32:BE", "33:FR", "34:ES", "36:HU", "39:IT VA",
+            "40:RO", "41:CH", "43:AT", "44:GB GG IM JE", "45:DK", "46:SE", "47:NO SJ BV", "48:PL", "49:DE",
+            "51:PE", "52:MX", "53:CU", "54:AR", "55:BR", "56:CL", "57:CO", "58:VE",
+            "60:MY", "61:AU CX CC", "62:ID", "63:PH", "64:NZ PN", "65:SG", "66:TH",
+            "81:JP", "82:KR", "84:VN", "86:CN", "90:TR", "91:IN", "92:PK", "93:AF", "94:LK", "95:MM", "98:IR",
+            "211:SS", "212:MA EH", "213:DZ", "216:TN", "218:LY", "220:GM", "221:SN", "222:MR", "223:ML",
+            "224:GN", "225:CI", "226:BF", "227:NE", "228:TG", "229:BJ", "230:MU", "231:LR", "232:SL",
+            "233:GH", "234:NG", "235:TD", "236:CF", "237:CM", "238:CV", "239:ST", "240:GQ", "241:GA",
+            "242:CG", "243:CD", "244:AO", "245:GW", "246:IO", "248:SC", "249:SD", "250:RW", "251:ET",
+            "252:SO", "253:DJ", "254:KE", "255:TZ", "256:UG", "257:BI", "258:MZ", "260:ZM", "261:MG",
+            "262:RE YT TF", "263:ZW", "264:NA", "265:MW", "266:LS", "267:BW", "268:SZ", "269:KM",
+            "290:SH", "291:ER", "297:AW", "298:FO", "299:GL",
+            "350:GI", "351:PT", "352:LU", "353:IE", "354:IS", "355:AL", "356:MT", "357:CY", "358:FI AX",
+            "359:BG", "370:LT", "371:LV", "372:EE", "373:MD", "374:AM", "375:BY", "376:AD", "377:MC",
+            "378:SM", "380:UA", "381:RS", "382:ME", "385:HR", "386:SI", "387:BA", "389:MK",
+            "420:CZ", "421:SK", "423:LI",
+            "500:FK GS", "501:BZ", "502:GT", "503:SV", "504:HN", "505:NI", "506:CR", "507:PA", "508:PM",
+            "509:HT", "590:GP BL MF", "591:BO", "592:GY", "593:EC", "594:GF", "595:PY", "596:MQ", "597:SR",
+            "598:UY", "599:CW BQ",
+            "670:TL", "672:NF AQ HM", "673:BN", "674:NR", "675:PG", "676:TO", "677:SB", "678:VU", "679:FJ",
+            "680:PW", "681:WF", "682:CK", "683:NU", "685:WS", "686:KI", "687:NC", "688:TV", "689:PF",
+            "690:TK", "691:FM", "692:MH",
+            "850:KP", "852:HK", "853:MO", "855:KH", "856:LA", "880:BD", "886:TW",
+            "960:MV", "961:LB", "962:JO", "963:SY", "964:IQ", "965:KW", "966:SA", "967:YE", "968:OM",
+            "970:PS", "971:AE", "972:IL", "973:BH", "974:QA", "975:BT", "976:MN", "977:NP",
+            "992:TJ", "993:TM", "994:AZ", "995:GE", "996:KG", "998:UZ"
+    };
+
+    /**
+     * Trunk prefixes other than "0", as "trunk prefix:country codes"; "-" for the countries without one, whose
+     * national numbers are dialed as is after the calling code.
+     */
+    private static final String[] TRUNK_PREFIXES = {
+            "1:US CA AG AI AS BB BM BS DM DO GD GU JM KN KY LC MP MS PR SX TC TT UM VC VG VI",
+            "8:RU KZ BY", "06:HU",
+            "-:IT VA SM ES PT GR DK NO SJ IS LU MT CY EE LV PL CZ SK MX GI MC AD LI FO GL"
+    };
+
+    /**
+     * Lengths of national numbers, trunk prefix excluded, as "minimum-maximum:country codes".
+     */
+    private static final String[] NATIONAL_LENGTHS = {
+            "10-10:US CA", "9-9:FR ES NL CH PT CZ SK PL DK", "8-9:BE", "9-10:GB", "10-11:DE", "6-11:IT"
+    };
+
+    private static final Map<String, Country> COUNTRIES = new HashMap<>();
+
+    /**
+     * Length of the calling code starting with the first three digits of a number, 0 if there is none.
+     */
+    private static final byte[] CALLING_CODE_LENGTHS = new byte[1000];
+
+    /**
+     * Characters allowed between the digits of a phone number.
+     */
+    private static final boolean[] SEPARATORS = new boolean[128];
+
+    static {
+        Map<String, String> trunkPrefixes = new HashMap<>();
+        for (String entry : TRUNK_PREFIXES) {
+            String prefix = entry.substring(0, entry.indexOf(':'));
+            for (String country : entry.substring(entry.indexOf(':') + 1).split(" ")) {
+                trunkPrefixes.put(country, prefix.equals("-") ? "" : prefix);
+            }
+        }
+        Map<String, int[]> lengths = new HashMap<>();
+        for (String entry : NATIONAL_LENGTHS) {
+            int dash = entry.indexOf('-');
+            int colon = entry.indexOf(':');
+            int[] range = {Integer.parseInt(entry.substring(0, dash)), Integer.parseInt(entry.substring(dash + 1, colon))};
+            for (String country : entry.substring(colon + 1).split(" ")) {
+                lengths.put(country, range);
+            }
+        }
+        for (String entry : CALLING_CODES) {
+            String callingCode = entry.substring(0, entry.indexOf(':'));
+            int code = Integer.parseInt(callingCode);
+            int scale = callingCode.length() == 1 ? 100 : callingCode.length() == 2 ? 10 : 1;
+            for (int key = code * scale; key < (code + 1) * scale; key++) {
+                CALLING_CODE_LENGTHS[key] = (byte) callingCode.length();
+            }
+            for (String country : entry.substring(entry.indexOf(':') + 1).split(" ")) {
+                int[] range = lengths.getOrDefault(country,
+                        new int[]{MIN_NATIONAL_DIGITS, MAX_DIGITS - callingCode.length()});
+                COUNTRIES.put(country, new Country(callingCode, trunkPrefixes.getOrDefault(country, "0"),
+                        range[0], range[1]));
+            }
+        }
+        for (char separator : " -./()\t".toCharArray()) {
+            SEPARATORS[separator] = true;
+        }
+    }
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * Normalizes a phone number to the E.164 format.
+     *
+     * @param phoneNumber the phone number as entered, e.g. "06 12 34 56 78", "+33 6 12 34 56 78" or "0033612345678"
+     * @param country     the ISO 3166-1 alpha-2 code of the country of residence of its owner, used to read a
+     *                    national number, or null
+     * @return the E.164 phone number, the trimmed input if it is not a valid phone number, or null if the input is
+     * null
+     */
+    public static String normalize(String phoneNumber, String country) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        String normalized = toE164(phoneNumber, country);
+        return normalized != null ? normalized : phoneNumber.trim();
+    }
+
+    /**
+     * Checks if a phone number is in the E.164 format, with a known calling code.
+     *
+     * @param phoneNumber the phone number to check
+     * @return true if the phone number is a normalized phone number
+     */
+    public static boolean isE164(String phoneNumber) {
+        return phoneNumber != null && phoneNumber.equals(toE164(phoneNumber, null));
+    }
+
+    private static String toE164(String phoneNumber, String country) {
+        StringBuilder digits = new StringBuilder(MAX_DIGITS + 1);
+        boolean international = false;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits.length() > MAX_DIGITS + 2) {
+                    return null;
+                }
+                digits.append(c);
+            } else if (c == '+' && digits.length() == 0 && !international) {
+                international = true;
+            } else if (c >= SEPARATORS.length || !SEPARATORS[c]) {
+                return null;
+            }
+        }
+        if (!international && digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            digits.delete(0, 2);
+            international = true;
+        }
+        if (international) {
+            return fromInternational(digits);
+        }
+        Country owner = country == null ? null : COUNTRIES.get(country);
+        return owner == null ? null : owner.fromNational(digits);
+    }
+
+    private static String fromInternational(StringBuilder digits) {
+        if (digits.length() < 3 || digits.length() > MAX_DIGITS) {
+            return null;
+        }
+        int key = (digits.charAt(0) - '0') * 100 + (digits.charAt(1) - '0') * 10 + (digits.charAt(2) - '0');
+        int callingCodeLength = CALLING_CODE_LENGTHS[key];
+        if (callingCodeLength == 0 || digits.length() - callingCodeLength < MIN_NATIONAL_DIGITS) {
+            return null;
+        }
+        return digits.insert(0, '+').toString();
+    }
+
+    /**
+     * The numbering plan of a country.
+     */
+    private static final class Country {
+
+        private final String callingCode;
+
+        private final String trunkPrefix;
+
+        private final int minLength;
+
+        private final int maxLength;
+
+        private Country(String callingCode, String trunkPrefix, int minLength, int maxLength) {
+            this.callingCode = callingCode;
+            this.trunkPrefix = trunkPrefix;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+        }
+
+        private String fromNational(StringBuilder digits) {
+            int start = !trunkPrefix.isEmpty() && digits.indexOf(trunkPrefix) == 0
+                    && digits.length() - trunkPrefix.length() >= minLength ? trunkPrefix.length() : 0;
+            int length = digits.length() - start;
+            if (length < minLength || length > maxLength) {
+                return null;
+            }
+            return "+" + callingCode + digits.substring(start);
+        }
+    }
+}
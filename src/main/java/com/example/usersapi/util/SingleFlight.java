@@ -0,0 +1,89 @@
+package com.example.usersapi.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one in-flight call.
+ * The first caller of a key runs the call, and callers arriving while it runs wait for its result instead of
+ * running their own; they get the same value, or the same exception. Once the call completes the key is released,
+ * so later callers run a new call: nothing is cached, and a caller never gets a result older than the call in
+ * flight when it arrived.
+ * In-flight calls are kept in a {@link ConcurrentHashMap}, so callers of different keys do not contend.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the results
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Runs a call, or waits for the call already running for the same key.
+     *
+     * @param key  the key identifying the call
+     * @param call the call to run if none is in flight for the key
+     * @return the result of the call
+     * @throws RuntimeException the exception thrown by the call, to every caller sharing it
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            coalesced.increment();
+            return await(inFlight);
+        }
+        executed.increment();
+        try {
+            V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            calls.remove(key, flight);
+        }
+    }
+
+    /**
+     * Returns the number of calls run so far.
+     *
+     * @return the number of callers that ran their call
+     */
+    public long executedCalls() {
+        return executed.sum();
+    }
+
+    /**
+     * Returns the number of calls saved so far.
+     *
+     * @return the number of callers that shared the call of another caller
+     */
+    public long coalescedCalls() {
+        return coalesced.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.usersapi.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket rate limiter keeping one bucket per client.
+ * Each bucket is a single {@link AtomicLong} updated with a compare-and-set loop, following the generic cell rate
+ * algorithm: it holds the theoretical arrival time of the next request, which advances by the emission interval
+ * (one second divided by the rate) per accepted request, and a request is accepted while that time is at most
+ * {@code burst} intervals ahead of now. This is equivalent to a bucket of {@code burst} tokens refilled at the
+ * given rate, without a refill timestamp or a lock.
+ * Buckets live in a Caffeine map, which is striped for concurrent access, and expire once their client is idle.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final Function<String, AtomicLong> NEW_BUCKET = client -> new AtomicLong(Long.MIN_VALUE);
+
+    private final long emissionIntervalNanos;
+
+    private final long burstNanos;
+
+    private final Cache<String, AtomicLong> buckets;
+
+    private final LongSupplier nanoClock;
+
+    /**
+     * Constructor for the TokenBucketRateLimiter class.
+     *
+     * @param permitsPerSecond the sustained rate of accepted requests of one client
+     * @param burst            the number of requests a client may send at once after being idle
+     * @param idleExpiry       how long the bucket of an idle client is kept
+     * @param maxClients       the maximum number of buckets kept
+     * @param nanoClock        the source of {@link System#nanoTime()}-like timestamps
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, Duration idleExpiry, long maxClients,
+                                  LongSupplier nanoClock) {
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleExpiry)
+                .maximumSize(maxClients)
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes a token from the bucket of a client.
+     *
+     * @param client the key of the client
+     * @return zero if the request is accepted, otherwise the number of nanoseconds until a token is available
+     */
+    public long tryAcquire(String client) {
+        AtomicLong bucket = buckets.getIfPresent(client);
+        if (bucket == null) {
+            bucket = buckets.get(client, NEW_BUCKET);
+        }
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + emissionIntervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of clients with a bucket.
+     *
+     * @return the approximate number of tracked clients
+     */
+    public long getTrackedClients() {
+        return buckets.estimatedSize();
+    }
+}
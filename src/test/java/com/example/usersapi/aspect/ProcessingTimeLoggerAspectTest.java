@@ -0,0 +1,106 @@
+package com.example.usersapi.aspect;
+
+import com.example.usersapi.config.ProcessingTimeProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the ProcessingTimeLoggerAspect class.
+ */
+public class ProcessingTimeLoggerAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private Timed timed;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new Timed());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ProcessingTimeLoggerAspect(meterRegistry, new ProcessingTimeProperties()));
+        timed = proxyFactory.getProxy();
+    }
+
+    /**
+     * Test that every call of an annotated method is recorded in its timer.
+     */
+    @Test
+    void recordsAnnotatedMethodTest() {
+        timed.annotated();
+        timed.annotated();
+
+        Timer timer = meterRegistry.get(ProcessingTimeLoggerAspect.METRIC_NAME)
+                .tag("class", "Timed").tag("method", "annotated").timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    /**
+     * Test that failed calls are recorded too.
+     */
+    @Test
+    void recordsFailedCallTest() {
+        assertThatThrownBy(() -> timed.failing()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get(ProcessingTimeLoggerAspect.METRIC_NAME)
+                .tag("method", "failing").timer().count()).isEqualTo(1);
+    }
+
+    /**
+     * Test that a reactive method is recorded when its result completes rather than when it returns.
+     */
+    @Test
+    void recordsReactiveResultOnCompletionTest() {
+        Mono<String> result = timed.reactive();
+        assertThat(meterRegistry.find(ProcessingTimeLoggerAspect.METRIC_NAME).tag("method", "reactive").timer())
+                .isNull();
+
+        assertThat(result.block()).isEqualTo("result");
+
+        assertThat(meterRegistry.get(ProcessingTimeLoggerAspect.METRIC_NAME)
+                .tag("method", "reactive").timer().count()).isEqualTo(1);
+    }
+
+    /**
+     * Test that methods without the annotation are not timed.
+     */
+    @Test
+    void ignoresOtherMethodsTest() {
+        timed.notAnnotated();
+
+        assertThat(meterRegistry.find(ProcessingTimeLoggerAspect.METRIC_NAME).tag("method", "notAnnotated").timer())
+                .isNull();
+    }
+
+    static class Timed {
+
+        @LogProcessingTime
+        public String annotated() {
+            return "result";
+        }
+
+        @LogProcessingTime
+        public String failing() {
+            throw new IllegalStateException("failure");
+        }
+
+        @LogProcessingTime
+        public Mono<String> reactive() {
+            return Mono.just("result");
+        }
+
+        public String notAnnotated() {
+            return "result";
+        }
+    }
+}
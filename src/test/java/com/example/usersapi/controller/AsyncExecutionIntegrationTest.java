@@ -0,0 +1,66 @@
+package com.example.usersapi.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the async execution mode, in which registrations and lookups complete on the request
+ * executor.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:asynctest", "usersapi.execution.mode=async"})
+@AutoConfigureMockMvc
+public class AsyncExecutionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Test case for a registration and lookups answered asynchronously, including an error and a conditional GET.
+     */
+    @Test
+    void testRegisterAndGetUserAsynchronously() throws Exception {
+        MvcResult registration = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"async1\",\"birthdate\":\"1990-01-01\",\"countryOfResidence\":\"France\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String location = mockMvc.perform(asyncDispatch(registration))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.username").value("async1"))
+                .andReturn().getResponse().getContentAsString().replaceAll(".*\"id\":(\\d+).*", "$1");
+
+        MvcResult lookup = mockMvc.perform(get("/api/users/{userId}", location))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String eTag = mockMvc.perform(asyncDispatch(lookup))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("async1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult conditional = mockMvc.perform(get("/api/users/{userId}", location).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(conditional)).andExpect(status().isNotModified());
+
+        MvcResult missing = mockMvc.perform(get("/api/users/{userId}", 999_999))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(missing))
+                .andExpect(status().isNotFound())
+                .andExpect(header().exists("X-Request-Id"));
+    }
+}
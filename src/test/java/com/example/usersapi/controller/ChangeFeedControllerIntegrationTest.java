@@ -0,0 +1,116 @@
+package com.example.usersapi.controller;
+
+import com.example.usersapi.model.User;
+import com.example.usersapi.service.ChangeFeedService;
+import com.example.usersapi.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the ChangeFeedController class, reading the change feed over HTTP from a running server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:changefeedtest", "usersapi.change-feed.enabled=true"})
+public class ChangeFeedControllerIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @DynamicPropertySource
+    static void changeLogDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("changes").toString();
+        registry.add("usersapi.change-feed.directory", () -> directory);
+    }
+
+    /**
+     * Test case for registrations fetched from an offset, then resumed from the next offset.
+     */
+    @Test
+    void testGetChanges() throws Exception {
+        long start = changeFeedService.getEndOffset();
+        userService.registerUser(new User("feed1", LocalDate.of(1990, 1, 1), "France", null, null));
+        userService.registerUser(new User("feed2", LocalDate.of(1990, 1, 1), "France", null, null));
+        HttpResponse<String> changes = awaitChanges(start, 2);
+        assertEquals(200, changes.statusCode());
+        String[] lines = changes.body().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"offset\":" + start + ",\"type\":\"registered\",\"user\":{"));
+        assertTrue(lines[0].contains("\"username\":\"feed1\""));
+        assertTrue(lines[1].contains("\"username\":\"feed2\""));
+
+        String next = changes.headers().firstValue(ChangeFeedController.NEXT_OFFSET_HEADER).orElseThrow();
+        assertEquals(changeFeedService.getEndOffset(), Long.parseLong(next));
+        HttpResponse<String> empty = get("/api/users/changes?offset=" + next);
+        assertEquals(200, empty.statusCode());
+        assertEquals("", empty.body());
+
+        assertEquals(400, get("/api/users/changes?offset=" + (start + 1)).statusCode());
+    }
+
+    /**
+     * Test case for the event stream, sending the change of a registration made after it was opened.
+     */
+    @Test
+    void testStreamChanges() throws Exception {
+        long start = changeFeedService.getEndOffset();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                + "/api/users/changes/stream?offset=" + start)).GET().build();
+        HttpResponse<Stream<String>> stream = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, stream.statusCode());
+        userService.registerUser(new User("streamed", LocalDate.of(1990, 1, 1), "France", null, null));
+
+        Iterator<String> lines = stream.body().iterator();
+        String id = null;
+        String data = null;
+        while (data == null && lines.hasNext()) {
+            String line = lines.next();
+            if (line.startsWith("id:")) {
+                id = line.substring(3);
+            } else if (line.startsWith("data:")) {
+                data = line.substring(5);
+            }
+        }
+        stream.body().close();
+        assertNotNull(data);
+        assertTrue(data.contains("\"username\":\"streamed\""));
+        assertEquals(changeFeedService.getEndOffset(), Long.parseLong(id));
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> awaitChanges(long offset, int count) throws IOException, InterruptedException {
+        HttpResponse<String> changes = get("/api/users/changes?offset=" + offset);
+        for (int i = 0; i < 500 && changes.body().split("\n").length < count; i++) {
+            Thread.sleep(10);
+            changes = get("/api/users/changes?offset=" + offset);
+        }
+        return changes;
+    }
+}
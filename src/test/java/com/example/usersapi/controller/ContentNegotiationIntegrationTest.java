@@ -0,0 +1,129 @@
+package com.example.usersapi.controller;
+
+import com.example.usersapi.model.UserRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the JSON and CBOR representations of the UserController endpoints.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:negotiationtest")
+@AutoConfigureMockMvc
+public class ContentNegotiationIntegrationTest {
+
+    private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory())
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Test case for a registration sent and answered in CBOR, then read back as JSON by default.
+     */
+    @Test
+    void testRegisterAndGetUserAsCbor() throws Exception {
+        byte[] request = cborMapper.writeValueAsBytes(
+                new UserRequest("cbor1", LocalDate.of(1990, 1, 1), "France", null, "F"));
+        byte[] response = mockMvc.perform(post("/api/users")
+                        .contentType(APPLICATION_CBOR)
+                        .accept(APPLICATION_CBOR)
+                        .content(request))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode registered = cborMapper.readTree(response);
+        assertEquals("cbor1", registered.get("username").asText());
+        assertEquals("1990-01-01", registered.get("birthdate").asText());
+
+        mockMvc.perform(get("/api/users/{userId}", registered.get("id").asLong())
+                        .header(HttpHeaders.ACCEPT, "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.username").value("cbor1"))
+                .andExpect(jsonPath("$.countryOfResidence").value("FR"))
+                .andExpect(jsonPath("$.phoneNumber").isEmpty());
+
+        byte[] page = mockMvc.perform(get("/api/users?gender=F").accept(APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("cbor1", cborMapper.readTree(page).get("users").get(0).get("username").asText());
+    }
+
+    /**
+     * Test case for the ETags of a user, which differ between its JSON and CBOR representations, each being
+     * revalidated only by its own tag.
+     */
+    @Test
+    void testETagDependsOnRepresentation() throws Exception {
+        byte[] response = mockMvc.perform(post("/api/users")
+                        .contentType(APPLICATION_CBOR)
+                        .accept(APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(
+                                new UserRequest("etag1", LocalDate.of(1990, 1, 1), "France", null, null))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsByteArray();
+        String location = "/api/users/" + cborMapper.readTree(response).get("id").asLong();
+
+        String jsonTag = mockMvc.perform(get(location).accept(MediaType.APPLICATION_JSON))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String cborTag = mockMvc.perform(get(location).accept(APPLICATION_CBOR))
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String anyTag = mockMvc.perform(get(location).header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, */*"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonTag, cborTag);
+        assertEquals(jsonTag, anyTag);
+
+        mockMvc.perform(get(location).accept(APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, cborTag));
+        mockMvc.perform(get(location).accept(APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_CBOR));
+        mockMvc.perform(get(location).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test case for a request body that fails validation, which is reported in the representation of the request.
+     */
+    @Test
+    void testInvalidCborRequestIsRejected() throws Exception {
+        byte[] request = cborMapper.writeValueAsBytes(new UserRequest("", LocalDate.of(1990, 1, 1), "France", null, null));
+        byte[] response = mockMvc.perform(post("/api/users")
+                        .contentType(APPLICATION_CBOR)
+                        .accept(APPLICATION_CBOR)
+                        .content(request))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode error = cborMapper.readTree(response);
+        assertEquals(400, error.get("status").asInt());
+        assertEquals("username should not be blank", error.get("violations").get(0).asText());
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.usersapi.controller;
+
+import com.example.usersapi.config.SwaggerConfiguration;
+import com.example.usersapi.model.UserRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the fast-start profile, whose beans are created lazily by the first requests.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:faststarttest")
+@AutoConfigureMockMvc
+@ActiveProfiles("fast-start")
+public class FastStartProfileIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationContext context;
+
+    /**
+     * Test case for a registration and a lookup served by lazily created beans, without Swagger.
+     */
+    @Test
+    void testRegisterAndGetUser() throws Exception {
+        assertTrue(context.getBeansOfType(SwaggerConfiguration.class).isEmpty());
+
+        String response = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UserRequest("faststart1", LocalDate.of(1990, 1, 1), "France", null, null))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        mockMvc.perform(get("/api/users/{userId}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("faststart1"));
+        mockMvc.perform(get("/v2/api-docs"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.usersapi.controller;
+
+import com.example.usersapi.model.User;
+import com.example.usersapi.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the ReactiveUserController class, running the reactive profile on Netty
+ * against the embedded H2 database.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivetest",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivetest"})
+@ActiveProfiles("reactive")
+public class ReactiveUserControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Test case for registering a user and retrieving it by ID.
+     */
+    @Test
+    void testRegisterUserAndGetUserById() {
+        User registered = webTestClient.post().uri("/api/users")
+                .bodyValue(new User("reactive1", LocalDate.of(1990, 1, 1), "France", null, "F"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(User.class).returnResult().getResponseBody();
+        assertNotNull(registered.getId());
+
+        webTestClient.get().uri("/api/users/{userId}", registered.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("reactive1")
+                .jsonPath("$.gender").isEqualTo("F");
+    }
+
+    /**
+     * Test case for the lookup of several users by ID, reporting the unknown IDs separately.
+     */
+    @Test
+    void testLookupUsers() {
+        User registered = webTestClient.post().uri("/api/users")
+                .bodyValue(new User("reactive-lookup", LocalDate.of(1990, 1, 1), "France", null, null))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(User.class).returnResult().getResponseBody();
+
+        webTestClient.post().uri("/api/users/lookup")
+                .bodyValue(Arrays.asList(-1L, registered.getId(), registered.getId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users.length()").isEqualTo(1)
+                .jsonPath("$.users[0].username").isEqualTo("reactive-lookup")
+                .jsonPath("$.missingIds[0]").isEqualTo(-1);
+
+        webTestClient.post().uri("/api/users/lookup")
+                .bodyValue(Arrays.asList(1L, null))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Test case for segment counts, from the counters without age bounds and from an R2DBC query with them.
+     */
+    @Test
+    void testGetSegments() {
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new User("reactive-segment", LocalDate.of(1990, 1, 1), "France", null, "male"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient.get().uri("/api/users/segments?gender=male")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.segments[0].country").isEqualTo("FR")
+                .jsonPath("$.total").isEqualTo(1);
+
+        webTestClient.get().uri("/api/users/segments?gender=M&minAge=18&maxAge=150")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(1);
+
+        webTestClient.get().uri("/api/users/segments?minAge=30&maxAge=20")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Test case for a conditional retrieval: the ETag of a user is answered with 304 (NOT MODIFIED) and no body.
+     */
+    @Test
+    void testGetUserByIdNotModified() {
+        User registered = webTestClient.post().uri("/api/users")
+                .bodyValue(new User("reactive-etag", LocalDate.of(1990, 1, 1), "France", null, null))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(User.class).returnResult().getResponseBody();
+
+        String eTag = webTestClient.get().uri("/api/users/{userId}", registered.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-cache, private")
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertEquals("\"0\"", eTag);
+
+        webTestClient.get().uri("/api/users/{userId}", registered.getId())
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+                .expectBody().isEmpty();
+
+        webTestClient.get().uri("/api/users/{userId}", -1L)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    /**
+     * Test case for a user registered and read back in CBOR, while JSON stays the default representation.
+     */
+    @Test
+    void testRegisterAndGetUserAsCbor() throws Exception {
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        MediaType cbor = MediaType.parseMediaType("application/cbor");
+        byte[] request = cborMapper.writeValueAsBytes(cborMapper.createObjectNode()
+                .put("username", "reactive-cbor")
+                .put("birthdate", "1990-01-01")
+                .put("countryOfResidence", "France"));
+        byte[] response = webTestClient.post().uri("/api/users")
+                .contentType(cbor)
+                .accept(cbor)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().contentType(cbor)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        JsonNode registered = cborMapper.readTree(response);
+        assertEquals("FR", registered.get("countryOfResidence").asText());
+
+        webTestClient.get().uri("/api/users/{userId}", registered.get("id").asLong())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("reactive-cbor");
+
+        byte[] batch = cborMapper.writeValueAsBytes(cborMapper.createArrayNode().add(cborMapper.createObjectNode()
+                .put("username", "reactive-cbor-batch")
+                .put("birthdate", "1990-01-01")
+                .put("countryOfResidence", "France")));
+        byte[] results = webTestClient.post().uri("/api/users/batch")
+                .contentType(cbor)
+                .accept(cbor)
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertEquals("CREATED", cborMapper.readTree(results).get(0).get("status").asText());
+    }
+
+    /**
+     * Test case for the error mapping of the ApiExceptionHandler on WebFlux.
+     */
+    @Test
+    void testErrorsAreMappedLikeTheServletApi() {
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new User("reactive-dup", LocalDate.of(1990, 1, 1), "France", null, null))
+                .exchange()
+                .expectStatus().isCreated();
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new User("reactive-dup", LocalDate.of(1990, 1, 1), "France", null, null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(409)
+                .jsonPath("$.message").isEqualTo("Username already exists!");
+
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new User("reactive-minor", LocalDate.of(2015, 1, 1), "France", null, null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Only French adults are allowed to register!");
+
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new User("", LocalDate.of(1990, 1, 1), "France", null, null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("invalid request!")
+                .jsonPath("$.violations[0]").isEqualTo("username should not be blank");
+
+        webTestClient.get().uri("/api/users/{userId}", Long.MAX_VALUE)
+                .header("X-Request-Id", "reactive-request-1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().valueEquals("X-Request-Id", "reactive-request-1")
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Not Found")
+                .jsonPath("$.message").isEqualTo("User not found!");
+    }
+
+    /**
+     * Test case for users registered through JPA and R2DBC, which allocate IDs from the same sequence.
+     */
+    @Test
+    void testJpaAndReactiveRegistrationsDoNotShareIds() {
+        for (int i = 0; i < 60; i++) {
+            User viaJpa = userService.registerUser(new User("jpa-" + i, LocalDate.of(1990, 1, 1), "France", null, null));
+            User viaR2dbc = webTestClient.post().uri("/api/users")
+                    .bodyValue(new User("r2dbc-" + i, LocalDate.of(1990, 1, 1), "France", null, null))
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectBody(User.class).returnResult().getResponseBody();
+            assertNotEquals(viaJpa.getId(), viaR2dbc.getId());
+        }
+    }
+
+    /**
+     * Test case for the bulk registration, listing and export endpoints.
+     */
+    @Test
+    void testRegisterUsersListAndExport() {
+        webTestClient.post().uri("/api/users/batch")
+                .contentType(MediaType.parseMediaType(UserController.APPLICATION_NDJSON_VALUE))
+                .bodyValue("{\"username\":\"reactive-batch-a\",\"birthdate\":\"1990-01-01\",\"countryOfResidence\":\"Belgium\"}\n"
+                        + "{\"id\":999999,\"username\":\"reactive-batch-b\",\"birthdate\":\"1990-01-01\",\"countryOfResidence\":\"France\"}\n"
+                        + "{\"username\":\"reactive-batch-b\",\"birthdate\":\"1990-01-01\",\"countryOfResidence\":\"France\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].status").isEqualTo("REJECTED")
+                .jsonPath("$[1].status").isEqualTo("CREATED")
+                .jsonPath("$[1].id").value(Matchers.not(999999))
+                .jsonPath("$[2].status").isEqualTo("DUPLICATE")
+                .jsonPath("$[2].index").isEqualTo(2);
+
+        webTestClient.post().uri("/api/users/batch")
+                .bodyValue(Arrays.asList(
+                        new User("reactive-page-1", LocalDate.of(1970, 1, 1), "France", null, "X"),
+                        new User("reactive-page-2", LocalDate.of(1970, 1, 1), "France", null, "X"),
+                        new User("reactive-page-3", LocalDate.of(1970, 1, 1), "France", null, "X")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[2].status").isEqualTo("CREATED");
+
+        JsonNode first = webTestClient.get().uri("/api/users?gender=X&limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        assertEquals(2, first.get("users").size());
+        assertTrue(first.get("nextCursor").isTextual());
+        webTestClient.get().uri("/api/users?gender=X&limit=2&cursor=" + first.get("nextCursor").asText())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users[0].username").isEqualTo("reactive-page-3")
+                .jsonPath("$.nextCursor").isEmpty();
+
+        String export = webTestClient.get().uri("/api/users/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertTrue(export.contains("\"username\":\"reactive-page-2\""));
+    }
+}
@@ -1,27 +1,54 @@
 package com.example.usersapi.controller;
 
+import com.example.usersapi.config.HttpCacheProperties;
 import com.example.usersapi.exception.ApiExceptionHandler;
+import com.example.usersapi.model.BatchRegistrationResult;
 import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserLookupResult;
+import com.example.usersapi.model.UserRequest;
+import com.example.usersapi.model.UserResponse;
+import com.example.usersapi.model.SegmentCount;
+import com.example.usersapi.model.UserSegments;
+import com.example.usersapi.service.UserBatchService;
+import com.example.usersapi.service.UserExportService;
+import com.example.usersapi.service.UserSegmentService;
 import com.example.usersapi.service.UserService;
+import com.example.usersapi.service.WriteBehindRegistrationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -37,16 +64,31 @@ public class UserControllerIntegrationTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserBatchService userBatchService;
+
+    @Mock
+    private UserSegmentService userSegmentService;
+
+    @Mock
+    private UserExportService userExportService;
+
+    @Mock
+    private ObjectProvider<WriteBehindRegistrationService> writeBehindService;
+
+    @Spy
+    private HttpCacheProperties httpCacheProperties = new HttpCacheProperties();
+
     private MockMvc mockMvc;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
     @BeforeEach
     public void setup() {
         User user1 = new User("user1", LocalDate.of(1990, 1, 1), "France", null, null);
-        userController.registerUser(user1);
-
-        objectMapper.registerModule(new JavaTimeModule());
+        given(userService.registerUser(any())).willReturn(user1);
+        userController.registerUser(new UserRequest("user1", LocalDate.of(1990, 1, 1), "France", null, null));
 
         mockMvc = MockMvcBuilders.standaloneSetup(userController)
                 .setControllerAdvice(new ApiExceptionHandler())
@@ -93,6 +135,139 @@ public class UserControllerIntegrationTest {
         User user = new User("user1", LocalDate.of(1990, 1, 1), "France", null, null);
         given(userService.getUserById(eq(1L))).willReturn(user);
         mockMvc.perform(get("/api/users/{userId}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+    }
+
+    /**
+     * Test for a conditional retrieval of an unchanged user, answered from its version without loading it.
+     *
+     * @throws Exception if an exception occurs during the test
+     */
+    @Test
+    public void testGetUserById_NotModified() throws Exception {
+        given(userService.getUserVersion(eq(1L))).willReturn(0L);
+        mockMvc.perform(get("/api/users/{userId}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(content().string(""));
+        then(userService).should(never()).getUserById(any());
+
+        User user = new User("user1", LocalDate.of(1990, 1, 1), "France", null, null);
+        user.setVersion(1L);
+        given(userService.getUserVersion(eq(1L))).willReturn(1L);
+        given(userService.getUserById(eq(1L))).willReturn(user);
+        mockMvc.perform(get("/api/users/{userId}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    /**
+     * Test for the lookup of several users by ID.
+     *
+     * @throws Exception if an exception occurs during the test
+     */
+    @Test
+    public void testLookupUsers() throws Exception {
+        User user = new User("user1", LocalDate.of(1990, 1, 1), "France", null, null);
+        user.setId(1L);
+        given(userService.getUsersByIds(eq(Arrays.asList(1L, 2L))))
+                .willReturn(new UserLookupResult(Collections.singletonList(UserResponse.from(user)), Collections.singletonList(2L)));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("user1"))
+                .andExpect(jsonPath("$.missingIds[0]").value(2));
+    }
+
+    /**
+     * Test for bulk registration of users from a JSON array.
+     *
+     * @throws Exception if an exception occurs during the test
+     */
+    @Test
+    public void testRegisterUsers() throws Exception {
+        User user = new User("batch1", LocalDate.of(1990, 1, 1), "France", null, null);
+        user.setId(1L);
+        given(userBatchService.registerUsers(any()))
+                .willReturn(Collections.singletonList(BatchRegistrationResult.created(0, user)));
+        String requestJson = objectMapper.writeValueAsString(Collections.singletonList(user));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test for bulk registrations carrying IDs: only the fields of a registration request are bound, in JSON
+     * arrays and in newline-delimited JSON streams.
+     *
+     * @throws Exception if an exception occurs during the test
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRegisterUsersIgnoresClientIds() throws Exception {
+        List<User> submitted = new ArrayList<>();
+        given(userBatchService.registerUsers(any())).willAnswer(invocation -> {
+            ((Iterator<User>) invocation.getArgument(0)).forEachRemaining(submitted::add);
+            return Collections.emptyList();
+        });
+        String user = "{\"id\":999,\"version\":5,\"username\":\"batch-id\",\"birthdate\":\"1990-01-01\","
+                + "\"countryOfResidence\":\"France\"}";
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + user + "]"))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/batch")
+                        .contentType(UserController.APPLICATION_NDJSON_VALUE)
+                        .content(user + "\n"))
                 .andExpect(status().isOk());
+
+        assertEquals(2, submitted.size());
+        for (User registered : submitted) {
+            assertEquals("batch-id", registered.getUsername());
+            assertNull(registered.getId());
+            assertEquals(0, registered.getVersion());
+        }
+    }
+
+    /**
+     * Test for counting users per segment, with the segment path taking precedence over the user ID path.
+     *
+     * @throws Exception if an exception occurs during the test
+     */
+    @Test
+    public void testGetSegments() throws Exception {
+        given(userSegmentService.getSegments(eq("FR"), eq(null), eq(18), eq(null)))
+                .willReturn(new UserSegments(Arrays.asList(new SegmentCount("FR", "female", 3),
+                        new SegmentCount("FR", "male", 2))));
+        mockMvc.perform(get("/api/users/segments").param("country", "FR").param("minAge", "18"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.segments[0].gender").value("female"))
+                .andExpect(jsonPath("$.segments[1].count").value(2))
+                .andExpect(jsonPath("$.total").value(5));
+    }
+
+    /**
+     * Test for the export, gzip-compressed only when gzip is accepted with a quality value above 0.
+     *
+     * @throws Exception if an exception occurs during the test
+     */
+    @Test
+    public void testExportUsersNegotiatesGzip() throws Exception {
+        mockMvc.perform(get("/api/users/export").header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        mockMvc.perform(get("/api/users/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        mockMvc.perform(get("/api/users/export").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.1"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        mockMvc.perform(get("/api/users/export"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
     }
 }
@@ -0,0 +1,51 @@
+package com.example.usersapi.logging;
+
+import com.example.usersapi.config.LoggingProperties;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the CorrelationIdFilter class.
+ */
+public class CorrelationIdFilterTest {
+
+    private final CorrelationIdFilter filter = new CorrelationIdFilter(new LoggingProperties());
+
+    /**
+     * Test that the correlation ID of the client is kept in the MDC during the request and returned.
+     */
+    @Test
+    void clientCorrelationIdTest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.addHeader("X-Request-Id", "client-id.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> duringRequest = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> duringRequest.set(MDC.get(CorrelationId.MDC_KEY)));
+
+        assertThat(duringRequest.get()).isEqualTo("client-id.1");
+        assertThat(response.getHeader("X-Request-Id")).isEqualTo("client-id.1");
+        assertThat(MDC.get(CorrelationId.MDC_KEY)).isNull();
+    }
+
+    /**
+     * Test that a new correlation ID replaces a missing or unsafe one.
+     */
+    @Test
+    void generatedCorrelationIdTest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.addHeader("X-Request-Id", "forged\nline");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> { });
+
+        assertThat(response.getHeader("X-Request-Id")).matches("[0-9a-f]{16}");
+        assertThat(CorrelationId.resolve(null)).matches("[0-9a-f]{16}");
+    }
+}
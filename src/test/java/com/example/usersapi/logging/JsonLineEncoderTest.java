@@ -0,0 +1,53 @@
+package com.example.usersapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.example.usersapi.logging.LogField.kv;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the JsonLineEncoder class.
+ */
+public class JsonLineEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Test that an event is written as one JSON line with its MDC entries and log fields as top-level fields.
+     */
+    @Test
+    void encodeTest() throws Exception {
+        Logger logger = new LoggerContext().getLogger("usersapi.access");
+        MDC.put(CorrelationId.MDC_KEY, "abc123");
+        LoggingEvent event;
+        try {
+            event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "{} {}",
+                    new IllegalStateException("boom"), new Object[]{kv("path", "/api/users/\"1\""), kv("status", 404)});
+            event.prepareForDeferredProcessing();
+        } finally {
+            MDC.remove(CorrelationId.MDC_KEY);
+        }
+
+        String line = new String(new JsonLineEncoder().encode(event), StandardCharsets.UTF_8);
+        assertThat(line).endsWith("}\n").doesNotContain("\n{");
+
+        JsonNode json = objectMapper.readTree(line);
+        assertThat(json.get("level").asText()).isEqualTo("INFO");
+        assertThat(json.get("logger").asText()).isEqualTo("usersapi.access");
+        assertThat(json.get("message").asText()).isEqualTo("path=/api/users/\"1\" status=404");
+        assertThat(json.get("correlationId").asText()).isEqualTo("abc123");
+        assertThat(json.get("path").asText()).isEqualTo("/api/users/\"1\"");
+        assertThat(json.get("status").isNumber()).isTrue();
+        assertThat(json.get("exception").asText()).isEqualTo("java.lang.IllegalStateException: boom");
+        assertThat(json.get("stackTrace").asText()).contains("encodeTest");
+    }
+}
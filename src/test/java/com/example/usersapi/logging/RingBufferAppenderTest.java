@@ -0,0 +1,119 @@
+package com.example.usersapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the RingBufferAppender class.
+ */
+public class RingBufferAppenderTest {
+
+    /**
+     * Test that events logged by several threads are all written by the background thread, in order per thread,
+     * once the appender is stopped.
+     */
+    @Test
+    void appendTest() throws Exception {
+        LoggerContext context = new LoggerContext();
+        ListAppender<ILoggingEvent> target = new ListAppender<>();
+        target.setContext(context);
+        target.start();
+        RingBufferAppender appender = new RingBufferAppender();
+        appender.setContext(context);
+        appender.setName("test");
+        appender.setCapacity(1 << 16);
+        appender.addAppender(target);
+        appender.start();
+
+        Logger logger = context.getLogger("test");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String name = "producer-" + t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    logger.info("{}", i);
+                }
+            }, name);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        appender.stop();
+
+        assertThat(target.list).hasSize(4000);
+        assertThat(appender.getDroppedCount()).isZero();
+        assertThat(target.list.stream().filter(event -> event.getThreadName().equals("producer-0"))
+                .map(ILoggingEvent::getFormattedMessage).limit(3)).containsExactly("0", "1", "2");
+        assertThat(target.isStarted()).isFalse();
+    }
+
+    /**
+     * Test that an ERROR event is written while the ring buffer is full, while INFO events are dropped.
+     */
+    @Test
+    void fullBufferKeepsErrorsTest() throws Exception {
+        LoggerContext context = new LoggerContext();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        UnsynchronizedAppenderBase<ILoggingEvent> target = new UnsynchronizedAppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                if (event.getFormattedMessage().equals("blocking")) {
+                    writing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                written.add(event.getFormattedMessage());
+            }
+        };
+        target.setContext(context);
+        target.start();
+        RingBufferAppender appender = new RingBufferAppender();
+        appender.setContext(context);
+        appender.setName("test");
+        appender.setCapacity(4);
+        appender.addAppender(target);
+        appender.start();
+
+        Logger logger = context.getLogger("test");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+
+        // The writer blocks on the first event, so the next ones fill the buffer.
+        logger.info("blocking");
+        writing.await();
+        for (int i = 0; i < 8; i++) {
+            logger.info("{}", i);
+        }
+        logger.error("failure");
+        assertThat(written).containsExactly("failure");
+        assertThat(appender.getDroppedCount()).isEqualTo(4);
+
+        release.countDown();
+        appender.stop();
+        assertThat(written).containsExactly("failure", "blocking", "0", "1", "2", "3");
+    }
+}
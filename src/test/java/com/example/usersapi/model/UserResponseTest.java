@@ -0,0 +1,55 @@
+package com.example.usersapi.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the UserResponse class and its serializer.
+ */
+public class UserResponseTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory())
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Test that a response is written exactly like the entity it was copied from, null fields included.
+     */
+    @Test
+    void sameJsonAsEntityTest() throws Exception {
+        User user = new User("test", LocalDate.of(1990, 1, 1), "France", null, "F");
+        user.setId(42L);
+        assertThat(jsonMapper.writeValueAsString(UserResponse.from(user))).isEqualTo(jsonMapper.writeValueAsString(user));
+
+        User unsaved = new User("test", null, "France", "+33612345678", null);
+        assertThat(jsonMapper.writeValueAsString(UserResponse.from(unsaved))).isEqualTo(jsonMapper.writeValueAsString(unsaved));
+    }
+
+    /**
+     * Test that a response written as CBOR reads back with the same fields, and is smaller than its JSON.
+     */
+    @Test
+    void cborTest() throws Exception {
+        User user = new User("test", LocalDate.of(1990, 1, 1), "France", "+33612345678", "F");
+        user.setId(42L);
+        byte[] cbor = cborMapper.writeValueAsBytes(UserResponse.from(user));
+
+        JsonNode node = cborMapper.readTree(cbor);
+        assertThat(node.get("id").asLong()).isEqualTo(42L);
+        assertThat(node.get("birthdate").asText()).isEqualTo("1990-01-01");
+        assertThat(node.get("countryOfResidence").asText()).isEqualTo("FR");
+        assertThat(cbor.length).isLessThan(jsonMapper.writeValueAsBytes(UserResponse.from(user)).length);
+    }
+}
@@ -11,29 +11,58 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class UserTest {
 
     /**
-     * Test for isAdult() method when the user is an adult.
+     * Test that the country of residence is normalized to an interned ISO code when the user is created.
      */
     @Test
-    void isAdultTest() {
-        User user = new User("test", LocalDate.of(1990, 1, 1), "France", null, null);
-        assertThat(user.isAdult()).isTrue();
+    void countryIsNormalizedTest() {
+        User user = new User("test", LocalDate.of(1990, 1, 1), "france", null, null);
+        assertThat(user.getCountryOfResidence()).isSameAs("FR");
     }
 
     /**
-     * Test for isAdult() method when the user is not an adult.
+     * Test that the country of residence is normalized when it is set, as done on deserialization.
      */
     @Test
-    void isNotAdultTest() {
-        User user = new User("test", LocalDate.of(2010, 1, 1), "France", null, null);
-        assertThat(user.isAdult()).isFalse();
+    void countryIsNormalizedWhenSetTest() {
+        User user = new User();
+        user.setCountryOfResidence(" FRA ");
+        assertThat(user.getCountryOfResidence()).isSameAs("FR");
+        user.setCountryOfResidence("United Kingdom");
+        assertThat(user.getCountryOfResidence()).isEqualTo("GB");
+        user.setCountryOfResidence("Allemagne");
+        assertThat(user.getCountryOfResidence()).isEqualTo("DE");
     }
 
     /**
-     * Test for isFrench() method when the user is from France.
+     * Test that unknown countries are kept as entered.
      */
     @Test
-    void isFrenchTest() {
-        User user = new User("test", LocalDate.of(1990, 1, 1), "france", null, null);
-        assertThat(user.isAdult()).isTrue();
+    void unknownCountryIsKeptTest() {
+        User user = new User("test", LocalDate.of(1990, 1, 1), "Atlantis", null, null);
+        assertThat(user.getCountryOfResidence()).isEqualTo("Atlantis");
+    }
+
+    /**
+     * Test that phone numbers are normalized to E.164, national ones with the country of residence.
+     */
+    @Test
+    void phoneNumberIsNormalizedTest() {
+        User user = new User("test", LocalDate.of(1990, 1, 1), "France", "06 12 34 56 78", null);
+        assertThat(user.getPhoneNumber()).isEqualTo("+33612345678");
+        User lateCountry = new User();
+        lateCountry.setPhoneNumber("(415) 555-2671");
+        lateCountry.setCountryOfResidence("USA");
+        assertThat(lateCountry.getPhoneNumber()).isEqualTo("+14155552671");
+    }
+
+    /**
+     * Test that genders are normalized to their code, and unknown ones kept as entered.
+     */
+    @Test
+    void genderIsNormalizedTest() {
+        assertThat(new User("test", null, null, null, " Female ").getGender()).isEqualTo("F");
+        assertThat(new User("test", null, null, null, "homme").getGender()).isEqualTo("M");
+        assertThat(new User("test", null, null, null, "non-binary").getGender()).isEqualTo("X");
+        assertThat(new User("test", null, null, null, "unknown").getGender()).isEqualTo("unknown");
     }
 }
@@ -0,0 +1,62 @@
+package com.example.usersapi.ratelimit;
+
+import com.example.usersapi.service.UserExportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the paths covered by the LoadSheddingInterceptor.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:sheddingtest", "usersapi.load-shedding.enabled=true",
+        "usersapi.load-shedding.window-size=1"})
+@AutoConfigureMockMvc
+public class LoadSheddingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private UserExportService userExportService;
+
+    /**
+     * Test case for a slow export, which is not admitted by the concurrency limiter, so that its latency cannot
+     * shrink the limit of the lookups.
+     */
+    @Test
+    void testSlowExportDoesNotShrinkLimit() throws Exception {
+        double[] inFlightDuringExport = new double[1];
+        doAnswer(invocation -> {
+            Thread.sleep(200);
+            inFlightDuringExport[0] = gauge(LoadSheddingInterceptor.IN_FLIGHT_METRIC);
+            invocation.getArgument(0, OutputStream.class).write("{}\n".getBytes());
+            return 1L;
+        }).when(userExportService).exportTo(any());
+        mockMvc.perform(get("/api/users/{userId}", 1)).andExpect(status().isNotFound());
+        double limit = gauge(LoadSheddingInterceptor.LIMIT_METRIC);
+
+        mockMvc.perform(get("/api/users/export")).andExpect(status().isOk());
+
+        assertEquals(0, inFlightDuringExport[0]);
+        assertEquals(limit, gauge(LoadSheddingInterceptor.LIMIT_METRIC));
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.usersapi.ratelimit;
+
+import com.example.usersapi.config.RateLimitProperties;
+import com.example.usersapi.exception.ApiExceptionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for the RateLimitInterceptor class.
+ */
+public class RateLimitInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setClientHeader("X-Api-Key");
+        properties.getEndpoints().get("lookup").setPermitsPerSecond(0.001);
+        properties.getEndpoints().get("lookup").setBurst(2);
+        mockMvc = MockMvcBuilders.standaloneSetup(new TestController())
+                .addInterceptors(new RateLimitInterceptor(properties, meterRegistry))
+                .setControllerAdvice(new ApiExceptionHandler())
+                .build();
+    }
+
+    /**
+     * Test that a client is answered 429 beyond its burst, with Retry-After set to the seconds until its next
+     * token (1000 at 0.001 permits per second), while other clients and endpoints without @RateLimited are not
+     * affected.
+     *
+     * @throws Exception if an exception occurs during the test
+     */
+    @Test
+    public void testRejectsBeyondLimit() throws Exception {
+        mockMvc.perform(get("/limited").header("X-Api-Key", "a")).andExpect(status().isOk());
+        mockMvc.perform(get("/limited").header("X-Api-Key", "a")).andExpect(status().isOk());
+        mockMvc.perform(get("/limited").header("X-Api-Key", "a"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1000"))
+                .andExpect(jsonPath("$.status").value(429));
+        mockMvc.perform(get("/limited").header("X-Api-Key", "b")).andExpect(status().isOk());
+        mockMvc.perform(get("/unlimited").header("X-Api-Key", "a")).andExpect(status().isOk());
+
+        assertThat(meterRegistry.get(RateLimitInterceptor.REJECTED_METRIC).tag("endpoint", "lookup").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(RateLimitInterceptor.CLIENTS_METRIC).tag("endpoint", "lookup").gauge().value())
+                .isEqualTo(2);
+    }
+
+    @RestController
+    static class TestController {
+
+        @GetMapping("/limited")
+        @RateLimited("lookup")
+        public String limited() {
+            return "ok";
+        }
+
+        @GetMapping("/unlimited")
+        public String unlimited() {
+            return "ok";
+        }
+    }
+}
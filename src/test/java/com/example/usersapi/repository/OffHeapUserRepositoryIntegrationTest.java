@@ -0,0 +1,119 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.exception.DuplicateUsernameException;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserPage;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserSegments;
+import com.example.usersapi.service.UserNormalizationService;
+import com.example.usersapi.service.UserSegmentService;
+import com.example.usersapi.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the edge profile, where the services use the OffHeapUserRepository instead of the
+ * database.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:edgetest", "usersapi.eligibility.allowed-countries=FR,DE"})
+@ActiveProfiles("edge")
+@AutoConfigureMockMvc
+public class OffHeapUserRepositoryIntegrationTest {
+
+    @DynamicPropertySource
+    static void storeDirectory(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("user-store");
+        registry.add("usersapi.user-store.directory", directory::toString);
+    }
+
+    @Autowired
+    private BasicUserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserSegmentService userSegmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    /**
+     * Test case for registrations, lookups, searches and counts served by the store without touching the database.
+     */
+    @Test
+    void testServicesUseTheStore() {
+        assertInstanceOf(OffHeapUserRepository.class, userRepository);
+        User first = userService.registerUser(new User("edge1", LocalDate.of(1990, 1, 1), "France", null, "female"));
+        User second = userService.registerUser(new User("edge2", LocalDate.of(2000, 1, 1), "France", null, "male"));
+        assertThrows(DuplicateUsernameException.class,
+                () -> userService.registerUser(new User("edge1", LocalDate.of(1990, 1, 1), "France", null, null)));
+
+        assertEquals("edge2", userService.getUserById(second.getId()).getUsername());
+        assertEquals(0L, userService.getUserVersion(first.getId()));
+
+        UserPage page = userService.findUsers(new UserSearchCriteria("FR", null, null, null), null, 1);
+        assertEquals(1, page.getUsers().size());
+        assertEquals("edge1", page.getUsers().get(0).getUsername());
+        UserPage next = userService.findUsers(new UserSearchCriteria("FR", null, null, null), page.getNextCursor(), 1);
+        assertEquals("edge2", next.getUsers().get(0).getUsername());
+        assertTrue(userService.findUsers(new UserSearchCriteria("IT", null, null, null), null, 10).getUsers().isEmpty());
+
+        UserSegments segments = userSegmentService.getSegments("FR", null, null, null);
+        assertEquals(2, segments.getTotal());
+        assertEquals(1, userSegmentService.getSegments("FR", null, 30, null).getTotal());
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from _user", Long.class));
+        assertEquals(0, applicationContext.getBeanNamesForType(UserNormalizationService.class).length);
+    }
+
+    /**
+     * Test case for single and batch registrations, which share the IDs and usernames of the store.
+     */
+    @Test
+    void testBatchRegistrationUsesTheStore() throws Exception {
+        String alice = "{\"username\":\"edge-alice\",\"birthdate\":\"1990-01-01\",\"countryOfResidence\":\"Germany\"}";
+        String bob = "{\"username\":\"edge-bob\",\"birthdate\":\"1990-01-01\",\"countryOfResidence\":\"Germany\"}";
+        mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON).content(alice))
+                .andExpect(status().isCreated());
+
+        String results = mockMvc.perform(post("/api/users/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + alice + "," + bob + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$[1].status").value("CREATED"))
+                .andReturn().getResponse().getContentAsString();
+        long bobId = Long.parseLong(results.replaceAll(".*\"id\":(\\d+).*", "$1"));
+
+        mockMvc.perform(get("/api/users/{userId}", bobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("edge-bob"));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from _user", Long.class));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.usersapi.repository;
+
+import com.example.usersapi.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OffHeapUserStore class.
+ */
+public class OffHeapUserStoreTest {
+
+    /**
+     * Test case for users stored and read back, with missing optional fields and non-ASCII usernames.
+     */
+    @Test
+    void testPutAndGet() throws IOException {
+        try (OffHeapUserStore store = new OffHeapUserStore(null, 16, 1024)) {
+            User full = new User("jérôme", LocalDate.of(1990, 5, 17), "France", "+33612345678", "male");
+            User partial = new User("anna", null, null, null, null);
+            assertTrue(store.put(full));
+            assertTrue(store.put(partial));
+            assertEquals(1L, full.getId());
+            assertEquals(2L, partial.getId());
+
+            User read = store.get(1L);
+            assertEquals("jérôme", read.getUsername());
+            assertEquals(LocalDate.of(1990, 5, 17), read.getBirthdate());
+            assertEquals("FR", read.getCountryOfResidence());
+            assertEquals("+33612345678", read.getPhoneNumber());
+            assertEquals("M", read.getGender());
+            User empty = store.get(2L);
+            assertEquals("anna", empty.getUsername());
+            assertNull(empty.getBirthdate());
+            assertNull(empty.getCountryOfResidence());
+            assertNull(empty.getPhoneNumber());
+            assertNull(empty.getGender());
+            assertNull(store.get(3L));
+
+            assertTrue(store.containsUsername("jérôme"));
+            assertFalse(store.containsUsername("jerome"));
+            assertEquals(2, store.size());
+            assertEquals(1, store.position(2L));
+            assertEquals(-1, store.position(3L));
+        }
+    }
+
+    /**
+     * Test case for duplicate usernames, which are rejected, and updates, which increment the version.
+     */
+    @Test
+    void testDuplicateUsernameAndUpdate() throws IOException {
+        try (OffHeapUserStore store = new OffHeapUserStore(null, 16, 1024)) {
+            assertTrue(store.put(new User("taken", LocalDate.of(1990, 1, 1), "FR", null, null)));
+            assertFalse(store.put(new User("taken", LocalDate.of(2000, 1, 1), "IT", null, null)));
+            assertEquals(1, store.size());
+
+            User update = new User("taken", LocalDate.of(1990, 1, 1), "FR", "0612345678", null);
+            update.setId(1L);
+            assertTrue(store.put(update));
+            assertEquals(1L, update.getVersion());
+            assertEquals(1L, store.getVersion(1L));
+            assertEquals("+33612345678", store.get(1L).getPhoneNumber());
+            assertEquals(1, store.size());
+
+            User renamed = new User("renamed", LocalDate.of(1990, 1, 1), "FR", null, null);
+            renamed.setId(1L);
+            assertThrows(IllegalArgumentException.class, () -> store.put(renamed));
+        }
+    }
+
+    /**
+     * Test case for a store growing its records, arena and hash tables well beyond their initial size.
+     */
+    @Test
+    void testGrowth() throws IOException {
+        try (OffHeapUserStore store = new OffHeapUserStore(null, 16, 1024)) {
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(store.put(new User("user" + i, LocalDate.ofEpochDay(i), i % 2 == 0 ? "FR" : "IT", null,
+                        "g" + i % 3)));
+            }
+            assertEquals(10_000, store.size());
+            for (int i = 0; i < 10_000; i += 997) {
+                User user = store.get(i + 1L);
+                assertEquals("user" + i, user.getUsername());
+                assertEquals(LocalDate.ofEpochDay(i), user.getBirthdate());
+                assertTrue(store.containsUsername("user" + i));
+            }
+            List<Long> french = new ArrayList<>();
+            int fr = store.countryCode("FR");
+            store.forEach(record -> {
+                if (record.countryCode() == fr) {
+                    french.add(record.id());
+                }
+            });
+            assertEquals(5_000, french.size());
+        }
+    }
+
+    /**
+     * Test case for a store reopened from its files, which keeps its users, dictionaries and next ID.
+     */
+    @Test
+    void testSnapshotAndReopen(@TempDir Path directory) throws IOException {
+        try (OffHeapUserStore store = new OffHeapUserStore(directory, 16, 1024)) {
+            for (int i = 0; i < 100; i++) {
+                store.put(new User("user" + i, LocalDate.of(1990, 1, 1).plusDays(i), "FR", null, "female"));
+            }
+        }
+        try (OffHeapUserStore store = new OffHeapUserStore(directory, 16, 1024)) {
+            assertEquals(100, store.size());
+            assertEquals("user42", store.get(43L).getUsername());
+            assertEquals("F", store.get(43L).getGender());
+            assertTrue(store.containsUsername("user99"));
+            assertFalse(store.put(new User("user0", null, null, null, null)));
+            User added = new User("user100", null, "FR", null, null);
+            assertTrue(store.put(added));
+            assertEquals(101L, added.getId());
+        }
+    }
+}
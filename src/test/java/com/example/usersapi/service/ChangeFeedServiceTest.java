@@ -0,0 +1,100 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.ChangeFeedProperties;
+import com.example.usersapi.event.UsersRegisteredEvent;
+import com.example.usersapi.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for ChangeFeedService class.
+ */
+public class ChangeFeedServiceTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test case for registrations published while the writer is not running, which are dropped without waiting.
+     */
+    @Test
+    void testChangesAreDroppedWhenNotRunning() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ChangeFeedService changeFeedService = newChangeFeedService(mock(JdbcTemplate.class), meterRegistry);
+
+        changeFeedService.onUsersRegistered(registered(1L));
+
+        assertTrue(changeFeedService.isLagging());
+        assertEquals(1, meterRegistry.get("usersapi.change-feed.dropped").counter().count());
+        assertEquals(0, changeFeedService.getEndOffset());
+        changeFeedService.stop();
+    }
+
+    /**
+     * Test case for registrations committed but missing from the log, which are appended from the user table on
+     * the next start, while the users registered before the feed was enabled are not.
+     */
+    @Test
+    void testMissingRegistrationsAreAppendedOnStart() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:changefeedservicetest;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("create table _user (id bigint primary key, username varchar(255), birthdate date, "
+                + "country_of_residence varchar(255), phone_number varchar(255), gender varchar(255))");
+        insertUsers(jdbcTemplate, 1, 2);
+
+        ChangeFeedService first = newChangeFeedService(jdbcTemplate, new SimpleMeterRegistry());
+        first.start();
+        assertEquals(0, first.getEndOffset());
+        insertUsers(jdbcTemplate, 3, 3);
+        first.onUsersRegistered(registered(3L));
+        for (int i = 0; i < 100 && first.getEndOffset() == 0; i++) {
+            Thread.sleep(20);
+        }
+        // Committed, but lost with the queue by a crash
+        insertUsers(jdbcTemplate, 4, 5);
+        first.stop();
+
+        ChangeFeedService second = newChangeFeedService(jdbcTemplate, new SimpleMeterRegistry());
+        second.start();
+        String[] changes = StandardCharsets.UTF_8.decode(second.getChanges(0).readAll()).toString().split("\n");
+        second.stop();
+
+        assertEquals(3, changes.length);
+        assertTrue(changes[0].contains("\"username\":\"user3\""));
+        assertTrue(changes[1].contains("\"username\":\"user4\""));
+        assertTrue(changes[2].contains("\"username\":\"user5\""));
+    }
+
+    private ChangeFeedService newChangeFeedService(JdbcTemplate jdbcTemplate, SimpleMeterRegistry meterRegistry)
+            throws IOException {
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setDirectory(directory);
+        return new ChangeFeedService(new ObjectMapper(), jdbcTemplate, properties, meterRegistry);
+    }
+
+    private static void insertUsers(JdbcTemplate jdbcTemplate, long fromId, long toId) {
+        for (long id = fromId; id <= toId; id++) {
+            jdbcTemplate.update("insert into _user (id, username, birthdate, country_of_residence) values (?, ?, ?, ?)",
+                    id, "user" + id, LocalDate.of(1990, 1, 1), "FR");
+        }
+    }
+
+    private static UsersRegisteredEvent registered(long id) {
+        User user = new User("user" + id, LocalDate.of(1990, 1, 1), "FR", null, null);
+        user.setId(id);
+        return new UsersRegisteredEvent(Collections.singletonList(user));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.usersapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChangeLog class.
+ */
+public class ChangeLogTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test case for records read back from an offset, with the transfer of a slice to a channel.
+     */
+    @Test
+    void testAppendAndSlice() throws IOException {
+        try (ChangeLog log = new ChangeLog(directory, 1024, 4, false)) {
+            assertEquals(8, log.append(records("one", "two")));
+            assertEquals(14, log.append(records("three")));
+
+            ChangeLog.Slice all = log.slice(0);
+            assertEquals("one\ntwo\nthree\n", read(all));
+            assertEquals(14, all.getEndOffset());
+            assertEquals("two\nthree\n", read(log.slice(4)));
+            assertEquals(0, log.slice(14).getLength());
+            assertEquals("one\n", read(log.slice(0, 5)));
+            assertEquals("three\n", read(log.slice(8, 1)));
+
+            assertThrows(IllegalArgumentException.class, () -> log.slice(2));
+            assertThrows(IllegalArgumentException.class, () -> log.slice(15));
+        }
+    }
+
+    /**
+     * Test case for full segments, which are rolled, and old segments, which are deleted beyond the retained count.
+     */
+    @Test
+    void testSegmentRollAndRetention() throws IOException {
+        try (ChangeLog log = new ChangeLog(directory, 8, 2, false)) {
+            log.append(records("aaaa", "bbbb"));
+            log.append(records("cccc", "dddd"));
+            log.append(records("eeee"));
+            assertEquals(25, log.getEndOffset());
+            assertEquals(10, log.getStartOffset());
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(2, files.count());
+            }
+
+            ChangeLog.Slice oldest = log.slice(0);
+            assertEquals(10, oldest.getStartOffset());
+            assertEquals("cccc\ndddd\n", read(oldest));
+            assertEquals("eeee\n", read(log.slice(oldest.getEndOffset())));
+        }
+    }
+
+    /**
+     * Test case for a log reopened after a crash in the middle of an append, whose torn record is cut off.
+     */
+    @Test
+    void testReopenCutsTornRecord() throws IOException {
+        try (ChangeLog log = new ChangeLog(directory, 1024, 4, false)) {
+            log.append(records("one", "two"));
+        }
+        Path segment = directory.resolve(String.format("%020d.log", 0));
+        Files.write(segment, "thr".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (ChangeLog log = new ChangeLog(directory, 1024, 4, false)) {
+            assertEquals(8, log.getEndOffset());
+            log.append(records("three"));
+            assertEquals("one\ntwo\nthree\n", read(log.slice(0)));
+        }
+    }
+
+    /**
+     * Test case for the latest records read back from an offset, within a maximum size and a single segment.
+     */
+    @Test
+    void testSliceBefore() throws IOException {
+        try (ChangeLog log = new ChangeLog(directory, 8, 4, false)) {
+            assertEquals(0, log.sliceBefore(0, 16).getLength());
+            log.append(records("aaaa", "bbbb"));
+            log.append(records("cccc", "dd"));
+
+            assertEquals("cccc\ndd\n", read(log.sliceBefore(18, 16)));
+            assertEquals("dd\n", read(log.sliceBefore(18, 5)));
+            assertEquals("cccc\ndd\n", read(log.sliceBefore(18, 8)));
+            assertEquals(0, log.sliceBefore(18, 2).getLength());
+            assertEquals("bbbb\n", read(log.sliceBefore(10, 7)));
+
+            assertThrows(IllegalArgumentException.class, () -> log.sliceBefore(19, 16));
+        }
+    }
+
+    /**
+     * Test case for a segment size that a segment could not be read with.
+     */
+    @Test
+    void testSegmentSizeLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ChangeLog(directory, ChangeLog.MAX_SEGMENT_SIZE + 1, 4, false));
+    }
+
+    private static List<ByteBuffer> records(String... records) {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        for (String record : records) {
+            buffers.add(ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.UTF_8)));
+        }
+        return buffers;
+    }
+
+    private static String read(ChangeLog.Slice slice) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        slice.transferTo(Channels.newChannel(out));
+        assertEquals(StandardCharsets.UTF_8.decode(slice.readAll()).toString(), out.toString(StandardCharsets.UTF_8));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.EligibilityProperties;
+import com.example.usersapi.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the EligibilityPolicy class.
+ */
+public class EligibilityPolicyTest {
+
+    private static final ZoneId PARIS = ZoneId.of("Europe/Paris");
+
+    private final MutableClock clock = new MutableClock(LocalDate.of(2026, 3, 1).atStartOfDay(PARIS).toInstant(), PARIS);
+
+    private final EligibilityPolicy policy = new EligibilityPolicy(clock, new EligibilityProperties());
+
+    /**
+     * Test that a French adult is eligible.
+     */
+    @Test
+    void isEligibleTest() {
+        assertThat(policy.isEligible(new User("test", LocalDate.of(1990, 1, 1), "France", null, null))).isTrue();
+        assertThat(policy.isEligible(new User("test", LocalDate.of(1990, 1, 1), "france", null, null))).isTrue();
+    }
+
+    /**
+     * Test that a minor is not eligible.
+     */
+    @Test
+    void isNotAdultTest() {
+        assertThat(policy.isEligible(new User("test", LocalDate.of(2010, 1, 1), "France", null, null))).isFalse();
+        assertThat(policy.isOldEnough(null)).isFalse();
+    }
+
+    /**
+     * Test that a user living outside of the allowed countries is not eligible.
+     */
+    @Test
+    void isNotFrenchTest() {
+        assertThat(policy.isEligible(new User("test", LocalDate.of(1990, 1, 1), "Belgium", null, null))).isFalse();
+        assertThat(policy.isEligible(new User("test", LocalDate.of(1990, 1, 1), null, null, null))).isFalse();
+    }
+
+    /**
+     * Test that the minimum age is reached on the birthday, including for users born on February 29th,
+     * and that the cutoff moves at midnight.
+     */
+    @Test
+    void isOldEnoughOnBirthdayTest() {
+        clock.set(LocalDate.of(2026, 2, 28).atStartOfDay(PARIS).toInstant());
+        EligibilityPolicy policy = new EligibilityPolicy(clock, new EligibilityProperties());
+        assertThat(policy.isOldEnough(LocalDate.of(2008, 2, 28))).isTrue();
+        assertThat(policy.isOldEnough(LocalDate.of(2008, 2, 29))).isFalse();
+
+        clock.set(LocalDate.of(2026, 3, 1).atStartOfDay(PARIS).toInstant().minusMillis(1));
+        assertThat(policy.isOldEnough(LocalDate.of(2008, 3, 1))).isFalse();
+        clock.set(LocalDate.of(2026, 3, 1).atStartOfDay(PARIS).toInstant());
+        assertThat(policy.isOldEnough(LocalDate.of(2008, 2, 29))).isTrue();
+        assertThat(policy.isOldEnough(LocalDate.of(2008, 3, 1))).isTrue();
+    }
+
+    /**
+     * Test that the rule can be configured for another market.
+     */
+    @Test
+    void configuredMarketTest() {
+        EligibilityProperties properties = new EligibilityProperties();
+        properties.setMinAge(21);
+        properties.setAllowedCountries(Arrays.asList("Belgium", "LU"));
+        EligibilityPolicy belgianPolicy = new EligibilityPolicy(clock, properties);
+
+        assertThat(belgianPolicy.isEligible(new User("test", LocalDate.of(2006, 1, 1), "BE", null, null))).isFalse();
+        assertThat(belgianPolicy.isEligible(new User("test", LocalDate.of(2004, 1, 1), "belgique", null, null))).isTrue();
+        assertThat(belgianPolicy.isEligible(new User("test", LocalDate.of(2004, 1, 1), "Luxembourg", null, null))).isTrue();
+        assertThat(belgianPolicy.isEligible(new User("test", LocalDate.of(2004, 1, 1), "France", null, null))).isFalse();
+    }
+
+    /**
+     * Test that checking a user does not allocate once the cutoff of the day is computed.
+     */
+    @Test
+    void isEligibleDoesNotAllocateTest() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        User adult = new User("test", LocalDate.of(1990, 1, 1), "France", null, null);
+        User minor = new User("test", LocalDate.of(2010, 1, 1), "France", null, null);
+        boolean eligible = true;
+        // Warm up with the measured loop itself, so that it is compiled before it is measured
+        for (int i = 0; i < 20; i++) {
+            eligible &= checkAll(adult, minor, 10_000);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        eligible &= checkAll(adult, minor, 100_000);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(eligible).isTrue();
+        assertThat(allocated).isLessThan(4096);
+    }
+
+    private boolean checkAll(User adult, User minor, int count) {
+        boolean eligible = true;
+        for (int i = 0; i < count; i++) {
+            eligible &= policy.isEligible(adult) && !policy.isEligible(minor);
+        }
+        return eligible;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private final ZoneId zone;
+
+        private volatile Instant instant;
+
+        private MutableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public long millis() {
+            return instant.toEpochMilli();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.SegmentCountersProperties;
+import com.example.usersapi.event.UsersRegisteredEvent;
+import com.example.usersapi.model.SegmentCount;
+import com.example.usersapi.model.SegmentCountSnapshot;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for SegmentCounters class.
+ */
+public class SegmentCountersTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final SegmentCountersProperties properties = new SegmentCountersProperties();
+
+    private final Set<Long> snapshotIds = new HashSet<>();
+
+    private SegmentCounters segmentCounters;
+
+    @BeforeEach
+    public void setUp() {
+        properties.setEnabled(true);
+        segmentCounters = new SegmentCounters(userRepository, transactionManager, properties,
+                new SimpleMeterRegistry());
+        when(userRepository.countAllSegments()).thenReturn(new SegmentCountSnapshot(Arrays.asList(
+                new SegmentCount("FR", null, 2),
+                new SegmentCount("FR", "M", 5),
+                new SegmentCount("IT", "F", 1))));
+        when(userRepository.findCountedIds(any(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(1);
+            return ids.stream().filter(snapshotIds::contains).collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Test case for counters loaded at startup and incremented on registration, including new segments.
+     */
+    @Test
+    void testCountsLoadedThenIncremented() {
+        assertFalse(segmentCounters.isActive());
+        segmentCounters.onApplicationReady();
+        assertTrue(segmentCounters.isActive());
+
+        segmentCounters.onUsersRegistered(new UsersRegisteredEvent(Arrays.asList(
+                new User("a", LocalDate.of(1990, 1, 1), "France", null, "male"),
+                new User("b", LocalDate.of(1990, 1, 1), "France", null, "female"),
+                new User("c", LocalDate.of(1990, 1, 1), "France", null, null))));
+
+        assertEquals(Arrays.asList("FR/null=3", "FR/F=1", "FR/M=6", "IT/F=1"),
+                describe(segmentCounters.getSegments(null, null)));
+        assertEquals(Arrays.asList("FR/F=1", "IT/F=1"), describe(segmentCounters.getSegments(null, "F")));
+        assertEquals(Arrays.asList("FR/M=6"), describe(segmentCounters.getSegments("FR", "M")));
+        assertTrue(segmentCounters.getSegments("DE", "M").isEmpty());
+        assertEquals(4, segmentCounters.segmentCount());
+    }
+
+    /**
+     * Test case for users registered while the counters are reloaded: only those the reload did not count are added.
+     */
+    @Test
+    void testRegistrationsDuringRebuildAreCountedOnce() {
+        segmentCounters.onApplicationReady();
+        when(userRepository.countAllSegments()).thenAnswer(invocation -> {
+            segmentCounters.onUsersRegistered(new UsersRegisteredEvent(Arrays.asList(
+                    registered(9, "male"), registered(10, "male"))));
+            snapshotIds.add(9L);
+            return new SegmentCountSnapshot(Arrays.asList(
+                    new SegmentCount("FR", null, 2),
+                    new SegmentCount("FR", "M", 6),
+                    new SegmentCount("IT", "F", 1)));
+        });
+
+        segmentCounters.rebuild();
+        assertEquals(Arrays.asList("FR/null=2", "FR/M=7", "IT/F=1"), describe(segmentCounters.getSegments(null, null)));
+
+        segmentCounters.onUsersRegistered(new UsersRegisteredEvent(Arrays.asList(registered(11, "male"))));
+        assertEquals(Arrays.asList("FR/M=8"), describe(segmentCounters.getSegments("FR", "M")));
+    }
+
+    /**
+     * Test case for a user committed during a reload after a user with a higher ID that the reload counted: IDs
+     * are allocated in blocks, so the lower ID must still be counted, and the higher one only once.
+     */
+    @Test
+    void testLowerIdCommittedAfterHigherIdDuringRebuild() {
+        segmentCounters.onApplicationReady();
+        when(userRepository.countAllSegments()).thenAnswer(invocation -> {
+            // User 62 commits before the snapshot is read, but its event only reaches the counters afterwards.
+            snapshotIds.add(62L);
+            SegmentCountSnapshot snapshot = new SegmentCountSnapshot(Arrays.asList(
+                    new SegmentCount("FR", null, 2),
+                    new SegmentCount("FR", "M", 6),
+                    new SegmentCount("IT", "F", 1)));
+            segmentCounters.onUsersRegistered(new UsersRegisteredEvent(Arrays.asList(registered(62, "male"))));
+            segmentCounters.onUsersRegistered(new UsersRegisteredEvent(Arrays.asList(registered(11, "male"))));
+            return snapshot;
+        });
+
+        segmentCounters.rebuild();
+        assertEquals(Arrays.asList("FR/M=7"), describe(segmentCounters.getSegments("FR", "M")));
+    }
+
+    /**
+     * Test case for disabled counters, which are never loaded.
+     */
+    @Test
+    void testDisabledCountersAreNotLoaded() {
+        properties.setEnabled(false);
+        segmentCounters.onApplicationReady();
+        segmentCounters.onUsersRegistered(new UsersRegisteredEvent(Arrays.asList(
+                new User("a", LocalDate.of(1990, 1, 1), "France", null, "male"))));
+
+        assertFalse(segmentCounters.isActive());
+        assertThrows(IllegalStateException.class, () -> segmentCounters.getSegments(null, null));
+    }
+
+    private static User registered(long id, String gender) {
+        User user = new User("user" + id, LocalDate.of(1990, 1, 1), "France", null, gender);
+        user.setId(id);
+        return user;
+    }
+
+    private static List<String> describe(List<SegmentCount> segments) {
+        return segments.stream()
+                .map(segment -> segment.getCountry() + "/" + segment.getGender() + "=" + segment.getCount())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for StartupWarmup class, running against the embedded H2 database.
+ */
+@SpringBootTest(properties = {"usersapi.warmup.enabled=true", "usersapi.warmup.iterations=250",
+        "spring.datasource.url=jdbc:h2:mem:warmuptest"})
+public class StartupWarmupTest {
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    /**
+     * Test case for the warm-up run at startup, which must leave neither users nor cache entries behind.
+     */
+    @Test
+    void testWarmupLeavesNoUsers() {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+        assertTrue(userRepository.findAll().stream().noneMatch(user -> user.getUsername().startsWith("warmup-")));
+
+        User registered = userService.registerUser(new User("warm1", LocalDate.of(1990, 1, 1), "France", null, null));
+        userService.evictUser(registered.getId());
+        for (long id = 1; id < registered.getId(); id++) {
+            assertNull(cacheManager.getCache(UserService.USERS_CACHE).get(id));
+        }
+    }
+
+    /**
+     * Test case for loading the indexes, which reads every user once per index.
+     */
+    @Test
+    void testLoadIndexesReadsEveryIndex() {
+        long before = userRepository.count();
+        userService.registerUser(new User("warm2", LocalDate.of(1990, 1, 1), "France", null, null));
+        assertEquals(5 * (before + 1), startupWarmup.loadIndexes());
+    }
+}
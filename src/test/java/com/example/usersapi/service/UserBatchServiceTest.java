@@ -0,0 +1,104 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.model.BatchRegistrationResult;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Integration tests for UserBatchService class, running against the embedded H2 database.
+ */
+@SpringBootTest(properties = {"usersapi.batch.chunk-size=2", "spring.datasource.url=jdbc:h2:mem:batchtest"})
+public class UserBatchServiceTest {
+
+    @Autowired
+    private UserBatchService userBatchService;
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    @SpyBean
+    private UsernameFilter usernameFilter;
+
+    /**
+     * Test case for a bulk registration mixing created, duplicate and rejected users across several chunks.
+     */
+    @Test
+    void testRegisterUsersReportsResultPerItem() {
+        userRepository.save(new User("batch-existing", LocalDate.of(1990, 1, 1), "France", null, null));
+
+        List<User> users = Arrays.asList(
+                new User("batch-a", LocalDate.of(1990, 1, 1), "France", null, null),
+                new User("batch-existing", LocalDate.of(1990, 1, 1), "France", null, null),
+                new User("batch-minor", LocalDate.of(2015, 1, 1), "France", null, null),
+                new User("batch-a", LocalDate.of(1990, 1, 1), "France", null, null),
+                new User("", LocalDate.of(1990, 1, 1), "France", null, null));
+
+        List<BatchRegistrationResult> results = userBatchService.registerUsers(users.iterator());
+
+        assertEquals(5, results.size());
+        assertEquals(BatchRegistrationResult.Status.CREATED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getId());
+        assertEquals(BatchRegistrationResult.Status.DUPLICATE, results.get(1).getStatus());
+        assertEquals(BatchRegistrationResult.Status.REJECTED, results.get(2).getStatus());
+        assertEquals(BatchRegistrationResult.Status.DUPLICATE, results.get(3).getStatus());
+        assertEquals(BatchRegistrationResult.Status.REJECTED, results.get(4).getStatus());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertTrue(userRepository.existsByUsername("batch-a"));
+    }
+
+    /**
+     * Test case for a username taken after the duplicate check: the rolled-back chunk is registered one user at a
+     * time, without looking up the IDs its flush assigned.
+     */
+    @Test
+    void testRolledBackChunkIsRegisteredOneByOne() {
+        userRepository.save(new User("batch-taken", LocalDate.of(1990, 1, 1), "France", null, null));
+        doReturn(false).when(usernameFilter).mightExist(anyString());
+
+        List<BatchRegistrationResult> results = userBatchService.registerUsers(Arrays.asList(
+                new User("batch-fresh", LocalDate.of(1990, 1, 1), "France", null, null),
+                new User("batch-taken", LocalDate.of(1990, 1, 1), "France", null, null)).iterator());
+
+        assertEquals(BatchRegistrationResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BatchRegistrationResult.Status.DUPLICATE, results.get(1).getStatus());
+        assertTrue(userRepository.existsByUsername("batch-fresh"));
+        verify(userRepository, never()).findById(any());
+    }
+
+    /**
+     * Test case for a bulk registration larger than one chunk.
+     */
+    @Test
+    void testRegisterUsersInsertsEveryChunk() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            users.add(new User("batch-chunk-" + i, LocalDate.of(1990, 1, 1), "France", null, null));
+        }
+
+        List<BatchRegistrationResult> results = userBatchService.registerUsers(users.iterator());
+
+        assertEquals(7, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == BatchRegistrationResult.Status.CREATED));
+        assertEquals(7, userRepository.findExistingUsernames(Arrays.asList(
+                "batch-chunk-0", "batch-chunk-1", "batch-chunk-2", "batch-chunk-3",
+                "batch-chunk-4", "batch-chunk-5", "batch-chunk-6")).size());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for UserExportService class, running against the embedded H2 database.
+ */
+@SpringBootTest
+public class UserExportServiceTest {
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Test case for exporting the user table as one JSON object per line, ordered by ID.
+     */
+    @Test
+    void testExportWritesOneLinePerUser() throws Exception {
+        User user = userService.registerUser(new User("exported1", LocalDate.of(1990, 1, 1), "France", "0612345678", "female"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = userExportService.exportTo(out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(userRepository.count(), count);
+        assertEquals(count, lines.length);
+
+        List<Long> ids = new ArrayList<>();
+        JsonNode exported = null;
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            ids.add(node.get("id").asLong());
+            if (node.get("id").asLong() == user.getId()) {
+                exported = node;
+            }
+        }
+        assertNotNull(exported);
+        assertEquals("exported1", exported.get("username").asText());
+        assertEquals("1990-01-01", exported.get("birthdate").asText());
+        assertEquals("+33612345678", exported.get("phoneNumber").asText());
+        List<Long> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(sorted, ids);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.usersapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for UserNormalizationService class, re-normalizing rows written to the embedded H2 database
+ * without going through the User class.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:normalizationtest",
+        "usersapi.normalization.chunk-size=4", "usersapi.normalization.parallelism=2"})
+public class UserNormalizationServiceTest {
+
+    private static final String INSERT_USER = "insert into _user (id, username, birthdate, country_of_residence, "
+            + "phone_number, gender, version) values (?, ?, date '1990-01-01', ?, ?, ?, 0)";
+
+    @Autowired
+    private UserNormalizationService normalizationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Test case for a job spanning several chunks, which updates the changed rows only and counts invalid ones.
+     */
+    @Test
+    void testNormalizeStoredUsers() throws InterruptedException {
+        for (int i = 1; i <= 10; i++) {
+            jdbcTemplate.update(INSERT_USER, i, "normalized" + i, "FR", "+3361234567" + (i - 1), "F");
+        }
+        jdbcTemplate.update(INSERT_USER, 11, "legacy1", "france", "06 12 34 56 78", "female");
+        jdbcTemplate.update(INSERT_USER, 15, "legacy2", "Italie", "+39 06 1234 5678", "homme");
+        jdbcTemplate.update(INSERT_USER, 20, "legacy3", "France", " not a number ", "robot");
+
+        assertTrue(normalizationService.start());
+        for (int i = 0; i < 100 && normalizationService.getState() == UserNormalizationService.State.RUNNING; i++) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(UserNormalizationService.State.COMPLETED, normalizationService.getState());
+        assertEquals(13, normalizationService.getTotalUsers());
+        assertEquals(13, normalizationService.getScannedUsers());
+        assertEquals(3, normalizationService.getUpdatedUsers());
+        assertEquals(1, normalizationService.getInvalidUsers());
+        assertEquals(1.0, normalizationService.getProgress());
+        assertNotNull(normalizationService.getFinishedAt());
+
+        assertRow(1, "FR", "+33612345670", "F", 0);
+        assertRow(11, "FR", "+33612345678", "F", 1);
+        assertRow(15, "IT", "+390612345678", "M", 1);
+        assertRow(20, "FR", "not a number", "robot", 1);
+    }
+
+    private void assertRow(long id, String country, String phoneNumber, String gender, long version) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select country_of_residence, phone_number, gender, version from _user where id = ?", id);
+        assertEquals(country, row.get("country_of_residence"));
+        assertEquals(phoneNumber, row.get("phone_number"));
+        assertEquals(gender, row.get("gender"));
+        assertEquals(version, ((Number) row.get("version")).longValue());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.exception.InvalidSegmentException;
+import com.example.usersapi.model.SegmentCount;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserSearchCriteria;
+import com.example.usersapi.model.UserSegments;
+import com.example.usersapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for UserSegmentService class, running against the embedded H2 database.
+ */
+@SpringBootTest
+public class UserSegmentServiceIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserSegmentService userSegmentService;
+
+    @Autowired
+    private SegmentCounters segmentCounters;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Test case for segment counts answered by the counters without age bounds and by the database with them.
+     */
+    @Test
+    void testGetSegments() {
+        LocalDate today = LocalDate.now();
+        userService.registerUser(new User("segment1", today.minusYears(40), "France", null, "other"));
+        userService.registerUser(new User("segment2", today.minusYears(25), "France", null, "other"));
+        userService.registerUser(new User("segment3", today.minusYears(30).plusDays(1), "France", null, "other"));
+        assertTrue(segmentCounters.isActive());
+
+        UserSegments all = userSegmentService.getSegments("France", "X", null, null);
+        assertEquals(3, all.getTotal());
+        assertEquals(1, all.getSegments().size());
+        assertEquals("FR", all.getSegments().get(0).getCountry());
+        List<SegmentCount> queried = userRepository.countSegments(new UserSearchCriteria("FR", "X", null, null));
+        assertEquals(3, queried.get(0).getCount());
+
+        assertEquals(1, userSegmentService.getSegments("FR", "X", 30, null).getTotal());
+        assertEquals(2, userSegmentService.getSegments("FR", "X", null, 29).getTotal());
+        assertEquals(2, userSegmentService.getSegments(null, "X", 25, 29).getTotal());
+        assertEquals(1, userSegmentService.getSegments(null, "X", 26, 29).getTotal());
+        assertTrue(userSegmentService.getSegments(null, "X", 50, null).getSegments().isEmpty());
+    }
+
+    /**
+     * Test case for negative ages and empty age ranges.
+     */
+    @Test
+    void testGetSegmentsWithInvalidAges() {
+        assertThrows(InvalidSegmentException.class, () -> userSegmentService.getSegments(null, null, -1, null));
+        assertThrows(InvalidSegmentException.class, () -> userSegmentService.getSegments(null, null, 30, 20));
+    }
+}
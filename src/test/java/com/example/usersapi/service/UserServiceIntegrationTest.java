@@ -0,0 +1,156 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.exception.DuplicateUsernameException;
+import com.example.usersapi.exception.InvalidCursorException;
+import com.example.usersapi.exception.InvalidLookupException;
+import com.example.usersapi.exception.ResourceNotFoundException;
+import com.example.usersapi.model.User;
+import com.example.usersapi.model.UserLookupResult;
+import com.example.usersapi.model.UserPage;
+import com.example.usersapi.model.UserResponse;
+import com.example.usersapi.model.UserSearchCriteria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for UserService class, running against the embedded H2 database.
+ */
+@SpringBootTest
+public class UserServiceIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    /**
+     * Test case for registering the same username twice, relying on the unique constraint.
+     */
+    @Test
+    void testRegisterUserWithDuplicateUsername() {
+        User first = userService.registerUser(new User("unique1", LocalDate.of(1990, 1, 1), "France", null, null));
+        assertNotNull(first.getId());
+
+        assertThrows(DuplicateUsernameException.class, () -> {
+            userService.registerUser(new User("unique1", LocalDate.of(1985, 6, 1), "France", null, null));
+        });
+    }
+
+    /**
+     * Test case for the read-through cache: registration fills it and eviction empties it.
+     */
+    @Test
+    void testGetUserByIdIsCached() {
+        User registered = userService.registerUser(new User("cached1", LocalDate.of(1990, 1, 1), "France", null, null));
+        assertNotNull(cacheManager.getCache(UserService.USERS_CACHE).get(registered.getId()));
+
+        assertSame(registered, userService.getUserById(registered.getId()));
+
+        userService.evictUser(registered.getId());
+        assertNull(cacheManager.getCache(UserService.USERS_CACHE).get(registered.getId()));
+
+        User reloaded = userService.getUserById(registered.getId());
+        assertNotSame(registered, reloaded);
+        assertSame(reloaded, userService.getUserById(registered.getId()));
+    }
+
+    /**
+     * Test case for a lookup of several users, partly cached, with duplicate and unknown IDs.
+     */
+    @Test
+    void testGetUsersByIds() {
+        Long first = userService.registerUser(new User("lookup1", LocalDate.of(1990, 1, 1), "France", null, null)).getId();
+        Long second = userService.registerUser(new User("lookup2", LocalDate.of(1990, 1, 1), "France", null, null)).getId();
+        userService.evictUser(second);
+
+        UserLookupResult result = userService.getUsersByIds(Arrays.asList(second, -1L, first, second));
+        assertEquals(Arrays.asList(second, first),
+                result.getUsers().stream().map(UserResponse::getId).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList(-1L), result.getMissingIds());
+        assertNotNull(cacheManager.getCache(UserService.USERS_CACHE).get(second));
+
+        List<Long> tooMany = LongStream.rangeClosed(1, UserService.MAX_LOOKUP_SIZE + 1).boxed().collect(Collectors.toList());
+        assertThrows(InvalidLookupException.class, () -> userService.getUsersByIds(tooMany));
+        assertThrows(InvalidLookupException.class, () -> userService.getUsersByIds(Arrays.asList(first, null)));
+    }
+
+    /**
+     * Test case for the version of a user, read from the cache or from its column alone.
+     */
+    @Test
+    void testGetUserVersion() {
+        User registered = userService.registerUser(new User("versioned1", LocalDate.of(1990, 1, 1), "France", null, null));
+        assertEquals(0L, registered.getVersion());
+        assertEquals(0L, userService.getUserVersion(registered.getId()));
+
+        userService.evictUser(registered.getId());
+        assertEquals(0L, userService.getUserVersion(registered.getId()));
+        assertNull(cacheManager.getCache(UserService.USERS_CACHE).get(registered.getId()));
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserVersion(-1L));
+    }
+
+    /**
+     * Test case for the username filter: registered usernames are reported as possibly existing, and only those are
+     * probed in the database.
+     */
+    @Test
+    void testRegisteredUsernameIsAddedToFilter() {
+        assertTrue(usernameFilter.isActive());
+        assertFalse(usernameFilter.mightExist("filtered1"));
+        assertFalse(usernameFilter.needsProbe("filtered1"));
+
+        userService.registerUser(new User("filtered1", LocalDate.of(1990, 1, 1), "France", null, null));
+        assertTrue(usernameFilter.mightExist("filtered1"));
+        assertTrue(usernameFilter.needsProbe("filtered1"));
+
+        assertTrue(usernameFilter.rebuild());
+        assertTrue(usernameFilter.mightExist("filtered1"));
+    }
+
+    /**
+     * Test case for listing users page by page with a filter.
+     */
+    @Test
+    void testFindUsersPagesThroughMatchingUsers() {
+        for (int i = 0; i < 5; i++) {
+            userService.registerUser(new User("paged" + i, LocalDate.of(1990, 1, 1 + i), "France", null, "male"));
+        }
+        UserSearchCriteria criteria = new UserSearchCriteria("France", "M", LocalDate.of(1990, 1, 2), null);
+
+        UserPage first = userService.findUsers(criteria, null, 2);
+        assertEquals(2, first.getUsers().size());
+        assertEquals("paged1", first.getUsers().get(0).getUsername());
+        assertNotNull(first.getNextCursor());
+
+        UserPage second = userService.findUsers(criteria, first.getNextCursor(), 2);
+        assertEquals(2, second.getUsers().size());
+        assertEquals("paged3", second.getUsers().get(0).getUsername());
+        assertNull(second.getNextCursor());
+    }
+
+    /**
+     * Test case for listing users with a malformed cursor.
+     */
+    @Test
+    void testFindUsersWithInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> {
+            userService.findUsers(new UserSearchCriteria(null, null, null, null), "not a cursor", 10);
+        });
+    }
+}
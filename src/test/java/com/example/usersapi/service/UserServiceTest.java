@@ -1,19 +1,36 @@
 package com.example.usersapi.service;
 
+import com.example.usersapi.config.EligibilityProperties;
+import com.example.usersapi.event.UsersRegisteredEvent;
 import com.example.usersapi.exception.DuplicateUsernameException;
 import com.example.usersapi.exception.InvalidUserException;
 import com.example.usersapi.model.User;
 import com.example.usersapi.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 /**
@@ -24,6 +41,21 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UsernameFilter usernameFilter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private EligibilityPolicy eligibilityPolicy = new EligibilityPolicy(Clock.systemDefaultZone(), new EligibilityProperties());
+
     @InjectMocks
     private UserService userService;
 
@@ -40,11 +72,41 @@ public class UserServiceTest {
         // Create a user with a duplicate username
         User user = new User("test1", LocalDate.of(1990, 1, 1), "France", null, null);
 
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null, "PUBLIC.UK_USER_USERNAME_INDEX_5")));
+        assertThrows(DuplicateUsernameException.class, () -> {
+            userService.registerUser(user);
+        });
+        verify(userRepository, never()).existsByUsername(user.getUsername());
+    }
+
+    /**
+     * Test case for registering a user whose username the filter reports as possibly taken.
+     */
+    @Test
+    void testRegisterUserWithUsernameReportedByFilter() {
+        User user = new User("test6", LocalDate.of(1990, 1, 1), "France", null, null);
+
+        when(usernameFilter.needsProbe(user.getUsername())).thenReturn(true);
         when(userRepository.existsByUsername(user.getUsername())).thenReturn(true);
         assertThrows(DuplicateUsernameException.class, () -> {
             userService.registerUser(user);
         });
-        verify(userRepository, never()).save(user);
+        verify(userRepository, never()).saveAndFlush(user);
+    }
+
+    /**
+     * Test case for registering a user when another integrity constraint is violated.
+     */
+    @Test
+    void testRegisterUserWithOtherIntegrityViolation() {
+        User user = new User("test5", LocalDate.of(1990, 1, 1), "France", null, null);
+
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException("other",
+                new ConstraintViolationException("other", null, "PUBLIC.CONSTRAINT_9")));
+        assertThrows(DataIntegrityViolationException.class, () -> {
+            userService.registerUser(user);
+        });
     }
 
     /**
@@ -58,7 +120,7 @@ public class UserServiceTest {
         assertThrows(InvalidUserException.class, () -> {
             userService.registerUser(user);
         });
-        verify(userRepository, never()).save(user);
+        verify(userRepository, never()).saveAndFlush(user);
     }
 
     /**
@@ -69,14 +131,14 @@ public class UserServiceTest {
         // Create a user who is an adult and French
         User user = new User("test3", LocalDate.of(1990, 1, 1), "France", null, null);
 
-        when(userRepository.existsByUsername(user.getUsername())).thenReturn(false);
-        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
 
         User registeredUser = userService.registerUser(user);
         assertEquals(user, registeredUser);
 
-        verify(userRepository, times(1)).existsByUsername(user.getUsername());
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, never()).existsByUsername(user.getUsername());
+        verify(userRepository, times(1)).saveAndFlush(user);
+        verify(eventPublisher, times(1)).publishEvent(any(UsersRegisteredEvent.class));
 
     }
 
@@ -91,4 +153,36 @@ public class UserServiceTest {
         User retrievedUser = userService.getUserById(user.getId());
         assertEquals(user, retrievedUser);
     }
+
+    /**
+     * Test case for concurrent lookups of the same user, which share one database read.
+     */
+    @Test
+    void testConcurrentGetUserByIdShareOneRead() throws Exception {
+        User user = new User("test7", LocalDate.of(1990, 1, 1), "France", null, null);
+        user.setId(7L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findById(user.getId())).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(user);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<User> first = executor.submit(() -> userService.getUserById(user.getId()));
+            Future<User> second = executor.submit(() -> userService.getUserById(user.getId()));
+            FunctionCounter coalesced = meterRegistry.get(UserService.SINGLE_FLIGHT_METRIC)
+                    .tags("operation", "users.findById", "result", "coalesced").functionCounter();
+            for (int i = 0; i < 100 && coalesced.count() == 0; i++) {
+                Thread.sleep(20);
+            }
+            release.countDown();
+
+            assertSame(user, first.get(5, TimeUnit.SECONDS));
+            assertSame(user, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, coalesced.count());
+            verify(userRepository, times(1)).findById(user.getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.config.UsernameFilterProperties;
+import com.example.usersapi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Unit tests for UsernameFilter class.
+ */
+public class UsernameFilterTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    /**
+     * Test case for a disabled filter: it is never built, and registrations do not probe the database.
+     */
+    @Test
+    void testDisabledFilterIsNotRebuilt() {
+        UsernameFilterProperties properties = new UsernameFilterProperties();
+        properties.setEnabled(false);
+        UsernameFilter usernameFilter = new UsernameFilter(userRepository, transactionManager, properties,
+                new SimpleMeterRegistry());
+
+        assertFalse(usernameFilter.rebuild());
+        assertFalse(usernameFilter.isActive());
+        assertTrue(usernameFilter.mightExist("john"));
+        assertFalse(usernameFilter.needsProbe("john"));
+        verifyNoInteractions(userRepository, transactionManager);
+    }
+}
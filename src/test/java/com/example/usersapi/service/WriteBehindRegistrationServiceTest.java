@@ -0,0 +1,136 @@
+package com.example.usersapi.service;
+
+import com.example.usersapi.exception.DuplicateUsernameException;
+import com.example.usersapi.model.QueuedRegistration;
+import com.example.usersapi.model.User;
+import com.example.usersapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the WriteBehindRegistrationService class, running against the embedded H2 database
+ * with a journal that holds one registration left by a previous run.
+ */
+@SpringBootTest(properties = {"usersapi.write-behind.enabled=true", "usersapi.write-behind.journal.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:writebehindtest"})
+@AutoConfigureMockMvc
+public class WriteBehindRegistrationServiceTest {
+
+    private static final Path JOURNAL = Paths.get("target", "writebehindtest", "registrations.journal");
+
+    @Autowired
+    private WriteBehindRegistrationService writeBehindService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        Files.deleteIfExists(JOURNAL);
+        try (RegistrationJournal journal = new RegistrationJournal(JOURNAL, true)) {
+            journal.append("replayed-ticket", ("{\"username\":\"replayed\",\"birthdate\":\"1990-01-01\","
+                    + "\"countryOfResidence\":\"France\"}").getBytes(StandardCharsets.UTF_8));
+            // A record torn by a crash, which must be ignored
+            Files.write(JOURNAL, new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+        }
+        registry.add("usersapi.write-behind.journal.path", JOURNAL::toString);
+    }
+
+    /**
+     * Test case for the registrations found in the journal on startup, which are committed before the
+     * application starts and cleared from the journal.
+     */
+    @Test
+    void testJournalIsReplayedOnStartup() {
+        assertTrue(userRepository.existsByUsername("replayed"));
+        assertEquals(QueuedRegistration.Status.CREATED, writeBehindService.getRegistration("replayed-ticket").getStatus());
+    }
+
+    /**
+     * Test case for queued registrations, which complete once their group is committed. The clashing user is saved
+     * directly, so the username filter does not know it and the duplicate is only found when its group is committed.
+     */
+    @Test
+    void testSubmitCompletesOnceCommitted() throws Exception {
+        userRepository.save(new User("queued3", LocalDate.of(1990, 1, 1), "France", null, null));
+        QueuedRegistration first = writeBehindService.submit(new User("queued1", LocalDate.of(1990, 1, 1), "France", null, null));
+        QueuedRegistration second = writeBehindService.submit(new User("queued2", LocalDate.of(1990, 1, 1), "France", null, null));
+        QueuedRegistration clash = writeBehindService.submit(new User("queued3", LocalDate.of(1990, 1, 1), "France", null, null));
+
+        User registered = first.getCompletion().get(10, TimeUnit.SECONDS);
+        assertEquals(registered.getId(), first.getId());
+        assertEquals(QueuedRegistration.Status.CREATED, first.getStatus());
+        assertTrue(userRepository.findById(registered.getId()).isPresent());
+        assertNotNull(second.getCompletion().get(10, TimeUnit.SECONDS).getId());
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> clash.getCompletion().get(10, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof DuplicateUsernameException);
+        assertEquals(QueuedRegistration.Status.DUPLICATE, clash.getStatus());
+        assertThrows(DuplicateUsernameException.class,
+                () -> writeBehindService.submit(new User("queued1", LocalDate.of(1990, 1, 1), "France", null, null)));
+    }
+
+    /**
+     * Test case for the HTTP API in write-behind mode: 202 with a status URL that reports the outcome.
+     */
+    @Test
+    void testRegisterUserIsAccepted() throws Exception {
+        String location = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"accepted\",\"birthdate\":\"1990-01-01\",\"countryOfResidence\":\"France\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.username").value("accepted"))
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getHeader("Location");
+
+        String ticket = location.substring(location.lastIndexOf('/') + 1);
+        writeBehindService.getRegistration(ticket).getCompletion().get(10, TimeUnit.SECONDS);
+        mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CREATED"))
+                .andExpect(jsonPath("$.id").isNumber());
+
+        mockMvc.perform(get("/api/users/registrations/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test case for the journal, which is emptied once every journaled registration is committed.
+     */
+    @Test
+    void testJournalIsTruncatedWhenIdle() throws Exception {
+        writeBehindService.submit(new User("journaled", LocalDate.of(1990, 1, 1), "France", null, null))
+                .getCompletion().get(10, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((writeBehindService.getPendingCount() != 0 || Files.size(JOURNAL) != 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, Files.size(JOURNAL));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.usersapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the AdaptiveConcurrencyLimiter class.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    /**
+     * Test that requests beyond the limit are rejected until a request completes.
+     */
+    @Test
+    void rejectsBeyondLimitTest() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, 0.5, 100);
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release(1000);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    /**
+     * Test that the limit grows while latency is stable and shrinks when latency rises.
+     */
+    @Test
+    void limitFollowsLatencyTest() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100, 2.0, 0.5, 10);
+        long fast = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int window = 0; window < 5; window++) {
+            runWindow(limiter, fast);
+        }
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        long slow = TimeUnit.MILLISECONDS.toNanos(50);
+        runWindow(limiter, slow);
+        int shrunk = limiter.getLimit();
+        assertThat(shrunk).isLessThan(grown);
+        runWindow(limiter, slow);
+        assertThat(limiter.getLimit()).isLessThan(shrunk);
+    }
+
+    private static void runWindow(AdaptiveConcurrencyLimiter limiter, long latencyNanos) {
+        int admitted = 0;
+        while (admitted < 10 && limiter.tryAcquire()) {
+            admitted++;
+        }
+        while (limiter.getInFlight() < limiter.getLimit() && limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(latencyNanos);
+        }
+    }
+}
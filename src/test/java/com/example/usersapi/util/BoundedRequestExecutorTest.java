@@ -0,0 +1,51 @@
+package com.example.usersapi.util;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the BoundedRequestExecutor class.
+ */
+public class BoundedRequestExecutorTest {
+
+    /**
+     * Test that calls run on the pool with the MDC of their caller, and that calls beyond the threads and the
+     * queue are refused at once.
+     */
+    @Test
+    void boundedExecutionTest() throws Exception {
+        try (BoundedRequestExecutor executor = new BoundedRequestExecutor(1, 1, "test-")) {
+            CountDownLatch release = new CountDownLatch(1);
+            MDC.put("correlationId", "abc");
+            CompletableFuture<String> running = executor.submit(() -> {
+                await(release);
+                return Thread.currentThread().getName() + " " + MDC.get("correlationId");
+            });
+            MDC.remove("correlationId");
+            CompletableFuture<String> queued = executor.submit(() -> MDC.get("correlationId"));
+
+            assertThatThrownBy(() -> executor.submit(() -> "refused")).isInstanceOf(RejectedExecutionException.class);
+            assertThat(executor.getPending()).isEqualTo(2);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("test-1 abc");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isNull();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
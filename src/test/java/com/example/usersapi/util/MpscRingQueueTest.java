@@ -0,0 +1,85 @@
+package com.example.usersapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the MpscRingQueue class.
+ */
+public class MpscRingQueueTest {
+
+    /**
+     * Test that elements are polled in the order they were offered, and that a full queue refuses elements.
+     */
+    @Test
+    void fifoAndBoundedTest() {
+        MpscRingQueue<Integer> queue = new MpscRingQueue<>(3);
+        assertThat(queue.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(queue.offer(i)).isTrue();
+        }
+        assertThat(queue.offer(4)).isFalse();
+        assertThat(queue.size()).isEqualTo(4);
+
+        assertThat(queue.poll()).isEqualTo(0);
+        assertThat(queue.offer(4)).isTrue();
+        List<Integer> drained = new ArrayList<>();
+        assertThat(queue.drain(drained::add, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(1, 2, 3, 4);
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.size()).isZero();
+    }
+
+    /**
+     * Test that every element offered by concurrent producers is consumed exactly once, in per-producer order.
+     */
+    @Test
+    void concurrentProducersTest() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingQueue<long[]> queue = new MpscRingQueue<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!queue.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        long[] next = new long[producers];
+        int consumed = 0;
+        while (consumed < producers * perProducer) {
+            long[] element = queue.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            assertThat(element[1]).isEqualTo(next[(int) element[0]]);
+            next[(int) element[0]]++;
+            consumed++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(queue.poll()).isNull();
+    }
+}
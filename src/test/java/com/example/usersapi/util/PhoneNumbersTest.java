@@ -0,0 +1,60 @@
+package com.example.usersapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PhoneNumbers class.
+ */
+public class PhoneNumbersTest {
+
+    /**
+     * Test case for international numbers, with a "+" or "00" prefix, whatever the country of residence.
+     */
+    @Test
+    void testNormalizeInternationalNumbers() {
+        assertEquals("+33612345678", PhoneNumbers.normalize("+33 6 12 34 56 78", null));
+        assertEquals("+33612345678", PhoneNumbers.normalize("0033612345678", "IT"));
+        assertEquals("+442079460958", PhoneNumbers.normalize(" +44 (20) 7946-0958 ", "FR"));
+        assertEquals("+35312345678", PhoneNumbers.normalize("+353.1234.5678", null));
+    }
+
+    /**
+     * Test case for national numbers, read with the trunk prefix and lengths of the country of residence.
+     */
+    @Test
+    void testNormalizeNationalNumbers() {
+        assertEquals("+33612345678", PhoneNumbers.normalize("06 12 34 56 78", "FR"));
+        assertEquals("+33612345678", PhoneNumbers.normalize("6 12 34 56 78", "FR"));
+        assertEquals("+14155552671", PhoneNumbers.normalize("1 (415) 555-2671", "US"));
+        assertEquals("+390612345678", PhoneNumbers.normalize("06 1234 5678", "IT"));
+        assertEquals("+493012345678", PhoneNumbers.normalize("030/1234 5678", "DE"));
+    }
+
+    /**
+     * Test case for invalid numbers, which are kept as entered once trimmed.
+     */
+    @Test
+    void testInvalidNumbersAreKept() {
+        assertNull(PhoneNumbers.normalize(null, "FR"));
+        assertEquals("06 12 34 56 78", PhoneNumbers.normalize(" 06 12 34 56 78 ", null));
+        assertEquals("0612", PhoneNumbers.normalize("0612", "FR"));
+        assertEquals("06 12 34 56 78 90", PhoneNumbers.normalize("06 12 34 56 78 90", "FR"));
+        assertEquals("+0612345678", PhoneNumbers.normalize("+0612345678", null));
+        assertEquals("call 0612345678", PhoneNumbers.normalize("call 0612345678", "FR"));
+        assertEquals("+33 6 12 34 56 78 90 12 34", PhoneNumbers.normalize("+33 6 12 34 56 78 90 12 34", null));
+    }
+
+    /**
+     * Test case for the E.164 check of stored numbers.
+     */
+    @Test
+    void testIsE164() {
+        assertTrue(PhoneNumbers.isE164("+33612345678"));
+        assertFalse(PhoneNumbers.isE164("+33 6 12 34 56 78"));
+        assertFalse(PhoneNumbers.isE164("0612345678"));
+        assertFalse(PhoneNumbers.isE164("0033612345678"));
+        assertFalse(PhoneNumbers.isE164(null));
+    }
+}
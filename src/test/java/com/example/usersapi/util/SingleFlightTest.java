@@ -0,0 +1,89 @@
+package com.example.usersapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the SingleFlight class.
+ */
+public class SingleFlightTest {
+
+    /**
+     * Test that callers arriving during a call share its result, and that the key is released afterwards.
+     */
+    @Test
+    void concurrentCallsAreCoalescedTest() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                return calls.incrementAndGet();
+            }));
+            awaitCoalesced(singleFlight, 0);
+            Future<Integer> follower = executor.submit(() -> singleFlight.execute("key", calls::incrementAndGet));
+            Future<Integer> other = executor.submit(() -> singleFlight.execute("other", () -> 42));
+            assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            awaitCoalesced(singleFlight, 1);
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(singleFlight.execute("key", calls::incrementAndGet)).isEqualTo(2);
+            assertThat(singleFlight.executedCalls()).isEqualTo(3);
+            assertThat(singleFlight.coalescedCalls()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that the exception of a call is thrown to every caller sharing it.
+     */
+    @Test
+    void exceptionIsSharedTest() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                throw new IllegalStateException("failed");
+            }));
+            awaitCoalesced(singleFlight, 0);
+            Future<Integer> follower = executor.submit(() -> singleFlight.execute("key", () -> 0));
+            awaitCoalesced(singleFlight, 1);
+            release.countDown();
+
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitCoalesced(SingleFlight<?, ?> singleFlight, long coalesced) throws InterruptedException {
+        for (int i = 0; i < 250 && (singleFlight.executedCalls() == 0 || singleFlight.coalescedCalls() < coalesced); i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.usersapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the TokenBucketRateLimiter class.
+ */
+public class TokenBucketRateLimiterTest {
+
+    /**
+     * Test that a client may send its burst at once, is then limited to the rate, and that clients are independent.
+     */
+    @Test
+    void burstThenRateTest() {
+        AtomicLong clock = new AtomicLong(42);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 3, Duration.ofMinutes(1), 100, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("a")).isZero();
+        }
+        long wait = limiter.tryAcquire("a");
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(limiter.tryAcquire("b")).isZero();
+
+        clock.addAndGet(wait);
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("a")).isZero();
+        }
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.getTrackedClients()).isEqualTo(2);
+    }
+}